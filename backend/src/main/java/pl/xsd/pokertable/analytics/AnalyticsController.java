@@ -0,0 +1,34 @@
+package pl.xsd.pokertable.analytics;
+
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@AllArgsConstructor
+public class AnalyticsController {
+
+	private final AnalyticsService analyticsService;
+
+	@GetMapping("/summary")
+	public ResponseEntity<AnalyticsSummary> getSummary(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(analyticsService.getSummary(from, to));
+	}
+
+	@GetMapping("/velocity")
+	public ResponseEntity<List<MonthlyVelocity>> getVelocity(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(analyticsService.getVelocity(from, to));
+	}
+}
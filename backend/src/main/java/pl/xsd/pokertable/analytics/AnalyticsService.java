@@ -0,0 +1,69 @@
+package pl.xsd.pokertable.analytics;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+import pl.xsd.pokertable.userstory.StoryTotals;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Cross-table estimation reports. They are served from {@link TableSummary} rows, written in the same transaction
+ * that closes a table, so a report reads one row per closed table and never scans the live user story or developer
+ * tables.
+ */
+@Service
+public class AnalyticsService {
+
+	private final TableSummaryRepository tableSummaryRepository;
+	private final UserStoryRepository userStoryRepository;
+
+	public AnalyticsService(TableSummaryRepository tableSummaryRepository, UserStoryRepository userStoryRepository) {
+		this.tableSummaryRepository = tableSummaryRepository;
+		this.userStoryRepository = userStoryRepository;
+	}
+
+	// Before commit so that the summary is only written, and always written, when the close itself commits
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void onTableClosed(TableClosedEvent event) {
+		StoryTotals totals = userStoryRepository.sumEstimatesByPokerTableId(event.tableId());
+		TableSummary summary = new TableSummary(event.tableId(), event.closedAt(), totals.stories(), totals.points());
+		event.votes().values().forEach(vote -> summary.getVoteHistogram().merge(vote, 1L, Long::sum));
+		tableSummaryRepository.save(summary);
+	}
+
+	@Transactional(readOnly = true)
+	public AnalyticsSummary getSummary(LocalDate from, LocalDate to) {
+		LocalDate start = from == null ? LocalDate.EPOCH : from;
+		LocalDate end = to == null ? LocalDate.now() : to;
+		LocalDateTime[] range = range(start, end);
+
+		AnalyticsTotals totals = tableSummaryRepository.sumBetween(range[0], range[1]);
+		SortedMap<Integer, Long> histogram = new TreeMap<>();
+		tableSummaryRepository.sumVotesBetween(range[0], range[1])
+				.forEach(count -> histogram.put(count.vote(), count.count()));
+
+		Double average = totals.stories() == 0 ? null : (double) totals.points() / totals.stories();
+		return new AnalyticsSummary(start, end, totals.tables(), totals.stories(), totals.points(), average, histogram);
+	}
+
+	@Transactional(readOnly = true)
+	public List<MonthlyVelocity> getVelocity(LocalDate from, LocalDate to) {
+		LocalDateTime[] range = range(from == null ? LocalDate.EPOCH : from, to == null ? LocalDate.now() : to);
+		return tableSummaryRepository.sumByMonthBetween(range[0], range[1]);
+	}
+
+	private LocalDateTime[] range(LocalDate from, LocalDate to) {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("'from' must not be after 'to'");
+		}
+		return new LocalDateTime[]{from.atStartOfDay(), to.plusDays(1).atStartOfDay()};
+	}
+}
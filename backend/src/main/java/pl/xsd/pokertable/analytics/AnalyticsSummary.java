@@ -0,0 +1,12 @@
+package pl.xsd.pokertable.analytics;
+
+import java.time.LocalDate;
+import java.util.SortedMap;
+
+/**
+ * Estimation totals of the tables closed between {@code from} and {@code to}, both inclusive.
+ * {@code averagePointsPerStory} is {@code null} when no story was closed in that range.
+ */
+public record AnalyticsSummary(LocalDate from, LocalDate to, long tables, long stories, long points,
+							   Double averagePointsPerStory, SortedMap<Integer, Long> voteHistogram) {
+}
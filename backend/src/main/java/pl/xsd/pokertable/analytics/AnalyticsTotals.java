@@ -0,0 +1,4 @@
+package pl.xsd.pokertable.analytics;
+
+public record AnalyticsTotals(Long tables, Long stories, Long points) {
+}
@@ -0,0 +1,4 @@
+package pl.xsd.pokertable.analytics;
+
+public record MonthlyVelocity(Integer year, Integer month, Long tables, Long stories, Long points) {
+}
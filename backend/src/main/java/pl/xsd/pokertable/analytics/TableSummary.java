@@ -0,0 +1,49 @@
+package pl.xsd.pokertable.analytics;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totals of one closed poker table, written once when the table is closed. Reports aggregate these rows, one per
+ * table, instead of the user stories and developers behind them.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "closed_at"))
+@NoArgsConstructor
+@Getter
+@Setter
+public class TableSummary {
+
+	@Id
+	@Column(name = "poker_table_id")
+	private Long pokerTableId;
+
+	@Column(name = "closed_at", nullable = false)
+	private LocalDateTime closedAt;
+
+	@Column(nullable = false)
+	private Long storyCount;
+
+	@Column(nullable = false)
+	private Long totalPoints;
+
+	// Vote value -> number of developers who cast it
+	@ElementCollection
+	@CollectionTable(name = "table_summary_votes", joinColumns = @JoinColumn(name = "poker_table_id"))
+	@MapKeyColumn(name = "vote")
+	@Column(name = "votes", nullable = false)
+	private Map<Integer, Long> voteHistogram = new HashMap<>();
+
+	public TableSummary(Long pokerTableId, LocalDateTime closedAt, Long storyCount, Long totalPoints) {
+		this.pokerTableId = pokerTableId;
+		this.closedAt = closedAt;
+		this.storyCount = storyCount;
+		this.totalPoints = totalPoints;
+	}
+}
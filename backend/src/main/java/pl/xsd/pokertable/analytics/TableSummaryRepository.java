@@ -0,0 +1,28 @@
+package pl.xsd.pokertable.analytics;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TableSummaryRepository extends JpaRepository<TableSummary, Long> {
+
+	@Query("select new pl.xsd.pokertable.analytics.AnalyticsTotals(count(s), coalesce(sum(s.storyCount), 0L), " +
+			"coalesce(sum(s.totalPoints), 0L)) from TableSummary s where s.closedAt >= :from and s.closedAt < :to")
+	AnalyticsTotals sumBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("select new pl.xsd.pokertable.analytics.VoteCount(key(v), sum(value(v))) from TableSummary s " +
+			"join s.voteHistogram v where s.closedAt >= :from and s.closedAt < :to group by key(v)")
+	List<VoteCount> sumVotesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("select new pl.xsd.pokertable.analytics.MonthlyVelocity(extract(year from s.closedAt), " +
+			"extract(month from s.closedAt), count(s), sum(s.storyCount), sum(s.totalPoints)) from TableSummary s " +
+			"where s.closedAt >= :from and s.closedAt < :to " +
+			"group by extract(year from s.closedAt), extract(month from s.closedAt) " +
+			"order by extract(year from s.closedAt), extract(month from s.closedAt)")
+	List<MonthlyVelocity> sumByMonthBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
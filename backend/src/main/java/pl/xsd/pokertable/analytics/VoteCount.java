@@ -0,0 +1,4 @@
+package pl.xsd.pokertable.analytics;
+
+public record VoteCount(Integer vote, Long count) {
+}
@@ -0,0 +1,41 @@
+package pl.xsd.pokertable.archive;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed poker table moved out of the hot tables by {@link TableArchiver}. The table, its developers and its
+ * user stories are kept as a single gzipped JSON {@link TableArchive}, keyed by the id the table had.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "closed_at, poker_table_id"))
+@NoArgsConstructor
+@Getter
+@Setter
+public class ArchivedTable {
+
+	@Id
+	@Column(name = "poker_table_id")
+	private Long pokerTableId;
+
+	@Column(nullable = false)
+	private LocalDateTime closedAt;
+
+	@Column(nullable = false)
+	private LocalDateTime archivedAt;
+
+	@Column(nullable = false, length = Length.LONG32)
+	private byte[] payload;
+
+	public ArchivedTable(Long pokerTableId, LocalDateTime closedAt, LocalDateTime archivedAt, byte[] payload) {
+		this.pokerTableId = pokerTableId;
+		this.closedAt = closedAt;
+		this.archivedAt = archivedAt;
+		this.payload = payload;
+	}
+}
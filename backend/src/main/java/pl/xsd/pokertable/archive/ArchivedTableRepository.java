@@ -0,0 +1,30 @@
+package pl.xsd.pokertable.archive;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedTableRepository extends JpaRepository<ArchivedTable, Long> {
+
+	// Keyset pages in closing order, served by the (closed_at, poker_table_id) index
+	@Query("select a from ArchivedTable a where a.closedAt >= :from and a.closedAt < :to " +
+			"and (a.closedAt > :afterClosedAt or (a.closedAt = :afterClosedAt and a.pokerTableId > :afterId)) " +
+			"order by a.closedAt, a.pokerTableId")
+	List<ArchivedTable> findClosedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+										  @Param("afterClosedAt") LocalDateTime afterClosedAt, @Param("afterId") Long afterId, Limit limit);
+
+	@Query("select a.closedAt from ArchivedTable a where a.pokerTableId = :pokerTableId")
+	Optional<LocalDateTime> findClosedAtByPokerTableId(@Param("pokerTableId") Long pokerTableId);
+
+	List<ArchivedTable> findByPokerTableIdGreaterThanOrderByPokerTableId(Long afterId, Limit limit);
+
+	@Query("select count(a) from ArchivedTable a where a.closedAt >= :from and a.closedAt < :to")
+	long countClosedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,17 @@
+package pl.xsd.pokertable.archive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything kept of an archived poker table: the table itself, its developers and its backlog in rank order.
+ */
+public record TableArchive(String name, LocalDateTime createdAt, LocalDateTime closedAt, Integer roundNumber,
+						   Long currentStoryId, List<ArchivedDeveloper> developers, List<ArchivedStory> stories) {
+
+	public record ArchivedDeveloper(Long id, String name, Integer vote) {
+	}
+
+	public record ArchivedStory(Long id, String title, String description, Integer estimatedPoints, String rank) {
+	}
+}
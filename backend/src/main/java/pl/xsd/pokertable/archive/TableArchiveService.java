@@ -0,0 +1,196 @@
+package pl.xsd.pokertable.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.StoryVoteRepository;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves closed poker tables, with their developers, user stories and story votes, into {@link ArchivedTable} rows
+ * and reads them back. An archived table is read as a detached {@link PokerTable} carrying its developers and
+ * stories, so read paths can use it like a table that was never archived; it must not be saved.
+ * <p>
+ * Vote rounds and table summaries only refer to the table by id and stay where they are. Archived stories leave
+ * the search index, which only finds stories that can still be edited, but stay in the similarity index unless
+ * {@code pokertable.archive.similarity.keep-stories} is {@code false}: their estimates are history worth
+ * suggesting from.
+ */
+@Service
+public class TableArchiveService {
+
+	static final int STORY_PAGE_SIZE = 100;
+
+	private final PokerTableRepository pokerTableRepository;
+	private final DeveloperRepository developerRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final StoryVoteRepository storyVoteRepository;
+	private final ArchivedTableRepository archivedTableRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectMapper objectMapper;
+
+	public TableArchiveService(PokerTableRepository pokerTableRepository, DeveloperRepository developerRepository,
+							   UserStoryRepository userStoryRepository, StoryVoteRepository storyVoteRepository,
+							   ArchivedTableRepository archivedTableRepository, ApplicationEventPublisher eventPublisher,
+							   ObjectMapper objectMapper) {
+		this.pokerTableRepository = pokerTableRepository;
+		this.developerRepository = developerRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.storyVoteRepository = storyVoteRepository;
+		this.archivedTableRepository = archivedTableRepository;
+		this.eventPublisher = eventPublisher;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Archives up to {@code batchSize} tables closed before {@code closedBefore}, oldest ids first, in one
+	 * transaction. Returns the number of tables archived, fewer than {@code batchSize} once none are left.
+	 */
+	@Transactional
+	public int archiveBatch(LocalDateTime closedBefore, int batchSize) {
+		List<Long> tableIds = pokerTableRepository.findIdsClosedBefore(closedBefore, Limit.of(batchSize));
+		if (tableIds.isEmpty()) {
+			return 0;
+		}
+
+		LocalDateTime archivedAt = LocalDateTime.now();
+		List<ArchivedTable> archived = new ArrayList<>(tableIds.size());
+		List<UserStory> archivedStories = new ArrayList<>();
+		for (PokerTable table : pokerTableRepository.findAllById(tableIds)) {
+			List<UserStory> stories = userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(table.getId());
+			archived.add(new ArchivedTable(table.getId(), table.getClosedAt(), archivedAt, encode(archive(table, stories))));
+			archivedStories.addAll(stories);
+		}
+		archivedTableRepository.saveAll(archived);
+
+		if (!archivedStories.isEmpty()) {
+			storyVoteRepository.deleteByStoryIds(archivedStories.stream().map(UserStory::getId).toList());
+		}
+		userStoryRepository.deleteByPokerTableIds(tableIds);
+		developerRepository.deleteByPokerTableIds(tableIds);
+		pokerTableRepository.deleteAllByIdInBatch(tableIds);
+
+		eventPublisher.publishEvent(new TablesArchivedEvent(tableIds, archivedStories.stream().map(StoryDocument::of).toList()));
+		return archived.size();
+	}
+
+	@Transactional(readOnly = true)
+	public Optional<PokerTable> findArchivedTable(Long tableId) {
+		return archivedTableRepository.findById(tableId)
+				.map(archived -> restore(tableId, decode(archived.getPayload())));
+	}
+
+	@Transactional(readOnly = true)
+	public Optional<LocalDateTime> findClosedAt(Long tableId) {
+		return archivedTableRepository.findClosedAtByPokerTableId(tableId);
+	}
+
+	/**
+	 * Passes every archived story to {@code consumer}, reading the archives {@link #STORY_PAGE_SIZE} tables at a
+	 * time, each page in its own short transaction, also when called in a transaction that would keep them all.
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void forEachArchivedStory(Consumer<StoryDocument> consumer) {
+		Long afterId = Long.MIN_VALUE;
+		List<ArchivedTable> page;
+		do {
+			page = archivedTableRepository.findByPokerTableIdGreaterThanOrderByPokerTableId(afterId, Limit.of(STORY_PAGE_SIZE));
+			for (ArchivedTable archived : page) {
+				TableArchive archive = decode(archived.getPayload());
+				archive.stories().forEach(story -> consumer.accept(new StoryDocument(story.id(), story.title(),
+						story.description(), story.estimatedPoints(), archived.getPokerTableId())));
+				afterId = archived.getPokerTableId();
+			}
+		} while (page.size() == STORY_PAGE_SIZE);
+	}
+
+	/**
+	 * Reads back an archived table loaded by the caller, like {@link #findArchivedTable} does.
+	 */
+	public PokerTable restore(ArchivedTable archived) {
+		return restore(archived.getPokerTableId(), decode(archived.getPayload()));
+	}
+
+	private static TableArchive archive(PokerTable table, List<UserStory> stories) {
+		List<TableArchive.ArchivedDeveloper> developers = table.getDevelopers() == null ? List.of() : table.getDevelopers().stream()
+				.sorted(Comparator.comparing(Developer::getId))
+				.map(developer -> new TableArchive.ArchivedDeveloper(developer.getId(), developer.getName(), developer.getVote()))
+				.toList();
+		return new TableArchive(table.getName(), table.getCreatedAt(), table.getClosedAt(), table.getRoundNumber(),
+				table.getCurrentStoryId(), developers,
+				stories.stream()
+						.map(story -> new TableArchive.ArchivedStory(story.getId(), story.getTitle(), story.getDescription(),
+								story.getEstimatedPoints(), story.getRank()))
+						.toList());
+	}
+
+	private static PokerTable restore(Long tableId, TableArchive archive) {
+		PokerTable table = new PokerTable(tableId, archive.name(), true);
+		table.setCreatedAt(archive.createdAt());
+		table.setClosedAt(archive.closedAt());
+		table.setRoundNumber(archive.roundNumber());
+		table.setCurrentStoryId(archive.currentStoryId());
+
+		table.setDevelopers(new HashSet<>());
+		for (TableArchive.ArchivedDeveloper archived : archive.developers()) {
+			Developer developer = new Developer(null, archived.name());
+			developer.setId(archived.id());
+			developer.setVote(archived.vote());
+			developer.setPokerTable(table);
+			table.getDevelopers().add(developer);
+		}
+
+		// Kept in backlog order, which is also the order of the CSV export
+		table.setUserStories(new LinkedHashSet<>());
+		for (TableArchive.ArchivedStory archived : archive.stories()) {
+			UserStory story = new UserStory(archived.id(), archived.title(), archived.description(), archived.estimatedPoints(), table);
+			story.setRank(archived.rank());
+			table.getUserStories().add(story);
+		}
+		return table;
+	}
+
+	private byte[] encode(TableArchive archive) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			objectMapper.writeValue(out, archive);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private TableArchive decode(byte[] payload) {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+			return objectMapper.readValue(in, TableArchive.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Corrupted archive of a poker table", e);
+		}
+	}
+}
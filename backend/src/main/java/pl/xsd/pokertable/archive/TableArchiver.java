@@ -0,0 +1,80 @@
+package pl.xsd.pokertable.archive;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.xsd.pokertable.bulkhead.Bulkheads;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically archives tables closed for longer than {@code pokertable.archive.after}, in batches of
+ * {@code pokertable.archive.batch-size} tables. Every batch is its own transaction, so a run over a large backlog
+ * of closed tables never holds many rows locked, and a failed batch is picked up again by the next run.
+ * <p>
+ * Runs on a thread of its own, not on the scheduler thread: a run over a large backlog takes a while, and the
+ * scheduler also reveals timed rounds every second. A run that is due while the previous one is still going is
+ * skipped.
+ */
+@Slf4j
+@Component
+public class TableArchiver {
+
+	private final TableArchiveService tableArchiveService;
+	private final Duration after;
+	private final int batchSize;
+	private final ExecutorService executor;
+
+	public TableArchiver(TableArchiveService tableArchiveService,
+						 @Value("${pokertable.archive.after:30d}") Duration after,
+						 @Value("${pokertable.archive.batch-size:50}") int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("pokertable.archive.batch-size must be at least 1");
+		}
+		this.tableArchiveService = tableArchiveService;
+		this.after = after;
+		this.batchSize = batchSize;
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), task -> {
+			Thread worker = new Thread(Bulkheads.batch(task), "archiver");
+			worker.setDaemon(true);
+			return worker;
+		}, new ThreadPoolExecutor.DiscardPolicy());
+	}
+
+	@Scheduled(fixedDelayString = "${pokertable.archive.interval:1h}", initialDelayString = "${pokertable.archive.interval:1h}")
+	public void archiveClosedTables() {
+		executor.execute(this::archive);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void archive() {
+		// Fixed for the whole run, tables closed while it runs wait for the next one
+		LocalDateTime closedBefore = LocalDateTime.now().minus(after);
+		int total = 0;
+		int archived;
+		do {
+			try {
+				archived = tableArchiveService.archiveBatch(closedBefore, batchSize);
+			} catch (RuntimeException e) {
+				log.warn("Could not archive closed poker tables, {} archived in this run", total, e);
+				return;
+			}
+			total += archived;
+		} while (archived == batchSize);
+
+		if (total > 0) {
+			log.info("Archived {} poker tables closed before {}", total, closedBefore);
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package pl.xsd.pokertable.archive;
+
+import pl.xsd.pokertable.userstory.StoryDocument;
+
+import java.util.List;
+
+/**
+ * Published once per archived batch, with the ids of the tables moved out of the live tables and their stories as
+ * they were archived.
+ */
+public record TablesArchivedEvent(List<Long> tableIds, List<StoryDocument> stories) {
+}
@@ -0,0 +1,143 @@
+package pl.xsd.pokertable.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How many requests the server takes on at once, found out from their latency (AIMD, as TCP does for its window).
+ * A request slower than {@code pokertable.limiter.latency-threshold} means the database or the CPUs are
+ * overloaded, and the limit is multiplied by {@code pokertable.limiter.backoff-ratio}. A fast one while the limit
+ * is half used or more adds about one to the limit for every limit's worth of requests. The limit stays from
+ * {@code pokertable.limiter.min-limit} to {@code pokertable.limiter.max-limit}.
+ * <p>
+ * Requests above the limit are shed instead of queued, least important first: each {@link Priority} may only use
+ * its share of the limit, so as the limit falls sheddable requests are refused first, then normal ones, and
+ * critical ones last.
+ */
+@Component
+public class AdaptiveLimiter implements MeterBinder {
+
+	static final String LIMIT = "pokertable.limiter.limit";
+	static final String IN_FLIGHT = "pokertable.limiter.in-flight";
+	static final String SHED = "pokertable.limiter.shed";
+
+	enum Priority {
+		/**
+		 * Votes and joining a table, what a planning session cannot do without.
+		 */
+		CRITICAL(1.0),
+		NORMAL(0.8),
+		/**
+		 * Exports, listings and anything else that can be tried again later.
+		 */
+		SHEDDABLE(0.5);
+
+		private final double share;
+
+		Priority(double share) {
+			this.share = share;
+		}
+	}
+
+	private final double minLimit;
+	private final double maxLimit;
+	private final long latencyThresholdNanos;
+	private final double backoffRatio;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+	private volatile double limit;
+
+	public AdaptiveLimiter(@Value("${pokertable.limiter.initial-limit:20}") int initialLimit,
+						   @Value("${pokertable.limiter.min-limit:4}") int minLimit,
+						   @Value("${pokertable.limiter.max-limit:200}") int maxLimit,
+						   @Value("${pokertable.limiter.latency-threshold:250ms}") Duration latencyThreshold,
+						   @Value("${pokertable.limiter.backoff-ratio:0.9}") double backoffRatio) {
+		if (minLimit < 2 || minLimit > initialLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("pokertable.limiter limits must be 2 <= min-limit <= initial-limit <= max-limit");
+		}
+		if (backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalArgumentException("pokertable.limiter.backoff-ratio must be between 0 and 1");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyThresholdNanos = latencyThreshold.toNanos();
+		this.backoffRatio = backoffRatio;
+		this.limit = initialLimit;
+		for (Priority priority : Priority.values()) {
+			shed.put(priority, new LongAdder());
+		}
+	}
+
+	/**
+	 * Admits a request unless as many requests are in flight as its priority's share of the limit. Every admitted
+	 * request must be released once, with {@link #release(long)} or {@link #release()}.
+	 */
+	boolean tryAcquire(Priority priority) {
+		// At least one request of any priority, so nothing starves completely
+		int allowed = Math.max(1, (int) (limit * priority.share));
+		while (true) {
+			int current = inFlight.get();
+			if (current >= allowed) {
+				shed.get(priority).increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Releases a request and adjusts the limit to how long it took.
+	 */
+	void release(long latencyNanos) {
+		int current = inFlight.getAndDecrement();
+		synchronized (this) {
+			if (latencyNanos > latencyThresholdNanos) {
+				limit = Math.max(minLimit, limit * backoffRatio);
+			} else if (current * 2 >= limit) {
+				// Only when the limit was what held requests back, an idle server learns nothing about it
+				limit = Math.min(maxLimit, limit + 1 / limit);
+			}
+		}
+	}
+
+	/**
+	 * Releases a request whose latency says nothing about the load, like a streamed download.
+	 */
+	void release() {
+		inFlight.decrementAndGet();
+	}
+
+	double limit() {
+		return limit;
+	}
+
+	int inFlight() {
+		return inFlight.get();
+	}
+
+	long shed(Priority priority) {
+		return shed.get(priority).sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(LIMIT, this, AdaptiveLimiter::limit).description("Requests taken on at once").register(registry);
+		Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get).description("Requests in flight").register(registry);
+		for (Priority priority : Priority.values()) {
+			FunctionCounter.builder(SHED, shed.get(priority), LongAdder::sum).tag("priority", priority.name().toLowerCase())
+					.description("Requests refused with a 503").register(registry);
+		}
+	}
+}
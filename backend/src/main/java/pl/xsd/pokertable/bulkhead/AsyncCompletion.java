@@ -0,0 +1,60 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs an action once when an asynchronous request is done, for filters that hold something for the whole request
+ * and not only until the request thread returns.
+ */
+final class AsyncCompletion implements AsyncListener {
+
+	private final Runnable action;
+	private final AtomicBoolean done = new AtomicBoolean();
+
+	private AsyncCompletion(Runnable action) {
+		this.action = action;
+	}
+
+	/**
+	 * Runs {@code action} when the request is done, right away unless it was started asynchronously.
+	 */
+	static void whenDone(HttpServletRequest request, Runnable action) {
+		if (request.isAsyncStarted()) {
+			request.getAsyncContext().addListener(new AsyncCompletion(action));
+		} else {
+			action.run();
+		}
+	}
+
+	@Override
+	public void onComplete(AsyncEvent event) {
+		run();
+	}
+
+	@Override
+	public void onTimeout(AsyncEvent event) {
+		run();
+	}
+
+	@Override
+	public void onError(AsyncEvent event) {
+		run();
+	}
+
+	@Override
+	public void onStartAsync(AsyncEvent event) {
+		// Starting again drops the listeners
+		event.getAsyncContext().addListener(this);
+	}
+
+	private void run() {
+		// A timeout or an error is followed by completion
+		if (done.compareAndSet(false, true)) {
+			action.run();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package pl.xsd.pokertable.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * At most {@code limit} holders of something shared, like request threads or connections of the pool. A permit is
+ * waited for at most {@code maxWait}, and whoever does not get one in time is turned away rather than queued behind
+ * the work already running.
+ * <p>
+ * Its meters are tagged with its name, for example
+ * {@code /actuator/metrics/pokertable.bulkhead.saturation?tag=bulkhead:batch-requests}.
+ */
+public class Bulkhead implements MeterBinder {
+
+	static final String ACTIVE = "pokertable.bulkhead.active";
+	static final String WAITING = "pokertable.bulkhead.waiting";
+	static final String SATURATION = "pokertable.bulkhead.saturation";
+	static final String REJECTED = "pokertable.bulkhead.rejected";
+
+	private final String name;
+	private final int limit;
+	private final Duration maxWait;
+	private final Semaphore permits;
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LongAdder rejected = new LongAdder();
+
+	public Bulkhead(String name, int limit, Duration maxWait) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("The " + name + " bulkhead needs a limit of at least 1");
+		}
+		this.name = name;
+		this.limit = limit;
+		this.maxWait = maxWait;
+		// Fair, so a caller that waited is not overtaken by one that just arrived
+		this.permits = new Semaphore(limit, true);
+	}
+
+	/**
+	 * Takes a permit, waiting at most {@code maxWait} for one. Every successful call must be matched by
+	 * {@link #release()}.
+	 */
+	public boolean tryAcquire() {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+		waiting.incrementAndGet();
+		try {
+			if (permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			waiting.decrementAndGet();
+		}
+		rejected.increment();
+		return false;
+	}
+
+	public void release() {
+		permits.release();
+	}
+
+	/**
+	 * Counts a caller turned away before it asked for a permit.
+	 */
+	void reject() {
+		rejected.increment();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	public int active() {
+		return limit - permits.availablePermits();
+	}
+
+	public double saturation() {
+		return (double) active() / limit;
+	}
+
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(ACTIVE, this, Bulkhead::active).tag("bulkhead", name)
+				.description("Permits held").register(registry);
+		Gauge.builder(WAITING, waiting, AtomicInteger::get).tag("bulkhead", name)
+				.description("Callers waiting for a permit").register(registry);
+		Gauge.builder(SATURATION, this, Bulkhead::saturation).tag("bulkhead", name)
+				.description("Share of the permits held, from 0 to 1").register(registry);
+		FunctionCounter.builder(REJECTED, rejected, LongAdder::sum).tag("bulkhead", name)
+				.description("Callers turned away").register(registry);
+	}
+}
@@ -0,0 +1,61 @@
+package pl.xsd.pokertable.bulkhead;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+public class BulkheadConfiguration {
+
+	static final String DEFAULT_BATCH_PATHS = "/tables/*/export-stories,/tables/*/exports,/tables/*/imports,"
+			+ "/exports/archive,/exports/*/file,/analytics/**,/user-stories/batch,/user-stories/bulk";
+	static final String DEFAULT_CRITICAL_PATHS = "/developers,/developers/join,/developers/*/vote,/developers/*/heartbeat,"
+			+ "/user-stories/*/votes";
+
+	@Bean
+	@ConditionalOnProperty(value = "pokertable.limiter.enabled", matchIfMissing = true)
+	public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(AdaptiveLimiter limiter,
+			@Value("${pokertable.limiter.critical-paths:" + DEFAULT_CRITICAL_PATHS + "}") List<String> criticalPaths,
+			@Value("${pokertable.limiter.sheddable-paths:" + DEFAULT_BATCH_PATHS + ",/user-stories/table/*,/user-stories/search}")
+			List<String> sheddablePaths,
+			@Value("${pokertable.limiter.excluded-paths:/actuator/**}") List<String> excludedPaths) {
+		FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+				new LoadSheddingFilter(limiter, criticalPaths, sheddablePaths, excludedPaths));
+		// Before the bulkheads, requests over the limit are refused before anything else looks at them
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+	@Bean
+	public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(Bulkheads bulkheads,
+			@Value("${pokertable.bulkheads.batch.paths:" + DEFAULT_BATCH_PATHS + "}") List<String> batchPaths) {
+		FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(new BulkheadFilter(bulkheads, batchPaths));
+		// Right after the read-your-writes filter and load shedding, a rejected request should cost as little as possible
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+
+	/**
+	 * Wraps the data source everything uses, the auto-configured pool or the routing one of the replica setup.
+	 */
+	@Bean
+	public static BeanPostProcessor bulkheadDataSourcePostProcessor(ObjectProvider<Bulkheads> bulkheads) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+					return new BulkheadDataSource(dataSource, bulkheads);
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,90 @@
+package pl.xsd.pokertable.bulkhead;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * The partition of the connection pool for heavy work: a thread doing heavy work, see {@link Bulkheads#isBatch()},
+ * takes a permit of the {@value Bulkheads#BATCH_CONNECTIONS} bulkhead with every connection and returns it when it
+ * closes the connection. Other threads get their connections straight from the pool.
+ * <p>
+ * The bulkheads are looked up at the first heavy connection, this wraps the data source before they exist.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+	private interface ConnectionSource {
+		Connection get() throws SQLException;
+	}
+
+	private final ObjectProvider<Bulkheads> bulkheads;
+
+	public BulkheadDataSource(DataSource targetDataSource, ObjectProvider<Bulkheads> bulkheads) {
+		super(targetDataSource);
+		this.bulkheads = bulkheads;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(super::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getConnection(() -> super.getConnection(username, password));
+	}
+
+	private Connection getConnection(ConnectionSource source) throws SQLException {
+		if (!Bulkheads.isBatch()) {
+			return source.get();
+		}
+		Bulkhead connections = bulkheads.getObject().batchConnections();
+		if (!connections.tryAcquire()) {
+			throw new SQLTransientConnectionException("No connection of the " + connections.getName()
+					+ " bulkhead became free within " + connections.getMaxWait().toMillis() + "ms");
+		}
+		try {
+			return releasingOnClose(source.get(), connections);
+		} catch (SQLException | RuntimeException e) {
+			connections.release();
+			throw e;
+		}
+	}
+
+	private static Connection releasingOnClose(Connection target, Bulkhead connections) {
+		boolean[] closed = {false};
+		return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[]{ConnectionProxy.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "getTargetConnection" -> target;
+					case "equals" -> proxy == args[0];
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "close" -> {
+						synchronized (closed) {
+							if (!closed[0]) {
+								closed[0] = true;
+								try {
+									target.close();
+								} finally {
+									connections.release();
+								}
+							}
+						}
+						yield null;
+					}
+					default -> {
+						try {
+							yield method.invoke(target, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						}
+					}
+				});
+	}
+}
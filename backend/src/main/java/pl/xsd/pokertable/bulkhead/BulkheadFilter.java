@@ -0,0 +1,75 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sorts requests into heavy ones, those whose path matches one of {@code pokertable.bulkheads.batch.paths}, and
+ * interactive ones, everything else, and admits them through {@link Bulkheads}. A heavy request that is not
+ * admitted gets a 503 with {@code Retry-After} at once, before it takes up anything but the request thread.
+ * <p>
+ * A heavy request runs as heavy work, so its connections come out of the batch share of the pool. An asynchronous
+ * one, like a streamed download, keeps its permit until the response is complete.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+	private static final String REJECTED_BODY = "{\"message\":\"The server is busy with other exports and imports, please try again later\"}";
+
+	private final Bulkheads bulkheads;
+	private final RequestPaths batchPaths;
+
+	public BulkheadFilter(Bulkheads bulkheads, List<String> batchPaths) {
+		this.bulkheads = bulkheads;
+		this.batchPaths = new RequestPaths(batchPaths);
+	}
+
+	boolean isBatch(HttpServletRequest request) {
+		// CORS preflights of heavy requests are as light as any other
+		if ("OPTIONS".equals(request.getMethod())) {
+			return false;
+		}
+		return batchPaths.matches(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (!isBatch(request)) {
+			bulkheads.enterInteractive();
+			try {
+				filterChain.doFilter(request, response);
+			} finally {
+				bulkheads.exitInteractive();
+			}
+			return;
+		}
+
+		if (!bulkheads.tryEnterBatch()) {
+			reject(response, REJECTED_BODY);
+			return;
+		}
+		Bulkheads.beginBatch();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			Bulkheads.endBatch();
+			AsyncCompletion.whenDone(request, bulkheads::exitBatch);
+		}
+	}
+
+	static void reject(HttpServletResponse response, String body) throws IOException {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().write(body);
+	}
+}
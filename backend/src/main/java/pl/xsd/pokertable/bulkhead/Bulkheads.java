@@ -0,0 +1,137 @@
+package pl.xsd.pokertable.bulkhead;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps heavy work (exports, imports, analytics, bulk changes) from slowing down interactive requests like votes,
+ * which share the request threads and the connection pool with it.
+ * <ul>
+ * <li>Heavy requests, see {@link BulkheadFilter}, run at most {@code pokertable.bulkheads.batch.max-concurrent}
+ * at a time, so the other request threads are always left to interactive ones. While
+ * {@code pokertable.bulkheads.batch.yield-at} interactive requests are in flight no heavy request is admitted at
+ * all; interactive requests are never held back.</li>
+ * <li>Threads doing heavy work, the heavy requests as well as the export and import workers, hold at most
+ * {@code pokertable.bulkheads.batch.connections} connections of the pool together, see
+ * {@link BulkheadDataSource}. The rest of the pool is reserved for interactive requests.</li>
+ * </ul>
+ * Work runs as heavy on the threads given a task wrapped by {@link #batch(Runnable)}.
+ */
+@Component
+public class Bulkheads implements MeterBinder {
+
+	public static final String BATCH_REQUESTS = "batch-requests";
+	public static final String BATCH_CONNECTIONS = "batch-connections";
+	static final String INTERACTIVE_REQUESTS = "interactive-requests";
+
+	private static final ThreadLocal<Boolean> BATCH = new ThreadLocal<>();
+
+	private final Bulkhead batchRequests;
+	private final Bulkhead batchConnections;
+	private final AtomicInteger interactiveRequests = new AtomicInteger();
+	private final int yieldAt;
+	private final int interactiveThreads;
+
+	public Bulkheads(@Value("${pokertable.bulkheads.batch.max-concurrent:4}") int maxConcurrent,
+					 @Value("${pokertable.bulkheads.batch.max-wait:0s}") Duration maxWait,
+					 @Value("${pokertable.bulkheads.batch.connections:5}") int connections,
+					 @Value("${pokertable.bulkheads.batch.connection-timeout:5s}") Duration connectionTimeout,
+					 @Value("${pokertable.bulkheads.batch.yield-at:50}") int yieldAt,
+					 @Value("${server.tomcat.threads.max:200}") int requestThreads,
+					 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+		if (maxConcurrent >= requestThreads) {
+			throw new IllegalArgumentException("pokertable.bulkheads.batch.max-concurrent must leave request threads of the "
+					+ requestThreads + " to interactive requests");
+		}
+		if (connections >= poolSize) {
+			throw new IllegalArgumentException("pokertable.bulkheads.batch.connections must leave connections of the pool of "
+					+ poolSize + " to interactive requests");
+		}
+		this.batchRequests = new Bulkhead(BATCH_REQUESTS, maxConcurrent, maxWait);
+		this.batchConnections = new Bulkhead(BATCH_CONNECTIONS, connections, connectionTimeout);
+		this.yieldAt = yieldAt;
+		this.interactiveThreads = requestThreads - maxConcurrent;
+	}
+
+	/**
+	 * Whether the current thread is doing heavy work.
+	 */
+	public static boolean isBatch() {
+		return BATCH.get() != null;
+	}
+
+	/**
+	 * {@code task}, run as heavy work on whichever thread runs it.
+	 */
+	public static Runnable batch(Runnable task) {
+		return () -> {
+			BATCH.set(Boolean.TRUE);
+			try {
+				task.run();
+			} finally {
+				BATCH.remove();
+			}
+		};
+	}
+
+	static void beginBatch() {
+		BATCH.set(Boolean.TRUE);
+	}
+
+	static void endBatch() {
+		BATCH.remove();
+	}
+
+	/**
+	 * Admits a heavy request, unless too many interactive ones are in flight or all permits stay taken for
+	 * {@code pokertable.bulkheads.batch.max-wait}.
+	 */
+	boolean tryEnterBatch() {
+		if (interactiveRequests.get() >= yieldAt) {
+			batchRequests.reject();
+			return false;
+		}
+		return batchRequests.tryAcquire();
+	}
+
+	void exitBatch() {
+		batchRequests.release();
+	}
+
+	void enterInteractive() {
+		interactiveRequests.incrementAndGet();
+	}
+
+	void exitInteractive() {
+		interactiveRequests.decrementAndGet();
+	}
+
+	Bulkhead batchRequests() {
+		return batchRequests;
+	}
+
+	Bulkhead batchConnections() {
+		return batchConnections;
+	}
+
+	int interactiveRequests() {
+		return interactiveRequests.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		batchRequests.bindTo(registry);
+		batchConnections.bindTo(registry);
+		// Interactive requests have no permits, their saturation is that of the request threads left to them
+		Gauge.builder(Bulkhead.ACTIVE, interactiveRequests, AtomicInteger::get).tag("bulkhead", INTERACTIVE_REQUESTS)
+				.description("Permits held").register(registry);
+		Gauge.builder(Bulkhead.SATURATION, interactiveRequests, requests -> (double) requests.get() / interactiveThreads)
+				.tag("bulkhead", INTERACTIVE_REQUESTS).description("Share of the permits held, from 0 to 1").register(registry);
+	}
+}
@@ -0,0 +1,87 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pl.xsd.pokertable.retry.ConflictRetryAspect;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits requests through the {@link AdaptiveLimiter}: those whose path matches {@code pokertable.limiter.critical-paths}
+ * as critical, those matching {@code pokertable.limiter.sheddable-paths} as sheddable and the rest as normal. A
+ * request that is not admitted gets a 503 with {@code Retry-After} at once. Requests matching
+ * {@code pokertable.limiter.excluded-paths}, the actuator's by default, are not limited at all, so health checks and
+ * metrics keep answering while the server sheds load.
+ * <p>
+ * Only the latency of critical and normal requests adjusts the limit; sheddable ones are slow because of what they
+ * do, not because the server is overloaded. They still count while they are in flight, an asynchronous one until
+ * its response is complete. The time a request waited to retry after a conflict ({@link ConflictRetryAspect}) is
+ * not part of its latency: a few requests on the same table colliding say nothing about the load.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+	private static final String SHED_BODY = "{\"message\":\"The server is too busy right now, please try again shortly\"}";
+
+	private final AdaptiveLimiter limiter;
+	private final RequestPaths criticalPaths;
+	private final RequestPaths sheddablePaths;
+	private final RequestPaths excludedPaths;
+	private final LongSupplier clock;
+	private final LongSupplier backoff;
+
+	public LoadSheddingFilter(AdaptiveLimiter limiter, List<String> criticalPaths, List<String> sheddablePaths,
+							  List<String> excludedPaths) {
+		this(limiter, criticalPaths, sheddablePaths, excludedPaths, System::nanoTime, ConflictRetryAspect::backoffNanos);
+	}
+
+	LoadSheddingFilter(AdaptiveLimiter limiter, List<String> criticalPaths, List<String> sheddablePaths,
+					   List<String> excludedPaths, LongSupplier clock, LongSupplier backoff) {
+		this.limiter = limiter;
+		this.criticalPaths = new RequestPaths(criticalPaths);
+		this.sheddablePaths = new RequestPaths(sheddablePaths);
+		this.excludedPaths = new RequestPaths(excludedPaths);
+		this.clock = clock;
+		this.backoff = backoff;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return excludedPaths.matches(request);
+	}
+
+	AdaptiveLimiter.Priority priority(HttpServletRequest request) {
+		if (criticalPaths.matches(request)) {
+			return AdaptiveLimiter.Priority.CRITICAL;
+		}
+		if (sheddablePaths.matches(request)) {
+			return AdaptiveLimiter.Priority.SHEDDABLE;
+		}
+		return AdaptiveLimiter.Priority.NORMAL;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		AdaptiveLimiter.Priority priority = priority(request);
+		if (!limiter.tryAcquire(priority)) {
+			BulkheadFilter.reject(response, SHED_BODY);
+			return;
+		}
+		long start = clock.getAsLong();
+		long backoffStart = backoff.getAsLong();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted() || priority == AdaptiveLimiter.Priority.SHEDDABLE) {
+				AsyncCompletion.whenDone(request, limiter::release);
+			} else {
+				limiter.release(clock.getAsLong() - start - (backoff.getAsLong() - backoffStart));
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+/**
+ * Path patterns as in request mappings, like {@code /exports/archive} or {@code /analytics/**}, given in settings.
+ */
+final class RequestPaths {
+
+	private final List<PathPattern> patterns;
+
+	RequestPaths(List<String> patterns) {
+		this.patterns = patterns.stream().map(String::trim).filter(pattern -> !pattern.isEmpty())
+				.map(PathPatternParser.defaultInstance::parse).toList();
+	}
+
+	boolean matches(HttpServletRequest request) {
+		PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+	}
+}
@@ -0,0 +1,35 @@
+package pl.xsd.pokertable.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. A caller pinned by
+ * {@link ReadYourWritesFilter} reads from the primary too, so it sees what it just wrote even if the replica lags.
+ * <p>
+ * The read-only flag of a transaction is only known once it has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that fetches the connection at the
+ * first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	enum Target {
+		PRIMARY,
+		REPLICA
+	}
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		return readOnly && !ReadYourWritesFilter.isPinnedToPrimary() ? Target.REPLICA : Target.PRIMARY;
+	}
+}
@@ -0,0 +1,82 @@
+package pl.xsd.pokertable.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Pins a caller to the primary database for a short while after it changed something, like voting or joining a
+ * table, so its next reads do not come from a replica that has not caught up yet. The pin travels in a cookie
+ * holding its expiry, nothing is kept on the server.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	static final String COOKIE_NAME = "pokertable-primary-until";
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	private final long windowMillis;
+	private final LongSupplier clock;
+
+	public ReadYourWritesFilter(Duration window) {
+		this(window, System::currentTimeMillis);
+	}
+
+	ReadYourWritesFilter(Duration window, LongSupplier clock) {
+		this.windowMillis = window.toMillis();
+		this.clock = clock;
+	}
+
+	static boolean isPinnedToPrimary() {
+		return PINNED.get() != null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long now = clock.getAsLong();
+		boolean write = !SAFE_METHODS.contains(request.getMethod());
+		if (write) {
+			// Set before the chain runs, the response may be committed by the time it returns
+			Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + windowMillis));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge((int) Math.max(1, Duration.ofMillis(windowMillis).toSeconds()));
+			response.addCookie(cookie);
+		}
+
+		if (write || pinnedUntil(request) > now) {
+			PINNED.set(Boolean.TRUE);
+		}
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			PINNED.remove();
+		}
+	}
+
+	private static long pinnedUntil(HttpServletRequest request) {
+		if (request.getCookies() == null) {
+			return 0;
+		}
+		for (Cookie cookie : request.getCookies()) {
+			if (COOKIE_NAME.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 0;
+	}
+}
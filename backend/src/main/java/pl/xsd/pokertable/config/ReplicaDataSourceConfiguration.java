@@ -0,0 +1,65 @@
+package pl.xsd.pokertable.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Splits reads from writes once {@code pokertable.datasource.replica.url} is set: the pool configured under
+ * {@code spring.datasource} stays the primary, and {@code @Transactional(readOnly = true)} work goes to a second
+ * pool on the replica. Without the property the application keeps its single auto-configured pool.
+ */
+@Configuration
+@ConditionalOnProperty("pokertable.datasource.replica.url")
+public class ReplicaDataSourceConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primary.setPoolName("primary");
+		return primary;
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource replicaDataSource(DataSourceProperties properties,
+											  @Value("${pokertable.datasource.replica.url}") String url,
+											  @Value("${pokertable.datasource.replica.username:${spring.datasource.username:}}") String username,
+											  @Value("${pokertable.datasource.replica.password:${spring.datasource.password:}}") String password) {
+		// Pool settings under spring.datasource.hikari apply to both pools
+		HikariDataSource replica = new HikariDataSource();
+		replica.setPoolName("replica");
+		replica.setDriverClassName(properties.determineDriverClassName());
+		replica.setJdbcUrl(url);
+		replica.setUsername(username);
+		replica.setPassword(password);
+		replica.setReadOnly(true);
+		return replica;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+		return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+	}
+
+	@Bean
+	public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+			@Value("${pokertable.datasource.read-your-writes-window:5s}") Duration window) {
+		FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
@@ -1,15 +1,43 @@
 package pl.xsd.pokertable.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.xsd.pokertable.bulkhead.Bulkheads;
 
 
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
 
+	private final int streamThreads;
+
+	public WebConfiguration(@Value("${pokertable.bulkheads.batch.max-concurrent:4}") int streamThreads) {
+		this.streamThreads = streamThreads;
+	}
+
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
-		registry.addMapping("/**").allowedMethods("*").allowedOrigins("http://localhost:5173").allowCredentials(true);
+		registry.addMapping("/**").allowedMethods("*").allowedOrigins("http://localhost:5173").allowCredentials(true)
+				.exposedHeaders("X-Next-Cursor");
+	}
+
+	// Only heavy requests, like the streamed ZIP export, are asynchronous, and each holds a batch bulkhead permit
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(streamTaskExecutor());
+	}
+
+	@Bean
+	public ThreadPoolTaskExecutor streamTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(streamThreads);
+		executor.setMaxPoolSize(streamThreads);
+		executor.setThreadNamePrefix("stream-");
+		executor.setTaskDecorator(Bulkheads::batch);
+		return executor;
 	}
 }
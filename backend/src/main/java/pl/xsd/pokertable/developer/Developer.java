@@ -8,6 +8,7 @@ import lombok.Setter;
 import pl.xsd.pokertable.pokertable.PokerTable;
 
 @Entity
+@Table(indexes = @Index(columnList = "poker_table_id"))
 @NoArgsConstructor
 @Getter
 @Setter
@@ -31,6 +32,10 @@ public class Developer {
 	@Column
 	private Integer vote;
 
+	@Version
+	@JsonIgnore
+	private Long version;
+
 	public boolean hasVoted() {
 		return vote == null;
 	}
@@ -2,10 +2,16 @@ package pl.xsd.pokertable.developer;
 
 import jakarta.servlet.http.HttpSession;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.snapshot.TableSnapshot;
+import pl.xsd.pokertable.snapshot.TableSnapshotStore;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @RestController
@@ -14,6 +20,8 @@ import java.util.Set;
 public class DeveloperController {
 
 	private final DeveloperService developerService;
+	private final PokerTableService pokerTableService;
+	private final TableSnapshotStore tableSnapshotStore;
 
 	@PatchMapping("/{developerId}/vote")
 	public ResponseEntity<Void> vote(@PathVariable Long developerId, @RequestParam Long tableId, @RequestParam Integer vote) {
@@ -25,6 +33,12 @@ public class DeveloperController {
 		}
 	}
 
+	@PostMapping("/{developerId}/heartbeat")
+	public ResponseEntity<Void> heartbeat(@PathVariable Long developerId, @RequestParam Long tableId) {
+		developerService.heartbeat(developerId, tableId);
+		return ResponseEntity.noContent().build();
+	}
+
 	@PostMapping
 	public ResponseEntity<Developer> createDeveloper(@RequestParam Long pokerTableId, @RequestBody Developer developer) {
 		Developer createdDeveloper = developerService.createDeveloper(pokerTableId, developer);
@@ -43,8 +57,17 @@ public class DeveloperController {
 		return ResponseEntity.ok(developer);
 	}
 
+	// Developers of a closed table as they were when it was closed, from its snapshot when there is one
 	@GetMapping("/poker-table/{tableId}")
-	public ResponseEntity<Set<Developer>> getAllDevelopers(@PathVariable Long tableId) {
+	public ResponseEntity<?> getAllDevelopers(@PathVariable Long tableId) {
+		Optional<TableSnapshot> snapshot = tableSnapshotStore.isEnabled()
+				? pokerTableService.findClosedAt(tableId).flatMap(closedAt -> tableSnapshotStore.find(tableId, closedAt))
+				: Optional.empty();
+		if (snapshot.isPresent()) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			return snapshot.get().toResponse(TableSnapshot.Section.DEVELOPERS, headers);
+		}
 		Set<Developer> developers = developerService.getDevelopersForPokerTable(tableId);
 		return ResponseEntity.ok(developers);
 	}
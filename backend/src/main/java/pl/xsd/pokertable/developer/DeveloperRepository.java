@@ -1,11 +1,30 @@
 package pl.xsd.pokertable.developer;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DeveloperRepository extends JpaRepository<Developer, Long> {
 	Optional<Developer> findBySessionId(String sessionId);
+
+	// Versions are checked again at commit, so a vote cast in the meantime fails the transaction instead of being missed
+	@Lock(LockModeType.OPTIMISTIC)
+	List<Developer> findByPokerTableId(Long pokerTableId);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Developer d set d.vote = null, d.version = d.version + 1 where d.pokerTable.id = :tableId")
+	int clearVotes(@Param("tableId") Long tableId);
+
+	@Modifying
+	@Query("delete from Developer d where d.pokerTable.id in :tableIds")
+	int deleteByPokerTableIds(@Param("tableIds") Collection<Long> tableIds);
 }
@@ -1,12 +1,15 @@
 package pl.xsd.pokertable.developer;
 
 import jakarta.servlet.http.HttpSession;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
 import pl.xsd.pokertable.pokertable.PokerTable;
 import pl.xsd.pokertable.pokertable.PokerTableRepository;
 import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.retry.RetryOnConflict;
 
 import java.util.Map;
 import java.util.Optional;
@@ -18,18 +21,25 @@ public class DeveloperService {
 	private final DeveloperRepository developerRepository;
 	private final PokerTableRepository pokerTableRepository;
 	private final PokerTableService pokerTableService;
+	private final PresenceTracker presenceTracker;
+	private final ApplicationEventPublisher eventPublisher;
 
-	public DeveloperService(DeveloperRepository developerRepository, PokerTableRepository pokerTableRepository, PokerTableService pokerTableService) {
+	public DeveloperService(DeveloperRepository developerRepository, PokerTableRepository pokerTableRepository, PokerTableService pokerTableService,
+							PresenceTracker presenceTracker, ApplicationEventPublisher eventPublisher) {
 		this.developerRepository = developerRepository;
 		this.pokerTableRepository = pokerTableRepository;
 		this.pokerTableService = pokerTableService;
+		this.presenceTracker = presenceTracker;
+		this.eventPublisher = eventPublisher;
 	}
 
 	public PokerTable getActiveTable() {
 		return pokerTableRepository.findByIsClosedFalse()
+				.or(pokerTableRepository::findOpenTableOnPrimary)
 				.orElseGet(() -> pokerTableService.createPokerTable("Blank"));
 	}
 
+	@RetryOnConflict
 	@Transactional
 	public void vote(Long developerId, Long tableId, Integer vote) {
 		if (vote == null) {
@@ -49,9 +59,12 @@ public class DeveloperService {
 		if (!developer.getPokerTable().getId().equals(pokerTable.getId())) { // Compare IDs
 			throw new IllegalArgumentException("Developer does not belong to this poker table.");
 		}
+		checkOpen(pokerTable);
 
+		Integer previousVote = developer.getVote();
 		developer.setVote(vote);
 		developerRepository.save(developer);
+		eventPublisher.publishEvent(new VoteCastEvent(tableId, developerId, previousVote, vote));
 	}
 
 	public Developer getDeveloper(Long developerId) {
@@ -64,28 +77,48 @@ public class DeveloperService {
 		return developer.hasVoted();
 	}
 
+	/**
+	 * The developers of the table, also when it has been archived, like {@link PokerTableService#getTableById}.
+	 */
+	@Transactional(readOnly = true)
 	public Set<Developer> getDevelopersForPokerTable(Long tableId) {
-		PokerTable pokerTable = pokerTableRepository.findById(tableId)
-				.orElseThrow(() -> new NotFoundException("Poker table not found"));
+		return pokerTableService.getTableById(tableId).getDevelopers();
+	}
 
-		return pokerTable.getDevelopers();
+	/**
+	 * Records that the developer's client is still connected. Only the first heartbeat of a developer, after it
+	 * joined or after a restart, reads the database to check it belongs to the open table.
+	 */
+	public void heartbeat(Long developerId, Long tableId) {
+		if (presenceTracker.heartbeat(tableId, developerId)) {
+			return;
+		}
+		Developer developer = getDeveloper(developerId);
+		if (developer.getPokerTable() == null || !developer.getPokerTable().getId().equals(tableId)) {
+			throw new IllegalArgumentException("Developer does not belong to this poker table.");
+		}
+		checkOpen(developer.getPokerTable());
+		presenceTracker.track(tableId, developerId);
 	}
 
 	@Transactional
 	public Developer createDeveloper(Long pokerTableId, Developer developer) {
 		PokerTable pokerTable = pokerTableRepository.findById(pokerTableId)
 				.orElseThrow(() -> new IllegalArgumentException("Tablica pokerowa o podanym ID nie istnieje"));
+		checkOpen(pokerTable);
 
 		developer.setPokerTable(pokerTable);
 		return developerRepository.save(developer);
 	}
 
+	@RetryOnConflict
 	@Transactional
 	public Map<String, Object> joinTable(String name, Long tableId, HttpSession session) {
 		String sessionId = session.getId();
 
 		PokerTable table = pokerTableRepository.findById(tableId)
 				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + tableId));
+		checkOpen(table);
 
 		Optional<Developer> existingDeveloper = developerRepository.findBySessionId(sessionId);
 
@@ -94,6 +127,12 @@ public class DeveloperService {
 		if (existingDeveloper.isPresent()) {
 			developer = existingDeveloper.get();
 			if (developer.getPokerTable() == null || !developer.getPokerTable().getId().equals(tableId)) {
+				if (developer.getPokerTable() != null) {
+					presenceTracker.forget(developer.getPokerTable().getId(), developer.getId());
+					if (developer.getVote() != null) {
+						eventPublisher.publishEvent(new VoteCastEvent(developer.getPokerTable().getId(), developer.getId(), developer.getVote(), null));
+					}
+				}
 				developer.setPokerTable(table);
 				developer.setVote(null);
 				developerRepository.save(developer);
@@ -118,4 +157,11 @@ public class DeveloperService {
 				)
 		);
 	}
+
+	// Developers and votes of a closed table are final, they are in its snapshot. Leaving it for another table is fine
+	private static void checkOpen(PokerTable pokerTable) {
+		if (Boolean.TRUE.equals(pokerTable.getIsClosed())) {
+			throw new TableClosedException(pokerTable.getId());
+		}
+	}
 }
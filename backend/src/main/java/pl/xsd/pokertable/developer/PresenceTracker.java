@@ -0,0 +1,90 @@
+package pl.xsd.pokertable.developer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the last heartbeat of every developer in memory, per table. Nothing here is persisted, so a heartbeat
+ * costs a map lookup and a volatile write instead of a database round trip.
+ * <p>
+ * Presence is opt-in: a developer whose client never sent a heartbeat is always treated as present. Only a
+ * developer whose last heartbeat is older than the timeout is considered stale.
+ * <p>
+ * Only developers {@link #track tracked} after their membership was checked are kept, so heartbeats with made-up
+ * ids cannot grow the maps. Entries go when the developer leaves or the table is closed.
+ */
+@Component
+public class PresenceTracker {
+
+	private final Map<Long, Map<Long, AtomicLong>> lastSeenByTable = new ConcurrentHashMap<>();
+	private final long timeoutNanos;
+	private final LongSupplier nanoClock;
+
+	@Autowired
+	public PresenceTracker(@Value("${pokertable.presence.timeout:30s}") Duration timeout) {
+		this(timeout, System::nanoTime);
+	}
+
+	PresenceTracker(Duration timeout, LongSupplier nanoClock) {
+		this.timeoutNanos = timeout.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Records a heartbeat of a tracked developer. Returns false, recording nothing, for one that is not tracked.
+	 */
+	public boolean heartbeat(Long tableId, Long developerId) {
+		Map<Long, AtomicLong> lastSeen = lastSeenByTable.get(tableId);
+		AtomicLong timestamp = lastSeen == null ? null : lastSeen.get(developerId);
+		if (timestamp == null) {
+			return false;
+		}
+		timestamp.set(nanoClock.getAsLong());
+		return true;
+	}
+
+	/**
+	 * Starts tracking a developer known to belong to the table, as if it just sent a heartbeat.
+	 */
+	public void track(Long tableId, Long developerId) {
+		lastSeenByTable.computeIfAbsent(tableId, id -> new ConcurrentHashMap<>())
+				.computeIfAbsent(developerId, id -> new AtomicLong())
+				.set(nanoClock.getAsLong());
+	}
+
+	public boolean isStale(Long tableId, Long developerId) {
+		Map<Long, AtomicLong> lastSeen = lastSeenByTable.get(tableId);
+		if (lastSeen == null) {
+			return false;
+		}
+
+		AtomicLong timestamp = lastSeen.get(developerId);
+		return timestamp != null && nanoClock.getAsLong() - timestamp.get() > timeoutNanos;
+	}
+
+	public void forget(Long tableId, Long developerId) {
+		Map<Long, AtomicLong> lastSeen = lastSeenByTable.get(tableId);
+		if (lastSeen != null) {
+			lastSeen.remove(developerId);
+		}
+	}
+
+	public void forgetTable(Long tableId) {
+		lastSeenByTable.remove(tableId);
+	}
+
+	// After commit, a close that is rolled back and retried must still see who is present
+	@TransactionalEventListener
+	public void onTableClosed(TableClosedEvent event) {
+		forgetTable(event.tableId());
+	}
+}
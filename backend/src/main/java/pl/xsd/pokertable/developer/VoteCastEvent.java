@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.developer;
+
+/**
+ * Published whenever the vote of a developer at a table changes. A {@code null} vote means "no vote".
+ */
+public record VoteCastEvent(Long tableId, Long developerId, Integer previousVote, Integer vote) {
+}
@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.exception;
+
+public class ExportNotReadyException extends RuntimeException {
+	public ExportNotReadyException(String jobId, String status) {
+		super("Export " + jobId + " is " + status + ", only a finished export can be downloaded");
+	}
+}
@@ -2,6 +2,8 @@ package pl.xsd.pokertable.exception;
 
 
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -47,6 +49,34 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
 	}
 
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+		Map<String, Object> response = new HashMap<>();
+		response.put("message", "The data was changed by someone else at the same time, please try again.");
+		return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(TableClosedException.class)
+	public ResponseEntity<Map<String, Object>> handleTableClosedException(TableClosedException ex) {
+		Map<String, Object> response = new HashMap<>();
+		response.put("message", ex.getMessage());
+		return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(ExportNotReadyException.class)
+	public ResponseEntity<Map<String, Object>> handleExportNotReadyException(ExportNotReadyException ex) {
+		Map<String, Object> response = new HashMap<>();
+		response.put("message", ex.getMessage());
+		return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler({TooManyExportsException.class, TooManyImportsException.class})
+	public ResponseEntity<Map<String, Object>> handleTooManyJobsException(RuntimeException ex) {
+		Map<String, Object> response = new HashMap<>();
+		response.put("message", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(response);
+	}
+
 	@ExceptionHandler(IllegalArgumentException.class)
 	public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
 		Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.exception;
+
+public class TableClosedException extends RuntimeException {
+	public TableClosedException(Long tableId) {
+		super("Poker table " + tableId + " is closed and can no longer be changed");
+	}
+}
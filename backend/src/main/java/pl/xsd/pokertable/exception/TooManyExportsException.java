@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.exception;
+
+public class TooManyExportsException extends RuntimeException {
+	public TooManyExportsException() {
+		super("Too many exports are waiting, please try again later");
+	}
+}
@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.exception;
+
+public class TooManyImportsException extends RuntimeException {
+	public TooManyImportsException() {
+		super("Too many imports are waiting, please try again later");
+	}
+}
@@ -0,0 +1,202 @@
+package pl.xsd.pokertable.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import pl.xsd.pokertable.archive.ArchivedTable;
+import pl.xsd.pokertable.archive.ArchivedTableRepository;
+import pl.xsd.pokertable.archive.TableArchiveService;
+import pl.xsd.pokertable.pokertable.ClosedTable;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a ZIP of every table closed in a date range: one CSV per table, in the format of the single table export,
+ * and a {@code manifest.csv} listing them, live tables first and then archived ones, each in closing order.
+ * <p>
+ * Tables and stories are read in keyset pages of {@code pokertable.exports.page-size}, each page in its own short
+ * transaction, and archived tables are decoded one at a time, so the heap used does not grow with the stories in
+ * the range. What does grow is the central directory {@link ZipOutputStream} keeps until the end, a few dozen bytes
+ * per table. Manifest lines are spooled to a temporary file and added as the last entry.
+ * <p>
+ * A live table's CSV is spooled to a temporary file as well and only added once the table is known to be still
+ * live: a table archived while its stories were read may have lost some of them mid-way, and is written from its
+ * archived copy instead. A table archived after it was written is not written a second time.
+ */
+@Component
+public class ExportArchiveWriter {
+
+	static final String MANIFEST = "manifest.csv";
+	static final String MANIFEST_HEADER = "Table ID,Name,Created,Closed,Stories,File,Archived\n";
+
+	private final PokerTableRepository pokerTableRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final ArchivedTableRepository archivedTableRepository;
+	private final TableArchiveService tableArchiveService;
+	private final int pageSize;
+
+	public ExportArchiveWriter(PokerTableRepository pokerTableRepository, UserStoryRepository userStoryRepository,
+							   ArchivedTableRepository archivedTableRepository, TableArchiveService tableArchiveService,
+							   @Value("${pokertable.exports.page-size:500}") int pageSize) {
+		this.pokerTableRepository = pokerTableRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.archivedTableRepository = archivedTableRepository;
+		this.tableArchiveService = tableArchiveService;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * The closing times from the start of {@code from} up to the end of {@code to}.
+	 */
+	public static LocalDateTime[] range(LocalDate from, LocalDate to) {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("'from' must not be after 'to'");
+		}
+		return new LocalDateTime[]{from.atStartOfDay(), to.plusDays(1).atStartOfDay()};
+	}
+
+	public static String fileName(LocalDate from, LocalDate to) {
+		return "poker-planning-export-" + from + "-" + to + ".zip";
+	}
+
+	public long countTables(LocalDateTime from, LocalDateTime to) {
+		return pokerTableRepository.countClosedBetween(from, to) + archivedTableRepository.countClosedBetween(from, to);
+	}
+
+	/**
+	 * Writes the ZIP to {@code out} and leaves it open. {@code tableWritten} is called with the number of stories
+	 * after every table.
+	 */
+	public void write(LocalDateTime from, LocalDateTime to, OutputStream out, IntConsumer tableWritten) throws IOException {
+		Path manifest = Files.createTempFile("pokertable-manifest-", ".csv");
+		Path tableCsv = Files.createTempFile("pokertable-table-", ".csv");
+		Set<String> written = new HashSet<>();
+		try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(StreamUtils.nonClosing(out), 64 * 1024));
+			 BufferedWriter manifestWriter = Files.newBufferedWriter(manifest)) {
+			manifestWriter.write(MANIFEST_HEADER);
+
+			LocalDateTime afterClosedAt = from;
+			Long afterId = 0L;
+			List<ClosedTable> tables;
+			do {
+				tables = pokerTableRepository.findClosedBetween(from, to, afterClosedAt, afterId, Limit.of(pageSize));
+				for (ClosedTable table : tables) {
+					int stories = spoolLiveStories(tableCsv, table.id());
+					if (!pokerTableRepository.existsById(table.id())) {
+						// Archived while its stories were read, written from the archive below
+						continue;
+					}
+					zip.putNextEntry(entry(table.id(), table.closedAt()));
+					Files.copy(tableCsv, zip);
+					zip.closeEntry();
+					written.add(tableFileName(table.id()));
+					manifestWriter.write(manifestLine(table.id(), table.name(), table.createdAt(), table.closedAt(), stories, false));
+					tableWritten.accept(stories);
+				}
+				if (!tables.isEmpty()) {
+					afterClosedAt = tables.getLast().closedAt();
+					afterId = tables.getLast().id();
+				}
+			} while (tables.size() == pageSize);
+
+			afterClosedAt = from;
+			afterId = 0L;
+			List<ArchivedTable> archived;
+			do {
+				archived = archivedTableRepository.findClosedBetween(from, to, afterClosedAt, afterId, Limit.of(pageSize));
+				for (ArchivedTable archivedTable : archived) {
+					if (!written.add(tableFileName(archivedTable.getPokerTableId()))) {
+						continue;
+					}
+					zip.putNextEntry(entry(archivedTable.getPokerTableId(), archivedTable.getClosedAt()));
+					PokerTable table = tableArchiveService.restore(archivedTable);
+					writeStories(zip, table.getUserStories());
+					zip.closeEntry();
+					int stories = table.getUserStories().size();
+					manifestWriter.write(manifestLine(table.getId(), table.getName(), table.getCreatedAt(), table.getClosedAt(), stories, true));
+					tableWritten.accept(stories);
+				}
+				if (!archived.isEmpty()) {
+					afterClosedAt = archived.getLast().getClosedAt();
+					afterId = archived.getLast().getPokerTableId();
+				}
+			} while (archived.size() == pageSize);
+
+			manifestWriter.flush();
+			zip.putNextEntry(new ZipEntry(MANIFEST));
+			Files.copy(manifest, zip);
+			zip.closeEntry();
+		} finally {
+			Files.deleteIfExists(manifest);
+			Files.deleteIfExists(tableCsv);
+		}
+	}
+
+	private int spoolLiveStories(Path file, Long tableId) throws IOException {
+		try (OutputStream csv = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+			csv.write(PokerTableService.CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+			int stories = 0;
+			long after = 0;
+			List<UserStory> page;
+			do {
+				page = userStoryRepository.findPageByPokerTableIdAfter(tableId, after, Limit.of(pageSize));
+				writeRows(csv, page);
+				stories += page.size();
+				if (!page.isEmpty()) {
+					after = page.getLast().getId();
+				}
+			} while (page.size() == pageSize);
+			return stories;
+		}
+	}
+
+	private static void writeStories(OutputStream out, Collection<UserStory> stories) throws IOException {
+		out.write(PokerTableService.CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+		writeRows(out, stories);
+	}
+
+	private static void writeRows(OutputStream out, Collection<UserStory> stories) throws IOException {
+		StringBuilder rows = new StringBuilder();
+		for (UserStory story : stories) {
+			PokerTableService.appendCsvRow(rows, story);
+		}
+		out.write(rows.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static ZipEntry entry(Long tableId, LocalDateTime closedAt) {
+		ZipEntry entry = new ZipEntry(tableFileName(tableId));
+		entry.setTimeLocal(closedAt);
+		return entry;
+	}
+
+	static String tableFileName(Long tableId) {
+		return "poker-planning-export-" + tableId + ".csv";
+	}
+
+	private static String manifestLine(Long tableId, String name, LocalDateTime createdAt, LocalDateTime closedAt,
+									   int stories, boolean archived) {
+		return tableId + ",\"" + PokerTableService.escapeCsv(name) + "\"," + createdAt + "," + closedAt + "," + stories + ","
+				+ tableFileName(tableId) + "," + archived + "\n";
+	}
+}
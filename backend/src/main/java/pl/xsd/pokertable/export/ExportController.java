@@ -0,0 +1,86 @@
+package pl.xsd.pokertable.export;
+
+import lombok.AllArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@RestController
+@AllArgsConstructor
+public class ExportController {
+
+	private final ExportJobService exportJobService;
+	private final ExportArchiveWriter exportArchiveWriter;
+
+	@PostMapping("/tables/{tableId}/exports")
+	public ResponseEntity<ExportJob> startExport(@PathVariable Long tableId) {
+		ExportJob job = exportJobService.start(tableId);
+		return ResponseEntity.accepted()
+				.location(URI.create("/exports/" + job.getId()))
+				.body(job);
+	}
+
+	@PostMapping("/exports/archive")
+	public ResponseEntity<ExportJob> startArchiveExport(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		ExportJob job = exportJobService.startArchive(from == null ? LocalDate.EPOCH : from, to == null ? LocalDate.now() : to);
+		return ResponseEntity.accepted()
+				.location(URI.create("/exports/" + job.getId()))
+				.body(job);
+	}
+
+	// Written while it is sent, a failure half way through can only cut the download short
+	@GetMapping("/exports/archive")
+	public ResponseEntity<StreamingResponseBody> streamArchiveExport(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		LocalDate start = from == null ? LocalDate.EPOCH : from;
+		LocalDate end = to == null ? LocalDate.now() : to;
+		LocalDateTime[] range = ExportArchiveWriter.range(start, end);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("application/zip"));
+		headers.setContentDispositionFormData("attachment", ExportArchiveWriter.fileName(start, end));
+
+		return ResponseEntity.ok()
+				.headers(headers)
+				.body(out -> exportArchiveWriter.write(range[0], range[1], out, stories -> {
+				}));
+	}
+
+	@GetMapping("/exports/{jobId}")
+	public ResponseEntity<ExportJob> getExport(@PathVariable String jobId) {
+		return ResponseEntity.ok(exportJobService.getJob(jobId));
+	}
+
+	@GetMapping("/exports/{jobId}/file")
+	public ResponseEntity<Resource> downloadExport(@PathVariable String jobId) {
+		ExportJob job = exportJobService.getFinishedJob(jobId);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaTypeFactory.getMediaType(job.getFileName()).orElse(MediaType.APPLICATION_OCTET_STREAM));
+		headers.setContentDispositionFormData("attachment", job.getFileName());
+
+		// Range requests are answered from the file, so a large download can be resumed
+		return ResponseEntity.ok()
+				.headers(headers)
+				.body(new FileSystemResource(job.getFile()));
+	}
+
+	@DeleteMapping("/exports/{jobId}")
+	public ResponseEntity<Void> cancelExport(@PathVariable String jobId) {
+		exportJobService.cancel(jobId);
+		return ResponseEntity.noContent().build();
+	}
+}
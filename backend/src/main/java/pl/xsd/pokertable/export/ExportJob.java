@@ -0,0 +1,85 @@
+package pl.xsd.pokertable.export;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.Future;
+
+/**
+ * One export running in the background, the CSV of a table or the ZIP of the tables closed in a date range, in which
+ * case {@code tableId} is null and the total of stories is not known up front. Progress is read by the polling
+ * requests while the worker writes it, so every field that changes is volatile and the status only moves forward
+ * from {@link Status#QUEUED}.
+ */
+@Getter
+public class ExportJob {
+
+	public enum Status {QUEUED, RUNNING, DONE, FAILED, CANCELLED}
+
+	private final String id;
+	private final Long tableId;
+	private final LocalDateTime createdAt;
+
+	@JsonIgnore
+	private final Path file;
+
+	@JsonIgnore
+	private final String fileName;
+
+	private volatile Status status = Status.QUEUED;
+	private volatile long tablesWritten;
+	private volatile long totalTables;
+	private volatile long storiesWritten;
+	private volatile Long totalStories;
+	private volatile String error;
+	private volatile LocalDateTime finishedAt;
+
+	@JsonIgnore
+	private volatile Future<?> future;
+
+	public ExportJob(String id, Long tableId, Path file, String fileName) {
+		this.id = id;
+		this.tableId = tableId;
+		this.file = file;
+		this.fileName = fileName;
+		this.createdAt = LocalDateTime.now();
+	}
+
+	void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	synchronized boolean start(long totalTables, Long totalStories) {
+		if (status != Status.QUEUED) {
+			return false;
+		}
+		this.totalTables = totalTables;
+		this.totalStories = totalStories;
+		status = Status.RUNNING;
+		return true;
+	}
+
+	void addStoriesWritten(int stories) {
+		storiesWritten += stories;
+	}
+
+	void addTableWritten() {
+		tablesWritten++;
+	}
+
+	synchronized void finish(Status status, String error) {
+		if (isFinished()) {
+			return;
+		}
+		this.status = status;
+		this.error = error;
+		finishedAt = LocalDateTime.now();
+	}
+
+	@JsonIgnore
+	public boolean isFinished() {
+		return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+	}
+}
@@ -0,0 +1,275 @@
+package pl.xsd.pokertable.export;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.xsd.pokertable.bulkhead.Bulkheads;
+import pl.xsd.pokertable.exception.ExportNotReadyException;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TooManyExportsException;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports done in the background instead of in the request thread, the CSV of one table or the ZIP of a date
+ * range. Jobs run on a fixed pool of
+ * {@code pokertable.exports.threads} workers with at most {@code pokertable.exports.queue-capacity} waiting, and
+ * read the stories in keyset pages of {@code pokertable.exports.page-size}, each in its own short read-only
+ * transaction. Exports therefore never hold more connections than they have workers, and only for one page at a
+ * time, so however many are started the rest of the pool stays free for votes.
+ * <p>
+ * The result is written to a file in {@code pokertable.exports.directory}, kept for {@code pokertable.exports.retention}
+ * after the job finished. Jobs are local to the instance that started them.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+	private final PokerTableService pokerTableService;
+	private final PokerTableRepository pokerTableRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final ExportArchiveWriter exportArchiveWriter;
+	private final Path directory;
+	private final int pageSize;
+	private final Duration retention;
+	private final ThreadPoolExecutor executor;
+	private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+	public ExportJobService(PokerTableService pokerTableService, PokerTableRepository pokerTableRepository,
+							UserStoryRepository userStoryRepository, ExportArchiveWriter exportArchiveWriter,
+							@Value("${pokertable.exports.directory:${java.io.tmpdir}/pokertable-exports}") Path directory,
+							@Value("${pokertable.exports.threads:2}") int threads,
+							@Value("${pokertable.exports.queue-capacity:20}") int queueCapacity,
+							@Value("${pokertable.exports.page-size:500}") int pageSize,
+							@Value("${pokertable.exports.retention:1h}") Duration retention,
+							@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+		if (threads < 1 || threads >= poolSize) {
+			throw new IllegalArgumentException("pokertable.exports.threads must be at least 1 and leave connections of the pool of "
+					+ poolSize + " to the requests");
+		}
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("pokertable.exports.page-size must be at least 1");
+		}
+		this.pokerTableService = pokerTableService;
+		this.pokerTableRepository = pokerTableRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.exportArchiveWriter = exportArchiveWriter;
+		this.directory = directory;
+		this.pageSize = pageSize;
+		this.retention = retention;
+
+		AtomicInteger workers = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), task -> {
+			Thread worker = new Thread(Bulkheads.batch(task), "export-" + workers.incrementAndGet());
+			worker.setDaemon(true);
+			return worker;
+		});
+	}
+
+	/**
+	 * Queues the export of a table, archived tables included. Throws {@link TooManyExportsException} when the queue
+	 * is full rather than waiting for room.
+	 */
+	public ExportJob start(Long tableId) {
+		// A table that does not exist fails the request, not the job
+		pokerTableService.getTableById(tableId);
+
+		ExportJob job = createJob(tableId, "poker-planning-export-" + tableId + ".csv");
+		return submit(job, () -> run(job, channel -> writeTable(job, channel)));
+	}
+
+	/**
+	 * Queues the ZIP of all tables closed from {@code from} to {@code to}, see {@link ExportArchiveWriter}. The
+	 * finished file can be downloaded in ranges, so an interrupted download of a large ZIP can be resumed.
+	 */
+	public ExportJob startArchive(LocalDate from, LocalDate to) {
+		LocalDateTime[] range = ExportArchiveWriter.range(from, to);
+
+		ExportJob job = createJob(null, ExportArchiveWriter.fileName(from, to));
+		return submit(job, () -> run(job, channel -> writeArchive(job, channel, range[0], range[1])));
+	}
+
+	private ExportJob createJob(Long tableId, String fileName) {
+		try {
+			Files.createDirectories(directory);
+			String suffix = fileName.substring(fileName.lastIndexOf('.'));
+			return new ExportJob(UUID.randomUUID().toString(), tableId, Files.createTempFile(directory, "export-", suffix), fileName);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private ExportJob submit(ExportJob job, Runnable task) {
+		jobs.put(job.getId(), job);
+		try {
+			job.setFuture(executor.submit(task));
+		} catch (RejectedExecutionException e) {
+			discard(job);
+			throw new TooManyExportsException();
+		}
+		return job;
+	}
+
+	public ExportJob getJob(String jobId) {
+		ExportJob job = jobs.get(jobId);
+		if (job == null) {
+			throw new NotFoundException("Export not found with ID: " + jobId);
+		}
+		return job;
+	}
+
+	public ExportJob getFinishedJob(String jobId) {
+		ExportJob job = getJob(jobId);
+		if (job.getStatus() != ExportJob.Status.DONE) {
+			throw new ExportNotReadyException(jobId, job.getStatus().name().toLowerCase());
+		}
+		return job;
+	}
+
+	/**
+	 * Stops the job if it is still queued or running and deletes it together with its file.
+	 */
+	public void cancel(String jobId) {
+		ExportJob job = getJob(jobId);
+		job.finish(ExportJob.Status.CANCELLED, null);
+		Future<?> future = job.getFuture();
+		if (future != null) {
+			future.cancel(true);
+		}
+		executor.purge();
+		discard(job);
+	}
+
+	@Scheduled(fixedDelayString = "${pokertable.exports.retention:1h}")
+	public void purgeExpired() {
+		LocalDateTime finishedBefore = LocalDateTime.now().minus(retention);
+		for (ExportJob job : jobs.values()) {
+			if (job.isFinished() && job.getFinishedAt().isBefore(finishedBefore)) {
+				discard(job);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		jobs.values().forEach(this::discard);
+	}
+
+	private interface Export {
+		void writeTo(FileChannel channel) throws IOException;
+	}
+
+	private void run(ExportJob job, Export export) {
+		try (FileChannel channel = FileChannel.open(job.getFile(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			export.writeTo(channel);
+			channel.force(false);
+			job.finish(ExportJob.Status.DONE, null);
+		} catch (Exception e) {
+			// Cancelling interrupts the worker, which ends up here with the job already finished
+			if (!job.isFinished()) {
+				log.warn("Export {} failed", job.getId(), e);
+			}
+			job.finish(ExportJob.Status.FAILED, "The export failed, please start it again");
+		} finally {
+			if (job.getStatus() != ExportJob.Status.DONE) {
+				deleteFile(job);
+			}
+		}
+	}
+
+	private void writeTable(ExportJob job, FileChannel channel) throws IOException {
+		Long tableId = job.getTableId();
+		if (pokerTableRepository.existsById(tableId)) {
+			if (!job.start(1, userStoryRepository.sumEstimatesByPokerTableId(tableId).stories())) {
+				return;
+			}
+			write(channel, new StringBuilder(PokerTableService.CSV_HEADER));
+			long after = 0;
+			List<UserStory> page;
+			do {
+				page = userStoryRepository.findPageByPokerTableIdAfter(tableId, after, Limit.of(pageSize));
+				writeRows(channel, job, page);
+				if (!page.isEmpty()) {
+					after = page.getLast().getId();
+				}
+			} while (page.size() == pageSize && job.getStatus() == ExportJob.Status.RUNNING);
+		} else {
+			// Archived tables are read back in one piece, they are never large
+			Collection<UserStory> stories = pokerTableService.getTableById(tableId).getUserStories();
+			if (!job.start(1, (long) stories.size())) {
+				return;
+			}
+			write(channel, new StringBuilder(PokerTableService.CSV_HEADER));
+			writeRows(channel, job, stories);
+		}
+		job.addTableWritten();
+	}
+
+	private void writeArchive(ExportJob job, FileChannel channel, LocalDateTime from, LocalDateTime to) throws IOException {
+		if (!job.start(exportArchiveWriter.countTables(from, to), null)) {
+			return;
+		}
+		exportArchiveWriter.write(from, to, Channels.newOutputStream(channel), stories -> {
+			if (job.getStatus() != ExportJob.Status.RUNNING) {
+				throw new CancellationException();
+			}
+			job.addStoriesWritten(stories);
+			job.addTableWritten();
+		});
+	}
+
+	private void writeRows(FileChannel channel, ExportJob job, Collection<UserStory> stories) throws IOException {
+		StringBuilder rows = new StringBuilder();
+		for (UserStory story : stories) {
+			PokerTableService.appendCsvRow(rows, story);
+		}
+		write(channel, rows);
+		job.addStoriesWritten(stories.size());
+	}
+
+	private static void write(FileChannel channel, StringBuilder text) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void discard(ExportJob job) {
+		jobs.remove(job.getId());
+		deleteFile(job);
+	}
+
+	private static void deleteFile(ExportJob job) {
+		try {
+			Files.deleteIfExists(job.getFile());
+		} catch (IOException e) {
+			log.warn("Could not delete the file of export {}", job.getId(), e);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package pl.xsd.pokertable.history;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Binary encoding of one round of votes. Developers are sorted by id and each one is written as a single varint
+ * holding {@code (idDelta << 4) | vote}, preceded by the number of entries. Votes fit in four bits (1..13), and ids
+ * of developers at the same table are close to each other, so most entries take one or two bytes.
+ */
+public final class PackedVotes {
+
+	public record Entry(Long developerId, Integer vote) {
+	}
+
+	private static final int VOTE_BITS = 4;
+	private static final int VOTE_MASK = (1 << VOTE_BITS) - 1;
+
+	private PackedVotes() {
+	}
+
+	public static byte[] encode(Map<Long, Integer> votes) {
+		SortedMap<Long, Integer> sorted = new TreeMap<>(votes);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1 + sorted.size() * 2);
+		writeVarLong(out, sorted.size());
+
+		long previousId = 0;
+		for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+			long developerId = entry.getKey();
+			int vote = entry.getValue();
+			if (developerId < previousId) {
+				throw new IllegalArgumentException("Developer id must not be negative: " + developerId);
+			}
+			if (vote < 0 || vote > VOTE_MASK) {
+				throw new IllegalArgumentException("Vote does not fit in " + VOTE_BITS + " bits: " + vote);
+			}
+			writeVarLong(out, ((developerId - previousId) << VOTE_BITS) | vote);
+			previousId = developerId;
+		}
+		return out.toByteArray();
+	}
+
+	public static int count(byte[] packed) {
+		return (int) new Reader(packed).readVarLong();
+	}
+
+	/**
+	 * Decodes entries one at a time while iterating; nothing is materialized up front.
+	 */
+	public static Iterable<Entry> decode(byte[] packed) {
+		return () -> new Iterator<>() {
+			private final Reader reader = new Reader(packed);
+			private long remaining = reader.readVarLong();
+			private long previousId = 0;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public Entry next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				remaining--;
+				long value = reader.readVarLong();
+				previousId += value >>> VOTE_BITS;
+				return new Entry(previousId, (int) (value & VOTE_MASK));
+			}
+		};
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static final class Reader {
+		private final byte[] bytes;
+		private int position;
+
+		private Reader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		private long readVarLong() {
+			long value = 0;
+			int shift = 0;
+			byte current;
+			do {
+				if (position == bytes.length) {
+					throw new IllegalArgumentException("Truncated packed votes");
+				}
+				current = bytes[position++];
+				value |= (long) (current & 0x7F) << shift;
+				shift += 7;
+			} while ((current & 0x80) != 0);
+			return value;
+		}
+	}
+}
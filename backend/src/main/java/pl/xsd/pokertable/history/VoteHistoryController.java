@@ -0,0 +1,26 @@
+package pl.xsd.pokertable.history;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/tables/{tableId}/history")
+@AllArgsConstructor
+public class VoteHistoryController {
+
+	private final VoteHistoryService voteHistoryService;
+
+	@GetMapping
+	public ResponseEntity<List<VoteRoundSummary>> getRounds(@PathVariable Long tableId) {
+		return ResponseEntity.ok(voteHistoryService.getRounds(tableId));
+	}
+
+	@GetMapping("/{roundId}")
+	public ResponseEntity<Iterable<PackedVotes.Entry>> getRoundVotes(@PathVariable Long tableId, @PathVariable Long roundId) {
+		VoteRound round = voteHistoryService.getRound(tableId, roundId);
+		return ResponseEntity.ok(PackedVotes.decode(round.getPackedVotes()));
+	}
+}
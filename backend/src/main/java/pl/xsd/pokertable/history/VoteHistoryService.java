@@ -0,0 +1,40 @@
+package pl.xsd.pokertable.history;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.RoundClosedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Append-only history of closed rounds. A round is inserted by the transaction that closes it, so it is recorded
+ * exactly when the close commits and a crash cannot lose it.
+ */
+@Service
+public class VoteHistoryService {
+
+	private final VoteRoundRepository voteRoundRepository;
+
+	public VoteHistoryService(VoteRoundRepository voteRoundRepository) {
+		this.voteRoundRepository = voteRoundRepository;
+	}
+
+	// Before commit so that a close retried after a conflict, or rolled back, leaves no round behind
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void onRoundClosed(RoundClosedEvent event) {
+		voteRoundRepository.save(new VoteRound(event.tableId(), event.storyId(), event.roundNumber(), LocalDateTime.now(),
+				PackedVotes.encode(event.votes())));
+	}
+
+	public List<VoteRoundSummary> getRounds(Long tableId) {
+		return voteRoundRepository.findSummariesByPokerTableId(tableId);
+	}
+
+	public VoteRound getRound(Long tableId, Long roundId) {
+		return voteRoundRepository.findByIdAndPokerTableId(roundId, tableId)
+				.orElseThrow(() -> new NotFoundException("Vote round not found with ID: " + roundId));
+	}
+}
@@ -0,0 +1,52 @@
+package pl.xsd.pokertable.history;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One closed estimation round. The votes of all developers are stored in a single packed column (see
+ * {@link PackedVotes}) instead of a row per vote. The id comes from a pooled sequence so that rounds can be
+ * inserted in JDBC batches.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "poker_table_id, round_number"))
+@NoArgsConstructor
+@Getter
+@Setter
+public class VoteRound {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vote_round_seq")
+	@SequenceGenerator(name = "vote_round_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "poker_table_id", nullable = false)
+	private Long pokerTableId;
+
+	private Long storyId;
+
+	@Column(name = "round_number", nullable = false)
+	private Integer roundNumber;
+
+	@Column(nullable = false)
+	private LocalDateTime closedAt;
+
+	@Column(nullable = false)
+	private Integer voterCount;
+
+	@Column(nullable = false, length = 8192)
+	private byte[] packedVotes;
+
+	public VoteRound(Long pokerTableId, Long storyId, Integer roundNumber, LocalDateTime closedAt, byte[] packedVotes) {
+		this.pokerTableId = pokerTableId;
+		this.storyId = storyId;
+		this.roundNumber = roundNumber;
+		this.closedAt = closedAt;
+		this.packedVotes = packedVotes;
+		this.voterCount = PackedVotes.count(packedVotes);
+	}
+}
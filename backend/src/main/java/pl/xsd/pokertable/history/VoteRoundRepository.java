@@ -0,0 +1,19 @@
+package pl.xsd.pokertable.history;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VoteRoundRepository extends JpaRepository<VoteRound, Long> {
+
+	// Leaves packedVotes out, rounds are only decoded when asked for one by one
+	@Query("select new pl.xsd.pokertable.history.VoteRoundSummary(r.id, r.storyId, r.roundNumber, r.closedAt, r.voterCount) " +
+			"from VoteRound r where r.pokerTableId = :tableId order by r.roundNumber, r.id")
+	List<VoteRoundSummary> findSummariesByPokerTableId(Long tableId);
+
+	Optional<VoteRound> findByIdAndPokerTableId(Long id, Long pokerTableId);
+}
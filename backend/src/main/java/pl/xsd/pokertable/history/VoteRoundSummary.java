@@ -0,0 +1,6 @@
+package pl.xsd.pokertable.history;
+
+import java.time.LocalDateTime;
+
+public record VoteRoundSummary(Long id, Long storyId, Integer roundNumber, LocalDateTime closedAt, Integer voterCount) {
+}
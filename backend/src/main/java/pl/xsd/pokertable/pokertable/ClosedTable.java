@@ -0,0 +1,6 @@
+package pl.xsd.pokertable.pokertable;
+
+import java.time.LocalDateTime;
+
+public record ClosedTable(Long id, String name, LocalDateTime createdAt, LocalDateTime closedAt) {
+}
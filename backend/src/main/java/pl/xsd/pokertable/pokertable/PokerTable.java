@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(columnList = "is_closed, closed_at"))
 @Setter
 @Getter
 
@@ -28,6 +29,18 @@ public class PokerTable {
 
 	private Boolean isClosed;
 
+	private LocalDateTime closedAt;
+
+	private LocalDateTime roundDeadline;
+
+	private Integer roundNumber;
+
+	private Long currentStoryId;
+
+	@Version
+	@JsonIgnore
+	private Long version;
+
 	@OneToMany(mappedBy = "pokerTable", fetch = FetchType.EAGER)
 	@JsonBackReference // ← Ważna adnotacja
 	private Set<Developer> developers;
@@ -41,6 +54,7 @@ public class PokerTable {
 		this.name = name;
 		this.createdAt = LocalDateTime.now();
 		this.isClosed = false;
+		this.roundNumber = 1;
 	}
 
 	public PokerTable(Long id, String name, Boolean isClosed) {
@@ -48,10 +62,12 @@ public class PokerTable {
 		this.name = name;
 		this.createdAt = LocalDateTime.now();
 		this.isClosed = isClosed;
+		this.roundNumber = 1;
 	}
 
 	public PokerTable() {
 		this.createdAt = LocalDateTime.now();
 		this.isClosed = false;
+		this.roundNumber = 1;
 	}
 }
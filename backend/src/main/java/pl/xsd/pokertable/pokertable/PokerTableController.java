@@ -7,6 +7,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pl.xsd.pokertable.developer.DeveloperService;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.snapshot.CompressedExportCache;
+import pl.xsd.pokertable.snapshot.TableSnapshot;
+import pl.xsd.pokertable.snapshot.TableSnapshotStore;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/tables")
@@ -15,6 +22,8 @@ public class PokerTableController {
 
 	private final PokerTableService pokerTableService;
 	private final DeveloperService developerService;
+	private final TableSnapshotStore tableSnapshotStore;
+	private final CompressedExportCache compressedExportCache;
 
 	// Endpoint do tworzenia stołu pokerowego
 	@PostMapping
@@ -37,28 +46,93 @@ public class PokerTableController {
 		}
 	}
 
+	@PostMapping("/{id}/rounds/next")
+	public ResponseEntity<PokerTable> startNextRound(@PathVariable Long id, @RequestParam(required = false) Long storyId) {
+		try {
+			return ResponseEntity.ok(pokerTableService.startNextRound(id, storyId));
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(400).build();
+		}
+	}
+
+	@PutMapping("/{id}/deadline")
+	public ResponseEntity<PokerTable> startRoundTimer(@PathVariable Long id, @RequestParam long seconds) {
+		try {
+			return ResponseEntity.ok(pokerTableService.startRoundTimer(id, Duration.ofSeconds(seconds)));
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(400).build();
+		}
+	}
+
+	@DeleteMapping("/{id}/deadline")
+	public ResponseEntity<Void> cancelRoundTimer(@PathVariable Long id) {
+		pokerTableService.cancelRoundTimer(id);
+		return ResponseEntity.noContent().build();
+	}
+
 	@GetMapping("/active")
 	public ResponseEntity<PokerTable> getActiveTable() {
 		PokerTable table = pokerTableService.getActiveTable();
 		return ResponseEntity.ok(table);
 	}
 
+	// Closed tables are served from their snapshot when there is one
 	@GetMapping("/{id}")
-	public ResponseEntity<PokerTable> getTableById(@PathVariable Long id) {
+	public ResponseEntity<?> getTableById(@PathVariable Long id) {
+		Optional<TableSnapshot> snapshot = findSnapshot(id);
+		if (snapshot.isPresent()) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			return snapshot.get().toResponse(TableSnapshot.Section.TABLE, headers);
+		}
 		return ResponseEntity.ok(pokerTableService.getTableById(id));
 	}
 
 	@GetMapping("/{tableId}/export-stories")
-	public ResponseEntity<byte[]> exportUserStories(@PathVariable Long tableId) {
-		byte[] csvBytes = pokerTableService.exportUserStoriesToCsv(tableId);
-
+	public ResponseEntity<?> exportUserStories(@PathVariable Long tableId,
+											   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
 		HttpHeaders headers = new HttpHeaders();
 		headers.setContentType(MediaType.parseMediaType("text/csv"));
 		headers.setContentDispositionFormData("attachment", "poker-planning-export-" + tableId + ".csv");
 
+		Optional<TableSnapshot> snapshot = findSnapshot(tableId);
+		if (snapshot.isPresent()) {
+			headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+			if (acceptsGzip(acceptEncoding)) {
+				byte[] gzipped = compressedExportCache.get(tableId, () -> snapshot.get().section(TableSnapshot.Section.STORIES));
+				return snapshot.get().toEncodedResponse(TableSnapshot.Section.STORIES, headers, "gzip", gzipped);
+			}
+			return snapshot.get().toResponse(TableSnapshot.Section.STORIES, headers);
+		}
+		byte[] csvBytes = pokerTableService.exportUserStoriesToCsv(tableId);
+
 		return ResponseEntity.ok()
 				.headers(headers)
 				.body(csvBytes);
 	}
-}
 
+	// An explicit gzip entry wins over *, and either is refused with q=0
+	private static boolean acceptsGzip(String acceptEncoding) {
+		boolean wildcard = false;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			boolean acceptable = parts.length < 2 || !parts[1].trim().matches("(?i)q=0(\\.0*)?");
+			if (name.equalsIgnoreCase("gzip")) {
+				return acceptable;
+			}
+			if (name.equals("*")) {
+				wildcard = acceptable;
+			}
+		}
+		return wildcard;
+	}
+
+	// Only once the database says the table is closed, and for the close it was written for
+	private Optional<TableSnapshot> findSnapshot(Long tableId) {
+		if (!tableSnapshotStore.isEnabled()) {
+			return Optional.empty();
+		}
+		return pokerTableService.findClosedAt(tableId).flatMap(closedAt -> tableSnapshotStore.find(tableId, closedAt));
+	}
+}
@@ -1,11 +1,42 @@
 package pl.xsd.pokertable.pokertable;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PokerTableRepository extends JpaRepository<PokerTable, Long> {
+	// Read-only on its own, so getActiveTable reads from the replica; joins the surrounding transaction otherwise
+	@Transactional(readOnly = true)
 	Optional<PokerTable> findByIsClosedFalse();
+
+	// The same on the primary, checked before opening a new table in case the replica has not seen the open one yet
+	@Transactional
+	@Query("select t from PokerTable t where t.isClosed = false")
+	Optional<PokerTable> findOpenTableOnPrimary();
+
+	List<PokerTable> findByIsClosedFalseAndRoundDeadlineIsNotNull();
+
+	@Query("select t.closedAt from PokerTable t where t.id = :id and t.isClosed = true")
+	Optional<LocalDateTime> findClosedAtById(@Param("id") Long id);
+
+	@Query("select t.id from PokerTable t where t.isClosed = true and t.closedAt < :closedBefore order by t.id")
+	List<Long> findIdsClosedBefore(@Param("closedBefore") LocalDateTime closedBefore, Limit limit);
+
+	// Keyset pages in closing order, served by the (is_closed, closed_at) index however many tables are in the range
+	@Query("select new pl.xsd.pokertable.pokertable.ClosedTable(t.id, t.name, t.createdAt, t.closedAt) from PokerTable t " +
+			"where t.isClosed = true and t.closedAt >= :from and t.closedAt < :to " +
+			"and (t.closedAt > :afterClosedAt or (t.closedAt = :afterClosedAt and t.id > :afterId)) order by t.closedAt, t.id")
+	List<ClosedTable> findClosedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+										@Param("afterClosedAt") LocalDateTime afterClosedAt, @Param("afterId") Long afterId, Limit limit);
+
+	@Query("select count(t) from PokerTable t where t.isClosed = true and t.closedAt >= :from and t.closedAt < :to")
+	long countClosedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -1,21 +1,54 @@
 package pl.xsd.pokertable.pokertable;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.xsd.pokertable.archive.TableArchiveService;
 import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.developer.PresenceTracker;
 import pl.xsd.pokertable.exception.NotEveryoneVotedException;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.retry.RetryOnConflict;
 import pl.xsd.pokertable.userstory.UserStory;
-
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
 public class PokerTableService {
 
-	private final PokerTableRepository pokerTableRepository;
+	public static final String CSV_HEADER = "Summary,Description,Issue Type,Story point estimate\n";
+	/**
+	 * Longest round timer, a planning session does not outlast a day and {@link LocalDateTime} cannot go on forever.
+	 */
+	static final Duration MAX_ROUND_DURATION = Duration.ofHours(24);
 
-	public PokerTableService(PokerTableRepository pokerTableRepository) {
+	private final PokerTableRepository pokerTableRepository;
+	private final PresenceTracker presenceTracker;
+	private final RoundDeadlines roundDeadlines;
+	private final DeveloperRepository developerRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final TableArchiveService tableArchiveService;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public PokerTableService(PokerTableRepository pokerTableRepository, PresenceTracker presenceTracker, RoundDeadlines roundDeadlines,
+							 DeveloperRepository developerRepository, UserStoryRepository userStoryRepository,
+							 TableArchiveService tableArchiveService, ApplicationEventPublisher eventPublisher) {
 		this.pokerTableRepository = pokerTableRepository;
+		this.presenceTracker = presenceTracker;
+		this.roundDeadlines = roundDeadlines;
+		this.developerRepository = developerRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.tableArchiveService = tableArchiveService;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Transactional
@@ -24,32 +57,150 @@ public class PokerTableService {
 		return pokerTableRepository.save(pokerTable);
 	}
 
+	@RetryOnConflict
 	@Transactional
 	public void closePokerTable(Long tableId) {
 		PokerTable pokerTable = pokerTableRepository.findById(tableId)
 				.orElseThrow(() -> new NotFoundException("Poker table not found"));
 
-		Set<Developer> developers = pokerTable.getDevelopers();
+		// Developers whose heartbeat timed out no longer hold up the quorum. Their versions are checked again at
+		// commit, a vote cast while closing makes the close retry with it instead of leaving it out of the round
+		List<Developer> developers = developerRepository.findByPokerTableId(tableId).stream()
+				.filter(dev -> !presenceTracker.isStale(tableId, dev.getId()))
+				.toList();
 		long totalDevelopers = developers.size();
 
 
 		long votedDevelopersCount = developers.stream().filter(dev -> dev.getVote() != null).count();
 
 		if (votedDevelopersCount == totalDevelopers && totalDevelopers > 0) {
-			pokerTable.setIsClosed(true);
-			pokerTableRepository.save(pokerTable);
+			close(pokerTable);
 		} else {
 			throw new NotEveryoneVotedException("Not all developers have submitted a vote yet, or there are no developers at the table.");
 		}
 	}
 
+	/**
+	 * Ends the current round and resets every vote of the table with a single bulk update, whatever the number
+	 * of developers. {@code storyId}, when given, is the story estimated in the new round.
+	 */
+	@Transactional
+	public PokerTable startNextRound(Long tableId, Long storyId) {
+		PokerTable pokerTable = findTable(tableId);
+		if (Boolean.TRUE.equals(pokerTable.getIsClosed())) {
+			throw new IllegalStateException("Poker table is already closed");
+		}
+		if (storyId != null && !userStoryRepository.existsByIdAndPokerTableId(storyId, tableId)) {
+			throw new IllegalArgumentException("User story " + storyId + " does not belong to poker table " + tableId);
+		}
+
+		int currentRound = pokerTable.getRoundNumber() == null ? 1 : pokerTable.getRoundNumber();
+		eventPublisher.publishEvent(new RoundClosedEvent(tableId, pokerTable.getCurrentStoryId(), currentRound, castVotes(pokerTable)));
+		developerRepository.clearVotes(tableId);
+
+		pokerTable.setRoundNumber(currentRound + 1);
+		pokerTable.setCurrentStoryId(storyId);
+		pokerTable.setRoundDeadline(null);
+		PokerTable saved = pokerTableRepository.save(pokerTable);
+
+		eventPublisher.publishEvent(new RoundStartedEvent(tableId, saved.getRoundNumber()));
+		return saved;
+	}
+
+	@Transactional
+	public PokerTable startRoundTimer(Long tableId, Duration duration) {
+		if (duration.isNegative() || duration.isZero()) {
+			throw new IllegalArgumentException("Round duration must be positive");
+		}
+		if (duration.compareTo(MAX_ROUND_DURATION) > 0) {
+			throw new IllegalArgumentException("Round duration must be at most " + MAX_ROUND_DURATION.toHours() + " hours");
+		}
+
+		PokerTable pokerTable = findTable(tableId);
+		if (Boolean.TRUE.equals(pokerTable.getIsClosed())) {
+			throw new IllegalStateException("Poker table is already closed");
+		}
+
+		pokerTable.setRoundDeadline(LocalDateTime.now().plus(duration));
+		PokerTable saved = pokerTableRepository.save(pokerTable);
+		roundDeadlines.schedule(tableId, saved.getRoundDeadline());
+		return saved;
+	}
+
+	@Transactional
+	public void cancelRoundTimer(Long tableId) {
+		PokerTable pokerTable = findTable(tableId);
+		pokerTable.setRoundDeadline(null);
+		pokerTableRepository.save(pokerTable);
+		roundDeadlines.cancel(tableId);
+	}
+
+	/**
+	 * Reveals the votes of a round whose deadline has passed. Unlike {@link #closePokerTable(Long)} there is no
+	 * quorum to check, the developers fetched with the table are only read for the round history. Stale timer
+	 * entries (deadline moved or cancelled, table already closed) are ignored.
+	 */
+	@RetryOnConflict
+	@Transactional
+	public void closeExpiredRound(Long tableId) {
+		pokerTableRepository.findById(tableId)
+				.filter(table -> !Boolean.TRUE.equals(table.getIsClosed()))
+				.filter(table -> table.getRoundDeadline() != null && !table.getRoundDeadline().isAfter(LocalDateTime.now()))
+				.ifPresent(this::close);
+	}
+
+	private void close(PokerTable pokerTable) {
+		pokerTable.setIsClosed(true);
+		// At the precision of the column, so the snapshot shows the same time as the table read back
+		pokerTable.setClosedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+		pokerTable.setRoundDeadline(null);
+		pokerTableRepository.save(pokerTable);
+
+		Map<Long, Integer> votes = castVotes(pokerTable);
+		eventPublisher.publishEvent(new RoundClosedEvent(pokerTable.getId(), pokerTable.getCurrentStoryId(),
+				pokerTable.getRoundNumber(), votes));
+		eventPublisher.publishEvent(new TableClosedEvent(pokerTable.getId(), pokerTable.getClosedAt(), votes));
+	}
+
+	private Map<Long, Integer> castVotes(PokerTable pokerTable) {
+		Map<Long, Integer> votes = new HashMap<>();
+		for (Developer developer : pokerTable.getDevelopers()) {
+			if (developer.getVote() != null) {
+				votes.put(developer.getId(), developer.getVote());
+			}
+		}
+		return votes;
+	}
+
 
 	public PokerTable getActiveTable() {
 		return pokerTableRepository.findByIsClosedFalse()
+				.or(pokerTableRepository::findOpenTableOnPrimary)
 				.orElseGet(() -> createPokerTable("Default Table"));
 	}
 
+	/**
+	 * The table with its developers and user stories, also when it has been archived. An archived table comes back
+	 * detached and must not be saved, the methods changing a table only look at the tables that are not archived.
+	 */
+	@Transactional(readOnly = true)
 	public PokerTable getTableById(Long tableId) {
+		return pokerTableRepository.findById(tableId)
+				.or(() -> tableArchiveService.findArchivedTable(tableId))
+				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + tableId));
+	}
+
+	/**
+	 * When the table was closed, also when it has been archived, or empty while it is open or when there is no such
+	 * table. Reads only the close time, for deciding whether a snapshot of the table may be served.
+	 */
+	@Transactional(readOnly = true)
+	public Optional<LocalDateTime> findClosedAt(Long tableId) {
+		return pokerTableRepository.findClosedAtById(tableId)
+				.or(() -> tableArchiveService.findClosedAt(tableId));
+	}
+
+	private PokerTable findTable(Long tableId) {
 		return pokerTableRepository.findById(tableId)
 				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + tableId));
 	}
@@ -61,22 +212,26 @@ public class PokerTableService {
 		Set<UserStory> userStories = pokerTable.getUserStories();
 
 		StringBuilder csvContent = new StringBuilder();
-		csvContent.append("Summary,Description,Issue Type,Story point estimate\n");
+		csvContent.append(CSV_HEADER);
 
 		for (UserStory story : userStories) {
-			csvContent.append("\"").append(escapeCsv(story.getTitle())).append("\"").append(",");
-			csvContent.append("\"").append(escapeCsv(story.getDescription())).append("\"").append(",");
-			csvContent.append("\"Story\",");
-			if (story.getEstimatedPoints() != null) {
-				csvContent.append(story.getEstimatedPoints());
-			}
-			csvContent.append("\n");
+			appendCsvRow(csvContent, story);
 		}
 
 		return csvContent.toString().getBytes();
 	}
 
-	private String escapeCsv(String field) {
+	public static void appendCsvRow(StringBuilder csvContent, UserStory story) {
+		csvContent.append("\"").append(escapeCsv(story.getTitle())).append("\"").append(",");
+		csvContent.append("\"").append(escapeCsv(story.getDescription())).append("\"").append(",");
+		csvContent.append("\"Story\",");
+		if (story.getEstimatedPoints() != null) {
+			csvContent.append(story.getEstimatedPoints());
+		}
+		csvContent.append("\n");
+	}
+
+	public static String escapeCsv(String field) {
 		if (field == null) {
 			return "";
 		}
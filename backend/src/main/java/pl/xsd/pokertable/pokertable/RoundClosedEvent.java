@@ -0,0 +1,10 @@
+package pl.xsd.pokertable.pokertable;
+
+import java.util.Map;
+
+/**
+ * Published when a round ends, either because the table was closed or because the next round was started.
+ * {@code votes} maps developer id to vote and only contains developers who voted.
+ */
+public record RoundClosedEvent(Long tableId, Long storyId, Integer roundNumber, Map<Long, Integer> votes) {
+}
@@ -0,0 +1,55 @@
+package pl.xsd.pokertable.pokertable;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class RoundDeadlineScheduler {
+
+	private final RoundDeadlines roundDeadlines;
+	private final PokerTableService pokerTableService;
+	private final PokerTableRepository pokerTableRepository;
+
+	public RoundDeadlineScheduler(RoundDeadlines roundDeadlines, PokerTableService pokerTableService, PokerTableRepository pokerTableRepository) {
+		this.roundDeadlines = roundDeadlines;
+		this.pokerTableService = pokerTableService;
+		this.pokerTableRepository = pokerTableRepository;
+	}
+
+	// Deadlines are persisted on PokerTable, so a restart only has to rebuild the in-memory queue
+	@EventListener(ApplicationReadyEvent.class)
+	public void restorePendingDeadlines() {
+		pokerTableRepository.findByIsClosedFalseAndRoundDeadlineIsNotNull()
+				.forEach(table -> roundDeadlines.schedule(table.getId(), table.getRoundDeadline()));
+	}
+
+	@TransactionalEventListener
+	public void onRoundStarted(RoundStartedEvent event) {
+		roundDeadlines.cancel(event.tableId());
+	}
+
+	@TransactionalEventListener
+	public void onTableClosed(TableClosedEvent event) {
+		roundDeadlines.cancel(event.tableId());
+	}
+
+	@Scheduled(fixedDelayString = "${pokertable.rounds.tick:1s}")
+	public void closeExpiredRounds() {
+		LocalDateTime now = LocalDateTime.now();
+		for (Long tableId : roundDeadlines.pollExpired(now)) {
+			try {
+				pokerTableService.closeExpiredRound(tableId);
+			} catch (RuntimeException e) {
+				log.warn("Could not close expired round of poker table {}, trying again on the next tick", tableId, e);
+				roundDeadlines.retry(tableId, now);
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package pl.xsd.pokertable.pokertable;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * One ordered set of pending round deadlines shared by every table, instead of a thread or a scheduled future
+ * per table. {@link RoundDeadlineScheduler} drains it from a single periodic tick.
+ */
+@Component
+public class RoundDeadlines {
+
+	private record Entry(LocalDateTime deadline, Long tableId) {
+	}
+
+	private final NavigableSet<Entry> queue = new TreeSet<>(
+			Comparator.comparing(Entry::deadline).thenComparing(Entry::tableId));
+	private final Map<Long, LocalDateTime> deadlineByTable = new HashMap<>();
+
+	public synchronized void schedule(Long tableId, LocalDateTime deadline) {
+		LocalDateTime previous = deadlineByTable.put(tableId, deadline);
+		if (previous != null) {
+			queue.remove(new Entry(previous, tableId));
+		}
+		queue.add(new Entry(deadline, tableId));
+	}
+
+	public synchronized void cancel(Long tableId) {
+		LocalDateTime previous = deadlineByTable.remove(tableId);
+		if (previous != null) {
+			queue.remove(new Entry(previous, tableId));
+		}
+	}
+
+	/**
+	 * Puts back the deadline of a table whose round could not be closed, so the next tick tries again. A deadline
+	 * scheduled or cancelled in the meantime wins, the expired one is then no longer wanted.
+	 */
+	public synchronized void retry(Long tableId, LocalDateTime deadline) {
+		if (!deadlineByTable.containsKey(tableId)) {
+			deadlineByTable.put(tableId, deadline);
+			queue.add(new Entry(deadline, tableId));
+		}
+	}
+
+	/**
+	 * Removes and returns the tables whose deadline is at or before {@code now}, earliest first.
+	 */
+	public synchronized List<Long> pollExpired(LocalDateTime now) {
+		List<Long> expired = new ArrayList<>();
+		while (!queue.isEmpty() && !queue.first().deadline().isAfter(now)) {
+			Entry entry = queue.pollFirst();
+			deadlineByTable.remove(entry.tableId());
+			expired.add(entry.tableId());
+		}
+		return expired;
+	}
+
+	public synchronized int size() {
+		return queue.size();
+	}
+}
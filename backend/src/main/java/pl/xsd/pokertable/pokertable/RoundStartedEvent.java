@@ -0,0 +1,8 @@
+package pl.xsd.pokertable.pokertable;
+
+/**
+ * Published when every vote of a table has been reset for a new round. In-memory state derived from the votes
+ * of {@code tableId} must be dropped when this event is received after commit.
+ */
+public record RoundStartedEvent(Long tableId, Integer roundNumber) {
+}
@@ -0,0 +1,11 @@
+package pl.xsd.pokertable.pokertable;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Published once per table, when it is closed. {@code votes} are the votes revealed by the close, keyed by
+ * developer id.
+ */
+public record TableClosedEvent(Long tableId, LocalDateTime closedAt, Map<Long, Integer> votes) {
+}
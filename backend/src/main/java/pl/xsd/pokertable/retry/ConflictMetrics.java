@@ -0,0 +1,86 @@
+package pl.xsd.pokertable.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counters of optimistic locking conflicts, tagged with the operation, for example
+ * {@code /actuator/metrics/pokertable.optimistic.conflicts?tag=operation:DeveloperService.vote}. Every conflict is
+ * counted once, and is then either retried or, after the last attempt, exhausted.
+ * <p>
+ * Contention per table is in {@code pokertable.optimistic.table-conflicts}, tagged with the table. Only open tables
+ * can conflict, and a table's counter is removed once it is closed, so there are only ever a few of them; past
+ * {@code pokertable.retry.metrics.max-tables} tables conflicts are counted under {@code table:other}.
+ */
+@Component
+public class ConflictMetrics {
+
+	static final String CONFLICTS = "pokertable.optimistic.conflicts";
+	static final String RETRIES = "pokertable.optimistic.retries";
+	static final String EXHAUSTED = "pokertable.optimistic.exhausted";
+	static final String TABLE_CONFLICTS = "pokertable.optimistic.table-conflicts";
+	static final String OTHER_TABLES = "other";
+
+	private final MeterRegistry meterRegistry;
+	private final int maxTables;
+	private final Map<String, Counter> tableCounters = new HashMap<>();
+
+	public ConflictMetrics(MeterRegistry meterRegistry, @Value("${pokertable.retry.metrics.max-tables:20}") int maxTables) {
+		this.meterRegistry = meterRegistry;
+		this.maxTables = maxTables;
+	}
+
+	void conflict(String operation, String tableId) {
+		counter(CONFLICTS, operation).increment();
+		if (!ConflictRetryAspect.NO_TABLE.equals(tableId)) {
+			tableCounter(tableId).increment();
+		}
+	}
+
+	void retry(String operation) {
+		counter(RETRIES, operation).increment();
+	}
+
+	void exhausted(String operation) {
+		counter(EXHAUSTED, operation).increment();
+	}
+
+	// After commit, a close that is rolled back and retried is still contended
+	@TransactionalEventListener
+	public void onTableClosed(TableClosedEvent event) {
+		Counter counter;
+		synchronized (tableCounters) {
+			counter = tableCounters.remove(event.tableId().toString());
+		}
+		if (counter != null) {
+			meterRegistry.remove(counter);
+		}
+	}
+
+	private Counter counter(String name, String operation) {
+		return meterRegistry.counter(name, "operation", operation);
+	}
+
+	// Conflicts are rare, a lock costs nothing next to the transaction that failed
+	private Counter tableCounter(String tableId) {
+		synchronized (tableCounters) {
+			Counter counter = tableCounters.get(tableId);
+			if (counter != null) {
+				return counter;
+			}
+			if (tableCounters.size() >= maxTables) {
+				return meterRegistry.counter(TABLE_CONFLICTS, "table", OTHER_TABLES);
+			}
+			counter = meterRegistry.counter(TABLE_CONFLICTS, "table", tableId);
+			tableCounters.put(tableId, counter);
+			return counter;
+		}
+	}
+}
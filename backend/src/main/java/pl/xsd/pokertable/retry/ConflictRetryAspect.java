@@ -0,0 +1,127 @@
+package pl.xsd.pokertable.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Retries {@link RetryOnConflict} methods whose transaction failed on a stale version. Between attempts it waits a
+ * random time up to an exponentially growing cap ("full jitter"), so requests that collided once spread out instead
+ * of colliding again. After the last attempt the conflict is rethrown and answered with 409.
+ * <p>
+ * Ordered before the transaction interceptor, so every attempt is a new transaction that reads the rows again.
+ * Called inside a transaction of its caller the method is not retried, as that transaction is already rolled back.
+ * <p>
+ * The time waited is added up per thread in {@link #backoffNanos()}, so load shedding can tell a request slowed
+ * down by its own backoff from one slowed down by an overloaded server.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+	static final String NO_TABLE = "none";
+
+	private static final ThreadLocal<long[]> BACKOFF_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final ConflictMetrics conflictMetrics;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long maxBackoffMillis;
+	private final LongConsumer sleeper;
+
+	@Autowired
+	public ConflictRetryAspect(ConflictMetrics conflictMetrics,
+							   @Value("${pokertable.retry.max-attempts:4}") int maxAttempts,
+							   @Value("${pokertable.retry.initial-backoff:20ms}") Duration initialBackoff,
+							   @Value("${pokertable.retry.max-backoff:500ms}") Duration maxBackoff) {
+		this(conflictMetrics, maxAttempts, initialBackoff, maxBackoff, ConflictRetryAspect::sleep);
+	}
+
+	ConflictRetryAspect(ConflictMetrics conflictMetrics, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+						LongConsumer sleeper) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("pokertable.retry.max-attempts must be at least 1");
+		}
+		this.conflictMetrics = conflictMetrics;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoff.toMillis();
+		this.maxBackoffMillis = maxBackoff.toMillis();
+		this.sleeper = sleeper;
+	}
+
+	@Around("@annotation(retryOnConflict)")
+	public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return joinPoint.proceed();
+		}
+
+		MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+		String operation = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+		String tableId = tableId(signature, joinPoint.getArgs(), retryOnConflict.tableIdParameter());
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return joinPoint.proceed();
+			} catch (OptimisticLockingFailureException e) {
+				conflictMetrics.conflict(operation, tableId);
+				if (attempt == maxAttempts) {
+					conflictMetrics.exhausted(operation);
+					log.warn("{} on poker table {} still conflicted after {} attempts", operation, tableId, attempt);
+					throw e;
+				}
+				conflictMetrics.retry(operation);
+				log.debug("{} on poker table {} conflicted, retrying (attempt {})", operation, tableId, attempt);
+				long backoff = backoffMillis(attempt);
+				sleeper.accept(backoff);
+				BACKOFF_NANOS.get()[0] += TimeUnit.MILLISECONDS.toNanos(backoff);
+			}
+		}
+	}
+
+	/**
+	 * How long the current thread has waited between attempts, in total since it started. Only the difference
+	 * between two calls means anything.
+	 */
+	public static long backoffNanos() {
+		return BACKOFF_NANOS.get()[0];
+	}
+
+	long backoffMillis(int attempt) {
+		long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+		return ThreadLocalRandom.current().nextLong(cap + 1);
+	}
+
+	private static String tableId(MethodSignature signature, Object[] args, String parameter) {
+		String[] names = signature.getParameterNames();
+		for (int i = 0; names != null && i < names.length; i++) {
+			if (names[i].equals(parameter) && args[i] != null) {
+				return args[i].toString();
+			}
+		}
+		return NO_TABLE;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to retry", e);
+		}
+	}
+}
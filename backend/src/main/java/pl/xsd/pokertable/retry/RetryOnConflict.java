@@ -0,0 +1,19 @@
+package pl.xsd.pokertable.retry;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs the annotated transactional method again when it loses an optimistic locking race, see
+ * {@link ConflictRetryAspect}. The method must be safe to repeat: it should only change the database and publish
+ * transactional events.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+	/**
+	 * Name of the parameter holding the poker table id, used to count conflicts per table and in the logs.
+	 */
+	String tableIdParameter() default "tableId";
+}
@@ -0,0 +1,28 @@
+package pl.xsd.pokertable.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code suggestedPoints} is the estimate with the highest total similarity among {@code similarStories}, or
+ * {@code null} when no similar story was found.
+ */
+public record EstimateSuggestion(Integer suggestedPoints, List<SimilarStory> similarStories) {
+
+	// On a tie the larger estimate wins, underestimating is the more expensive mistake
+	public static EstimateSuggestion of(List<SimilarStory> similarStories) {
+		Map<Integer, Double> weights = new TreeMap<>();
+		similarStories.forEach(story -> weights.merge(story.estimatedPoints(), story.similarity(), Double::sum));
+
+		Integer suggested = null;
+		double best = 0;
+		for (Map.Entry<Integer, Double> weight : weights.entrySet()) {
+			if (weight.getValue() >= best) {
+				suggested = weight.getKey();
+				best = weight.getValue();
+			}
+		}
+		return new EstimateSuggestion(suggested, similarStories);
+	}
+}
@@ -0,0 +1,225 @@
+package pl.xsd.pokertable.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.UserStoryChangedEvent;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index kept in the JVM, for databases without full-text search such as H2. It is rebuilt from the
+ * database at startup and then follows committed {@link UserStoryChangedEvent}s. Title terms count
+ * {@value #TITLE_WEIGHT} times as much as description terms and results are ranked with BM25.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pokertable.search.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryStorySearchIndex implements StorySearchIndex {
+
+	static final int TITLE_WEIGHT = 3;
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	private final UserStoryRepository userStoryRepository;
+	private final Map<String, PostingList> postings = new HashMap<>();
+	// Length of every indexed story, one indexed by both the startup rebuild and its change event counts once
+	private final Map<Long, Integer> lengths = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private long documents;
+	private long totalLength;
+
+	public InMemoryStorySearchIndex(UserStoryRepository userStoryRepository) {
+		this.userStoryRepository = userStoryRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		try (Stream<StoryDocument> stories = userStoryRepository.streamAllDocuments()) {
+			stories.forEach(this::index);
+		}
+		log.info("Indexed {} user stories, {} distinct terms", documents, postings.size());
+	}
+
+	@TransactionalEventListener
+	public void onUserStoryChanged(UserStoryChangedEvent event) {
+		if (event.before() != null) {
+			remove(event.before());
+		}
+		if (event.after() != null) {
+			index(event.after());
+		}
+	}
+
+	// Archived stories can no longer be opened or edited, searching only finds live ones
+	@TransactionalEventListener
+	public void onTablesArchived(TablesArchivedEvent event) {
+		event.stories().forEach(this::remove);
+	}
+
+	@Override
+	public void index(StoryDocument document) {
+		Map<String, Integer> frequencies = new HashMap<>();
+		int length = count(document.title(), TITLE_WEIGHT, frequencies) + count(document.description(), 1, frequencies);
+		if (frequencies.isEmpty()) {
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			frequencies.forEach((term, frequency) ->
+					postings.computeIfAbsent(term, t -> new PostingList()).add(document.id(), frequency, length));
+			Integer previous = lengths.put(document.id(), length);
+			if (previous == null) {
+				documents++;
+				totalLength += length;
+			} else {
+				totalLength += length - previous;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(StoryDocument document) {
+		Map<String, Integer> frequencies = new HashMap<>();
+		count(document.title(), TITLE_WEIGHT, frequencies);
+		count(document.description(), 1, frequencies);
+
+		lock.writeLock().lock();
+		try {
+			for (String term : frequencies.keySet()) {
+				PostingList list = postings.get(term);
+				if (list != null && list.remove(document.id())) {
+					if (list.size() == 0) {
+						postings.remove(term);
+					}
+				}
+			}
+			Integer previous = lengths.remove(document.id());
+			if (previous != null) {
+				documents--;
+				totalLength -= previous;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Long> search(String query, int limit) {
+		Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+		if (terms.isEmpty()) {
+			return List.of();
+		}
+
+		lock.readLock().lock();
+		try {
+			List<PostingList> lists = new ArrayList<>(terms.size());
+			for (String term : terms) {
+				PostingList list = postings.get(term);
+				if (list == null) {
+					return List.of();
+				}
+				lists.add(list);
+			}
+			lists.sort(Comparator.comparingInt(PostingList::size));
+			return topMatches(lists, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	int termCount() {
+		lock.readLock().lock();
+		try {
+			return postings.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	long documentCount() {
+		lock.readLock().lock();
+		try {
+			return documents;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Candidates come from the shortest list, every other list is merged against them in a single forward pass
+	private List<Long> topMatches(List<PostingList> lists, int limit) {
+		double averageLength = (double) totalLength / documents;
+
+		PostingList shortest = lists.get(0);
+		long[] ids = new long[shortest.size()];
+		double[] scores = new double[shortest.size()];
+		int candidates = 0;
+		double idf = idf(shortest);
+		PostingList.Cursor cursor = shortest.cursor();
+		while (cursor.next()) {
+			ids[candidates] = cursor.storyId;
+			scores[candidates++] = score(idf, cursor, averageLength);
+		}
+
+		for (PostingList list : lists.subList(1, lists.size())) {
+			idf = idf(list);
+			cursor = list.cursor();
+			int kept = 0;
+			for (int i = 0; i < candidates && cursor.advance(ids[i]); i++) {
+				if (cursor.storyId == ids[i]) {
+					ids[kept] = ids[i];
+					scores[kept++] = scores[i] + score(idf, cursor, averageLength);
+				}
+			}
+			candidates = kept;
+		}
+
+		// Min-heap of the best matches so far, ties go to the older story
+		Comparator<Integer> byScore = (a, b) -> scores[a] != scores[b]
+				? Double.compare(scores[a], scores[b]) : Long.compare(ids[b], ids[a]);
+		PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byScore);
+		for (int i = 0; i < candidates; i++) {
+			if (best.size() < limit) {
+				best.add(i);
+			} else if (byScore.compare(i, best.peek()) > 0) {
+				best.poll();
+				best.add(i);
+			}
+		}
+
+		Long[] result = new Long[best.size()];
+		for (int i = result.length - 1; i >= 0; i--) {
+			result[i] = ids[best.poll()];
+		}
+		return Arrays.asList(result);
+	}
+
+	private double idf(PostingList list) {
+		return Math.log(1 + (documents - list.size() + 0.5) / (list.size() + 0.5));
+	}
+
+	private static double score(double idf, PostingList.Cursor cursor, double averageLength) {
+		double frequency = cursor.frequency;
+		return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * cursor.length / averageLength));
+	}
+
+	private static int count(String text, int weight, Map<String, Integer> frequencies) {
+		List<String> terms = Tokenizer.tokenize(text);
+		terms.forEach(term -> frequencies.merge(term, weight, Integer::sum));
+		return terms.size() * weight;
+	}
+}
@@ -0,0 +1,88 @@
+package pl.xsd.pokertable.search;
+
+import java.util.*;
+
+/**
+ * Locality-sensitive hashing over {@link MinHash} signatures: a signature is split into {@value #BANDS} bands of
+ * {@value #ROWS} positions and two stories are candidates when at least one band is equal, which for similarity s
+ * happens with probability 1 - (1 - s^ROWS)^BANDS. The split puts that curve just below
+ * {@link StorySimilarityIndex#MIN_SIMILARITY}: pairs at 0.3 are candidates about 95% of the time and from 0.4 on
+ * over 99%, while about 73% of pairs at 0.2 and a quarter at 0.1 are compared and then dropped. Not thread-safe.
+ */
+class LshBuckets {
+
+	static final int BANDS = 32;
+	static final int ROWS = MinHash.SIGNATURE_LENGTH / BANDS;
+
+	private final List<Map<Long, long[]>> buckets = new ArrayList<>(BANDS);
+
+	LshBuckets() {
+		for (int band = 0; band < BANDS; band++) {
+			buckets.add(new HashMap<>());
+		}
+	}
+
+	void add(long storyId, short[] signature) {
+		for (int band = 0; band < BANDS; band++) {
+			buckets.get(band).merge(bandKey(signature, band), new long[]{storyId}, LshBuckets::concat);
+		}
+	}
+
+	void remove(long storyId, short[] signature) {
+		for (int band = 0; band < BANDS; band++) {
+			buckets.get(band).computeIfPresent(bandKey(signature, band), (key, ids) -> without(ids, storyId));
+		}
+	}
+
+	/**
+	 * Every story sharing at least one band with {@code signature}, each once.
+	 */
+	Set<Long> candidates(short[] signature) {
+		Set<Long> candidates = new LinkedHashSet<>();
+		for (int band = 0; band < BANDS; band++) {
+			long[] ids = buckets.get(band).get(bandKey(signature, band));
+			if (ids != null) {
+				for (long id : ids) {
+					candidates.add(id);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	// The ROWS 16-bit values of a band fit in one long
+	private static long bandKey(short[] signature, int band) {
+		long key = 0;
+		for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+			key = (key << 16) | (signature[row] & 0xFFFF);
+		}
+		return key;
+	}
+
+	private static long[] concat(long[] ids, long[] added) {
+		long[] result = Arrays.copyOf(ids, ids.length + added.length);
+		System.arraycopy(added, 0, result, ids.length, added.length);
+		return result;
+	}
+
+	// Returning null drops the bucket
+	private static long[] without(long[] ids, long storyId) {
+		int index = -1;
+		for (int i = 0; i < ids.length && index < 0; i++) {
+			if (ids[i] == storyId) {
+				index = i;
+			}
+		}
+		if (index < 0) {
+			return ids;
+		}
+		if (ids.length == 1) {
+			return null;
+		}
+
+		long[] result = new long[ids.length - 1];
+		System.arraycopy(ids, 0, result, 0, index);
+		System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+		return result;
+	}
+}
@@ -0,0 +1,67 @@
+package pl.xsd.pokertable.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of term sets. The fraction of equal positions in two signatures estimates the Jaccard
+ * similarity of the sets. Only the low 16 bits of every minimum are kept, which halves the size of a signature
+ * and adds a 1/65536 chance of a false match per position.
+ */
+final class MinHash {
+
+	static final int SIGNATURE_LENGTH = 64;
+
+	private static final long[] MULTIPLIERS = new long[SIGNATURE_LENGTH];
+	private static final long[] INCREMENTS = new long[SIGNATURE_LENGTH];
+
+	static {
+		// Fixed seed: signatures must not change between restarts
+		SplittableRandom random = new SplittableRandom(0x5EED);
+		for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+			MULTIPLIERS[i] = random.nextLong() | 1;
+			INCREMENTS[i] = random.nextLong();
+		}
+	}
+
+	private MinHash() {
+	}
+
+	static short[] signature(Collection<String> terms) {
+		int[] minimums = new int[SIGNATURE_LENGTH];
+		Arrays.fill(minimums, -1);
+		for (String term : terms) {
+			long hash = mix(term.hashCode());
+			for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+				int value = (int) ((MULTIPLIERS[i] * hash + INCREMENTS[i]) >>> 32);
+				if (Integer.compareUnsigned(value, minimums[i]) < 0) {
+					minimums[i] = value;
+				}
+			}
+		}
+
+		short[] signature = new short[SIGNATURE_LENGTH];
+		for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+			signature[i] = (short) minimums[i];
+		}
+		return signature;
+	}
+
+	static double similarity(short[] a, short[] b) {
+		int equal = 0;
+		for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+			if (a[i] == b[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / SIGNATURE_LENGTH;
+	}
+
+	// String.hashCode has poor low bits for short strings, spread them before hashing
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+		value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return value ^ (value >>> 33);
+	}
+}
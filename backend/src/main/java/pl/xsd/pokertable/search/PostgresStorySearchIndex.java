@@ -0,0 +1,63 @@
+package pl.xsd.pokertable.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pl.xsd.pokertable.userstory.StoryDocument;
+
+import java.util.List;
+
+/**
+ * Full-text search done by PostgreSQL itself, through a GIN index on the tsvector of the title and description.
+ * The database keeps the index up to date, so {@link #index} and {@link #remove} have nothing to do. The
+ * {@code simple} configuration is used because stories mix Polish and English.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pokertable.search.backend", havingValue = "postgres")
+public class PostgresStorySearchIndex implements StorySearchIndex {
+
+	// Must stay identical to the indexed expression, otherwise PostgreSQL falls back to a sequential scan
+	private static final String DOCUMENT = "to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(description, ''))";
+
+	private static final String SEARCH = "select id from user_story where " + DOCUMENT + " @@ plainto_tsquery('simple', ?) " +
+			"order by ts_rank(setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+			"setweight(to_tsvector('simple', coalesce(description, '')), 'D'), plainto_tsquery('simple', ?)) desc, id " +
+			"limit ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final int compressionThreshold;
+
+	public PostgresStorySearchIndex(JdbcTemplate jdbcTemplate,
+									@Value("${pokertable.stories.compression-threshold:-1}") int compressionThreshold) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	// Hibernate's schema update cannot create expression indexes
+	@EventListener(ApplicationReadyEvent.class)
+	public void createIndex() {
+		if (compressionThreshold >= 0) {
+			log.warn("Descriptions longer than {} characters are compressed and cannot be searched, set " +
+					"pokertable.stories.compression-threshold=-1 to leave compression to PostgreSQL", compressionThreshold);
+		}
+		jdbcTemplate.execute("create index if not exists user_story_search_idx on user_story using gin (" + DOCUMENT + ")");
+	}
+
+	@Override
+	public void index(StoryDocument document) {
+	}
+
+	@Override
+	public void remove(StoryDocument document) {
+	}
+
+	@Override
+	public List<Long> search(String query, int limit) {
+		return jdbcTemplate.queryForList(SEARCH, Long.class, query, query, limit);
+	}
+}
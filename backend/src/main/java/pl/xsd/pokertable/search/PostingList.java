@@ -0,0 +1,177 @@
+package pl.xsd.pokertable.search;
+
+import java.util.Arrays;
+
+/**
+ * The stories containing one term, sorted by story id. Each entry is stored as three varints: the id delta to the
+ * previous entry, the term frequency and the length of the story, so that a typical entry takes 3 bytes.
+ * <p>
+ * Every {@value #SKIP_INTERVAL} entries a skip pointer is kept, so that intersecting a short list with a long one
+ * does not decode the whole long list.
+ * <p>
+ * New stories have the highest id so far and are appended in place; inserting or removing anywhere else rewrites
+ * the list. Not thread-safe.
+ */
+class PostingList {
+
+	static final int SKIP_INTERVAL = 64;
+
+	private byte[] data = new byte[8];
+	private int bytes;
+	private int size;
+	private long lastId;
+
+	// For entry i * SKIP_INTERVAL: the id of the entry before it (0 for the first) and its byte offset
+	private long[] skipBaseIds = new long[1];
+	private int[] skipOffsets = new int[1];
+	private int skips;
+
+	void add(long storyId, int frequency, int length) {
+		if (size > 0 && storyId <= lastId) {
+			rewrite(storyId, frequency, length);
+			return;
+		}
+		append(storyId, frequency, length);
+	}
+
+	boolean remove(long storyId) {
+		Cursor cursor = cursor();
+		while (cursor.next()) {
+			if (cursor.storyId == storyId) {
+				rewrite(storyId, 0, 0);
+				return true;
+			}
+			if (cursor.storyId > storyId) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int sizeInBytes() {
+		return bytes;
+	}
+
+	Cursor cursor() {
+		return new Cursor();
+	}
+
+	// Copies every entry but storyId, then puts storyId back at its place unless frequency is 0
+	private void rewrite(long storyId, int frequency, int length) {
+		PostingList copy = new PostingList();
+		copy.data = new byte[Math.max(8, bytes + 16)];
+		boolean written = frequency == 0;
+
+		Cursor cursor = cursor();
+		while (cursor.next()) {
+			if (!written && storyId < cursor.storyId) {
+				copy.append(storyId, frequency, length);
+				written = true;
+			}
+			if (cursor.storyId != storyId) {
+				copy.append(cursor.storyId, cursor.frequency, cursor.length);
+			}
+		}
+		if (!written) {
+			copy.append(storyId, frequency, length);
+		}
+
+		data = copy.data;
+		bytes = copy.bytes;
+		size = copy.size;
+		lastId = copy.lastId;
+		skipBaseIds = copy.skipBaseIds;
+		skipOffsets = copy.skipOffsets;
+		skips = copy.skips;
+	}
+
+	private void append(long storyId, int frequency, int length) {
+		if (bytes + 3 * 10 > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, bytes + 3 * 10));
+		}
+		long previousId = size == 0 ? 0 : lastId;
+		if (size % SKIP_INTERVAL == 0) {
+			if (skips == skipOffsets.length) {
+				skipBaseIds = Arrays.copyOf(skipBaseIds, skips * 2);
+				skipOffsets = Arrays.copyOf(skipOffsets, skips * 2);
+			}
+			skipBaseIds[skips] = previousId;
+			skipOffsets[skips++] = bytes;
+		}
+		writeVarLong(storyId - previousId);
+		writeVarLong(frequency);
+		writeVarLong(length);
+		lastId = storyId;
+		size++;
+	}
+
+	private void writeVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			data[bytes++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[bytes++] = (byte) value;
+	}
+
+	class Cursor {
+
+		private int position;
+		private int read;
+		long storyId;
+		int frequency;
+		int length;
+
+		boolean next() {
+			if (position >= bytes) {
+				return false;
+			}
+			read++;
+			storyId += readVarLong();
+			frequency = (int) readVarLong();
+			length = (int) readVarLong();
+			return true;
+		}
+
+		/**
+		 * Moves to the first entry whose id is at least {@code target}, jumping over whole skip blocks when
+		 * possible. Returns {@code false} when there is no such entry.
+		 */
+		boolean advance(long target) {
+			if (read > 0 && storyId >= target) {
+				return true;
+			}
+
+			// Last block starting before target: every entry of the earlier blocks is smaller than target
+			int block = Arrays.binarySearch(skipBaseIds, 0, skips, target);
+			block = block >= 0 ? block - 1 : -block - 2;
+			if (block >= 0 && block * SKIP_INTERVAL > read) {
+				position = skipOffsets[block];
+				storyId = skipBaseIds[block];
+				read = block * SKIP_INTERVAL;
+			}
+
+			while (next()) {
+				if (storyId >= target) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private long readVarLong() {
+			long value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[position++];
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package pl.xsd.pokertable.search;
+
+/**
+ * A past story similar to the one asked about. {@code similarity} is the estimated Jaccard similarity of their
+ * terms, between 0 and 1.
+ */
+public record SimilarStory(Long storyId, Integer estimatedPoints, double similarity) {
+}
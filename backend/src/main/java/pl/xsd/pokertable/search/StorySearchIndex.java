@@ -0,0 +1,24 @@
+package pl.xsd.pokertable.search;
+
+import pl.xsd.pokertable.userstory.StoryDocument;
+
+import java.util.List;
+
+/**
+ * Full-text index over user story titles and descriptions. Which implementation is used depends on
+ * {@code pokertable.search.backend}: {@code memory} (the default) or {@code postgres}.
+ */
+public interface StorySearchIndex {
+
+	void index(StoryDocument document);
+
+	/**
+	 * Removes a story. {@code document} must hold the text the story was indexed with.
+	 */
+	void remove(StoryDocument document);
+
+	/**
+	 * Ids of the stories containing every term of {@code query}, best match first.
+	 */
+	List<Long> search(String query, int limit);
+}
@@ -0,0 +1,286 @@
+package pl.xsd.pokertable.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.archive.TableArchiveService;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.UserStoryChangedEvent;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Finds stories whose terms overlap the most with a given story: estimated stories of any table to suggest an
+ * estimate, and stories of the same table that are probably duplicates. Every story is kept as a {@link MinHash}
+ * signature in {@link LshBuckets}, so a lookup only compares the handful of signatures sharing a bucket instead
+ * of every story.
+ * <p>
+ * Only the signature, the table and the estimate of a story are kept, never its text. Like
+ * {@link InMemoryStorySearchIndex}, the index is rebuilt at startup and then follows committed
+ * {@link UserStoryChangedEvent}s.
+ * <p>
+ * Archived stories stay in the index, also after a restart, as their estimates are still worth suggesting. With
+ * {@code pokertable.archive.similarity.keep-stories=false} they are removed when archived instead.
+ */
+@Slf4j
+@Component
+public class StorySimilarityIndex {
+
+	// Stories sharing only the "As a user I want to" of the usual template come out at about 0.2
+	static final double MIN_SIMILARITY = 0.3;
+	static final double DUPLICATE_SIMILARITY = 0.8;
+	static final int MAX_DUPLICATES = 10;
+
+	// Most similar first, then the most recent story
+	private static final Comparator<SimilarStory> MOST_SIMILAR_FIRST = Comparator.comparingDouble(SimilarStory::similarity)
+			.reversed().thenComparing(SimilarStory::storyId, Comparator.reverseOrder());
+
+	private final UserStoryRepository userStoryRepository;
+	private final TableArchiveService tableArchiveService;
+	private final boolean keepArchivedStories;
+	private final Map<Long, IndexedStory> stories = new HashMap<>();
+	private final Map<Long, Set<Long>> storiesByTable = new HashMap<>();
+	private final LshBuckets buckets = new LshBuckets();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private record IndexedStory(short[] signature, Long pokerTableId, Integer estimatedPoints) {
+	}
+
+	public StorySimilarityIndex(UserStoryRepository userStoryRepository, TableArchiveService tableArchiveService,
+								@Value("${pokertable.archive.similarity.keep-stories:true}") boolean keepArchivedStories) {
+		this.userStoryRepository = userStoryRepository;
+		this.tableArchiveService = tableArchiveService;
+		this.keepArchivedStories = keepArchivedStories;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		try (Stream<StoryDocument> documents = userStoryRepository.streamAllDocuments()) {
+			documents.forEach(this::index);
+		}
+		if (keepArchivedStories) {
+			tableArchiveService.forEachArchivedStory(this::index);
+		}
+		log.info("Indexed {} user stories for similarity", size());
+	}
+
+	@TransactionalEventListener
+	public void onUserStoryChanged(UserStoryChangedEvent event) {
+		if (event.after() != null) {
+			index(event.after());
+		} else {
+			remove(event.before().id());
+		}
+	}
+
+	@TransactionalEventListener
+	public void onTablesArchived(TablesArchivedEvent event) {
+		if (!keepArchivedStories) {
+			event.stories().forEach(story -> remove(story.id()));
+		}
+	}
+
+	/**
+	 * Adds or replaces a story. A story without any term is removed.
+	 */
+	public void index(StoryDocument document) {
+		Set<String> terms = terms(document);
+		if (terms.isEmpty()) {
+			remove(document.id());
+			return;
+		}
+
+		IndexedStory story = new IndexedStory(MinHash.signature(terms), document.pokerTableId(), document.estimatedPoints());
+		lock.writeLock().lock();
+		try {
+			IndexedStory previous = stories.put(document.id(), story);
+			if (previous != null) {
+				forget(document.id(), previous);
+			}
+			buckets.add(document.id(), story.signature());
+			storiesByTable.computeIfAbsent(story.pokerTableId(), id -> new HashSet<>()).add(document.id());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long storyId) {
+		lock.writeLock().lock();
+		try {
+			IndexedStory previous = stories.remove(storyId);
+			if (previous != null) {
+				forget(storyId, previous);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The estimated stories most similar to {@code document}, most similar first, never {@code document} itself.
+	 */
+	public List<SimilarStory> findSimilar(StoryDocument document, int limit) {
+		Set<String> terms = terms(document);
+		if (terms.isEmpty()) {
+			return List.of();
+		}
+
+		lock.readLock().lock();
+		try {
+			return matches(MinHash.signature(terms), document.id(), MIN_SIMILARITY, limit,
+					story -> story.estimatedPoints() != null);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Probable duplicates of {@code document} within its own table, most similar first.
+	 */
+	public List<SimilarStory> findDuplicates(StoryDocument document) {
+		return findDuplicates(List.of(document)).get(0);
+	}
+
+	/**
+	 * Probable duplicates of every story of {@code documents} within its own table: indexed stories, and stories
+	 * coming earlier in {@code documents} so that a batch import also catches duplicates among the new stories.
+	 * The result is in the order of {@code documents}.
+	 */
+	public List<List<SimilarStory>> findDuplicates(List<StoryDocument> documents) {
+		List<List<SimilarStory>> duplicates = new ArrayList<>(documents.size());
+		LshBuckets batchBuckets = new LshBuckets();
+		Map<Long, IndexedStory> batch = new HashMap<>();
+
+		lock.readLock().lock();
+		try {
+			for (StoryDocument document : documents) {
+				Set<String> terms = terms(document);
+				if (terms.isEmpty()) {
+					duplicates.add(List.of());
+					continue;
+				}
+
+				short[] signature = MinHash.signature(terms);
+				List<SimilarStory> found = new ArrayList<>(matches(signature, document.id(), DUPLICATE_SIMILARITY,
+						MAX_DUPLICATES, story -> Objects.equals(story.pokerTableId(), document.pokerTableId())));
+				for (Long candidate : batchBuckets.candidates(signature)) {
+					IndexedStory story = batch.get(candidate);
+					double similarity = MinHash.similarity(signature, story.signature());
+					if (similarity >= DUPLICATE_SIMILARITY && Objects.equals(story.pokerTableId(), document.pokerTableId())
+							&& found.stream().noneMatch(duplicate -> duplicate.storyId().equals(candidate))) {
+						found.add(new SimilarStory(candidate, story.estimatedPoints(), similarity));
+					}
+				}
+				found.sort(MOST_SIMILAR_FIRST);
+				duplicates.add(found.size() > MAX_DUPLICATES ? List.copyOf(found.subList(0, MAX_DUPLICATES)) : found);
+
+				batch.put(document.id(), new IndexedStory(signature, document.pokerTableId(), document.estimatedPoints()));
+				batchBuckets.add(document.id(), signature);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return duplicates;
+	}
+
+	/**
+	 * Groups of stories of a table that are probable duplicates of each other, each sorted by id. A story that is
+	 * a duplicate of a duplicate ends up in the same group.
+	 */
+	public List<List<Long>> findDuplicateClusters(Long pokerTableId) {
+		Map<Long, Long> parents = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			for (Long storyId : storiesByTable.getOrDefault(pokerTableId, Set.of())) {
+				IndexedStory story = stories.get(storyId);
+				for (SimilarStory duplicate : matches(story.signature(), storyId, DUPLICATE_SIMILARITY, Integer.MAX_VALUE,
+						candidate -> Objects.equals(candidate.pokerTableId(), pokerTableId))) {
+					union(parents, storyId, duplicate.storyId());
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		// Roots are the smallest id of their cluster, so iterating in id order keeps clusters sorted
+		Map<Long, List<Long>> clusters = new TreeMap<>();
+		for (Long storyId : new TreeSet<>(parents.keySet())) {
+			clusters.computeIfAbsent(root(parents, storyId), root -> new ArrayList<>()).add(storyId);
+		}
+		return List.copyOf(clusters.values());
+	}
+
+	int size() {
+		lock.readLock().lock();
+		try {
+			return stories.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Callers hold the read lock
+	private List<SimilarStory> matches(short[] signature, Long self, double minSimilarity, int limit,
+									   Predicate<IndexedStory> filter) {
+		List<SimilarStory> matches = new ArrayList<>();
+		for (Long candidate : buckets.candidates(signature)) {
+			IndexedStory story = stories.get(candidate);
+			if (candidate.equals(self) || !filter.test(story)) {
+				continue;
+			}
+			double similarity = MinHash.similarity(signature, story.signature());
+			if (similarity >= minSimilarity) {
+				matches.add(new SimilarStory(candidate, story.estimatedPoints(), similarity));
+			}
+		}
+		matches.sort(MOST_SIMILAR_FIRST);
+		return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+	}
+
+	private void forget(Long storyId, IndexedStory story) {
+		buckets.remove(storyId, story.signature());
+		Set<Long> tableStories = storiesByTable.get(story.pokerTableId());
+		if (tableStories != null) {
+			tableStories.remove(storyId);
+			if (tableStories.isEmpty()) {
+				storiesByTable.remove(story.pokerTableId());
+			}
+		}
+	}
+
+	private static void union(Map<Long, Long> parents, Long a, Long b) {
+		Long rootA = root(parents, a);
+		Long rootB = root(parents, b);
+		if (!rootA.equals(rootB)) {
+			parents.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+		}
+	}
+
+	private static Long root(Map<Long, Long> parents, Long storyId) {
+		Long parent = parents.computeIfAbsent(storyId, id -> id);
+		while (!parent.equals(storyId)) {
+			Long grandParent = parents.get(parent);
+			parents.put(storyId, grandParent);
+			storyId = parent;
+			parent = grandParent;
+		}
+		return storyId;
+	}
+
+	private static Set<String> terms(StoryDocument document) {
+		Set<String> terms = new HashSet<>(Tokenizer.tokenize(document.title()));
+		terms.addAll(Tokenizer.tokenize(document.description()));
+		return terms;
+	}
+}
@@ -0,0 +1,35 @@
+package pl.xsd.pokertable.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lower-case terms on everything that is not a letter or a digit. Single characters are dropped.
+ */
+final class Tokenizer {
+
+	private Tokenizer() {
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null) {
+			return terms;
+		}
+
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				if (i - start > 1) {
+					terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				}
+				start = -1;
+			}
+		}
+		return terms;
+	}
+}
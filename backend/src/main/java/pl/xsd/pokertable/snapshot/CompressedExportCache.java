@@ -0,0 +1,118 @@
+package pl.xsd.pokertable.snapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped CSV exports of closed tables, compressed once at the best compression level on the first request that
+ * accepts gzip and then sent as they are. Least recently used exports are evicted once all of them together take
+ * more than {@code pokertable.export.cache.max-size}; a single export larger than that is compressed for the
+ * request but not kept.
+ * <p>
+ * Metrics: {@code pokertable.export.cache.gets} tagged {@code result:hit|miss},
+ * {@code pokertable.export.cache.hit.ratio}, {@code pokertable.export.cache.size} in bytes, and
+ * {@code pokertable.export.cache.bytes.saved}, the bytes not sent thanks to compression on hits.
+ */
+@Component
+public class CompressedExportCache {
+
+	static final String GETS = "pokertable.export.cache.gets";
+	static final String HIT_RATIO = "pokertable.export.cache.hit.ratio";
+	static final String SIZE = "pokertable.export.cache.size";
+	static final String BYTES_SAVED = "pokertable.export.cache.bytes.saved";
+
+	private record Entry(byte[] gzipped, int uncompressedLength) {
+	}
+
+	private final long maxBytes;
+	private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final AtomicLong bytesSaved = new AtomicLong();
+
+	public CompressedExportCache(@Value("${pokertable.export.cache.max-size:64MB}") DataSize maxSize, MeterRegistry meterRegistry) {
+		this.maxBytes = maxSize.toBytes();
+		this.hits = meterRegistry.counter(GETS, "result", "hit");
+		this.misses = meterRegistry.counter(GETS, "result", "miss");
+		Gauge.builder(HIT_RATIO, this, CompressedExportCache::hitRatio).register(meterRegistry);
+		Gauge.builder(SIZE, this, CompressedExportCache::size).baseUnit("bytes").register(meterRegistry);
+		FunctionCounter.builder(BYTES_SAVED, bytesSaved, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+	}
+
+	/**
+	 * The gzipped export of the table, compressed from {@code csv} when it is not cached yet.
+	 */
+	public byte[] get(Long tableId, Supplier<ByteBuffer> csv) {
+		synchronized (this) {
+			Entry entry = entries.get(tableId);
+			if (entry != null) {
+				hits.increment();
+				bytesSaved.addAndGet(entry.uncompressedLength() - entry.gzipped().length);
+				return entry.gzipped();
+			}
+		}
+
+		// Compressed outside of the lock, two first requests for the same table may both compress it
+		misses.increment();
+		ByteBuffer uncompressed = csv.get();
+		Entry entry = new Entry(gzip(uncompressed), uncompressed.remaining());
+		if (entry.gzipped().length <= maxBytes) {
+			put(tableId, entry);
+		}
+		return entry.gzipped();
+	}
+
+	private synchronized void put(Long tableId, Entry entry) {
+		Entry previous = entries.put(tableId, entry);
+		bytes += entry.gzipped().length - (previous == null ? 0 : previous.gzipped().length);
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > maxBytes) {
+			bytes -= eldest.next().gzipped().length;
+			eldest.remove();
+		}
+	}
+
+	synchronized long size() {
+		return bytes;
+	}
+
+	private double hitRatio() {
+		double gets = hits.count() + misses.count();
+		return gets == 0 ? 0 : hits.count() / gets;
+	}
+
+	private static byte[] gzip(ByteBuffer csv) {
+		byte[] input = new byte[csv.remaining()];
+		csv.duplicate().get(input);
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream(input.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(gzipped) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			out.write(input);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return gzipped.toByteArray();
+	}
+}
@@ -0,0 +1,198 @@
+package pl.xsd.pokertable.snapshot;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.zip.CRC32;
+
+/**
+ * The responses for a closed poker table, rendered once when it was closed and kept in one immutable file that is
+ * read through a read-only memory mapping.
+ * <p>
+ * The file starts with a magic number and, for every {@link Section}, its offset, length and CRC32, followed by the
+ * sections themselves. Sections are served as slices of the mapping, without touching the database or serializing
+ * anything, and stay in the page cache of the operating system rather than on the heap.
+ */
+public final class TableSnapshot {
+
+	public enum Section {
+		TABLE, DEVELOPERS, STORIES
+	}
+
+	private static final int MAGIC = 0x50545331; // "PTS1"
+	private static final int HEADER_LENGTH = Integer.BYTES + Section.values().length * 3 * Integer.BYTES;
+	private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+	private final MappedByteBuffer buffer;
+
+	private TableSnapshot(MappedByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Writes the sections, in {@link Section} order, to a temporary file next to {@code file} and moves it into
+	 * place, so readers only ever map a complete snapshot.
+	 */
+	static void write(Path file, byte[]... sections) throws IOException {
+		if (sections.length != Section.values().length) {
+			throw new IllegalArgumentException("A snapshot has " + Section.values().length + " sections");
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC);
+		int offset = HEADER_LENGTH;
+		for (byte[] section : sections) {
+			CRC32 crc = new CRC32();
+			crc.update(section);
+			header.putInt(offset).putInt(section.length).putInt((int) crc.getValue());
+			offset += section.length;
+		}
+		header.flip();
+
+		Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				ByteBuffer[] buffers = new ByteBuffer[sections.length + 1];
+				buffers[0] = header;
+				for (int i = 0; i < sections.length; i++) {
+					buffers[i + 1] = ByteBuffer.wrap(sections[i]);
+				}
+				long length = offset;
+				for (long written = 0; written < length; ) {
+					written += channel.write(buffers);
+				}
+				channel.force(false);
+			}
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	static TableSnapshot map(Path file) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// The mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a table snapshot: " + file);
+		}
+		TableSnapshot snapshot = new TableSnapshot(buffer);
+		for (Section section : Section.values()) {
+			if ((long) snapshot.offset(section) + snapshot.length(section) > buffer.capacity()) {
+				throw new IOException("Truncated table snapshot: " + file);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * The bytes of one section, as an independent read-only slice that can be read by several threads at once.
+	 */
+	public ByteBuffer section(Section section) {
+		return buffer.slice(offset(section), length(section));
+	}
+
+	/**
+	 * A response for one section that clients and proxies may cache for good, with the CRC32 of the section as
+	 * ETag so that a revalidation is answered with 304.
+	 */
+	public ResponseEntity<Resource> toResponse(Section section, HttpHeaders headers) {
+		return ResponseEntity.ok()
+				.headers(headers)
+				.cacheControl(IMMUTABLE)
+				.eTag(Integer.toHexString(crc(section)))
+				.body(new SectionResource(section(section)));
+	}
+
+	/**
+	 * Like {@link #toResponse(Section, HttpHeaders)}, for a body holding the section in a content encoding such as
+	 * gzip. The ETag tells the encoded form apart from the plain one.
+	 */
+	public ResponseEntity<byte[]> toEncodedResponse(Section section, HttpHeaders headers, String encoding, byte[] body) {
+		return ResponseEntity.ok()
+				.headers(headers)
+				.header(HttpHeaders.CONTENT_ENCODING, encoding)
+				.cacheControl(IMMUTABLE)
+				.eTag(Integer.toHexString(crc(section)) + "-" + encoding)
+				.body(body);
+	}
+
+	private int offset(Section section) {
+		return buffer.getInt(Integer.BYTES + section.ordinal() * 3 * Integer.BYTES);
+	}
+
+	private int length(Section section) {
+		return buffer.getInt(Integer.BYTES + section.ordinal() * 3 * Integer.BYTES + Integer.BYTES);
+	}
+
+	private int crc(Section section) {
+		return buffer.getInt(Integer.BYTES + section.ordinal() * 3 * Integer.BYTES + 2 * Integer.BYTES);
+	}
+
+	private static final class SectionResource extends AbstractResource {
+
+		private final ByteBuffer bytes;
+
+		private SectionResource(ByteBuffer bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return bytes.remaining();
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			ByteBuffer source = bytes.duplicate();
+			return new InputStream() {
+				@Override
+				public int read() {
+					return source.hasRemaining() ? source.get() & 0xff : -1;
+				}
+
+				@Override
+				public int read(byte[] target, int offset, int length) {
+					if (length == 0) {
+						return 0;
+					}
+					if (!source.hasRemaining()) {
+						return -1;
+					}
+					int read = Math.min(length, source.remaining());
+					source.get(target, offset, read);
+					return read;
+				}
+
+				@Override
+				public int available() {
+					return source.remaining();
+				}
+			};
+		}
+
+		@Override
+		public String getDescription() {
+			return "table snapshot section";
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package pl.xsd.pokertable.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Snapshot files of closed tables in {@code pokertable.snapshots.directory}, one per table and close. A snapshot is
+ * found by the table id and the time the table was closed, as the database says: files outlive a restart while the
+ * ids of an in-memory database start over, and a snapshot must never be served for a table other than the one it was
+ * written for. The most recently read {@code pokertable.snapshots.cache-size} snapshots stay mapped. The directory
+ * is local to the instance: a table closed by another instance has no snapshot here and is read from the database.
+ */
+@Slf4j
+@Component
+public class TableSnapshotStore {
+
+	private static final DateTimeFormatter CLOSED_AT = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssSSSSSS");
+
+	private record Key(Long tableId, LocalDateTime closedAt) {
+	}
+
+	private final Path directory;
+	private final boolean enabled;
+	private final Map<Key, TableSnapshot> mapped;
+
+	public TableSnapshotStore(@Value("${pokertable.snapshots.directory:}") Path directory,
+							  @Value("${pokertable.snapshots.enabled:true}") boolean enabled,
+							  @Value("${pokertable.snapshots.cache-size:256}") int cacheSize) {
+		if (enabled && (directory == null || directory.toString().isBlank())) {
+			throw new IllegalArgumentException("pokertable.snapshots.directory must be set while snapshots are enabled");
+		}
+		this.directory = directory;
+		this.enabled = enabled;
+		this.mapped = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, TableSnapshot> eldest) {
+				// Unmapped once nothing refers to the evicted buffer any more
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * The snapshot written when the table was closed at {@code closedAt}, which must come from the database.
+	 */
+	public Optional<TableSnapshot> find(Long tableId, LocalDateTime closedAt) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		Key key = new Key(tableId, closedAt);
+		synchronized (mapped) {
+			TableSnapshot snapshot = mapped.get(key);
+			if (snapshot != null) {
+				return Optional.of(snapshot);
+			}
+		}
+
+		Path file = file(key);
+		if (!Files.exists(file)) {
+			return Optional.empty();
+		}
+		try {
+			TableSnapshot snapshot = TableSnapshot.map(file);
+			synchronized (mapped) {
+				mapped.put(key, snapshot);
+			}
+			return Optional.of(snapshot);
+		} catch (IOException e) {
+			log.warn("Could not read the snapshot of poker table {}, reading it from the database", tableId, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Writes the snapshot of a table closed at {@code closedAt}, sections in {@link TableSnapshot.Section} order.
+	 * Snapshots of earlier tables with the same id are deleted.
+	 */
+	public void save(Long tableId, LocalDateTime closedAt, byte[] table, byte[] developers, byte[] stories) throws IOException {
+		Files.createDirectories(directory);
+		Key key = new Key(tableId, closedAt);
+		Path file = file(key);
+		TableSnapshot.write(file, table, developers, stories);
+		synchronized (mapped) {
+			mapped.remove(key);
+		}
+		try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "table-" + tableId + "-*.snapshot")) {
+			for (Path other : stale) {
+				if (!other.equals(file)) {
+					Files.deleteIfExists(other);
+				}
+			}
+		}
+	}
+
+	private Path file(Key key) {
+		return directory.resolve("table-" + key.tableId() + "-" + CLOSED_AT.format(key.closedAt()) + ".snapshot");
+	}
+}
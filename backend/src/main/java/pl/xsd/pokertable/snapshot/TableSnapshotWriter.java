@@ -0,0 +1,80 @@
+package pl.xsd.pokertable.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the snapshot of a table when it is closed. The responses are rendered before the close commits, from
+ * exactly the state being committed and with the same serialization as the endpoints, and only written to disk
+ * once it has committed. A snapshot that could not be rendered or written only means the table keeps being read
+ * from the database.
+ */
+@Slf4j
+@Component
+public class TableSnapshotWriter {
+
+	private record Rendered(byte[] table, byte[] developers, byte[] stories) {
+	}
+
+	private final PokerTableRepository pokerTableRepository;
+	private final PokerTableService pokerTableService;
+	private final TableSnapshotStore tableSnapshotStore;
+	private final ObjectMapper objectMapper;
+	private final Map<Long, Rendered> pending = new ConcurrentHashMap<>();
+
+	public TableSnapshotWriter(PokerTableRepository pokerTableRepository, PokerTableService pokerTableService,
+							   TableSnapshotStore tableSnapshotStore, ObjectMapper objectMapper) {
+		this.pokerTableRepository = pokerTableRepository;
+		this.pokerTableService = pokerTableService;
+		this.tableSnapshotStore = tableSnapshotStore;
+		this.objectMapper = objectMapper;
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void render(TableClosedEvent event) {
+		if (!tableSnapshotStore.isEnabled()) {
+			return;
+		}
+		// Still inside the close, failing here would roll it back
+		try {
+			PokerTable table = pokerTableRepository.findById(event.tableId())
+					.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + event.tableId()));
+			pending.put(event.tableId(), new Rendered(objectMapper.writeValueAsBytes(table),
+					objectMapper.writeValueAsBytes(table.getDevelopers()),
+					pokerTableService.exportUserStoriesToCsv(event.tableId())));
+		} catch (JsonProcessingException | RuntimeException e) {
+			log.warn("Could not render the snapshot of poker table {}", event.tableId(), e);
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void write(TableClosedEvent event) {
+		Rendered rendered = pending.remove(event.tableId());
+		if (rendered == null) {
+			return;
+		}
+		try {
+			tableSnapshotStore.save(event.tableId(), event.closedAt(), rendered.table(), rendered.developers(), rendered.stories());
+		} catch (IOException | RuntimeException e) {
+			log.warn("Could not write the snapshot of poker table {}", event.tableId(), e);
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+	public void discard(TableClosedEvent event) {
+		pending.remove(event.tableId());
+	}
+}
@@ -0,0 +1,122 @@
+package pl.xsd.pokertable.statistics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Fixed-size histogram over the 1..13 vote range. A vote change touches two buckets and every statistic is
+ * derived from the 13 buckets, so neither depends on the number of developers.
+ * <p>
+ * The vote each developer is counted with is kept as well, so that seeding the histogram from the database while
+ * vote changes keep arriving never counts a vote twice: a change that arrives while seeding is newer than, or the
+ * same as, what the database returned for that developer, and wins over it.
+ */
+class VoteHistogram {
+
+	static final int MAX_VOTE = 13;
+
+	private final int[] counts = new int[MAX_VOTE + 1];
+	private final Map<Long, Integer> votes = new HashMap<>();
+	private int total;
+	// Developers whose vote changed since the histogram was created, until it is seeded
+	private Set<Long> changedBeforeSeed = new HashSet<>();
+	private boolean clearedBeforeSeed;
+
+	/**
+	 * Counts {@code vote} (or nothing, when {@code null}) for the developer instead of its previous vote. Returns
+	 * {@code false} when the vote counted so far was not {@code previousVote}, the histogram had drifted from the
+	 * database; the change is applied all the same.
+	 */
+	synchronized boolean change(Long developerId, Integer previousVote, Integer vote) {
+		Integer counted = vote == null ? votes.remove(developerId) : votes.put(developerId, vote);
+		if (counted != null) {
+			counts[counted]--;
+			total--;
+		}
+		if (vote != null) {
+			counts[vote]++;
+			total++;
+		}
+		if (changedBeforeSeed != null) {
+			changedBeforeSeed.add(developerId);
+			return true;
+		}
+		return Objects.equals(counted, previousVote);
+	}
+
+	synchronized void clear() {
+		Arrays.fill(counts, 0);
+		votes.clear();
+		total = 0;
+		if (changedBeforeSeed != null) {
+			clearedBeforeSeed = true;
+		}
+	}
+
+	/**
+	 * Counts the committed votes of the table, keyed by developer id. Only the first call counts anything, so
+	 * concurrent readers may all seed the same histogram. Votes of developers that changed since the histogram was
+	 * created are skipped, and so is everything when the round was restarted meanwhile.
+	 */
+	synchronized void seed(Map<Long, Integer> committedVotes) {
+		if (changedBeforeSeed == null) {
+			return;
+		}
+		if (!clearedBeforeSeed) {
+			committedVotes.forEach((developerId, vote) -> {
+				if (!changedBeforeSeed.contains(developerId)) {
+					votes.put(developerId, vote);
+					counts[vote]++;
+					total++;
+				}
+			});
+		}
+		changedBeforeSeed = null;
+	}
+
+	synchronized boolean isSeeded() {
+		return changedBeforeSeed == null;
+	}
+
+	synchronized VoteStatistics snapshot() {
+		SortedMap<Integer, Integer> histogram = new TreeMap<>();
+		if (total == 0) {
+			return new VoteStatistics(0, null, null, null, null, null, false, histogram);
+		}
+
+		long sum = 0;
+		int min = 0;
+		int max = 0;
+		for (int vote = 1; vote <= MAX_VOTE; vote++) {
+			if (counts[vote] > 0) {
+				histogram.put(vote, counts[vote]);
+				sum += (long) vote * counts[vote];
+				if (min == 0) {
+					min = vote;
+				}
+				max = vote;
+			}
+		}
+
+		double median = (valueAt((total - 1) / 2) + valueAt(total / 2)) / 2.0;
+		return new VoteStatistics(total, (double) sum / total, median, min, max, max - min, min == max, histogram);
+	}
+
+	// Vote at the given zero-based position if all votes were sorted
+	private int valueAt(int position) {
+		int seen = 0;
+		for (int vote = 1; vote <= MAX_VOTE; vote++) {
+			seen += counts[vote];
+			if (seen > position) {
+				return vote;
+			}
+		}
+		throw new IllegalStateException("Position " + position + " is outside of the histogram");
+	}
+}
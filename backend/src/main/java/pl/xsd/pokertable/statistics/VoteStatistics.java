@@ -0,0 +1,11 @@
+package pl.xsd.pokertable.statistics;
+
+import java.util.SortedMap;
+
+/**
+ * Summary of the current votes of one table. Everything but {@code votes}, {@code consensus} and
+ * {@code histogram} is {@code null} while nobody has voted.
+ */
+public record VoteStatistics(int votes, Double mean, Double median, Integer min, Integer max, Integer spread,
+							 boolean consensus, SortedMap<Integer, Integer> histogram) {
+}
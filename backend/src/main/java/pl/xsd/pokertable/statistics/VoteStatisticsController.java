@@ -0,0 +1,19 @@
+package pl.xsd.pokertable.statistics;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+public class VoteStatisticsController {
+
+	private final VoteStatisticsService voteStatisticsService;
+
+	@GetMapping("/tables/{tableId}/stats")
+	public ResponseEntity<VoteStatistics> getStatistics(@PathVariable Long tableId) {
+		return ResponseEntity.ok(voteStatisticsService.getStatistics(tableId));
+	}
+}
@@ -0,0 +1,102 @@
+package pl.xsd.pokertable.statistics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.VoteCastEvent;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.pokertable.RoundStartedEvent;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live vote statistics per open table, kept in memory and updated from committed vote changes. A table is seeded
+ * from the database the first time it is asked for (for example after a restart); from then on reading the
+ * statistics never touches the database. Closed and archived tables are read from the database every time, their
+ * votes no longer change, and they are dropped from memory when they close.
+ */
+@Slf4j
+@Service
+public class VoteStatisticsService {
+
+	private final PokerTableService pokerTableService;
+	private final Map<Long, VoteHistogram> histograms = new ConcurrentHashMap<>();
+
+	public VoteStatisticsService(PokerTableService pokerTableService) {
+		this.pokerTableService = pokerTableService;
+	}
+
+	public VoteStatistics getStatistics(Long tableId) {
+		VoteHistogram histogram = histograms.get(tableId);
+		if (histogram != null && histogram.isSeeded()) {
+			return histogram.snapshot();
+		}
+		if (histogram == null) {
+			// Registered before the database is read, so a vote committed after the read is counted from its event
+			VoteHistogram created = new VoteHistogram();
+			VoteHistogram existing = histograms.putIfAbsent(tableId, created);
+			histogram = existing == null ? created : existing;
+		}
+
+		PokerTable table;
+		try {
+			table = pokerTableService.getTableById(tableId);
+		} catch (NotFoundException e) {
+			histograms.remove(tableId, histogram);
+			throw e;
+		}
+		if (Boolean.TRUE.equals(table.getIsClosed())) {
+			histograms.remove(tableId, histogram);
+			histogram = new VoteHistogram();
+		}
+		histogram.seed(committedVotes(table));
+		return histogram.snapshot();
+	}
+
+	// Tables nobody asked for yet are skipped, they will be seeded with the committed votes
+	@TransactionalEventListener
+	public void onVoteCast(VoteCastEvent event) {
+		VoteHistogram histogram = histograms.get(event.tableId());
+		if (histogram != null && !histogram.change(event.developerId(), event.previousVote(), event.vote())) {
+			log.warn("Vote statistics of poker table {} had drifted, developer {} was not counted with vote {}",
+					event.tableId(), event.developerId(), event.previousVote());
+		}
+	}
+
+	@TransactionalEventListener
+	public void onRoundStarted(RoundStartedEvent event) {
+		VoteHistogram histogram = histograms.get(event.tableId());
+		if (histogram != null) {
+			histogram.clear();
+		}
+	}
+
+	@TransactionalEventListener
+	public void onTableClosed(TableClosedEvent event) {
+		histograms.remove(event.tableId());
+	}
+
+	@TransactionalEventListener
+	public void onTablesArchived(TablesArchivedEvent event) {
+		event.tableIds().forEach(histograms::remove);
+	}
+
+	private static Map<Long, Integer> committedVotes(PokerTable table) {
+		Map<Long, Integer> votes = new HashMap<>();
+		if (table.getDevelopers() != null) {
+			for (Developer developer : table.getDevelopers()) {
+				if (developer.getVote() != null) {
+					votes.put(developer.getId(), developer.getVote());
+				}
+			}
+		}
+		return votes;
+	}
+}
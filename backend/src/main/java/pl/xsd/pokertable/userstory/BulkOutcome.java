@@ -0,0 +1,14 @@
+package pl.xsd.pokertable.userstory;
+
+/**
+ * What a bulk operation did to one user story.
+ */
+public enum BulkOutcome {
+	UPDATED,
+	DELETED,
+	NOT_FOUND,
+	/**
+	 * Left as it is, its poker table is closed.
+	 */
+	TABLE_CLOSED
+}
@@ -0,0 +1,10 @@
+package pl.xsd.pokertable.userstory;
+
+import java.util.List;
+
+/**
+ * Changes applied to every story in {@code ids}. A {@code null} field is left as it is; a non-null
+ * {@code pokerTableId} moves the stories to the end of the backlog of that table.
+ */
+public record BulkUserStoryUpdate(List<Long> ids, Long pokerTableId, Integer estimatedPoints) {
+}
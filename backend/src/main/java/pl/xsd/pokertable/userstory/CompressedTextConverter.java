@@ -0,0 +1,85 @@
+package pl.xsd.pokertable.userstory;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores texts longer than {@code pokertable.stories.compression-threshold} characters deflated and Base64 encoded,
+ * behind a prefix that cannot start a typed text. Shorter texts, texts that do not shrink and texts written before
+ * compression was enabled are stored and read as they are, so enabling or disabling it needs no migration.
+ * <p>
+ * A negative threshold, the default, disables compression. Compressing costs far more than it saves while the
+ * descriptions fit the database comfortably: reading a page of long descriptions becomes many times slower and
+ * allocates many times more, to store about a third of the bytes. Enable it only on a database without compression
+ * of its own whose size matters more than read latency. PostgreSQL already compresses large TEXT values (TOAST),
+ * and its full-text search must be able to read the descriptions.
+ */
+@Converter
+@Component
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+	static final String PREFIX = "\u0001deflate:";
+
+	private final int threshold;
+
+	public CompressedTextConverter(@Value("${pokertable.stories.compression-threshold:-1}") int threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public String convertToDatabaseColumn(String text) {
+		if (text == null || threshold < 0 || text.length() < threshold) {
+			return text;
+		}
+
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(text.length() / 2);
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+			String stored = PREFIX + Base64.getEncoder().encodeToString(compressed.toByteArray());
+			return stored.length() < text.length() ? stored : text;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public String convertToEntityAttribute(String stored) {
+		if (stored == null || !stored.startsWith(PREFIX)) {
+			return stored;
+		}
+
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(Base64.getDecoder().decode(stored.substring(PREFIX.length())));
+			ByteArrayOutputStream text = new ByteArrayOutputStream(stored.length() * 3);
+			byte[] buffer = new byte[8192];
+			while (!inflater.finished()) {
+				int inflated = inflater.inflate(buffer);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalStateException("Truncated or corrupted compressed text");
+				}
+				text.write(buffer, 0, inflated);
+			}
+			return text.toString(StandardCharsets.UTF_8);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupted compressed text", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package pl.xsd.pokertable.userstory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 CSV records straight out of a buffer, usually a mapped file: fields separated by commas, records by
+ * LF or CRLF, and fields holding either of those, or quotes, quoted with their quotes doubled (RFC 4180). Scanning a
+ * record only finds where its fields start and end; a field is copied out of the buffer when it is read, and only
+ * then are its quotes removed.
+ * <p>
+ * Rows are numbered from 1, counting the header, as a spreadsheet shows them.
+ */
+final class CsvScanner {
+
+	private final ByteBuffer buffer;
+	private final int limit;
+	private int position;
+	private long row;
+
+	private int fieldCount;
+	private int[] starts = new int[8];
+	private int[] ends = new int[8];
+	private boolean[] doubledQuotes = new boolean[8];
+	private byte[] scratch = new byte[256];
+
+	CsvScanner(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.limit = buffer.limit();
+		// Spreadsheets often start UTF-8 files with a byte order mark
+		if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+			position = 3;
+		}
+	}
+
+	/**
+	 * Moves to the next record, returns false at the end of the buffer.
+	 */
+	boolean next() {
+		if (position >= limit) {
+			return false;
+		}
+		row++;
+		fieldCount = 0;
+		while (true) {
+			int start;
+			int end;
+			boolean doubled = false;
+			if (buffer.get(position) == '"') {
+				start = position + 1;
+				int p = start;
+				while (true) {
+					if (p >= limit) {
+						throw error("a quoted field is not closed");
+					}
+					if (buffer.get(p) == '"') {
+						if (p + 1 < limit && buffer.get(p + 1) == '"') {
+							doubled = true;
+							p += 2;
+							continue;
+						}
+						break;
+					}
+					p++;
+				}
+				end = p;
+				position = p + 1;
+			} else {
+				int p = position;
+				while (p < limit) {
+					byte b = buffer.get(p);
+					if (b == ',' || b == '\n' || b == '\r') {
+						break;
+					}
+					p++;
+				}
+				start = position;
+				end = p;
+				position = p;
+			}
+			add(start, end, doubled);
+
+			if (position >= limit) {
+				return true;
+			}
+			byte b = buffer.get(position++);
+			if (b == '\n') {
+				return true;
+			}
+			if (b == '\r') {
+				if (position < limit && buffer.get(position) == '\n') {
+					position++;
+				}
+				return true;
+			}
+			if (b != ',') {
+				throw error("a quoted field is followed by more text");
+			}
+			if (position >= limit) {
+				// A trailing comma ends with an empty field
+				add(position, position, false);
+				return true;
+			}
+		}
+	}
+
+	long row() {
+		return row;
+	}
+
+	/**
+	 * Bytes scanned so far, for progress.
+	 */
+	int position() {
+		return position;
+	}
+
+	int fieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * Whether field {@code index} is missing or has nothing but spaces.
+	 */
+	boolean isBlank(int index) {
+		if (index >= fieldCount) {
+			return true;
+		}
+		for (int p = starts[index]; p < ends[index]; p++) {
+			if (buffer.get(p) != ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Field {@code index} without its quotes, an empty string when the record has fewer fields.
+	 */
+	String field(int index) {
+		if (index >= fieldCount) {
+			return "";
+		}
+		int length = ends[index] - starts[index];
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		buffer.get(starts[index], scratch, 0, length);
+		if (doubledQuotes[index]) {
+			length = undouble(scratch, length);
+		}
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Field {@code index} as a whole number, null when it is blank. Decimals with nothing but zeros after the point,
+	 * as spreadsheets write whole numbers, are accepted.
+	 */
+	Integer integer(int index) {
+		if (isBlank(index)) {
+			return null;
+		}
+		int p = starts[index];
+		int end = ends[index];
+		long value = 0;
+		int digits = 0;
+		for (; p < end; p++) {
+			byte b = buffer.get(p);
+			if (b < '0' || b > '9') {
+				break;
+			}
+			value = value * 10 + (b - '0');
+			if (++digits > 9) {
+				throw error("'" + field(index) + "' is too large");
+			}
+		}
+		if (p < end && buffer.get(p) == '.') {
+			p++;
+			while (p < end && buffer.get(p) == '0') {
+				p++;
+			}
+		}
+		if (digits == 0 || p != end) {
+			throw error("'" + field(index) + "' is not a whole number");
+		}
+		return (int) value;
+	}
+
+	IllegalArgumentException error(String message) {
+		return new IllegalArgumentException("Row " + row + ": " + message);
+	}
+
+	private void add(int start, int end, boolean doubled) {
+		if (fieldCount == starts.length) {
+			starts = Arrays.copyOf(starts, fieldCount * 2);
+			ends = Arrays.copyOf(ends, fieldCount * 2);
+			doubledQuotes = Arrays.copyOf(doubledQuotes, fieldCount * 2);
+		}
+		starts[fieldCount] = start;
+		ends[fieldCount] = end;
+		doubledQuotes[fieldCount] = doubled;
+		fieldCount++;
+	}
+
+	private static int undouble(byte[] bytes, int length) {
+		int write = 0;
+		for (int read = 0; read < length; read++) {
+			bytes[write++] = bytes[read];
+			if (bytes[read] == '"') {
+				read++;
+			}
+		}
+		return write;
+	}
+}
@@ -0,0 +1,57 @@
+package pl.xsd.pokertable.userstory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * One CSV import running in the background. The file has been checked before the job was queued, so the number of
+ * stories is known from the start; progress is read by the polling requests while the worker writes it.
+ */
+@Getter
+public class ImportJob {
+
+	public enum Status {QUEUED, RUNNING, DONE, FAILED}
+
+	private final String id;
+	private final Long tableId;
+	private final long totalStories;
+	private final LocalDateTime createdAt;
+
+	@JsonIgnore
+	private final Path file;
+
+	private volatile Status status = Status.QUEUED;
+	private volatile long storiesImported;
+	private volatile String error;
+	private volatile LocalDateTime finishedAt;
+
+	public ImportJob(String id, Long tableId, Path file, long totalStories) {
+		this.id = id;
+		this.tableId = tableId;
+		this.file = file;
+		this.totalStories = totalStories;
+		this.createdAt = LocalDateTime.now();
+	}
+
+	void start() {
+		status = Status.RUNNING;
+	}
+
+	void addStoriesImported(int stories) {
+		storiesImported += stories;
+	}
+
+	void finish(Status status, String error) {
+		this.error = error;
+		this.finishedAt = LocalDateTime.now();
+		this.status = status;
+	}
+
+	@JsonIgnore
+	public boolean isFinished() {
+		return status == Status.DONE || status == Status.FAILED;
+	}
+}
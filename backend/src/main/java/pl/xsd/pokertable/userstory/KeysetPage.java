@@ -0,0 +1,10 @@
+package pl.xsd.pokertable.userstory;
+
+import java.util.List;
+
+/**
+ * One page of a listing ordered by id. {@code nextAfter} is the id to pass as {@code after} to get the next page,
+ * {@code null} on the last page.
+ */
+public record KeysetPage<T>(List<T> items, Long nextAfter) {
+}
@@ -0,0 +1,114 @@
+package pl.xsd.pokertable.userstory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keys that order the backlog of a table. A key is read as the digits of a base 36 fraction between 0 and 1, so
+ * there is always room for another key between two others and moving a story only changes the key of that story.
+ * Keys never end in {@code 0}, which keeps their string order the same as their numeric order.
+ * <p>
+ * Only lowercase letters and digits are used, so the order is the same under a binary and a linguistic collation.
+ * Keys placed again and again into the same gap grow by about one character every five moves; once a key grows past
+ * {@link #REBALANCE_LENGTH} the table is given evenly spaced keys again, and keys never get longer than
+ * {@link #MAX_LENGTH}.
+ */
+final class RankKeys {
+
+	static final int REBALANCE_LENGTH = 24;
+	static final int MAX_LENGTH = 255;
+
+	private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+	private static final int BASE = DIGITS.length();
+
+	private RankKeys() {
+	}
+
+	/**
+	 * A key after {@code lower}, or the first key of an empty backlog when {@code lower} is {@code null}. Stays
+	 * short when stories are appended one after another.
+	 */
+	static String after(String lower) {
+		if (lower == null) {
+			return String.valueOf(DIGITS.charAt(BASE / 2));
+		}
+		for (int i = 0; i < lower.length(); i++) {
+			int digit = digit(lower.charAt(i));
+			if (digit < BASE - 1) {
+				return lower.substring(0, i) + DIGITS.charAt(digit + 1);
+			}
+		}
+		return between(lower, null);
+	}
+
+	/**
+	 * A key strictly between {@code lower} and {@code upper}. A {@code null} bound is open: {@code null} as
+	 * {@code lower} is before every key, {@code null} as {@code upper} after every key.
+	 */
+	static String between(String lower, String upper) {
+		String low = lower == null ? "" : lower;
+		if (upper != null && low.compareTo(upper) >= 0) {
+			throw new IllegalArgumentException("No key between " + lower + " and " + upper);
+		}
+
+		StringBuilder key = new StringBuilder();
+		String high = upper;
+		for (int i = 0; ; i++) {
+			int lowDigit = i < low.length() ? digit(low.charAt(i)) : 0;
+			int highDigit = high != null && i < high.length() ? digit(high.charAt(i)) : BASE;
+			if (highDigit - lowDigit > 1) {
+				return key.append(DIGITS.charAt((lowDigit + highDigit) / 2)).toString();
+			}
+			key.append(DIGITS.charAt(lowDigit));
+			if (highDigit > lowDigit) {
+				// The key is now below upper whatever follows, only lower still bounds it
+				high = null;
+			}
+		}
+	}
+
+	/**
+	 * {@code count} ascending keys spread evenly over the key space, all of the same short length.
+	 */
+	static List<String> evenlySpaced(int count) {
+		List<String> keys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			keys.add(evenlySpaced(i, count));
+		}
+		return keys;
+	}
+
+	/**
+	 * Key {@code index}, from 0, of {@link #evenlySpaced(int) evenlySpaced(count)}, without making the others.
+	 */
+	static String evenlySpaced(int index, int count) {
+		int length = 1;
+		long space = BASE;
+		while (space / (count + 1) < 2) {
+			length++;
+			space *= BASE;
+		}
+		return format((index + 1) * (space / (count + 1)), length);
+	}
+
+	private static String format(long value, int length) {
+		char[] key = new char[length];
+		for (int i = length - 1; i >= 0; i--) {
+			key[i] = DIGITS.charAt((int) (value % BASE));
+			value /= BASE;
+		}
+		int end = length;
+		while (key[end - 1] == '0') {
+			end--;
+		}
+		return new String(key, 0, end);
+	}
+
+	private static int digit(char c) {
+		int digit = DIGITS.indexOf(c);
+		if (digit < 0) {
+			throw new IllegalArgumentException("Invalid rank key character: " + c);
+		}
+		return digit;
+	}
+}
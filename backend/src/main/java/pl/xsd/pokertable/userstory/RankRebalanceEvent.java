@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.userstory;
+
+/**
+ * Published when a story of the table got a rank key longer than {@link RankKeys#REBALANCE_LENGTH}.
+ */
+public record RankRebalanceEvent(Long pokerTableId) {
+}
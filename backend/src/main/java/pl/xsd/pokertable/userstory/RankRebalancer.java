@@ -0,0 +1,47 @@
+package pl.xsd.pokertable.userstory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rebalances the backlog of tables whose rank keys grew too long, outside of the request that moved the story.
+ * Tables are collected once the move has committed, and a table asked for several times in between is rebalanced
+ * once.
+ */
+@Slf4j
+@Component
+public class RankRebalancer {
+
+	private final UserStoryService userStoryService;
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+	public RankRebalancer(UserStoryService userStoryService) {
+		this.userStoryService = userStoryService;
+	}
+
+	@TransactionalEventListener
+	public void onRankRebalance(RankRebalanceEvent event) {
+		pending.add(event.pokerTableId());
+	}
+
+	@Scheduled(fixedDelayString = "${pokertable.stories.rebalance-interval:5s}")
+	public void rebalancePending() {
+		Iterator<Long> tables = pending.iterator();
+		while (tables.hasNext()) {
+			Long tableId = tables.next();
+			tables.remove();
+			try {
+				userStoryService.rebalanceRanks(tableId);
+			} catch (RuntimeException e) {
+				// The next move producing a long key asks again
+				log.warn("Could not rebalance the backlog of poker table {}", tableId, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package pl.xsd.pokertable.userstory;
+
+/**
+ * What the search and similarity indexes know about one user story.
+ */
+public record StoryDocument(Long id, String title, String description, Integer estimatedPoints, Long pokerTableId) {
+
+	public static StoryDocument of(UserStory userStory) {
+		Long pokerTableId = userStory.getPokerTable() == null ? null : userStory.getPokerTable().getId();
+		return new StoryDocument(userStory.getId(), userStory.getTitle(), userStory.getDescription(),
+				userStory.getEstimatedPoints(), pokerTableId);
+	}
+}
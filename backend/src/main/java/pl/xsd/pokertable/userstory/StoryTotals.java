@@ -0,0 +1,4 @@
+package pl.xsd.pokertable.userstory;
+
+public record StoryTotals(Long stories, Long points) {
+}
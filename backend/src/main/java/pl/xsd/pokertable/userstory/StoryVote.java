@@ -0,0 +1,26 @@
+package pl.xsd.pokertable.userstory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+public class StoryVote {
+
+	@EmbeddedId
+	private StoryVoteId id;
+
+	@Column(nullable = false)
+	private Integer vote;
+
+	public StoryVote(Long storyId, Long developerId, Integer vote) {
+		this.id = new StoryVoteId(storyId, developerId);
+		this.vote = vote;
+	}
+}
@@ -0,0 +1,37 @@
+package pl.xsd.pokertable.userstory;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pl.xsd.pokertable.developer.Developer;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/user-stories")
+@AllArgsConstructor
+public class StoryVoteController {
+
+	private final StoryVoteService storyVoteService;
+
+	@PutMapping("/{storyId}/votes")
+	public ResponseEntity<StoryVote> vote(@PathVariable Long storyId, @RequestParam Long developerId, @RequestParam Integer vote) {
+		return ResponseEntity.ok(storyVoteService.vote(storyId, developerId, vote));
+	}
+
+	@GetMapping("/{storyId}/votes")
+	public ResponseEntity<List<StoryVote>> getVotes(@PathVariable Long storyId) {
+		return ResponseEntity.ok(storyVoteService.getVotes(storyId));
+	}
+
+	@GetMapping("/{storyId}/votes/missing")
+	public ResponseEntity<List<Developer>> getDevelopersWithoutVote(@PathVariable Long storyId) {
+		return ResponseEntity.ok(storyVoteService.getDevelopersWithoutVote(storyId));
+	}
+
+	@PostMapping("/table/{tableId}/estimates/close")
+	public ResponseEntity<Map<Long, Integer>> closeEstimates(@PathVariable Long tableId, @RequestParam List<Long> storyIds) {
+		return ResponseEntity.ok(storyVoteService.closeEstimates(tableId, storyIds));
+	}
+}
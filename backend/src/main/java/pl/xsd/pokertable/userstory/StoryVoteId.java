@@ -0,0 +1,27 @@
+package pl.xsd.pokertable.userstory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Story first, so the primary key index also serves every lookup of the votes cast on one story.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class StoryVoteId implements Serializable {
+
+	@Column(name = "story_id")
+	private Long storyId;
+
+	@Column(name = "developer_id")
+	private Long developerId;
+}
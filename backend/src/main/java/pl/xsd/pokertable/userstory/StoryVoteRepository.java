@@ -0,0 +1,35 @@
+package pl.xsd.pokertable.userstory;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.xsd.pokertable.developer.Developer;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StoryVoteRepository extends JpaRepository<StoryVote, StoryVoteId> {
+
+	List<StoryVote> findByIdStoryId(Long storyId);
+
+	List<StoryVote> findByIdStoryIdIn(Collection<Long> storyIds);
+
+	// Locked in key order so overlapping closes cannot deadlock, a vote changed meanwhile waits for the close
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select v from StoryVote v where v.id.storyId in :storyIds order by v.id.storyId, v.id.developerId")
+	List<StoryVote> lockByStoryIds(@Param("storyIds") Collection<Long> storyIds);
+
+	// Anti-join on the (story_id, developer_id) primary key, developers come from the poker_table_id index
+	@Query("select d from Developer d where d.pokerTable.id = :tableId and not exists " +
+			"(select 1 from StoryVote v where v.id.storyId = :storyId and v.id.developerId = d.id)")
+	List<Developer> findDevelopersWithoutVote(@Param("tableId") Long tableId, @Param("storyId") Long storyId);
+
+	@Modifying
+	@Query("delete from StoryVote v where v.id.storyId in :storyIds")
+	int deleteByStoryIds(@Param("storyIds") Collection<Long> storyIds);
+}
@@ -0,0 +1,115 @@
+package pl.xsd.pokertable.userstory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.RoundClosedEvent;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Votes cast on individual stories, so several stories of one table can be estimated at the same time.
+ */
+@Service
+public class StoryVoteService {
+
+	private final StoryVoteRepository storyVoteRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final DeveloperRepository developerRepository;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public StoryVoteService(StoryVoteRepository storyVoteRepository, UserStoryRepository userStoryRepository,
+							DeveloperRepository developerRepository, ApplicationEventPublisher eventPublisher) {
+		this.storyVoteRepository = storyVoteRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.developerRepository = developerRepository;
+		this.eventPublisher = eventPublisher;
+	}
+
+	@Transactional
+	public StoryVote vote(Long storyId, Long developerId, Integer vote) {
+		if (vote == null || vote < 1 || vote > 13) {
+			throw new IllegalArgumentException("Vote must be between 1 and 13");
+		}
+
+		UserStory story = userStoryRepository.findById(storyId)
+				.orElseThrow(() -> new NotFoundException("User story not found with ID: " + storyId));
+		Developer developer = developerRepository.findById(developerId)
+				.orElseThrow(() -> new NotFoundException("Developer not found"));
+
+		if (developer.getPokerTable() == null || !developer.getPokerTable().getId().equals(story.getPokerTable().getId())) {
+			throw new IllegalArgumentException("Developer does not belong to the poker table of this story.");
+		}
+		UserStoryService.checkOpen(story.getPokerTable());
+
+		return storyVoteRepository.save(new StoryVote(storyId, developerId, vote));
+	}
+
+	public List<StoryVote> getVotes(Long storyId) {
+		return storyVoteRepository.findByIdStoryId(storyId);
+	}
+
+	public List<Developer> getDevelopersWithoutVote(Long storyId) {
+		UserStory story = userStoryRepository.findById(storyId)
+				.orElseThrow(() -> new NotFoundException("User story not found with ID: " + storyId));
+		return storyVoteRepository.findDevelopersWithoutVote(story.getPokerTable().getId(), storyId);
+	}
+
+	/**
+	 * Writes the consensus of every given story into {@link UserStory#getEstimatedPoints()} with one batched
+	 * update, records each story's votes in the round history and clears them. Stories nobody voted on are left
+	 * untouched and are not part of the result.
+	 * <p>
+	 * Only the votes counted are cleared: they are locked when read, and a vote cast on one of the stories while
+	 * closing is kept for the next round instead of being deleted unseen.
+	 */
+	@Transactional
+	public Map<Long, Integer> closeEstimates(Long tableId, Collection<Long> storyIds) {
+		List<UserStory> stories = userStoryRepository.findAllById(storyIds);
+		if (stories.size() != new HashSet<>(storyIds).size()) {
+			throw new NotFoundException("Some user stories were not found");
+		}
+		if (stories.stream().anyMatch(story -> !story.getPokerTable().getId().equals(tableId))) {
+			throw new IllegalArgumentException("User stories must belong to poker table " + tableId);
+		}
+		if (!stories.isEmpty()) {
+			UserStoryService.checkOpen(stories.get(0).getPokerTable());
+		}
+
+		List<StoryVote> counted = storyVoteRepository.lockByStoryIds(storyIds);
+		Map<Long, Map<Long, Integer>> votesByStory = counted.stream()
+				.collect(Collectors.groupingBy(v -> v.getId().getStoryId(),
+						Collectors.toMap(v -> v.getId().getDeveloperId(), StoryVote::getVote)));
+
+		Map<Long, Integer> estimates = new LinkedHashMap<>();
+		List<UserStory> estimated = new ArrayList<>();
+		for (UserStory story : stories) {
+			Map<Long, Integer> votes = votesByStory.get(story.getId());
+			if (votes == null) {
+				continue;
+			}
+			StoryDocument before = StoryDocument.of(story);
+			story.setEstimatedPoints(consensus(votes.values()));
+			estimated.add(story);
+			estimates.put(story.getId(), story.getEstimatedPoints());
+			eventPublisher.publishEvent(new RoundClosedEvent(tableId, story.getId(), story.getPokerTable().getRoundNumber(), votes));
+			eventPublisher.publishEvent(new UserStoryChangedEvent(before, StoryDocument.of(story)));
+		}
+
+		userStoryRepository.saveAll(estimated);
+		storyVoteRepository.deleteAll(counted);
+		return estimates;
+	}
+
+	/**
+	 * The upper median of the votes, so a split decision leans towards the larger estimate.
+	 */
+	static int consensus(Collection<Integer> votes) {
+		int[] sorted = votes.stream().mapToInt(Integer::intValue).sorted().toArray();
+		return sorted[sorted.length / 2];
+	}
+}
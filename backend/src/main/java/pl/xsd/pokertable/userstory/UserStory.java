@@ -1,16 +1,23 @@
 package pl.xsd.pokertable.userstory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.search.SimilarStory;
+
+import java.util.List;
 
 @Entity
+@Table(indexes = {
+		@Index(columnList = "poker_table_id, id"),
+		@Index(columnList = "poker_table_id, backlog_rank")
+})
 @Getter
 @Setter
-@AllArgsConstructor
 public class UserStory {
 
 	@Id
@@ -20,19 +27,44 @@ public class UserStory {
 	@Column(nullable = false)
 	private String title;
 
+	// Large descriptions are compressed at rest, listings that only need titles use UserStorySummary
 	@Column(columnDefinition = "TEXT")
+	@Convert(converter = CompressedTextConverter.class)
 	private String description;
 
 	 private Integer estimatedPoints;
 
+	// Position in the backlog of the table, see RankKeys. Set by UserStoryService, never by clients
+	@Column(name = "backlog_rank", nullable = false, length = RankKeys.MAX_LENGTH)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private String rank;
+
+	@Version
+	@JsonIgnore
+	private Long version;
+
 	@ManyToOne
 	@JoinColumn(name = "poker_table_id", nullable = false)
 	@JsonIgnore
 	private PokerTable pokerTable;
 
+	// Filled in when a story is created, never stored
+	@Transient
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private List<SimilarStory> duplicateCandidates;
+
 	public UserStory() {
 	}
 
+	public UserStory(Long id, String title, String description, Integer estimatedPoints, PokerTable pokerTable) {
+		this.id = id;
+		this.title = title;
+		this.description = description;
+		this.estimatedPoints = estimatedPoints;
+		this.pokerTable = pokerTable;
+	}
+
 	public UserStory(String title, String description) {
 		this.title = title;
 		this.description = description;
@@ -0,0 +1,108 @@
+package pl.xsd.pokertable.userstory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One batch of a bulk update or delete, in its own transaction. The rows of the batch are locked in id order
+ * first, so a story cannot change between reading it for the change events and the set-based statement, and two
+ * bulk operations over overlapping ids wait for each other instead of deadlocking. Stories of closed tables are
+ * left as they are and reported as {@link BulkOutcome#TABLE_CLOSED}, the rest of the batch is still applied.
+ */
+@Component
+public class UserStoryBulkWriter {
+
+	private final UserStoryRepository userStoryRepository;
+	private final StoryVoteRepository storyVoteRepository;
+	private final PokerTableRepository pokerTableRepository;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public UserStoryBulkWriter(UserStoryRepository userStoryRepository, StoryVoteRepository storyVoteRepository,
+							   PokerTableRepository pokerTableRepository, ApplicationEventPublisher eventPublisher) {
+		this.userStoryRepository = userStoryRepository;
+		this.storyVoteRepository = storyVoteRepository;
+		this.pokerTableRepository = pokerTableRepository;
+		this.eventPublisher = eventPublisher;
+	}
+
+	@Transactional
+	public Map<Long, BulkOutcome> update(List<Long> ids, BulkUserStoryUpdate update) {
+		List<UserStory> locked = userStoryRepository.findByIdInOrderById(ids);
+		Set<Long> closed = closedTableStoryIds(locked);
+		List<UserStory> stories = locked.stream().filter(story -> !closed.contains(story.getId())).toList();
+		Set<Long> found = stories.stream().map(UserStory::getId).collect(Collectors.toSet());
+
+		if (update.estimatedPoints() != null && !found.isEmpty()) {
+			userStoryRepository.updateEstimatedPoints(found, update.estimatedPoints());
+		}
+		Long targetTableId = update.pokerTableId();
+		List<UserStory> moved = targetTableId == null ? List.of() : stories.stream()
+				.filter(story -> !story.getPokerTable().getId().equals(targetTableId))
+				.toList();
+		if (!moved.isEmpty()) {
+			moveToTable(moved, targetTableId);
+		}
+
+		for (UserStory story : stories) {
+			StoryDocument before = StoryDocument.of(story);
+			eventPublisher.publishEvent(new UserStoryChangedEvent(before, new StoryDocument(before.id(), before.title(),
+					before.description(),
+					update.estimatedPoints() == null ? before.estimatedPoints() : update.estimatedPoints(),
+					targetTableId == null ? before.pokerTableId() : targetTableId)));
+		}
+		return outcomes(ids, found, closed, BulkOutcome.UPDATED);
+	}
+
+	// Moved stories keep their order and go after the whole backlog of the table, their keys prefixed by one
+	// key past its last story
+	private void moveToTable(List<UserStory> moved, Long targetTableId) {
+		String prefix = RankKeys.after(userStoryRepository.findLastRankByPokerTableId(targetTableId));
+		int longestRank = prefix.length() + moved.stream().mapToInt(story -> story.getRank().length()).max().orElse(0);
+		if (longestRank > RankKeys.MAX_LENGTH) {
+			// Only possible while the source backlog waits for RankRebalancer
+			throw new IllegalStateException("The backlog of the moved user stories is being rebalanced, try again shortly");
+		}
+
+		userStoryRepository.moveToTable(moved.stream().map(UserStory::getId).toList(),
+				pokerTableRepository.getReferenceById(targetTableId), prefix);
+		if (longestRank > RankKeys.REBALANCE_LENGTH) {
+			eventPublisher.publishEvent(new RankRebalanceEvent(targetTableId));
+		}
+	}
+
+	@Transactional
+	public Map<Long, BulkOutcome> delete(List<Long> ids) {
+		List<UserStory> locked = userStoryRepository.findByIdInOrderById(ids);
+		Set<Long> closed = closedTableStoryIds(locked);
+		List<UserStory> stories = locked.stream().filter(story -> !closed.contains(story.getId())).toList();
+		Set<Long> found = stories.stream().map(UserStory::getId).collect(Collectors.toSet());
+
+		if (!found.isEmpty()) {
+			storyVoteRepository.deleteByStoryIds(found);
+			userStoryRepository.deleteByIds(found);
+		}
+		stories.forEach(story -> eventPublisher.publishEvent(new UserStoryChangedEvent(StoryDocument.of(story), null)));
+		return outcomes(ids, found, closed, BulkOutcome.DELETED);
+	}
+
+	// A closed table is never opened again, what is closed while the rows are locked stays closed
+	private static Set<Long> closedTableStoryIds(List<UserStory> stories) {
+		return stories.stream().filter(story -> Boolean.TRUE.equals(story.getPokerTable().getIsClosed()))
+				.map(UserStory::getId).collect(Collectors.toSet());
+	}
+
+	private static Map<Long, BulkOutcome> outcomes(List<Long> ids, Set<Long> found, Set<Long> closed, BulkOutcome outcome) {
+		Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+		ids.forEach(id -> outcomes.put(id, found.contains(id) ? outcome
+				: closed.contains(id) ? BulkOutcome.TABLE_CLOSED : BulkOutcome.NOT_FOUND));
+		return outcomes;
+	}
+}
@@ -0,0 +1,8 @@
+package pl.xsd.pokertable.userstory;
+
+/**
+ * Published when a user story is created, updated or deleted. {@code before} is {@code null} for a new story and
+ * {@code after} is {@code null} for a deleted one.
+ */
+public record UserStoryChangedEvent(StoryDocument before, StoryDocument after) {
+}
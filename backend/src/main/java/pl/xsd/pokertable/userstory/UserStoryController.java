@@ -4,7 +4,11 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pl.xsd.pokertable.search.EstimateSuggestion;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RestController
@@ -12,6 +16,8 @@ import java.util.Set;
 @AllArgsConstructor
 public class UserStoryController {
 
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	private final UserStoryService userStoryService;
 
 	@PostMapping
@@ -20,16 +26,84 @@ public class UserStoryController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(createdUserStory);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<List<UserStory>> createUserStories(@RequestParam Long pokerTableId, @RequestBody List<UserStory> userStories) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(userStoryService.createUserStories(pokerTableId, userStories));
+	}
+
+	@GetMapping("/search")
+	public ResponseEntity<List<UserStory>> searchUserStories(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+		return ResponseEntity.ok(userStoryService.searchUserStories(q, limit));
+	}
+
 	@GetMapping("/{storyId}")
 	public ResponseEntity<UserStory> getUserStoryById(@PathVariable Long storyId) {
 		UserStory userStory = userStoryService.getUserStoryById(storyId);
 		return ResponseEntity.ok(userStory);
 	}
 
+	/**
+	 * Without parameters every story of the table is returned, unordered. With any of {@code after}, {@code limit}
+	 * or {@code fields} one page ordered by id is returned, and the header {@value #NEXT_CURSOR_HEADER} holds the
+	 * {@code after} value of the next page. {@code fields=summary} leaves descriptions out.
+	 */
 	@GetMapping("/table/{tableId}")
-	public ResponseEntity<Set<UserStory>> getUserStoriesForTable(@PathVariable Long tableId) {
-		Set<UserStory> userStories = userStoryService.getUserStoriesForTable(tableId);
-		return ResponseEntity.ok(userStories);
+	public ResponseEntity<Collection<?>> getUserStoriesForTable(@PathVariable Long tableId,
+																@RequestParam(required = false) Long after,
+																@RequestParam(required = false) Integer limit,
+																@RequestParam(required = false) String fields) {
+		if (after == null && limit == null && fields == null) {
+			Set<UserStory> userStories = userStoryService.getUserStoriesForTable(tableId);
+			return ResponseEntity.ok(userStories);
+		}
+
+		int pageSize = limit == null ? UserStoryService.DEFAULT_PAGE_SIZE : limit;
+		KeysetPage<?> page = switch (fields == null ? "full" : fields) {
+			case "full" -> userStoryService.getUserStoriesPage(tableId, after, pageSize);
+			case "summary" -> userStoryService.getUserStorySummariesPage(tableId, after, pageSize);
+			default -> throw new IllegalArgumentException("fields must be 'full' or 'summary'");
+		};
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.nextAfter() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.nextAfter().toString());
+		}
+		return response.body(page.items());
+	}
+
+	@GetMapping("/{storyId}/similar")
+	public ResponseEntity<EstimateSuggestion> suggestEstimate(@PathVariable Long storyId, @RequestParam(defaultValue = "5") int limit) {
+		return ResponseEntity.ok(userStoryService.suggestEstimate(storyId, limit));
+	}
+
+	@GetMapping("/table/{tableId}/duplicates")
+	public ResponseEntity<List<List<Long>>> getDuplicateClusters(@PathVariable Long tableId) {
+		return ResponseEntity.ok(userStoryService.getDuplicateClusters(tableId));
+	}
+
+	@GetMapping("/table/{tableId}/next")
+	public ResponseEntity<UserStory> getNextStoryToEstimate(@PathVariable Long tableId) {
+		return userStoryService.getNextStoryToEstimate(tableId)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.noContent().build());
+	}
+
+	/**
+	 * Moves the story right behind the story {@code after} in the backlog, or to the top without it.
+	 */
+	@PatchMapping("/{storyId}/move")
+	public ResponseEntity<UserStory> moveUserStory(@PathVariable Long storyId, @RequestParam(required = false) Long after) {
+		return ResponseEntity.ok(userStoryService.moveUserStory(storyId, after));
+	}
+
+	@PatchMapping("/bulk")
+	public ResponseEntity<Map<Long, BulkOutcome>> updateUserStories(@RequestBody BulkUserStoryUpdate update) {
+		return ResponseEntity.ok(userStoryService.updateUserStories(update));
+	}
+
+	@DeleteMapping("/bulk")
+	public ResponseEntity<Map<Long, BulkOutcome>> deleteUserStories(@RequestBody List<Long> ids) {
+		return ResponseEntity.ok(userStoryService.deleteUserStories(ids));
 	}
 
 	@PutMapping("/{storyId}")
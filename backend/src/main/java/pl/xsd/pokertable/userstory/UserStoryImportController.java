@@ -0,0 +1,28 @@
+package pl.xsd.pokertable.userstory;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+
+@RestController
+@AllArgsConstructor
+public class UserStoryImportController {
+
+	private final UserStoryImportService userStoryImportService;
+
+	@PostMapping("/tables/{tableId}/imports")
+	public ResponseEntity<ImportJob> startImport(@PathVariable Long tableId, @RequestParam MultipartFile file) {
+		ImportJob job = userStoryImportService.startImport(tableId, file);
+		return ResponseEntity.accepted()
+				.location(URI.create("/imports/" + job.getId()))
+				.body(job);
+	}
+
+	@GetMapping("/imports/{jobId}")
+	public ResponseEntity<ImportJob> getImport(@PathVariable String jobId) {
+		return ResponseEntity.ok(userStoryImportService.getJob(jobId));
+	}
+}
@@ -0,0 +1,277 @@
+package pl.xsd.pokertable.userstory;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import pl.xsd.pokertable.bulkhead.Bulkheads;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TooManyImportsException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports user stories from a CSV in the layout of the export, as Jira writes it: a header row naming the columns,
+ * of which {@code Summary} is required and {@code Description} and {@code Story point estimate} are read when
+ * present, in any order. Other columns, like {@code Issue Type}, are ignored.
+ * <p>
+ * The uploaded file is mapped and read twice by a {@link CsvScanner}: once while the request waits, so that a
+ * malformed file is rejected with the row at fault before anything is stored, then by a background job that inserts
+ * the stories in JDBC batches of {@code pokertable.imports.batch-size}, each batch in its own transaction. The
+ * stories go after the backlog of the table in file order.
+ */
+@Slf4j
+@Service
+public class UserStoryImportService {
+
+	static final String SUMMARY = "Summary";
+	static final String DESCRIPTION = "Description";
+	static final String STORY_POINTS = "Story point estimate";
+	static final int MAX_TITLE_LENGTH = 255;
+
+	private final PokerTableRepository pokerTableRepository;
+	private final UserStoryRepository userStoryRepository;
+	private final UserStoryImportWriter userStoryImportWriter;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Path directory;
+	private final int batchSize;
+	private final Duration retention;
+	private final ThreadPoolExecutor executor;
+	private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+	private record Columns(int summary, int description, int storyPoints) {
+	}
+
+	public UserStoryImportService(PokerTableRepository pokerTableRepository, UserStoryRepository userStoryRepository,
+								  UserStoryImportWriter userStoryImportWriter, ApplicationEventPublisher eventPublisher,
+								  @Value("${pokertable.imports.directory:${java.io.tmpdir}/pokertable-imports}") Path directory,
+								  @Value("${pokertable.imports.queue-capacity:10}") int queueCapacity,
+								  @Value("${pokertable.imports.batch-size:1000}") int batchSize,
+								  @Value("${pokertable.imports.retention:1h}") Duration retention) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("pokertable.imports.batch-size must be at least 1");
+		}
+		this.pokerTableRepository = pokerTableRepository;
+		this.userStoryRepository = userStoryRepository;
+		this.userStoryImportWriter = userStoryImportWriter;
+		this.eventPublisher = eventPublisher;
+		this.directory = directory;
+		this.batchSize = batchSize;
+		this.retention = retention;
+
+		// One import at a time, they write to the primary and a backlog is best appended by one writer
+		AtomicInteger workers = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), task -> {
+			Thread worker = new Thread(Bulkheads.batch(task), "import-" + workers.incrementAndGet());
+			worker.setDaemon(true);
+			return worker;
+		});
+	}
+
+	/**
+	 * Checks the file and queues its import. Throws {@link IllegalArgumentException} naming the row at fault when
+	 * the file cannot be imported, and {@link TooManyImportsException} when the queue is full.
+	 */
+	public ImportJob startImport(Long pokerTableId, MultipartFile upload) {
+		PokerTable pokerTable = pokerTableRepository.findById(pokerTableId)
+				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + pokerTableId));
+		UserStoryService.checkOpen(pokerTable);
+
+		Path file;
+		try {
+			Files.createDirectories(directory);
+			file = Files.createTempFile(directory, "import-", ".csv");
+			upload.transferTo(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		ImportJob job;
+		try {
+			job = new ImportJob(UUID.randomUUID().toString(), pokerTableId, file, count(file));
+		} catch (RuntimeException e) {
+			deleteFile(file);
+			throw e;
+		}
+
+		jobs.put(job.getId(), job);
+		try {
+			executor.execute(() -> run(job));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			deleteFile(file);
+			throw new TooManyImportsException();
+		}
+		return job;
+	}
+
+	public ImportJob getJob(String jobId) {
+		ImportJob job = jobs.get(jobId);
+		if (job == null) {
+			throw new NotFoundException("Import not found with ID: " + jobId);
+		}
+		return job;
+	}
+
+	@Scheduled(fixedDelayString = "${pokertable.imports.retention:1h}")
+	public void purgeExpired() {
+		LocalDateTime finishedBefore = LocalDateTime.now().minus(retention);
+		jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(finishedBefore));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		jobs.values().forEach(job -> deleteFile(job.getFile()));
+	}
+
+	/**
+	 * The number of stories in the file, checking every row the way the import reads it.
+	 */
+	int count(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			CsvScanner scanner = new CsvScanner(map(channel));
+			Columns columns = columns(scanner);
+			int stories = 0;
+			while (scanner.next()) {
+				if (!isEmptyRow(scanner)) {
+					checkTitle(scanner, columns);
+					scanner.integer(columns.storyPoints());
+					stories++;
+				}
+			}
+			if (stories == 0) {
+				throw new IllegalArgumentException("The file has no user stories");
+			}
+			return stories;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	void run(ImportJob job) {
+		job.start();
+		try (FileChannel channel = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+			CsvScanner scanner = new CsvScanner(map(channel));
+			Columns columns = columns(scanner);
+
+			// One key past the backlog, then evenly spaced keys behind it, like stories moved to another table
+			int total = (int) job.getTotalStories();
+			String prefix = RankKeys.after(userStoryRepository.findLastRankByPokerTableId(job.getTableId()));
+			int rankLength = prefix.length() + RankKeys.evenlySpaced(0, total).length();
+			if (rankLength > RankKeys.MAX_LENGTH) {
+				throw new IllegalStateException("The backlog of the table is being rebalanced, try again shortly");
+			}
+
+			int index = 0;
+			List<UserStory> batch = new ArrayList<>(batchSize);
+			while (scanner.next()) {
+				if (isEmptyRow(scanner)) {
+					continue;
+				}
+				UserStory story = new UserStory(checkTitle(scanner, columns), columns.description() < 0 ? null
+						: emptyToNull(scanner.field(columns.description())));
+				story.setEstimatedPoints(scanner.integer(columns.storyPoints()));
+				story.setRank(prefix + RankKeys.evenlySpaced(index++, total));
+				batch.add(story);
+				if (batch.size() == batchSize) {
+					insert(job, batch);
+				}
+			}
+			if (!batch.isEmpty()) {
+				insert(job, batch);
+			}
+			if (rankLength > RankKeys.REBALANCE_LENGTH) {
+				eventPublisher.publishEvent(new RankRebalanceEvent(job.getTableId()));
+			}
+			job.finish(ImportJob.Status.DONE, null);
+		} catch (RuntimeException | IOException e) {
+			log.warn("Import {} into poker table {} failed after {} stories", job.getId(), job.getTableId(), job.getStoriesImported(), e);
+			job.finish(ImportJob.Status.FAILED, "The import stopped after " + job.getStoriesImported() + " stories: " + e.getMessage());
+		} finally {
+			deleteFile(job.getFile());
+		}
+	}
+
+	private void insert(ImportJob job, List<UserStory> batch) {
+		userStoryImportWriter.insert(job.getTableId(), batch);
+		job.addStoriesImported(batch.size());
+		batch.clear();
+	}
+
+	private static MappedByteBuffer map(FileChannel channel) throws IOException {
+		if (channel.size() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A CSV file can have at most 2 GB");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	}
+
+	private static Columns columns(CsvScanner scanner) {
+		if (!scanner.next()) {
+			throw new IllegalArgumentException("The file is empty");
+		}
+		int summary = -1;
+		int description = -1;
+		int storyPoints = -1;
+		for (int i = 0; i < scanner.fieldCount(); i++) {
+			switch (scanner.field(i).trim()) {
+				case SUMMARY -> summary = i;
+				case DESCRIPTION -> description = i;
+				case STORY_POINTS -> storyPoints = i;
+				default -> {
+				}
+			}
+		}
+		if (summary < 0) {
+			throw scanner.error("there is no " + SUMMARY + " column");
+		}
+		// A missing column reads as blank, which the scanner does for any index past the fields of a row
+		return new Columns(summary, description, storyPoints < 0 ? Integer.MAX_VALUE : storyPoints);
+	}
+
+	private static boolean isEmptyRow(CsvScanner scanner) {
+		return scanner.fieldCount() == 1 && scanner.isBlank(0);
+	}
+
+	private static String checkTitle(CsvScanner scanner, Columns columns) {
+		if (scanner.isBlank(columns.summary())) {
+			throw scanner.error(SUMMARY + " is empty");
+		}
+		String title = scanner.field(columns.summary());
+		if (title.length() > MAX_TITLE_LENGTH) {
+			throw scanner.error(SUMMARY + " is longer than " + MAX_TITLE_LENGTH + " characters");
+		}
+		return title;
+	}
+
+	private static String emptyToNull(String text) {
+		return text.isEmpty() ? null : text;
+	}
+
+	private static void deleteFile(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Could not delete the imported file {}", file, e);
+		}
+	}
+}
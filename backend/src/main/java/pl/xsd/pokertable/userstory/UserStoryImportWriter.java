@@ -0,0 +1,84 @@
+package pl.xsd.pokertable.userstory;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One batch of an import, in its own transaction. Stories are inserted with a single JDBC batch, which Hibernate
+ * cannot do for them since their ids come from an identity column, and indexed once the batch has committed like
+ * any created story.
+ */
+@Component
+public class UserStoryImportWriter {
+
+	private static final String INSERT = "insert into user_story (title, description, estimated_points, backlog_rank, version, " +
+			"poker_table_id) values (?, ?, ?, ?, 0, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final PokerTableRepository pokerTableRepository;
+	private final CompressedTextConverter compressedTextConverter;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public UserStoryImportWriter(JdbcTemplate jdbcTemplate, PokerTableRepository pokerTableRepository,
+								 CompressedTextConverter compressedTextConverter, ApplicationEventPublisher eventPublisher) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.pokerTableRepository = pokerTableRepository;
+		this.compressedTextConverter = compressedTextConverter;
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Inserts stories whose rank is already set and fills in their ids.
+	 */
+	@Transactional
+	public void insert(Long pokerTableId, List<UserStory> stories) {
+		PokerTable pokerTable = pokerTableRepository.findById(pokerTableId)
+				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + pokerTableId));
+		UserStoryService.checkOpen(pokerTable);
+
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement statement, int i) throws SQLException {
+						UserStory story = stories.get(i);
+						statement.setString(1, story.getTitle());
+						statement.setString(2, compressedTextConverter.convertToDatabaseColumn(story.getDescription()));
+						if (story.getEstimatedPoints() == null) {
+							statement.setNull(3, Types.INTEGER);
+						} else {
+							statement.setInt(3, story.getEstimatedPoints());
+						}
+						statement.setString(4, story.getRank());
+						statement.setLong(5, pokerTableId);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return stories.size();
+					}
+				}, keys);
+
+		List<Map<String, Object>> ids = keys.getKeyList();
+		for (int i = 0; i < stories.size(); i++) {
+			UserStory story = stories.get(i);
+			story.setId(((Number) ids.get(i).values().iterator().next()).longValue());
+			story.setPokerTable(pokerTable);
+			eventPublisher.publishEvent(new UserStoryChangedEvent(null, StoryDocument.of(story)));
+		}
+	}
+}
@@ -1,11 +1,79 @@
 package pl.xsd.pokertable.userstory;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pl.xsd.pokertable.pokertable.PokerTable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserStoryRepository extends JpaRepository<UserStory, Long> {
 	Set<UserStory> findByPokerTableId(Long pokerTableId);
+
+	// Keyset pages, both served by the (poker_table_id, id) index whatever the page depth
+	@Query("select s from UserStory s where s.pokerTable.id = :tableId and s.id > :after order by s.id")
+	List<UserStory> findPageByPokerTableIdAfter(@Param("tableId") Long tableId, @Param("after") Long after, Limit limit);
+
+	@Query("select new pl.xsd.pokertable.userstory.UserStorySummary(s.id, s.title, s.estimatedPoints) from UserStory s " +
+			"where s.pokerTable.id = :tableId and s.id > :after order by s.id")
+	List<UserStorySummary> findSummariesByPokerTableIdAfter(@Param("tableId") Long tableId, @Param("after") Long after, Limit limit);
+
+	// Backlog order, all served by the (poker_table_id, backlog_rank) index
+	@Query("select max(s.rank) from UserStory s where s.pokerTable.id = :tableId")
+	String findLastRankByPokerTableId(@Param("tableId") Long tableId);
+
+	@Query("select min(s.rank) from UserStory s where s.pokerTable.id = :tableId and s.rank > :rank and s.id <> :excludedId")
+	String findRankAfter(@Param("tableId") Long tableId, @Param("rank") String rank, @Param("excludedId") Long excludedId);
+
+	Optional<UserStory> findFirstByPokerTableIdAndEstimatedPointsIsNullOrderByRankAscIdAsc(Long pokerTableId);
+
+	List<UserStory> findByPokerTableIdOrderByRankAscIdAsc(Long pokerTableId);
+
+	// Bulk operations lock their rows in id order, so overlapping bulk operations cannot deadlock
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	List<UserStory> findByIdInOrderById(Collection<Long> ids);
+
+	@Modifying
+	@Query("update UserStory s set s.estimatedPoints = :points, s.version = s.version + 1 where s.id in :ids")
+	int updateEstimatedPoints(@Param("ids") Collection<Long> ids, @Param("points") Integer points);
+
+	@Modifying
+	@Query("update UserStory s set s.pokerTable = :pokerTable, s.rank = concat(:rankPrefix, s.rank), " +
+			"s.version = s.version + 1 where s.id in :ids")
+	int moveToTable(@Param("ids") Collection<Long> ids, @Param("pokerTable") PokerTable pokerTable,
+					@Param("rankPrefix") String rankPrefix);
+
+	@Modifying
+	@Query("delete from UserStory s where s.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("delete from UserStory s where s.pokerTable.id in :tableIds")
+	int deleteByPokerTableIds(@Param("tableIds") Collection<Long> tableIds);
+
+	boolean existsByIdAndPokerTableId(Long id, Long pokerTableId);
+
+	@Query("select new pl.xsd.pokertable.userstory.StoryTotals(count(s), coalesce(sum(s.estimatedPoints), 0L)) " +
+			"from UserStory s where s.pokerTable.id = :tableId")
+	StoryTotals sumEstimatesByPokerTableId(@Param("tableId") Long tableId);
+
+	// Only the indexed columns, fetched in chunks so that rebuilding an index never loads every story at once
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+	@Query("select new pl.xsd.pokertable.userstory.StoryDocument(s.id, s.title, s.description, s.estimatedPoints, " +
+			"s.pokerTable.id) from UserStory s order by s.id")
+	Stream<StoryDocument> streamAllDocuments();
 }
\ No newline at end of file
@@ -1,31 +1,101 @@
 package pl.xsd.pokertable.userstory;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
 import pl.xsd.pokertable.pokertable.PokerTable;
 import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.search.EstimateSuggestion;
+import pl.xsd.pokertable.search.SimilarStory;
+import pl.xsd.pokertable.search.StorySearchIndex;
+import pl.xsd.pokertable.search.StorySimilarityIndex;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserStoryService {
 
+	static final int MAX_SEARCH_RESULTS = 100;
+	static final int MAX_SIMILAR_STORIES = 20;
+	static final int MAX_BATCH_SIZE = 1000;
+	static final int DEFAULT_PAGE_SIZE = 50;
+	static final int MAX_PAGE_SIZE = 500;
+	static final int BULK_CHUNK_SIZE = 100;
+
 	private final UserStoryRepository userStoryRepository;
 	private final PokerTableRepository pokerTableRepository;
+	private final StorySearchIndex storySearchIndex;
+	private final StorySimilarityIndex storySimilarityIndex;
+	private final UserStoryBulkWriter userStoryBulkWriter;
+	private final StoryVoteRepository storyVoteRepository;
+	private final ApplicationEventPublisher eventPublisher;
 
-	public UserStoryService(UserStoryRepository userStoryRepository, PokerTableRepository pokerTableRepository) {
+	public UserStoryService(UserStoryRepository userStoryRepository, PokerTableRepository pokerTableRepository,
+							StorySearchIndex storySearchIndex, StorySimilarityIndex storySimilarityIndex,
+							UserStoryBulkWriter userStoryBulkWriter, StoryVoteRepository storyVoteRepository,
+							ApplicationEventPublisher eventPublisher) {
 		this.userStoryRepository = userStoryRepository;
 		this.pokerTableRepository = pokerTableRepository;
+		this.storySearchIndex = storySearchIndex;
+		this.storySimilarityIndex = storySimilarityIndex;
+		this.userStoryBulkWriter = userStoryBulkWriter;
+		this.storyVoteRepository = storyVoteRepository;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Transactional
 	public UserStory createUserStory(Long pokerTableId, UserStory userStory) {
 		PokerTable pokerTable = pokerTableRepository.findById(pokerTableId)
 				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + pokerTableId));
+		checkOpen(pokerTable);
 
 		userStory.setPokerTable(pokerTable);
-		return userStoryRepository.save(userStory);
+		userStory.setRank(RankKeys.after(userStoryRepository.findLastRankByPokerTableId(pokerTableId)));
+		UserStory saved = userStoryRepository.save(userStory);
+		StoryDocument document = StoryDocument.of(saved);
+		eventPublisher.publishEvent(new UserStoryChangedEvent(null, document));
+		saved.setDuplicateCandidates(storySimilarityIndex.findDuplicates(document));
+		return saved;
+	}
+
+	/**
+	 * Creates many stories at once, in one batch. Like {@link #createUserStory}, probable duplicates are reported
+	 * on each story, including duplicates among the new stories themselves; nothing is rejected.
+	 */
+	@Transactional
+	public List<UserStory> createUserStories(Long pokerTableId, List<UserStory> userStories) {
+		if (userStories.isEmpty() || userStories.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " user stories");
+		}
+		PokerTable pokerTable = pokerTableRepository.findById(pokerTableId)
+				.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + pokerTableId));
+		checkOpen(pokerTable);
+
+		String rank = userStoryRepository.findLastRankByPokerTableId(pokerTableId);
+		for (UserStory userStory : userStories) {
+			rank = RankKeys.after(rank);
+			userStory.setPokerTable(pokerTable);
+			userStory.setRank(rank);
+		}
+		List<UserStory> saved = userStoryRepository.saveAll(userStories);
+
+		List<StoryDocument> documents = saved.stream().map(StoryDocument::of).toList();
+		documents.forEach(document -> eventPublisher.publishEvent(new UserStoryChangedEvent(null, document)));
+		List<List<SimilarStory>> duplicates = storySimilarityIndex.findDuplicates(documents);
+		for (int i = 0; i < saved.size(); i++) {
+			saved.get(i).setDuplicateCandidates(duplicates.get(i));
+		}
+		return saved;
 	}
 
 	public UserStory getUserStoryById(Long storyId) {
@@ -33,27 +103,228 @@ public class UserStoryService {
 				.orElseThrow(() -> new NotFoundException("User story not found with ID: " + storyId));
 	}
 
+	@Transactional(readOnly = true)
 	public Set<UserStory> getUserStoriesForTable(Long pokerTableId) {
 		// This implicitly checks if the poker table exists via the repository method
 		return userStoryRepository.findByPokerTableId(pokerTableId);
 	}
 
+	/**
+	 * Stories of a table with an id greater than {@code after} (all of them when {@code null}), in id order. Each
+	 * page costs the same however deep the client pages, since it seeks straight to {@code after} in the index.
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<UserStory> getUserStoriesPage(Long pokerTableId, Long after, int limit) {
+		checkPageSize(limit);
+		return page(userStoryRepository.findPageByPokerTableIdAfter(pokerTableId, after == null ? 0L : after,
+				Limit.of(limit + 1)), limit, UserStory::getId);
+	}
+
+	/**
+	 * Same as {@link #getUserStoriesPage}, without loading descriptions.
+	 */
+	@Transactional(readOnly = true)
+	public KeysetPage<UserStorySummary> getUserStorySummariesPage(Long pokerTableId, Long after, int limit) {
+		checkPageSize(limit);
+		return page(userStoryRepository.findSummariesByPokerTableIdAfter(pokerTableId, after == null ? 0L : after,
+				Limit.of(limit + 1)), limit, UserStorySummary::id);
+	}
+
+	private static void checkPageSize(int limit) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+		}
+	}
+
+	// One row more than asked for tells whether there is a next page
+	private static <T> KeysetPage<T> page(List<T> rows, int limit, Function<T, Long> id) {
+		if (rows.size() <= limit) {
+			return new KeysetPage<>(rows, null);
+		}
+		List<T> items = rows.subList(0, limit);
+		return new KeysetPage<>(List.copyOf(items), id.apply(items.get(limit - 1)));
+	}
+
 	@Transactional
 	public UserStory updateUserStory(Long storyId, UserStory updatedUserStory) {
 		UserStory existingUserStory = getUserStoryById(storyId);
+		checkOpen(existingUserStory.getPokerTable());
+		StoryDocument before = StoryDocument.of(existingUserStory);
 
 		existingUserStory.setTitle(updatedUserStory.getTitle());
 		existingUserStory.setDescription(updatedUserStory.getDescription());
 		existingUserStory.setEstimatedPoints(updatedUserStory.getEstimatedPoints());
 
-		return userStoryRepository.save(existingUserStory);
+		UserStory saved = userStoryRepository.save(existingUserStory);
+		eventPublisher.publishEvent(new UserStoryChangedEvent(before, StoryDocument.of(saved)));
+		return saved;
+	}
+
+	/**
+	 * Applies one change to many stories with set-based statements, {@value #BULK_CHUNK_SIZE} stories per
+	 * statement. Each chunk is its own transaction that locks its rows before changing them, so the chunk applies
+	 * atomically and on top of whatever committed before it: the last writer wins, as with
+	 * {@link #updateUserStory}. When a chunk fails, the chunks before it stay applied. Stories of closed tables are
+	 * skipped and reported as {@link BulkOutcome#TABLE_CLOSED}; only a closed target table fails the whole request.
+	 *
+	 * @return the outcome for every requested id, in request order
+	 */
+	public Map<Long, BulkOutcome> updateUserStories(BulkUserStoryUpdate update) {
+		List<Long> ids = checkBulkIds(update.ids());
+		if (update.pokerTableId() == null && update.estimatedPoints() == null) {
+			throw new IllegalArgumentException("Nothing to update, give pokerTableId or estimatedPoints");
+		}
+		if (update.pokerTableId() != null) {
+			checkOpen(pokerTableRepository.findById(update.pokerTableId())
+					.orElseThrow(() -> new NotFoundException("Poker table not found with ID: " + update.pokerTableId())));
+		}
+		return inChunks(ids, chunk -> userStoryBulkWriter.update(chunk, update));
+	}
+
+	/**
+	 * Deletes many stories, and their pending votes, in chunks like {@link #updateUserStories}.
+	 */
+	public Map<Long, BulkOutcome> deleteUserStories(List<Long> ids) {
+		return inChunks(checkBulkIds(ids), userStoryBulkWriter::delete);
+	}
+
+	// The backlog of a closed table is final, it is in the snapshot of the table
+	static void checkOpen(PokerTable pokerTable) {
+		if (Boolean.TRUE.equals(pokerTable.getIsClosed())) {
+			throw new TableClosedException(pokerTable.getId());
+		}
+	}
+
+	private static List<Long> checkBulkIds(List<Long> ids) {
+		if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " user story ids are required");
+		}
+		if (ids.stream().anyMatch(Objects::isNull)) {
+			throw new IllegalArgumentException("User story ids must not be null");
+		}
+		return ids.stream().distinct().toList();
+	}
+
+	private static Map<Long, BulkOutcome> inChunks(List<Long> ids, Function<List<Long>, Map<Long, BulkOutcome>> writer) {
+		Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+		for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+			outcomes.putAll(writer.apply(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()))));
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Moves a story right behind {@code afterStoryId} in the backlog, or to the top when it is {@code null}. Only
+	 * the moved story is written. When its new rank key gets too long, the table is rebalanced in the background by
+	 * {@link RankRebalancer}.
+	 */
+	@Transactional
+	public UserStory moveUserStory(Long storyId, Long afterStoryId) {
+		UserStory userStory = getUserStoryById(storyId);
+		checkOpen(userStory.getPokerTable());
+		Long pokerTableId = userStory.getPokerTable().getId();
+
+		UserStory after = null;
+		if (afterStoryId != null) {
+			if (afterStoryId.equals(storyId)) {
+				throw new IllegalArgumentException("A user story cannot be moved after itself");
+			}
+			after = getUserStoryById(afterStoryId);
+			if (!after.getPokerTable().getId().equals(pokerTableId)) {
+				throw new IllegalArgumentException("User story " + afterStoryId + " is on another poker table");
+			}
+		}
+
+		String rank = rankAfter(pokerTableId, after, storyId);
+		if (rank.length() > RankKeys.MAX_LENGTH) {
+			// Moves came faster than the background rebalancing, rebalance now rather than overflow the column
+			rebalanceRanks(pokerTableId);
+			rank = rankAfter(pokerTableId, after, storyId);
+		}
+		userStory.setRank(rank);
+		UserStory saved = userStoryRepository.save(userStory);
+		if (saved.getRank().length() > RankKeys.REBALANCE_LENGTH) {
+			eventPublisher.publishEvent(new RankRebalanceEvent(pokerTableId));
+		}
+		return saved;
+	}
+
+	private String rankAfter(Long pokerTableId, UserStory after, Long movedStoryId) {
+		String lower = after == null ? null : after.getRank();
+		String upper = userStoryRepository.findRankAfter(pokerTableId, lower == null ? "" : lower, movedStoryId);
+		return RankKeys.between(lower, upper);
+	}
+
+	/**
+	 * Gives every story of the table an evenly spaced rank key again, keeping their order. Rewrites the whole
+	 * backlog of the table, so it only runs when {@link #moveUserStory} made a key too long.
+	 */
+	@Transactional
+	public void rebalanceRanks(Long pokerTableId) {
+		List<UserStory> backlog = userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(pokerTableId);
+		List<String> ranks = RankKeys.evenlySpaced(backlog.size());
+		for (int i = 0; i < backlog.size(); i++) {
+			backlog.get(i).setRank(ranks.get(i));
+		}
+	}
+
+	/**
+	 * The first story of the backlog that has no estimate yet, if any.
+	 */
+	public Optional<UserStory> getNextStoryToEstimate(Long pokerTableId) {
+		if (!pokerTableRepository.existsById(pokerTableId)) {
+			throw new NotFoundException("Poker table not found with ID: " + pokerTableId);
+		}
+		return userStoryRepository.findFirstByPokerTableIdAndEstimatedPointsIsNullOrderByRankAscIdAsc(pokerTableId);
 	}
 
 	@Transactional
 	public void deleteUserStory(Long storyId) {
-		if (!userStoryRepository.existsById(storyId)) {
-			throw new NotFoundException("User story not found with ID: " + storyId);
+		UserStory userStory = getUserStoryById(storyId);
+		checkOpen(userStory.getPokerTable());
+		// Votes only hold the story id, without a foreign key they would outlive it
+		storyVoteRepository.deleteByStoryIds(List.of(storyId));
+		userStoryRepository.delete(userStory);
+		eventPublisher.publishEvent(new UserStoryChangedEvent(StoryDocument.of(userStory), null));
+	}
+
+	/**
+	 * Stories matching every term of {@code query}, best match first. Stories deleted since the index last saw
+	 * them are skipped.
+	 */
+	public List<UserStory> searchUserStories(String query, int limit) {
+		if (query == null || query.isBlank()) {
+			throw new IllegalArgumentException("Search query must not be blank");
+		}
+		if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+		}
+
+		List<Long> ids = storySearchIndex.search(query, limit);
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, UserStory> stories = userStoryRepository.findAllById(ids).stream()
+				.collect(Collectors.toMap(UserStory::getId, Function.identity()));
+		return ids.stream().map(stories::get).filter(Objects::nonNull).toList();
+	}
+
+	/**
+	 * Suggests an estimate for a story from the estimated stories most similar to it. Works for a story that was
+	 * just created as well, it is matched by its text and does not need to be indexed yet.
+	 */
+	public EstimateSuggestion suggestEstimate(Long storyId, int limit) {
+		if (limit < 1 || limit > MAX_SIMILAR_STORIES) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SIMILAR_STORIES);
+		}
+		UserStory userStory = getUserStoryById(storyId);
+		return EstimateSuggestion.of(storySimilarityIndex.findSimilar(StoryDocument.of(userStory), limit));
+	}
+
+	public List<List<Long>> getDuplicateClusters(Long pokerTableId) {
+		if (!pokerTableRepository.existsById(pokerTableId)) {
+			throw new NotFoundException("Poker table not found with ID: " + pokerTableId);
 		}
-		userStoryRepository.deleteById(storyId);
+		return storySimilarityIndex.findDuplicateClusters(pokerTableId);
 	}
-}
\ No newline at end of file
+}
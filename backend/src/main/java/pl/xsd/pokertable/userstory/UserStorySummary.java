@@ -0,0 +1,7 @@
+package pl.xsd.pokertable.userstory;
+
+/**
+ * A user story without its description, for listings that do not need the (possibly large) text.
+ */
+public record UserStorySummary(Long id, String title, Integer estimatedPoints) {
+}
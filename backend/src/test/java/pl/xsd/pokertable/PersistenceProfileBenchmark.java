@@ -0,0 +1,122 @@
+package pl.xsd.pokertable;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperService;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vote, join and CSV export throughput of the default in-memory H2 setup against the postgres profile, called
+ * through the services from 4 threads like concurrent requests. PostgreSQL is started with Testcontainers, or set
+ * POSTGRES_URL (with POSTGRES_USER and POSTGRES_PASSWORD) to measure an existing server instead.
+ * <p>
+ * Every thread votes as its own developer and joins by moving its own session between two tables, so the tables do
+ * not grow during the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PersistenceProfileBenchmark {
+
+	private static final int STORIES = 200;
+
+	@Param({"h2", "postgres"})
+	public String profile;
+
+	private PostgreSQLContainer<?> postgres;
+	private ConfigurableApplicationContext context;
+	private DeveloperService developerService;
+	private PokerTableService pokerTableService;
+	private Long tableId;
+	private Long otherTableId;
+
+	@State(Scope.Thread)
+	public static class Caller {
+
+		private Long developerId;
+		private MockHttpSession session;
+		private int calls;
+
+		@Setup
+		public void setUp(PersistenceProfileBenchmark benchmark) {
+			developerId = benchmark.developerService
+					.createDeveloper(benchmark.tableId, new Developer(UUID.randomUUID().toString(), "Voter")).getId();
+			session = new MockHttpSession();
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		List<String> args = new ArrayList<>(List.of(
+				"--server.port=0",
+				"--spring.main.banner-mode=off",
+				"--logging.level.root=warn",
+				"--spring.jpa.show-sql=false"));
+		if (profile.equals("postgres")) {
+			args.add("--spring.profiles.active=postgres");
+			if (System.getenv("POSTGRES_URL") == null) {
+				postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+				postgres.start();
+				args.add("--spring.datasource.url=" + postgres.getJdbcUrl());
+				args.add("--spring.datasource.username=" + postgres.getUsername());
+				args.add("--spring.datasource.password=" + postgres.getPassword());
+			}
+		} else {
+			args.add("--spring.datasource.url=jdbc:h2:mem:profile-benchmark");
+		}
+		context = new SpringApplicationBuilder(PokertableApplication.class).run(args.toArray(String[]::new));
+
+		developerService = context.getBean(DeveloperService.class);
+		pokerTableService = context.getBean(PokerTableService.class);
+		tableId = pokerTableService.createPokerTable("Benchmark").getId();
+		otherTableId = pokerTableService.createPokerTable("Other").getId();
+
+		List<UserStory> stories = new ArrayList<>();
+		for (int i = 0; i < STORIES; i++) {
+			UserStory story = new UserStory("Story " + i, "As a user I want feature " + i + ", so that \"it works\". ".repeat(10));
+			story.setEstimatedPoints(i % 13 + 1);
+			stories.add(story);
+		}
+		context.getBean(UserStoryService.class).createUserStories(tableId, stories);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+		if (postgres != null) {
+			postgres.stop();
+		}
+	}
+
+	@Benchmark
+	public void vote(Caller caller) {
+		developerService.vote(caller.developerId, tableId, caller.calls++ % 13 + 1);
+	}
+
+	@Benchmark
+	public Map<String, Object> join(Caller caller) {
+		return developerService.joinTable("Developer", caller.calls++ % 2 == 0 ? tableId : otherTableId, caller.session);
+	}
+
+	@Benchmark
+	public byte[] export() {
+		return pokerTableService.exportUserStoriesToCsv(tableId);
+	}
+}
@@ -1,13 +1,26 @@
 package pl.xsd.pokertable;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @Import(TestcontainersConfiguration.class)
 @SpringBootTest
 class PokertableApplicationTests {
 
+	@TempDir
+	static Path snapshotDirectory;
+
+	@DynamicPropertySource
+	static void snapshotProperties(DynamicPropertyRegistry registry) {
+		registry.add("pokertable.snapshots.directory", snapshotDirectory::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,62 @@
+package pl.xsd.pokertable.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+class AnalyticsControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private AnalyticsService analyticsService;
+
+	@Test
+	void getSummary_parsesDateRange() throws Exception {
+		LocalDate from = LocalDate.of(2024, 1, 1);
+		LocalDate to = LocalDate.of(2024, 3, 31);
+		TreeMap<Integer, Long> histogram = new TreeMap<>();
+		histogram.put(8, 4L);
+		when(analyticsService.getSummary(from, to))
+				.thenReturn(new AnalyticsSummary(from, to, 3, 10, 45, 4.5, histogram));
+
+		mockMvc.perform(get("/analytics/summary").param("from", "2024-01-01").param("to", "2024-03-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.tables").value(3))
+				.andExpect(jsonPath("$.averagePointsPerStory").value(4.5))
+				.andExpect(jsonPath("$.voteHistogram.8").value(4));
+	}
+
+	@Test
+	void getVelocity_invalidRange_returnsBadRequest() throws Exception {
+		LocalDate from = LocalDate.of(2024, 2, 1);
+		LocalDate to = LocalDate.of(2024, 1, 1);
+		when(analyticsService.getVelocity(from, to)).thenThrow(new IllegalArgumentException("'from' must not be after 'to'"));
+
+		mockMvc.perform(get("/analytics/velocity").param("from", "2024-02-01").param("to", "2024-01-01"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getVelocity_returnsMonths() throws Exception {
+		when(analyticsService.getVelocity(null, null))
+				.thenReturn(List.of(new MonthlyVelocity(2024, 1, 2L, 7L, 30L)));
+
+		mockMvc.perform(get("/analytics/velocity"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].month").value(1))
+				.andExpect(jsonPath("$[0].points").value(30));
+	}
+}
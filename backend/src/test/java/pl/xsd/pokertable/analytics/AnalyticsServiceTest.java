@@ -0,0 +1,97 @@
+package pl.xsd.pokertable.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+import pl.xsd.pokertable.userstory.StoryTotals;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+	@Mock
+	private TableSummaryRepository tableSummaryRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@InjectMocks
+	private AnalyticsService analyticsService;
+
+	@Test
+	void onTableClosed_savesTotalsAndVoteHistogram() {
+		// Arrange
+		LocalDateTime closedAt = LocalDateTime.of(2024, 3, 5, 12, 0);
+		when(userStoryRepository.sumEstimatesByPokerTableId(1L)).thenReturn(new StoryTotals(4L, 21L));
+
+		// Act
+		analyticsService.onTableClosed(new TableClosedEvent(1L, closedAt, Map.of(101L, 5, 102L, 5, 103L, 8)));
+
+		// Assert
+		ArgumentCaptor<TableSummary> captor = ArgumentCaptor.forClass(TableSummary.class);
+		verify(tableSummaryRepository).save(captor.capture());
+		TableSummary summary = captor.getValue();
+		assertThat(summary.getPokerTableId()).isEqualTo(1L);
+		assertThat(summary.getClosedAt()).isEqualTo(closedAt);
+		assertThat(summary.getStoryCount()).isEqualTo(4L);
+		assertThat(summary.getTotalPoints()).isEqualTo(21L);
+		assertThat(summary.getVoteHistogram()).containsExactlyInAnyOrderEntriesOf(Map.of(5, 2L, 8, 1L));
+	}
+
+	@Test
+	void getSummary_aggregatesSummariesInInclusiveDateRange() {
+		// Arrange
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+		LocalDateTime end = LocalDateTime.of(2024, 4, 1, 0, 0);
+		when(tableSummaryRepository.sumBetween(start, end)).thenReturn(new AnalyticsTotals(3L, 10L, 45L));
+		when(tableSummaryRepository.sumVotesBetween(start, end))
+				.thenReturn(List.of(new VoteCount(8, 4L), new VoteCount(3, 2L)));
+
+		// Act
+		AnalyticsSummary summary = analyticsService.getSummary(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+
+		// Assert
+		assertThat(summary.tables()).isEqualTo(3);
+		assertThat(summary.stories()).isEqualTo(10);
+		assertThat(summary.points()).isEqualTo(45);
+		assertThat(summary.averagePointsPerStory()).isEqualTo(4.5);
+		assertThat(summary.voteHistogram()).containsExactly(Map.entry(3, 2L), Map.entry(8, 4L));
+	}
+
+	@Test
+	void getSummary_noStories_averageIsNull() {
+		// Arrange
+		when(tableSummaryRepository.sumBetween(any(), any())).thenReturn(new AnalyticsTotals(0L, 0L, 0L));
+		when(tableSummaryRepository.sumVotesBetween(any(), any())).thenReturn(List.of());
+
+		// Act
+		AnalyticsSummary summary = analyticsService.getSummary(null, null);
+
+		// Assert
+		assertThat(summary.from()).isEqualTo(LocalDate.EPOCH);
+		assertThat(summary.to()).isEqualTo(LocalDate.now());
+		assertThat(summary.averagePointsPerStory()).isNull();
+		assertThat(summary.voteHistogram()).isEmpty();
+	}
+
+	@Test
+	void getVelocity_fromAfterTo_throwsException() {
+		assertThrows(IllegalArgumentException.class,
+				() -> analyticsService.getVelocity(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+
+		verifyNoInteractions(tableSummaryRepository);
+	}
+}
@@ -0,0 +1,155 @@
+package pl.xsd.pokertable.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.StoryVoteRepository;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryChangedEvent;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TableArchiveServiceTest {
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private DeveloperRepository developerRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private StoryVoteRepository storyVoteRepository;
+
+	@Mock
+	private ArchivedTableRepository archivedTableRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+	private TableArchiveService tableArchiveService;
+	private PokerTable pokerTable;
+	private UserStory first;
+	private UserStory second;
+	private final LocalDateTime closedBefore = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	@BeforeEach
+	void setUp() {
+		tableArchiveService = new TableArchiveService(pokerTableRepository, developerRepository, userStoryRepository,
+				storyVoteRepository, archivedTableRepository, eventPublisher, objectMapper);
+
+		pokerTable = new PokerTable(1L, "Sprint 12", true);
+		pokerTable.setClosedAt(LocalDateTime.of(2023, 11, 5, 14, 30));
+		pokerTable.setRoundNumber(3);
+		Developer developer = new Developer("session", "Alice");
+		developer.setId(5L);
+		developer.setVote(8);
+		pokerTable.setDevelopers(Set.of(developer));
+
+		first = new UserStory(10L, "Login", "As a user, I want to \"log in\"", 5, pokerTable);
+		first.setRank("i");
+		second = new UserStory(11L, "Logout", null, null, pokerTable);
+		second.setRank("r");
+	}
+
+	@Test
+	void archiveBatch_shouldStoreTheTableAndRemoveItFromTheHotTables() {
+		// Arrange
+		when(pokerTableRepository.findIdsClosedBefore(closedBefore, Limit.of(10))).thenReturn(List.of(1L));
+		when(pokerTableRepository.findAllById(List.of(1L))).thenReturn(List.of(pokerTable));
+		when(userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(1L)).thenReturn(List.of(first, second));
+
+		// Act
+		int archived = tableArchiveService.archiveBatch(closedBefore, 10);
+
+		// Assert
+		assertEquals(1, archived);
+		verify(archivedTableRepository).saveAll(argThat(tables -> tables.iterator().next().getPokerTableId().equals(1L)));
+		verify(storyVoteRepository).deleteByStoryIds(List.of(10L, 11L));
+		verify(userStoryRepository).deleteByPokerTableIds(List.of(1L));
+		verify(developerRepository).deleteByPokerTableIds(List.of(1L));
+		verify(pokerTableRepository).deleteAllByIdInBatch(List.of(1L));
+		verify(eventPublisher).publishEvent(new TablesArchivedEvent(List.of(1L),
+				List.of(StoryDocument.of(first), StoryDocument.of(second))));
+		verify(eventPublisher, never()).publishEvent(any(UserStoryChangedEvent.class));
+	}
+
+	@Test
+	void archiveBatch_shouldDoNothing_whenNoTableIsDue() {
+		// Arrange
+		when(pokerTableRepository.findIdsClosedBefore(closedBefore, Limit.of(10))).thenReturn(List.of());
+
+		// Act
+		int archived = tableArchiveService.archiveBatch(closedBefore, 10);
+
+		// Assert
+		assertEquals(0, archived);
+		verify(archivedTableRepository, never()).saveAll(any());
+		verify(pokerTableRepository, never()).deleteAllByIdInBatch(anyCollection());
+	}
+
+	@Test
+	void findArchivedTable_shouldRestoreTheArchivedTableWithItsBacklogInOrder() {
+		// Arrange
+		when(pokerTableRepository.findIdsClosedBefore(closedBefore, Limit.of(10))).thenReturn(List.of(1L));
+		when(pokerTableRepository.findAllById(List.of(1L))).thenReturn(List.of(pokerTable));
+		when(userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(1L)).thenReturn(List.of(first, second));
+		tableArchiveService.archiveBatch(closedBefore, 10);
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<ArchivedTable>> saved = ArgumentCaptor.forClass(List.class);
+		verify(archivedTableRepository).saveAll(saved.capture());
+		when(archivedTableRepository.findById(1L)).thenReturn(Optional.of(saved.getValue().get(0)));
+
+		// Act
+		PokerTable restored = tableArchiveService.findArchivedTable(1L).orElseThrow();
+
+		// Assert
+		assertEquals(1L, restored.getId());
+		assertEquals("Sprint 12", restored.getName());
+		assertTrue(restored.getIsClosed());
+		assertEquals(pokerTable.getClosedAt(), restored.getClosedAt());
+		assertEquals(3, restored.getRoundNumber());
+		assertEquals(List.of(8), restored.getDevelopers().stream().map(Developer::getVote).toList());
+		assertEquals(List.of(10L, 11L), restored.getUserStories().stream().map(UserStory::getId).toList());
+		UserStory login = restored.getUserStories().iterator().next();
+		assertEquals("As a user, I want to \"log in\"", login.getDescription());
+		assertEquals(5, login.getEstimatedPoints());
+		assertEquals("i", login.getRank());
+	}
+
+	@Test
+	void findArchivedTable_shouldBeEmpty_whenTheTableWasNotArchived() {
+		// Arrange
+		when(archivedTableRepository.findById(1L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertTrue(tableArchiveService.findArchivedTable(1L).isEmpty());
+	}
+}
@@ -0,0 +1,102 @@
+package pl.xsd.pokertable.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TableArchiverTest {
+
+	@Mock
+	private TableArchiveService tableArchiveService;
+
+	private TableArchiver archiver;
+
+	@AfterEach
+	void shutdown() {
+		archiver.shutdown();
+	}
+
+	@Test
+	void archiveClosedTables_shouldArchiveBatchesUntilOneIsShort() {
+		// Arrange
+		archiver = new TableArchiver(tableArchiveService, Duration.ofDays(30), 2);
+		when(tableArchiveService.archiveBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+		// Act
+		archiver.archiveClosedTables();
+
+		// Assert
+		verify(tableArchiveService, timeout(1000).times(3)).archiveBatch(any(LocalDateTime.class), eq(2));
+	}
+
+	@Test
+	void archiveClosedTables_shouldUseTheSameCutoffForEveryBatch() {
+		// Arrange
+		archiver = new TableArchiver(tableArchiveService, Duration.ofDays(30), 1);
+		when(tableArchiveService.archiveBatch(any(LocalDateTime.class), eq(1))).thenReturn(1, 0);
+		LocalDateTime earliest = LocalDateTime.now().minusDays(30);
+
+		// Act
+		archiver.archiveClosedTables();
+
+		// Assert
+		ArgumentCaptor<LocalDateTime> cutoffs = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(tableArchiveService, timeout(1000).times(2)).archiveBatch(cutoffs.capture(), eq(1));
+		assertEquals(cutoffs.getAllValues().get(0), cutoffs.getAllValues().get(1));
+		assertFalse(cutoffs.getValue().isBefore(earliest));
+	}
+
+	@Test
+	void archiveClosedTables_shouldStopTheRun_whenABatchFails() {
+		// Arrange
+		archiver = new TableArchiver(tableArchiveService, Duration.ofDays(30), 2);
+		when(tableArchiveService.archiveBatch(any(LocalDateTime.class), eq(2)))
+				.thenReturn(2)
+				.thenThrow(new IllegalStateException("boom"));
+
+		// Act
+		archiver.archiveClosedTables();
+
+		// Assert
+		verify(tableArchiveService, timeout(1000).times(2)).archiveBatch(any(LocalDateTime.class), eq(2));
+		verify(tableArchiveService, after(200).times(2)).archiveBatch(any(LocalDateTime.class), eq(2));
+	}
+
+	@Test
+	void archiveClosedTables_shouldNotWaitForTheRun_andSkipRunsDueWhileItIsGoing() throws InterruptedException {
+		// Arrange
+		archiver = new TableArchiver(tableArchiveService, Duration.ofDays(30), 2);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(tableArchiveService.archiveBatch(any(LocalDateTime.class), eq(2))).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return 0;
+		});
+
+		// Act
+		archiver.archiveClosedTables();
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		archiver.archiveClosedTables();
+		release.countDown();
+
+		// Assert
+		verify(tableArchiveService, after(200).times(1)).archiveBatch(any(LocalDateTime.class), eq(2));
+	}
+}
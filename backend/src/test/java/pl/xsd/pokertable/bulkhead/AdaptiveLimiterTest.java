@@ -0,0 +1,113 @@
+package pl.xsd.pokertable.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pl.xsd.pokertable.bulkhead.AdaptiveLimiter.Priority.*;
+
+class AdaptiveLimiterTest {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+	private final AdaptiveLimiter limiter = new AdaptiveLimiter(10, 4, 20, Duration.ofMillis(250), 0.5);
+
+	@Test
+	void tryAcquire_shouldShedLowerPrioritiesFirst() {
+		// Arrange
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire(NORMAL));
+		}
+
+		// Act & Assert
+		assertFalse(limiter.tryAcquire(SHEDDABLE));
+		assertTrue(limiter.tryAcquire(NORMAL));
+		assertTrue(limiter.tryAcquire(NORMAL));
+		assertTrue(limiter.tryAcquire(NORMAL));
+		assertFalse(limiter.tryAcquire(NORMAL));
+		assertTrue(limiter.tryAcquire(CRITICAL));
+		assertTrue(limiter.tryAcquire(CRITICAL));
+		assertFalse(limiter.tryAcquire(CRITICAL));
+		assertEquals(1, limiter.shed(SHEDDABLE));
+		assertEquals(1, limiter.shed(NORMAL));
+		assertEquals(1, limiter.shed(CRITICAL));
+	}
+
+	@Test
+	void release_shouldShrinkTheLimit_whenRequestsAreSlow() {
+		// Arrange
+		limiter.tryAcquire(NORMAL);
+		limiter.tryAcquire(NORMAL);
+
+		// Act
+		limiter.release(SLOW);
+		limiter.release(SLOW);
+
+		// Assert
+		assertEquals(4, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void release_shouldGrowTheLimit_whenFastRequestsUseHalfOfIt() {
+		// Arrange
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire(CRITICAL);
+		}
+
+		// Act
+		limiter.release(FAST);
+
+		// Assert
+		assertEquals(10.1, limiter.limit(), 1e-9);
+	}
+
+	@Test
+	void release_shouldKeepTheLimit_whenTheServerIsIdle() {
+		// Arrange
+		limiter.tryAcquire(CRITICAL);
+
+		// Act
+		limiter.release(FAST);
+
+		// Assert
+		assertEquals(10, limiter.limit());
+	}
+
+	@Test
+	void release_withoutLatency_shouldKeepTheLimit() {
+		// Arrange
+		limiter.tryAcquire(SHEDDABLE);
+
+		// Act
+		limiter.release();
+
+		// Assert
+		assertEquals(10, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void bindTo_shouldRegisterTheMeters() {
+		// Arrange
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		limiter.bindTo(registry);
+
+		// Act
+		limiter.tryAcquire(CRITICAL);
+
+		// Assert
+		assertEquals(10, registry.get(AdaptiveLimiter.LIMIT).gauge().value());
+		assertEquals(1, registry.get(AdaptiveLimiter.IN_FLIGHT).gauge().value());
+		assertEquals(0, registry.get(AdaptiveLimiter.SHED).tag("priority", "sheddable").functionCounter().count());
+	}
+
+	@Test
+	void constructor_shouldRejectInconsistentLimits() {
+		assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(2, 4, 20, Duration.ofMillis(250), 0.9));
+		assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(10, 4, 20, Duration.ofMillis(250), 1.0));
+	}
+}
@@ -0,0 +1,96 @@
+package pl.xsd.pokertable.bulkhead;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkheadDataSourceTest {
+
+	@Mock
+	private DataSource pool;
+
+	@Mock
+	private Connection connection;
+
+	@Mock
+	private ObjectProvider<Bulkheads> bulkheadsProvider;
+
+	private final Bulkheads bulkheads = new Bulkheads(1, Duration.ZERO, 1, Duration.ZERO, 50, 200, 10);
+
+	private BulkheadDataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new BulkheadDataSource(pool, bulkheadsProvider);
+	}
+
+	@Test
+	void getConnection_shouldTakeNoPermit_outsideBatchWork() throws SQLException {
+		// Arrange
+		when(pool.getConnection()).thenReturn(connection);
+
+		// Act & Assert
+		assertSame(connection, dataSource.getConnection());
+		verifyNoInteractions(bulkheadsProvider);
+	}
+
+	@Test
+	void getConnection_shouldHoldAPermitUntilTheConnectionIsClosed() {
+		// Arrange
+		when(bulkheadsProvider.getObject()).thenReturn(bulkheads);
+
+		// Act & Assert
+		Bulkheads.batch(() -> {
+			try {
+				when(pool.getConnection()).thenReturn(connection);
+				Connection first = dataSource.getConnection();
+				assertSame(connection, ((ConnectionProxy) first).getTargetConnection());
+				assertEquals(1, bulkheads.batchConnections().active());
+				assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+				first.close();
+				first.close();
+				verify(connection).close();
+				assertEquals(0, bulkheads.batchConnections().active());
+			} catch (SQLException e) {
+				fail(e);
+			}
+		}).run();
+	}
+
+	@Test
+	void getConnection_shouldReturnThePermit_whenThePoolFails() {
+		// Arrange
+		when(bulkheadsProvider.getObject()).thenReturn(bulkheads);
+
+		// Act & Assert
+		Bulkheads.batch(() -> {
+			try {
+				when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+				assertThrows(SQLException.class, dataSource::getConnection);
+				assertEquals(0, bulkheads.batchConnections().active());
+			} catch (SQLException e) {
+				fail(e);
+			}
+		}).run();
+	}
+
+	@Test
+	void bulkheads_shouldLeaveConnectionsToInteractiveRequests() {
+		assertThrows(IllegalArgumentException.class, () -> new Bulkheads(1, Duration.ZERO, 10, Duration.ZERO, 50, 200, 10));
+	}
+}
@@ -0,0 +1,128 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+	private final Bulkheads bulkheads = new Bulkheads(1, Duration.ZERO, 2, Duration.ZERO, 2, 200, 10);
+	private final BulkheadFilter filter = new BulkheadFilter(bulkheads, List.of("/tables/*/export-stories", " /analytics/**"));
+
+	@Test
+	void isBatch_shouldMatchTheConfiguredPaths() {
+		assertTrue(filter.isBatch(new MockHttpServletRequest("GET", "/tables/1/export-stories")));
+		assertTrue(filter.isBatch(new MockHttpServletRequest("GET", "/analytics/velocity")));
+		assertFalse(filter.isBatch(new MockHttpServletRequest("PATCH", "/developers/1/vote")));
+		assertFalse(filter.isBatch(new MockHttpServletRequest("OPTIONS", "/analytics/velocity")));
+	}
+
+	@Test
+	void batchRequest_shouldRunAsBatchWork() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tables/1/export-stories");
+		boolean[] batch = {false};
+		int[] active = {0};
+
+		// Act
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+			@Override
+			public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+				batch[0] = Bulkheads.isBatch();
+				active[0] = bulkheads.batchRequests().active();
+			}
+		});
+
+		// Assert
+		assertTrue(batch[0]);
+		assertEquals(1, active[0]);
+		assertEquals(0, bulkheads.batchRequests().active());
+		assertFalse(Bulkheads.isBatch());
+	}
+
+	@Test
+	void batchRequest_shouldBeRejected_whenTheBulkheadIsFull() throws Exception {
+		// Arrange
+		bulkheads.tryEnterBatch();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/analytics/summary"), response, chain);
+
+		// Assert
+		assertEquals(503, response.getStatus());
+		assertEquals("5", response.getHeader("Retry-After"));
+		assertNull(chain.getRequest());
+		assertEquals(1, bulkheads.batchRequests().rejected());
+	}
+
+	@Test
+	void batchRequest_shouldYieldToInteractiveRequests() throws Exception {
+		// Arrange
+		bulkheads.enterInteractive();
+		bulkheads.enterInteractive();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/analytics/summary"), response, new MockFilterChain());
+
+		// Assert
+		assertEquals(503, response.getStatus());
+		assertEquals(0, bulkheads.batchRequests().active());
+	}
+
+	@Test
+	void interactiveRequest_shouldPassWhileTheBatchBulkheadIsFull() throws Exception {
+		// Arrange
+		bulkheads.tryEnterBatch();
+		MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/developers/1/vote");
+		int[] interactive = {0};
+
+		// Act
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+			@Override
+			public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+				interactive[0] = bulkheads.interactiveRequests();
+			}
+		});
+
+		// Assert
+		assertEquals(1, interactive[0]);
+		assertEquals(0, bulkheads.interactiveRequests());
+	}
+
+	@Test
+	void asyncBatchRequest_shouldKeepItsPermitUntilComplete() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/analytics/summary");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		filter.doFilter(request, response, new MockFilterChain() {
+			@Override
+			public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+				request.startAsync();
+			}
+		});
+
+		// Assert
+		assertEquals(1, bulkheads.batchRequests().active());
+		MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onError(new AsyncEvent(asyncContext));
+			listener.onComplete(new AsyncEvent(asyncContext));
+		}
+		assertEquals(0, bulkheads.batchRequests().active());
+	}
+}
@@ -0,0 +1,73 @@
+package pl.xsd.pokertable.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+	@Test
+	void tryAcquire_shouldRejectOnceTheLimitIsReached() {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("test", 2, Duration.ofMillis(10));
+
+		// Act & Assert
+		assertTrue(bulkhead.tryAcquire());
+		assertTrue(bulkhead.tryAcquire());
+		assertFalse(bulkhead.tryAcquire());
+		assertEquals(1, bulkhead.rejected());
+		assertEquals(1.0, bulkhead.saturation());
+
+		bulkhead.release();
+		assertTrue(bulkhead.tryAcquire());
+	}
+
+	@Test
+	void tryAcquire_shouldGetAPermitReleasedWhileWaiting() throws InterruptedException {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofSeconds(5));
+		bulkhead.tryAcquire();
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				return;
+			}
+			bulkhead.release();
+		});
+
+		// Act
+		releaser.start();
+		boolean acquired = bulkhead.tryAcquire();
+		releaser.join();
+
+		// Assert
+		assertTrue(acquired);
+		assertEquals(0, bulkhead.rejected());
+	}
+
+	@Test
+	void bindTo_shouldRegisterTheMetersTaggedWithTheName() {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("batch-requests", 4, Duration.ZERO);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		bulkhead.bindTo(registry);
+
+		// Act
+		bulkhead.tryAcquire();
+
+		// Assert
+		assertEquals(1, registry.get(Bulkhead.ACTIVE).tag("bulkhead", "batch-requests").gauge().value());
+		assertEquals(0.25, registry.get(Bulkhead.SATURATION).tag("bulkhead", "batch-requests").gauge().value());
+		assertEquals(0, registry.get(Bulkhead.WAITING).tag("bulkhead", "batch-requests").gauge().value());
+		assertEquals(0, registry.get(Bulkhead.REJECTED).tag("bulkhead", "batch-requests").functionCounter().count());
+	}
+
+	@Test
+	void constructor_shouldRejectALimitBelowOne() {
+		assertThrows(IllegalArgumentException.class, () -> new Bulkhead("test", 0, Duration.ZERO));
+	}
+}
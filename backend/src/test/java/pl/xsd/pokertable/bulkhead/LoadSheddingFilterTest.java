@@ -0,0 +1,115 @@
+package pl.xsd.pokertable.bulkhead;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadSheddingFilterTest {
+
+	private final AdaptiveLimiter limiter = new AdaptiveLimiter(4, 2, 20, Duration.ofMillis(250), 0.5);
+	private final long[] now = {0};
+	private final long[] backoff = {0};
+	private final LoadSheddingFilter filter = new LoadSheddingFilter(limiter,
+			List.of("/developers/*/vote", "/developers/join"), List.of("/tables/*/export-stories", "/user-stories/table/*"),
+			List.of("/actuator/**"), () -> now[0], () -> backoff[0]);
+
+	@Test
+	void priority_shouldFollowTheConfiguredPaths() {
+		assertEquals(AdaptiveLimiter.Priority.CRITICAL, filter.priority(new MockHttpServletRequest("PATCH", "/developers/1/vote")));
+		assertEquals(AdaptiveLimiter.Priority.SHEDDABLE, filter.priority(new MockHttpServletRequest("GET", "/user-stories/table/1")));
+		assertEquals(AdaptiveLimiter.Priority.NORMAL, filter.priority(new MockHttpServletRequest("GET", "/user-stories/table/1/next")));
+	}
+
+	@Test
+	void request_overItsShare_shouldGet503() throws Exception {
+		// Arrange
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		MockHttpServletResponse shed = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/tables/1/export-stories"), shed, new MockFilterChain());
+		filter.doFilter(new MockHttpServletRequest("PATCH", "/developers/1/vote"), new MockHttpServletResponse(), chain);
+
+		// Assert
+		assertEquals(503, shed.getStatus());
+		assertEquals("5", shed.getHeader("Retry-After"));
+		assertNotNull(chain.getRequest());
+	}
+
+	@Test
+	void slowRequest_shouldShrinkTheLimit() throws Exception {
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/tables/1"), new MockHttpServletResponse(), slowChain());
+
+		// Assert
+		assertEquals(2, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void slowSheddableRequest_shouldNotShrinkTheLimit() throws Exception {
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/tables/1/export-stories"), new MockHttpServletResponse(), slowChain());
+
+		// Assert
+		assertEquals(4, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void requestSlowedDownByRetryBackoff_shouldNotShrinkTheLimit() throws Exception {
+		// Arrange
+		MockFilterChain chain = new MockFilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				now[0] += Duration.ofMillis(1100).toNanos();
+				backoff[0] += Duration.ofSeconds(1).toNanos();
+			}
+		};
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("PATCH", "/developers/1/vote"), new MockHttpServletResponse(), chain);
+
+		// Assert
+		assertEquals(4, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void actuatorRequest_shouldNeitherBeShedNorCounted() throws Exception {
+		// Arrange
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = slowChain();
+
+		// Act
+		filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, chain);
+
+		// Assert
+		assertEquals(200, response.getStatus());
+		assertEquals(4, limiter.inFlight());
+		assertEquals(4, limiter.limit());
+	}
+
+	private MockFilterChain slowChain() {
+		return new MockFilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				now[0] += Duration.ofSeconds(1).toNanos();
+			}
+		};
+	}
+}
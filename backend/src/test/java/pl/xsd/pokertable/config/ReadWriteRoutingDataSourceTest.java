@@ -0,0 +1,95 @@
+package pl.xsd.pokertable.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two separate in-memory H2 databases stand in for the primary and the replica, each knowing its own name.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = database("replica");
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@Test
+	void readOnlyTransaction_shouldReadFromReplica() {
+		assertEquals("replica", readOnly.execute(status -> databaseName()));
+	}
+
+	@Test
+	void readWriteTransaction_shouldUsePrimary() {
+		assertEquals("primary", readWrite.execute(status -> databaseName()));
+	}
+
+	@Test
+	void withoutTransaction_shouldUsePrimary() {
+		assertEquals("primary", databaseName());
+	}
+
+	@Test
+	void readOnlyTransaction_shouldUsePrimary_rightAfterTheCallerWrote() throws Exception {
+		// Arrange
+		ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tables/1/developers");
+		request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+				Long.toString(System.currentTimeMillis() + 5000)));
+		AtomicReference<String> readFrom = new AtomicReference<>();
+
+		// Act
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				readFrom.set(readOnly.execute(status -> databaseName()));
+			}
+		}));
+
+		// Assert
+		assertEquals("primary", readFrom.get());
+	}
+
+	private String databaseName() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists node (name varchar(16))");
+		jdbcTemplate.update("delete from node");
+		jdbcTemplate.update("insert into node values (?)", name);
+		return dataSource;
+	}
+}
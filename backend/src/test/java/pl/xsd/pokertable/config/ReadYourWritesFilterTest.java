@@ -0,0 +1,68 @@
+package pl.xsd.pokertable.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+	private static final long NOW = 1_000_000L;
+
+	private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5), () -> NOW);
+
+	@Test
+	void write_shouldPinRequestAndSetCookie() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/developers/1/vote");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		boolean pinned = pinnedDuring(request, response);
+
+		// Assert
+		assertTrue(pinned);
+		Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+		assertNotNull(cookie);
+		assertEquals(Long.toString(NOW + 5000), cookie.getValue());
+		assertEquals(5, cookie.getMaxAge());
+		assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+	}
+
+	@Test
+	void read_shouldBePinned_whileCookieIsValid() throws Exception {
+		// Arrange
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tables/1");
+		request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW + 1)));
+
+		// Act & Assert
+		assertTrue(pinnedDuring(request, new MockHttpServletResponse()));
+	}
+
+	@Test
+	void read_shouldNotBePinned_withExpiredOrInvalidCookie() throws Exception {
+		// Arrange
+		MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/tables/1");
+		expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW)));
+		MockHttpServletRequest invalid = new MockHttpServletRequest("GET", "/tables/1");
+		invalid.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "soon"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act & Assert
+		assertFalse(pinnedDuring(expired, response));
+		assertFalse(pinnedDuring(invalid, new MockHttpServletResponse()));
+		assertFalse(pinnedDuring(new MockHttpServletRequest("GET", "/tables/1"), new MockHttpServletResponse()));
+		assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+	}
+
+	private boolean pinnedDuring(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+		AtomicBoolean pinned = new AtomicBoolean();
+		filter.doFilter(request, response, (req, res) -> pinned.set(ReadYourWritesFilter.isPinnedToPrimary()));
+		return pinned.get();
+	}
+}
@@ -3,17 +3,24 @@ package pl.xsd.pokertable.developer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.xsd.pokertable.exception.NotFoundException;
 import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.snapshot.TableSnapshotStore;
 
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -31,6 +38,15 @@ class DeveloperControllerTest {
 	@MockitoBean
 	private DeveloperService developerService;
 
+	@MockitoBean
+	private PokerTableService pokerTableService;
+
+	@MockitoBean
+	private TableSnapshotStore tableSnapshotStore;
+
+	@TempDir
+	private Path snapshotDirectory;
+
 
 	@Test
 	void vote_ValidRequest_Returns204() throws Exception {
@@ -42,6 +58,19 @@ class DeveloperControllerTest {
 		verify(developerService).vote(1L, 1L, 5);
 	}
 
+	@Test
+	void vote_ConflictAfterRetries_Returns409() throws Exception {
+		// Arrange
+		Mockito.doThrow(new ObjectOptimisticLockingFailureException(Developer.class, 1L))
+				.when(developerService).vote(anyLong(), anyLong(), anyInt());
+
+		// Act & Assert
+		mockMvc.perform(patch("/developers/1/vote")
+						.param("tableId", "1")
+						.param("vote", "5"))
+				.andExpect(status().isConflict());
+	}
+
 	@Test
 	void vote_InvalidVoteValue_Returns400() throws Exception {
 		// Arrange
@@ -247,6 +276,41 @@ class DeveloperControllerTest {
 		verify(developerService).getDevelopersForPokerTable(1L);
 	}
 
+	@Test
+	void getDevelopersForTable_ClosedTableWithSnapshot_ReturnsSnapshot() throws Exception {
+		// Arrange
+		LocalDateTime closedAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(1L, closedAt, "{}".getBytes(), "[{\"id\":7,\"name\":\"Dev\"}]".getBytes(), "".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(1L)).thenReturn(Optional.of(closedAt));
+		when(tableSnapshotStore.find(1L, closedAt)).thenReturn(store.find(1L, closedAt));
+
+		// Act & Assert
+		mockMvc.perform(get("/developers/poker-table/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(7));
+
+		// Verify
+		verify(developerService, never()).getDevelopersForPokerTable(anyLong());
+	}
+
+	@Test
+	void getDevelopersForTable_OpenTable_IgnoresSnapshots() throws Exception {
+		// Arrange
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(1L)).thenReturn(Optional.empty());
+		when(developerService.getDevelopersForPokerTable(1L)).thenReturn(Set.of());
+
+		// Act & Assert
+		mockMvc.perform(get("/developers/poker-table/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(0));
+
+		// Verify
+		verify(tableSnapshotStore, never()).find(anyLong(), any());
+	}
+
 	@Test
 	void getDevelopersForTable_InvalidTable_Returns404() throws Exception {
 		// Arrange
@@ -369,4 +433,13 @@ class DeveloperControllerTest {
 				.andExpect(jsonPath("$.message").exists());
 	}
 
-}
\ No newline at end of file
+	@Test
+	void heartbeat_Returns204() throws Exception {
+		mockMvc.perform(post("/developers/7/heartbeat")
+						.param("tableId", "3"))
+				.andExpect(status().isNoContent());
+
+		verify(developerService).heartbeat(7L, 3L);
+	}
+
+}
@@ -6,7 +6,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
 import pl.xsd.pokertable.pokertable.PokerTable;
 import pl.xsd.pokertable.pokertable.PokerTableRepository;
 import pl.xsd.pokertable.pokertable.PokerTableService; // Potrzebne, bo getActiveTable go używa
@@ -34,6 +36,12 @@ class DeveloperServiceTest {
 	@Mock
 	private PokerTableService pokerTableService;
 
+	@Mock
+	private PresenceTracker presenceTracker;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@InjectMocks
 	private DeveloperService developerService;
 
@@ -165,6 +173,42 @@ class DeveloperServiceTest {
 		verify(developerRepository).findById(1L);
 		verify(pokerTableRepository).findById(1L);
 		verify(developerRepository).save(developer);
+		verify(eventPublisher).publishEvent(new VoteCastEvent(1L, 1L, null, 5));
+	}
+
+	@Test
+	void vote_closedTable_throwsTableClosedException() {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Closed", true);
+		Developer developer = new Developer();
+		developer.setPokerTable(table);
+
+		when(developerRepository.findById(anyLong())).thenReturn(Optional.of(developer));
+		when(pokerTableRepository.findById(anyLong())).thenReturn(Optional.of(table));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class, () -> developerService.vote(1L, 1L, 5));
+		verify(developerRepository, never()).save(any(Developer.class));
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	void vote_changedVote_publishesPreviousVote() {
+		// Arrange
+		PokerTable table = new PokerTable();
+		table.setId(1L);
+		Developer developer = new Developer();
+		developer.setPokerTable(table);
+		developer.setVote(3);
+
+		when(developerRepository.findById(anyLong())).thenReturn(Optional.of(developer));
+		when(pokerTableRepository.findById(anyLong())).thenReturn(Optional.of(table));
+
+		// Act
+		developerService.vote(2L, 1L, 8);
+
+		// Verify
+		verify(eventPublisher).publishEvent(new VoteCastEvent(1L, 2L, 3, 8));
 	}
 
 	@Test
@@ -289,28 +333,23 @@ class DeveloperServiceTest {
 		Set<Developer> developers = Set.of(new Developer(), new Developer());
 		table.setDevelopers(developers);
 
-		when(pokerTableRepository.findById(anyLong())).thenReturn(Optional.of(table));
+		// Archived tables come back from PokerTableService as well
+		when(pokerTableService.getTableById(1L)).thenReturn(table);
 
 		// Act
 		Set<Developer> result = developerService.getDevelopersForPokerTable(1L);
 
 		// Assert
 		assertThat(result).isEqualTo(developers);
-
-		// Verify
-		verify(pokerTableRepository).findById(1L);
 	}
 
 	@Test
 	void getDevelopersForPokerTable_tableNotFound_throwsException() {
 		// Arrange
-		when(pokerTableRepository.findById(anyLong())).thenReturn(Optional.empty());
+		when(pokerTableService.getTableById(999L)).thenThrow(new NotFoundException("Poker table not found with ID: 999"));
 
 		// Act & Assert
 		assertThrows(NotFoundException.class, () -> developerService.getDevelopersForPokerTable(999L));
-
-		// Verify
-		verify(pokerTableRepository).findById(999L);
 	}
 
 
@@ -484,6 +523,71 @@ class DeveloperServiceTest {
 		verify(developerRepository).findBySessionId("sessionToMove");
 		verify(developerRepository).save(existingDev);
 		verify(pokerTableRepository, never()).findByIsClosedFalse();
+		verify(presenceTracker).forget(oldTableId, 10L);
+		verify(eventPublisher).publishEvent(new VoteCastEvent(oldTableId, 10L, 8, null));
+	}
+
+	@Test
+	void heartbeat_recordsPresenceWithoutDatabaseAccess() {
+		// Arrange
+		when(presenceTracker.heartbeat(3L, 7L)).thenReturn(true);
+
+		// Act
+		developerService.heartbeat(7L, 3L);
+
+		// Verify
+		verify(presenceTracker).heartbeat(3L, 7L);
+		verifyNoInteractions(developerRepository);
+		verifyNoInteractions(pokerTableRepository);
+	}
+
+	@Test
+	void heartbeat_firstOfAMember_startsTracking() {
+		// Arrange
+		PokerTable table = new PokerTable(3L, "Sprint", false);
+		Developer developer = new Developer("s1", "Ann");
+		developer.setPokerTable(table);
+		when(developerRepository.findById(7L)).thenReturn(Optional.of(developer));
+
+		// Act
+		developerService.heartbeat(7L, 3L);
+
+		// Verify
+		verify(presenceTracker).track(3L, 7L);
+	}
+
+	@Test
+	void heartbeat_developerOfAnotherTable_throwsAndIsNotTracked() {
+		// Arrange
+		Developer developer = new Developer("s1", "Ann");
+		developer.setPokerTable(new PokerTable(4L, "Other", false));
+		when(developerRepository.findById(7L)).thenReturn(Optional.of(developer));
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, () -> developerService.heartbeat(7L, 3L));
+		verify(presenceTracker, never()).track(anyLong(), anyLong());
+	}
+
+	@Test
+	void heartbeat_unknownDeveloper_throwsNotFound() {
+		// Arrange
+		when(developerRepository.findById(7L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertThrows(NotFoundException.class, () -> developerService.heartbeat(7L, 3L));
+		verify(presenceTracker, never()).track(anyLong(), anyLong());
+	}
+
+	@Test
+	void heartbeat_closedTable_throwsAndIsNotTracked() {
+		// Arrange
+		Developer developer = new Developer("s1", "Ann");
+		developer.setPokerTable(new PokerTable(3L, "Sprint", true));
+		when(developerRepository.findById(7L)).thenReturn(Optional.of(developer));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class, () -> developerService.heartbeat(7L, 3L));
+		verify(presenceTracker, never()).track(anyLong(), anyLong());
 	}
 
 
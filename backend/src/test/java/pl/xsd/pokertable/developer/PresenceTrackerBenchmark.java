@@ -0,0 +1,50 @@
+package pl.xsd.pokertable.developer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat throughput of {@link PresenceTracker}: 200 tables with 50 tracked developers each, hit from 4 threads.
+ * The target is at least 100k heartbeats per second per node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PresenceTrackerBenchmark {
+
+	private static final int TABLES = 200;
+	private static final int DEVELOPERS_PER_TABLE = 50;
+
+	private PresenceTracker presenceTracker;
+
+	@Setup
+	public void setUp() {
+		presenceTracker = new PresenceTracker(Duration.ofSeconds(30));
+		for (long tableId = 0; tableId < TABLES; tableId++) {
+			for (int developer = 0; developer < DEVELOPERS_PER_TABLE; developer++) {
+				presenceTracker.track(tableId, tableId * DEVELOPERS_PER_TABLE + developer);
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean heartbeat() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long tableId = random.nextInt(TABLES);
+		return presenceTracker.heartbeat(tableId, tableId * DEVELOPERS_PER_TABLE + random.nextInt(DEVELOPERS_PER_TABLE));
+	}
+
+	@Benchmark
+	public boolean isStale() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long tableId = random.nextInt(TABLES);
+		return presenceTracker.isStale(tableId, tableId * DEVELOPERS_PER_TABLE + random.nextInt(DEVELOPERS_PER_TABLE));
+	}
+}
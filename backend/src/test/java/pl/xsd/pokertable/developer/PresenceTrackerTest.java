@@ -0,0 +1,88 @@
+package pl.xsd.pokertable.developer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresenceTrackerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private PresenceTracker presenceTracker;
+
+	@BeforeEach
+	void setUp() {
+		presenceTracker = new PresenceTracker(Duration.ofSeconds(30), now::get);
+	}
+
+	@Test
+	void isStale_neverSentHeartbeat_isPresent() {
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+	}
+
+	@Test
+	void heartbeat_untrackedDeveloper_isIgnored() {
+		assertThat(presenceTracker.heartbeat(1L, 10L)).isFalse();
+		now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+	}
+
+	@Test
+	void isStale_recentHeartbeat_isPresent() {
+		presenceTracker.track(1L, 10L);
+		now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+	}
+
+	@Test
+	void isStale_heartbeatOlderThanTimeout_isStale() {
+		presenceTracker.track(1L, 10L);
+		now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+		assertThat(presenceTracker.isStale(1L, 10L)).isTrue();
+		assertThat(presenceTracker.isStale(2L, 10L)).isFalse();
+	}
+
+	@Test
+	void heartbeat_refreshesLastSeen() {
+		presenceTracker.track(1L, 10L);
+		now.addAndGet(Duration.ofSeconds(20).toNanos());
+		assertThat(presenceTracker.heartbeat(1L, 10L)).isTrue();
+		now.addAndGet(Duration.ofSeconds(20).toNanos());
+
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+	}
+
+	@Test
+	void forget_removesDeveloperAndTable() {
+		presenceTracker.track(1L, 10L);
+		presenceTracker.track(1L, 11L);
+		now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+		presenceTracker.forget(1L, 10L);
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+		assertThat(presenceTracker.isStale(1L, 11L)).isTrue();
+
+		presenceTracker.forgetTable(1L);
+		assertThat(presenceTracker.isStale(1L, 11L)).isFalse();
+	}
+
+	@Test
+	void onTableClosed_forgetsTable() {
+		presenceTracker.track(1L, 10L);
+		now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+		presenceTracker.onTableClosed(new TableClosedEvent(1L, LocalDateTime.now(), Map.of()));
+
+		assertThat(presenceTracker.isStale(1L, 10L)).isFalse();
+		assertThat(presenceTracker.heartbeat(1L, 10L)).isFalse();
+	}
+}
@@ -0,0 +1,221 @@
+package pl.xsd.pokertable.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import pl.xsd.pokertable.archive.ArchivedTable;
+import pl.xsd.pokertable.archive.ArchivedTableRepository;
+import pl.xsd.pokertable.archive.TableArchiveService;
+import pl.xsd.pokertable.pokertable.ClosedTable;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportArchiveWriterTest {
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private ArchivedTableRepository archivedTableRepository;
+
+	@Mock
+	private TableArchiveService tableArchiveService;
+
+	private ExportArchiveWriter exportArchiveWriter;
+
+	private final LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+	private final LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+	private final LocalDateTime closedAt = LocalDateTime.of(2025, 2, 1, 12, 0);
+
+	@BeforeEach
+	void setUp() {
+		exportArchiveWriter = new ExportArchiveWriter(pokerTableRepository, userStoryRepository, archivedTableRepository,
+				tableArchiveService, 2);
+	}
+
+	@Test
+	void write_shouldZipEveryClosedTableAndTheManifest() throws IOException {
+		// Arrange
+		when(pokerTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(
+				new ClosedTable(1L, "Sprint \"1\"", closedAt.minusDays(1), closedAt),
+				new ClosedTable(2L, "Sprint 2", closedAt.minusDays(1), closedAt)));
+		when(pokerTableRepository.findClosedBetween(from, to, closedAt, 2L, Limit.of(2))).thenReturn(List.of(
+				new ClosedTable(3L, "Sprint 3", closedAt.minusDays(1), closedAt.plusDays(1))));
+		when(userStoryRepository.findPageByPokerTableIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of(
+				story(10L, "Login", 5), story(11L, "Logout", 3)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 11L, Limit.of(2))).thenReturn(List.of(story(12L, "Profile", null)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(eq(2L), eq(0L), any())).thenReturn(List.of());
+		when(userStoryRepository.findPageByPokerTableIdAfter(eq(3L), eq(0L), any())).thenReturn(List.of(story(13L, "Search", 8)));
+		when(pokerTableRepository.existsById(anyLong())).thenReturn(true);
+
+		ArchivedTable archived = new ArchivedTable(4L, closedAt.minusDays(10), closedAt, new byte[0]);
+		when(archivedTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(archived));
+		when(tableArchiveService.restore(archived)).thenReturn(archivedTable(4L, "Old sprint", story(14L, "Export", 2)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Integer> written = new ArrayList<>();
+
+		// Act
+		exportArchiveWriter.write(from, to, out, written::add);
+
+		// Assert
+		Map<String, String> entries = unzip(out.toByteArray());
+		assertEquals(List.of("poker-planning-export-1.csv", "poker-planning-export-2.csv", "poker-planning-export-3.csv",
+				"poker-planning-export-4.csv", "manifest.csv"), List.copyOf(entries.keySet()));
+		assertEquals("""
+				Summary,Description,Issue Type,Story point estimate
+				"Login","Description","Story",5
+				"Logout","Description","Story",3
+				"Profile","Description","Story",
+				""", entries.get("poker-planning-export-1.csv"));
+		assertEquals("Summary,Description,Issue Type,Story point estimate\n", entries.get("poker-planning-export-2.csv"));
+		assertTrue(entries.get("poker-planning-export-4.csv").endsWith("\"Export\",\"Description\",\"Story\",2\n"));
+		assertEquals(ExportArchiveWriter.MANIFEST_HEADER +
+						"1,\"Sprint \"\"1\"\"\",2025-01-31T12:00,2025-02-01T12:00,3,poker-planning-export-1.csv,false\n" +
+						"2,\"Sprint 2\",2025-01-31T12:00,2025-02-01T12:00,0,poker-planning-export-2.csv,false\n" +
+						"3,\"Sprint 3\",2025-01-31T12:00,2025-02-02T12:00,1,poker-planning-export-3.csv,false\n" +
+						"4,\"Old sprint\",2025-01-01T00:00,2025-01-22T12:00,1,poker-planning-export-4.csv,true\n",
+				entries.get("manifest.csv"));
+		assertEquals(List.of(3, 0, 1, 1), written);
+	}
+
+	@Test
+	void write_shouldSkipATableArchivedAfterItWasWrittenAsLive() throws IOException {
+		// Arrange
+		when(pokerTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(
+				new ClosedTable(1L, "Sprint 1", closedAt.minusDays(1), closedAt)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of(story(10L, "Login", 5)));
+		when(pokerTableRepository.existsById(1L)).thenReturn(true);
+		when(archivedTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(
+				new ArchivedTable(1L, closedAt, closedAt.plusDays(30), new byte[0])));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Integer> written = new ArrayList<>();
+
+		// Act
+		exportArchiveWriter.write(from, to, out, written::add);
+
+		// Assert
+		Map<String, String> entries = unzip(out.toByteArray());
+		assertEquals(List.of("poker-planning-export-1.csv", "manifest.csv"), List.copyOf(entries.keySet()));
+		assertEquals(2, entries.get("manifest.csv").lines().count());
+		assertEquals(List.of(1), written);
+	}
+
+	@Test
+	void write_shouldWriteTheArchivedCopy_whenATableIsArchivedWhileItsStoriesAreRead() throws IOException {
+		// Arrange, the second page of stories is already gone
+		when(pokerTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(
+				new ClosedTable(4L, "Old sprint", closedAt.minusDays(1), closedAt)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(eq(4L), eq(0L), any())).thenReturn(List.of(
+				story(14L, "Export", 2), story(15L, "Import", 3)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(4L, 15L, Limit.of(2))).thenReturn(List.of());
+		when(pokerTableRepository.existsById(4L)).thenReturn(false);
+		ArchivedTable archived = new ArchivedTable(4L, closedAt.minusDays(1), closedAt, new byte[0]);
+		when(archivedTableRepository.findClosedBetween(from, to, from, 0L, Limit.of(2))).thenReturn(List.of(archived));
+		when(tableArchiveService.restore(archived)).thenReturn(archivedTable(4L, "Old sprint", story(14L, "Export", 2)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Integer> written = new ArrayList<>();
+
+		// Act
+		exportArchiveWriter.write(from, to, out, written::add);
+
+		// Assert
+		Map<String, String> entries = unzip(out.toByteArray());
+		assertEquals(List.of("poker-planning-export-4.csv", "manifest.csv"), List.copyOf(entries.keySet()));
+		assertTrue(entries.get("poker-planning-export-4.csv").endsWith("\"Export\",\"Description\",\"Story\",2\n"));
+		assertTrue(entries.get("manifest.csv").endsWith(",1,poker-planning-export-4.csv,true\n"));
+		assertEquals(List.of(1), written);
+	}
+
+	@Test
+	void write_shouldLeaveTheOutputStreamOpen() throws IOException {
+		// Arrange
+		when(pokerTableRepository.findClosedBetween(any(), any(), any(), any(), any())).thenReturn(List.of());
+		when(archivedTableRepository.findClosedBetween(any(), any(), any(), any(), any())).thenReturn(List.of());
+		boolean[] closed = {false};
+		ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+
+		// Act
+		exportArchiveWriter.write(from, to, out, stories -> {
+		});
+
+		// Assert
+		assertFalse(closed[0]);
+		assertEquals(List.of("manifest.csv"), List.copyOf(unzip(out.toByteArray()).keySet()));
+	}
+
+	@Test
+	void range_shouldCoverWholeDays() {
+		// Act
+		LocalDateTime[] range = ExportArchiveWriter.range(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31));
+
+		// Assert
+		assertEquals(from, range[0]);
+		assertEquals(to, range[1]);
+	}
+
+	@Test
+	void range_shouldThrow_whenFromIsAfterTo() {
+		assertThrows(IllegalArgumentException.class,
+				() -> ExportArchiveWriter.range(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+	}
+
+	private static UserStory story(Long id, String title, Integer points) {
+		return new UserStory(id, title, "Description", points, null);
+	}
+
+	private static PokerTable archivedTable(Long id, String name, UserStory story) {
+		PokerTable table = new PokerTable(id, name, true);
+		table.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+		table.setClosedAt(LocalDateTime.of(2025, 1, 22, 12, 0));
+		table.setUserStories(new LinkedHashSet<>(List.of(story)));
+		return table;
+	}
+
+	private static Map<String, String> unzip(byte[] zip) throws IOException {
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+			ZipEntry entry;
+			while ((entry = in.getNextEntry()) != null) {
+				entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,181 @@
+package pl.xsd.pokertable.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.xsd.pokertable.exception.ExportNotReadyException;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TooManyExportsException;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private ExportJobService exportJobService;
+
+	@MockitoBean
+	private ExportArchiveWriter exportArchiveWriter;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void startExport_returns202WithTheJobLocation() throws Exception {
+		// Arrange
+		when(exportJobService.start(1L)).thenReturn(new ExportJob("job-1", 1L, directory.resolve("export.csv"), "poker-planning-export-1.csv"));
+
+		// Act & Assert
+		mockMvc.perform(post("/tables/{tableId}/exports", 1L))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/exports/job-1"))
+				.andExpect(jsonPath("$.id").value("job-1"))
+				.andExpect(jsonPath("$.status").value("QUEUED"))
+				.andExpect(jsonPath("$.file").doesNotExist());
+	}
+
+	@Test
+	void startExport_queueFull_returns503() throws Exception {
+		// Arrange
+		when(exportJobService.start(1L)).thenThrow(new TooManyExportsException());
+
+		// Act & Assert
+		mockMvc.perform(post("/tables/{tableId}/exports", 1L))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().exists("Retry-After"));
+	}
+
+	@Test
+	void getExport_returnsProgress() throws Exception {
+		// Arrange
+		ExportJob job = new ExportJob("job-1", 1L, directory.resolve("export.csv"), "poker-planning-export-1.csv");
+		job.start(1, 10L);
+		job.addStoriesWritten(4);
+		when(exportJobService.getJob("job-1")).thenReturn(job);
+
+		// Act & Assert
+		mockMvc.perform(get("/exports/{jobId}", "job-1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("RUNNING"))
+				.andExpect(jsonPath("$.storiesWritten").value(4))
+				.andExpect(jsonPath("$.totalStories").value(10));
+	}
+
+	@Test
+	void getExport_unknownJob_returns404() throws Exception {
+		// Arrange
+		when(exportJobService.getJob("missing")).thenThrow(new NotFoundException("Export not found with ID: missing"));
+
+		// Act & Assert
+		mockMvc.perform(get("/exports/{jobId}", "missing"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void downloadExport_returnsTheFile() throws Exception {
+		// Arrange
+		Path file = Files.writeString(directory.resolve("export.csv"), "Summary\n");
+		when(exportJobService.getFinishedJob("job-1")).thenReturn(new ExportJob("job-1", 7L, file, "poker-planning-export-7.csv"));
+
+		// Act & Assert
+		mockMvc.perform(get("/exports/{jobId}/file", "job-1"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv"))
+				.andExpect(header().string("Content-Disposition", containsString("poker-planning-export-7.csv")))
+				.andExpect(content().string("Summary\n"));
+	}
+
+	@Test
+	void downloadExport_range_returns206WithThePart() throws Exception {
+		// Arrange
+		Path file = Files.write(directory.resolve("export.zip"), "PK0123456789".getBytes());
+		when(exportJobService.getFinishedJob("job-1"))
+				.thenReturn(new ExportJob("job-1", null, file, "poker-planning-export-2025-01-01-2025-03-31.zip"));
+
+		// Act & Assert
+		mockMvc.perform(get("/exports/{jobId}/file", "job-1").header("Range", "bytes=2-"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 2-11/12"))
+				.andExpect(content().string("0123456789"));
+	}
+
+	@Test
+	void startArchiveExport_returns202() throws Exception {
+		// Arrange
+		when(exportJobService.startArchive(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31)))
+				.thenReturn(new ExportJob("job-1", null, directory.resolve("export.zip"), "poker-planning-export-2025-01-01-2025-03-31.zip"));
+
+		// Act & Assert
+		mockMvc.perform(post("/exports/archive").param("from", "2025-01-01").param("to", "2025-03-31"))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/exports/job-1"));
+	}
+
+	@Test
+	void streamArchiveExport_streamsTheZip() throws Exception {
+		// Arrange
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(2);
+			out.write("PK".getBytes());
+			return null;
+		}).when(exportArchiveWriter).write(eq(LocalDateTime.of(2025, 1, 1, 0, 0)), eq(LocalDateTime.of(2025, 4, 1, 0, 0)), any(), any());
+
+		// Act
+		MvcResult result = mockMvc.perform(get("/exports/archive").param("from", "2025-01-01").param("to", "2025-03-31"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Assert
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/zip"))
+				.andExpect(header().string("Content-Disposition", containsString("poker-planning-export-2025-01-01-2025-03-31.zip")))
+				.andExpect(content().string("PK"));
+	}
+
+	@Test
+	void streamArchiveExport_fromAfterTo_returns400() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/exports/archive").param("from", "2025-02-01").param("to", "2025-01-01"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void downloadExport_notFinished_returns409() throws Exception {
+		// Arrange
+		when(exportJobService.getFinishedJob("job-1")).thenThrow(new ExportNotReadyException("job-1", "running"));
+
+		// Act & Assert
+		mockMvc.perform(get("/exports/{jobId}/file", "job-1"))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	void cancelExport_returns204() throws Exception {
+		// Act & Assert
+		mockMvc.perform(delete("/exports/{jobId}", "job-1"))
+				.andExpect(status().isNoContent());
+
+		// Verify
+		verify(exportJobService).cancel("job-1");
+	}
+}
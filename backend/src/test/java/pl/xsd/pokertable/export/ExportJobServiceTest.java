@@ -0,0 +1,275 @@
+package pl.xsd.pokertable.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import pl.xsd.pokertable.exception.ExportNotReadyException;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TooManyExportsException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.userstory.StoryTotals;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportJobServiceTest {
+
+	@Mock
+	private PokerTableService pokerTableService;
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private ExportArchiveWriter exportArchiveWriter;
+
+	@TempDir
+	Path directory;
+
+	private ExportJobService exportJobService;
+
+	@BeforeEach
+	void setUp() {
+		exportJobService = new ExportJobService(pokerTableService, pokerTableRepository, userStoryRepository, exportArchiveWriter, directory,
+				1, 1, 2, Duration.ofHours(1), 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		exportJobService.shutdown();
+	}
+
+	@Test
+	void start_shouldWriteEveryPageOfStoriesToTheExportFile() throws Exception {
+		// Arrange
+		when(pokerTableRepository.existsById(1L)).thenReturn(true);
+		when(userStoryRepository.sumEstimatesByPokerTableId(1L)).thenReturn(new StoryTotals(3L, 8L));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 0L, Limit.of(2)))
+				.thenReturn(List.of(story(10L, "Login", 5), story(11L, "Say \"hi\"", null)));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 11L, Limit.of(2)))
+				.thenReturn(List.of(story(12L, "Logout", 3)));
+
+		// Act
+		ExportJob job = exportJobService.start(1L);
+		job.getFuture().get(5, TimeUnit.SECONDS);
+
+		// Assert
+		ExportJob finished = exportJobService.getFinishedJob(job.getId());
+		assertEquals(ExportJob.Status.DONE, finished.getStatus());
+		assertEquals(3, finished.getStoriesWritten());
+		assertEquals(3, finished.getTotalStories());
+		assertEquals(1, finished.getTablesWritten());
+		assertNotNull(finished.getFinishedAt());
+		assertEquals("""
+				Summary,Description,Issue Type,Story point estimate
+				"Login","Description","Story",5
+				"Say ""hi\"\"","Description","Story",
+				"Logout","Description","Story",3
+				""", Files.readString(finished.getFile()));
+	}
+
+	@Test
+	void start_shouldExportAnArchivedTableInOnePiece() throws Exception {
+		// Arrange
+		PokerTable archived = new PokerTable(1L, "Archived", true);
+		archived.setUserStories(new LinkedHashSet<>(List.of(story(10L, "Login", 5))));
+		when(pokerTableService.getTableById(1L)).thenReturn(archived);
+		when(pokerTableRepository.existsById(1L)).thenReturn(false);
+
+		// Act
+		ExportJob job = exportJobService.start(1L);
+		job.getFuture().get(5, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(ExportJob.Status.DONE, job.getStatus());
+		assertEquals(1, job.getStoriesWritten());
+		assertTrue(Files.readString(job.getFile()).endsWith("\"Login\",\"Description\",\"Story\",5\n"));
+		verify(userStoryRepository, never()).findPageByPokerTableIdAfter(any(), any(), any());
+	}
+
+	@Test
+	void start_shouldFailTheRequest_whenTheTableDoesNotExist() throws IOException {
+		// Arrange
+		when(pokerTableService.getTableById(1L)).thenThrow(new NotFoundException("Poker table not found with ID: 1"));
+
+		// Act & Assert
+		assertThrows(NotFoundException.class, () -> exportJobService.start(1L));
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	void start_shouldRejectTheExport_whenTheQueueIsFull() throws Exception {
+		// Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		when(pokerTableRepository.existsById(1L)).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+		when(userStoryRepository.sumEstimatesByPokerTableId(1L)).thenReturn(new StoryTotals(0L, 0L));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of());
+		ExportJob running = exportJobService.start(1L);
+		ExportJob queued = exportJobService.start(1L);
+
+		// Act & Assert
+		assertThrows(TooManyExportsException.class, () -> exportJobService.start(1L));
+		release.countDown();
+		running.getFuture().get(5, TimeUnit.SECONDS);
+		queued.getFuture().get(5, TimeUnit.SECONDS);
+		assertEquals(ExportJob.Status.DONE, queued.getStatus());
+		try (var files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+	}
+
+	@Test
+	void startArchive_shouldWriteTheZipOfTheRangeToTheExportFile() throws Exception {
+		// Arrange
+		LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+		LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+		when(exportArchiveWriter.countTables(from, to)).thenReturn(2L);
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(2);
+			IntConsumer tableWritten = invocation.getArgument(3);
+			out.write("PK".getBytes());
+			tableWritten.accept(3);
+			tableWritten.accept(4);
+			return null;
+		}).when(exportArchiveWriter).write(eq(from), eq(to), any(), any());
+
+		// Act
+		ExportJob job = exportJobService.startArchive(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31));
+		job.getFuture().get(5, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(ExportJob.Status.DONE, job.getStatus());
+		assertNull(job.getTableId());
+		assertEquals(2, job.getTablesWritten());
+		assertEquals(2, job.getTotalTables());
+		assertEquals(7, job.getStoriesWritten());
+		assertNull(job.getTotalStories());
+		assertEquals("poker-planning-export-2025-01-01-2025-03-31.zip", job.getFileName());
+		assertEquals("PK", Files.readString(job.getFile()));
+	}
+
+	@Test
+	void startArchive_shouldThrow_whenFromIsAfterTo() {
+		assertThrows(IllegalArgumentException.class,
+				() -> exportJobService.startArchive(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+	}
+
+	@Test
+	void getFinishedJob_shouldThrow_whenTheExportIsStillRunning() throws Exception {
+		// Arrange
+		CountDownLatch started = new CountDownLatch(1);
+		when(pokerTableRepository.existsById(1L)).thenAnswer(invocation -> {
+			started.countDown();
+			Thread.sleep(5000);
+			return true;
+		});
+		ExportJob job = exportJobService.start(1L);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// Act & Assert
+		assertThrows(ExportNotReadyException.class, () -> exportJobService.getFinishedJob(job.getId()));
+		exportJobService.cancel(job.getId());
+	}
+
+	@Test
+	void cancel_shouldStopTheExportAndDeleteItsFile() throws Exception {
+		// Arrange
+		CountDownLatch started = new CountDownLatch(1);
+		when(pokerTableRepository.existsById(1L)).thenAnswer(invocation -> {
+			started.countDown();
+			Thread.sleep(5000);
+			return true;
+		});
+		ExportJob job = exportJobService.start(1L);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// Act
+		exportJobService.cancel(job.getId());
+
+		// Assert
+		assertEquals(ExportJob.Status.CANCELLED, job.getStatus());
+		assertThrows(CancellationException.class, () -> job.getFuture().get());
+		assertFalse(Files.exists(job.getFile()));
+		assertThrows(NotFoundException.class, () -> exportJobService.getJob(job.getId()));
+		verify(userStoryRepository, never()).sumEstimatesByPokerTableId(any());
+	}
+
+	@Test
+	void run_shouldFailTheJobAndDeleteItsFile_whenReadingStoriesFails() throws Exception {
+		// Arrange
+		when(pokerTableRepository.existsById(1L)).thenReturn(true);
+		when(userStoryRepository.sumEstimatesByPokerTableId(1L)).thenReturn(new StoryTotals(1L, 0L));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 0L, Limit.of(2))).thenThrow(new IllegalStateException("Connection lost"));
+
+		// Act
+		ExportJob job = exportJobService.start(1L);
+		job.getFuture().get(5, TimeUnit.SECONDS);
+
+		// Assert
+		assertEquals(ExportJob.Status.FAILED, job.getStatus());
+		assertNotNull(job.getError());
+		assertFalse(Files.exists(job.getFile()));
+	}
+
+	@Test
+	void purgeExpired_shouldDeleteFinishedExportsOlderThanTheRetention() throws Exception {
+		// Arrange
+		exportJobService.shutdown();
+		exportJobService = new ExportJobService(pokerTableService, pokerTableRepository, userStoryRepository, exportArchiveWriter, directory,
+				1, 1, 2, Duration.ZERO, 10);
+		when(pokerTableRepository.existsById(1L)).thenReturn(true);
+		when(userStoryRepository.sumEstimatesByPokerTableId(1L)).thenReturn(new StoryTotals(0L, 0L));
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of());
+		ExportJob job = exportJobService.start(1L);
+		job.getFuture().get(5, TimeUnit.SECONDS);
+		Thread.sleep(5);
+
+		// Act
+		exportJobService.purgeExpired();
+
+		// Assert
+		assertFalse(Files.exists(job.getFile()));
+		assertThrows(NotFoundException.class, () -> exportJobService.getJob(job.getId()));
+	}
+
+	@Test
+	void constructor_shouldRejectMoreWorkersThanTheConnectionPoolCanSpare() {
+		assertThrows(IllegalArgumentException.class, () -> new ExportJobService(pokerTableService, pokerTableRepository,
+				userStoryRepository, exportArchiveWriter, directory, 10, 1, 2, Duration.ofHours(1), 10));
+	}
+
+	private static UserStory story(Long id, String title, Integer points) {
+		return new UserStory(id, title, "Description", points, null);
+	}
+}
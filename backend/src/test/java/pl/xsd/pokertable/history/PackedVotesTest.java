@@ -0,0 +1,69 @@
+package pl.xsd.pokertable.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedVotesTest {
+
+	@Test
+	void encodeDecode_roundTripsSortedByDeveloper() {
+		Map<Long, Integer> votes = Map.of(300L, 13, 7L, 1, 42L, 5);
+
+		byte[] packed = PackedVotes.encode(votes);
+
+		assertThat(PackedVotes.count(packed)).isEqualTo(3);
+		assertThat(PackedVotes.decode(packed)).containsExactly(
+				new PackedVotes.Entry(7L, 1),
+				new PackedVotes.Entry(42L, 5),
+				new PackedVotes.Entry(300L, 13));
+	}
+
+	@Test
+	void encode_emptyRound_isOneByte() {
+		byte[] packed = PackedVotes.encode(Map.of());
+
+		assertThat(packed).hasSize(1);
+		assertThat(PackedVotes.decode(packed)).isEmpty();
+	}
+
+	@Test
+	void encode_hundredDevelopers_takesAFewHundredBytes() {
+		Random random = new Random(42);
+		Map<Long, Integer> votes = new HashMap<>();
+		long developerId = 1_000_000L;
+		while (votes.size() < 100) {
+			developerId += 1 + random.nextInt(1000);
+			votes.put(developerId, 1 + random.nextInt(13));
+		}
+
+		byte[] packed = PackedVotes.encode(votes);
+
+		assertThat(packed.length).isLessThan(300);
+		Map<Long, Integer> decoded = new HashMap<>();
+		PackedVotes.decode(packed).forEach(entry -> decoded.put(entry.developerId(), entry.vote()));
+		assertThat(decoded).isEqualTo(votes);
+	}
+
+	@Test
+	void decode_isLazy() {
+		byte[] packed = PackedVotes.encode(Map.of(1L, 3, 2L, 8));
+		packed[packed.length - 1] = (byte) 0x80; // corrupt the last entry only
+
+		Iterator<PackedVotes.Entry> entries = PackedVotes.decode(packed).iterator();
+
+		assertThat(entries.next()).isEqualTo(new PackedVotes.Entry(1L, 3));
+		assertThrows(IllegalArgumentException.class, entries::next);
+	}
+
+	@Test
+	void encode_voteOutOfRange_throwsException() {
+		assertThrows(IllegalArgumentException.class, () -> PackedVotes.encode(Map.of(1L, 16)));
+	}
+}
@@ -0,0 +1,62 @@
+package pl.xsd.pokertable.history;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.xsd.pokertable.exception.NotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(VoteHistoryController.class)
+class VoteHistoryControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private VoteHistoryService voteHistoryService;
+
+	@Test
+	void getRounds_returnsSummaries() throws Exception {
+		when(voteHistoryService.getRounds(1L)).thenReturn(List.of(
+				new VoteRoundSummary(3L, 10L, 1, LocalDateTime.of(2025, 1, 1, 12, 0), 2)));
+
+		mockMvc.perform(get("/tables/1/history"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id").value(3))
+				.andExpect(jsonPath("$[0].storyId").value(10))
+				.andExpect(jsonPath("$[0].voterCount").value(2));
+	}
+
+	@Test
+	void getRoundVotes_returnsDecodedVotes() throws Exception {
+		VoteRound round = new VoteRound(1L, null, 1, LocalDateTime.now(), PackedVotes.encode(Map.of(5L, 3, 6L, 8)));
+		when(voteHistoryService.getRound(1L, 3L)).thenReturn(round);
+
+		mockMvc.perform(get("/tables/1/history/3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].developerId").value(5))
+				.andExpect(jsonPath("$[0].vote").value(3))
+				.andExpect(jsonPath("$[1].developerId").value(6))
+				.andExpect(jsonPath("$[1].vote").value(8));
+	}
+
+	@Test
+	void getRoundVotes_notFound_returns404() throws Exception {
+		when(voteHistoryService.getRound(1L, 9L)).thenThrow(new NotFoundException("Vote round not found with ID: 9"));
+
+		mockMvc.perform(get("/tables/1/history/9"))
+				.andExpect(status().isNotFound());
+	}
+}
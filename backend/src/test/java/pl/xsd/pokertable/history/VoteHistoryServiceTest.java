@@ -0,0 +1,59 @@
+package pl.xsd.pokertable.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.RoundClosedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteHistoryServiceTest {
+
+	@Mock
+	private VoteRoundRepository voteRoundRepository;
+
+	@InjectMocks
+	private VoteHistoryService voteHistoryService;
+
+	@Test
+	void onRoundClosed_savesPackedRound() {
+		// Act
+		voteHistoryService.onRoundClosed(new RoundClosedEvent(1L, 10L, 1, Map.of(5L, 3, 6L, 8)));
+
+		// Assert
+		ArgumentCaptor<VoteRound> round = ArgumentCaptor.forClass(VoteRound.class);
+		verify(voteRoundRepository).save(round.capture());
+		assertThat(round.getValue().getPokerTableId()).isEqualTo(1L);
+		assertThat(round.getValue().getStoryId()).isEqualTo(10L);
+		assertThat(round.getValue().getRoundNumber()).isEqualTo(1);
+		assertThat(round.getValue().getVoterCount()).isEqualTo(2);
+		assertThat(round.getValue().getClosedAt()).isNotNull();
+	}
+
+	@Test
+	void onRoundClosed_noVotes_savesEmptyRound() {
+		voteHistoryService.onRoundClosed(new RoundClosedEvent(2L, null, 4, Map.of()));
+
+		ArgumentCaptor<VoteRound> round = ArgumentCaptor.forClass(VoteRound.class);
+		verify(voteRoundRepository).save(round.capture());
+		assertThat(round.getValue().getVoterCount()).isZero();
+	}
+
+	@Test
+	void getRound_notFound_throwsException() {
+		when(voteRoundRepository.findByIdAndPokerTableId(9L, 1L)).thenReturn(Optional.empty());
+
+		assertThrows(NotFoundException.class, () -> voteHistoryService.getRound(1L, 9L));
+	}
+}
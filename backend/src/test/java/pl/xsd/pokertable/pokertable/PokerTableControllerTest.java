@@ -1,15 +1,27 @@
 package pl.xsd.pokertable.pokertable;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.xsd.pokertable.developer.DeveloperService;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.snapshot.CompressedExportCache;
+import pl.xsd.pokertable.snapshot.TableSnapshotStore;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -18,6 +30,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(PokerTableController.class)
 class PokerTableControllerTest {
 
+	private static final LocalDateTime CLOSED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
 	@Autowired
 	private MockMvc mockMvc;
 
@@ -27,6 +41,15 @@ class PokerTableControllerTest {
 	@MockitoBean
 	private DeveloperService developerService;
 
+	@MockitoBean
+	private TableSnapshotStore tableSnapshotStore;
+
+	@MockitoBean
+	private CompressedExportCache compressedExportCache;
+
+	@TempDir
+	private Path snapshotDirectory;
+
 	@Test
 	void createTable_Success_Returns201() throws Exception {
 		// Arrange
@@ -171,4 +194,172 @@ class PokerTableControllerTest {
 		// Verify
 		verify(pokerTableService).getTableById(tableId);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void getTableById_snapshot_returnsSnapshotCachedForGood() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(5L, CLOSED_AT, "{\"id\":5,\"isClosed\":true}".getBytes(), "[]".getBytes(), "csv".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(5L)).thenReturn(Optional.of(CLOSED_AT));
+		when(tableSnapshotStore.find(5L, CLOSED_AT)).thenReturn(store.find(5L, CLOSED_AT));
+
+		// Act & Assert
+		String etag = mockMvc.perform(get("/tables/{id}", 5L))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(header().string("Cache-Control", containsString("immutable")))
+				.andExpect(jsonPath("$.id").value(5))
+				.andExpect(jsonPath("$.isClosed").value(true))
+				.andReturn().getResponse().getHeader("ETag");
+		mockMvc.perform(get("/tables/{id}", 5L).header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+
+		// Verify
+		verify(pokerTableService, never()).getTableById(anyLong());
+	}
+
+	@Test
+	void getTableById_openTableWithSnapshotOfEarlierTable_returnsTableFromDatabase() throws Exception {
+		// Arrange, a file left behind by a table with the same id before a restart
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(5L, CLOSED_AT, "{\"id\":5,\"name\":\"Old\"}".getBytes(), "[]".getBytes(), "csv".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(5L)).thenReturn(Optional.empty());
+		when(pokerTableService.getTableById(5L)).thenReturn(new PokerTable(5L, "New"));
+
+		// Act & Assert
+		mockMvc.perform(get("/tables/{id}", 5L))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Cache-Control"))
+				.andExpect(jsonPath("$.name").value("New"));
+
+		// Verify
+		verify(tableSnapshotStore, never()).find(anyLong(), any());
+	}
+
+	@Test
+	void exportUserStories_snapshot_returnsSnapshotCsv() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(5L, CLOSED_AT, "{}".getBytes(), "[]".getBytes(), "Summary\n\"A\"\n".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(5L)).thenReturn(Optional.of(CLOSED_AT));
+		when(tableSnapshotStore.find(5L, CLOSED_AT)).thenReturn(store.find(5L, CLOSED_AT));
+
+		// Act & Assert
+		mockMvc.perform(get("/tables/{tableId}/export-stories", 5L))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv"))
+				.andExpect(header().string("Content-Disposition", containsString("poker-planning-export-5.csv")))
+				.andExpect(content().string("Summary\n\"A\"\n"));
+
+		// Verify
+		verify(pokerTableService, never()).exportUserStoriesToCsv(anyLong());
+	}
+
+	@Test
+	void exportUserStories_snapshotAndGzipAccepted_returnsCachedGzip() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(5L, CLOSED_AT, "{}".getBytes(), "[]".getBytes(), "Summary\n".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(5L)).thenReturn(Optional.of(CLOSED_AT));
+		when(tableSnapshotStore.find(5L, CLOSED_AT)).thenReturn(store.find(5L, CLOSED_AT));
+		when(compressedExportCache.get(eq(5L), any())).thenReturn(new byte[]{31, -117, 8});
+
+		// Act & Assert
+		mockMvc.perform(get("/tables/{tableId}/export-stories", 5L).header("Accept-Encoding", "br, gzip;q=0.8"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+				.andExpect(header().string("ETag", containsString("-gzip")))
+				.andExpect(content().bytes(new byte[]{31, -117, 8}));
+	}
+
+	@Test
+	void exportUserStories_snapshotAndGzipRefused_returnsPlainCsv() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(snapshotDirectory, true, 4);
+		store.save(5L, CLOSED_AT, "{}".getBytes(), "[]".getBytes(), "Summary\n".getBytes());
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableService.findClosedAt(5L)).thenReturn(Optional.of(CLOSED_AT));
+		when(tableSnapshotStore.find(5L, CLOSED_AT)).thenReturn(store.find(5L, CLOSED_AT));
+
+		// Act & Assert
+		mockMvc.perform(get("/tables/{tableId}/export-stories", 5L).header("Accept-Encoding", "*, gzip;q=0"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Content-Encoding"))
+				.andExpect(content().string("Summary\n"));
+
+		// Verify
+		verify(compressedExportCache, never()).get(anyLong(), any());
+	}
+
+	@Test
+	void startRoundTimer_Success_Returns200() throws Exception {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Timed");
+		table.setRoundDeadline(LocalDateTime.of(2025, 1, 1, 12, 1));
+		when(pokerTableService.startRoundTimer(1L, Duration.ofSeconds(60))).thenReturn(table);
+
+		// Act & Assert
+		mockMvc.perform(put("/tables/1/deadline").param("seconds", "60"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.roundDeadline").value("2025-01-01T12:01:00"));
+	}
+
+	@Test
+	void startRoundTimer_ClosedTable_Returns400() throws Exception {
+		// Arrange
+		Mockito.doThrow(new IllegalStateException("Poker table is already closed"))
+				.when(pokerTableService).startRoundTimer(anyLong(), any());
+
+		// Act & Assert
+		mockMvc.perform(put("/tables/1/deadline").param("seconds", "60"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void startRoundTimer_TooLong_Returns400() throws Exception {
+		// Arrange
+		Mockito.doThrow(new IllegalArgumentException("Round duration must be at most 24 hours"))
+				.when(pokerTableService).startRoundTimer(anyLong(), any());
+
+		// Act & Assert
+		mockMvc.perform(put("/tables/1/deadline").param("seconds", String.valueOf(Long.MAX_VALUE)))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void cancelRoundTimer_Returns204() throws Exception {
+		mockMvc.perform(delete("/tables/1/deadline"))
+				.andExpect(status().isNoContent());
+
+		verify(pokerTableService).cancelRoundTimer(1L);
+	}
+
+	@Test
+	void startNextRound_Success_Returns200() throws Exception {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Planning");
+		table.setRoundNumber(2);
+		when(pokerTableService.startNextRound(1L, 7L)).thenReturn(table);
+
+		// Act & Assert
+		mockMvc.perform(post("/tables/1/rounds/next").param("storyId", "7"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.roundNumber").value(2));
+	}
+
+	@Test
+	void startNextRound_ClosedTable_Returns400() throws Exception {
+		// Arrange
+		Mockito.doThrow(new IllegalStateException("Poker table is already closed"))
+				.when(pokerTableService).startNextRound(anyLong(), any());
+
+		// Act & Assert
+		mockMvc.perform(post("/tables/1/rounds/next"))
+				.andExpect(status().isBadRequest());
+	}
+}
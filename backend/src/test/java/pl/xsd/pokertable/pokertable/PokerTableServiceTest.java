@@ -2,14 +2,24 @@ package pl.xsd.pokertable.pokertable;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.xsd.pokertable.archive.TableArchiveService;
 import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.developer.PresenceTracker;
 import pl.xsd.pokertable.exception.NotEveryoneVotedException;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -25,6 +35,24 @@ class PokerTableServiceTest {
 	@Mock
 	private PokerTableRepository pokerTableRepository;
 
+	@Mock
+	private PresenceTracker presenceTracker;
+
+	@Mock
+	private RoundDeadlines roundDeadlines;
+
+	@Mock
+	private DeveloperRepository developerRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private TableArchiveService tableArchiveService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@InjectMocks
 	private PokerTableService pokerTableService;
 
@@ -62,6 +90,7 @@ class PokerTableServiceTest {
 		table.setDevelopers(developers);
 
 		when(pokerTableRepository.findById(anyLong())).thenReturn(Optional.of(table));
+		when(developerRepository.findByPokerTableId(1L)).thenReturn(List.copyOf(table.getDevelopers()));
 		when(pokerTableRepository.save(any(PokerTable.class))).thenAnswer(inv -> inv.getArgument(0));
 
 		// Act
@@ -69,8 +98,10 @@ class PokerTableServiceTest {
 
 		// Assert
 		assertThat(table.getIsClosed()).isTrue();
+		assertThat(table.getClosedAt()).isNotNull();
 		verify(pokerTableRepository).save(table);
 		verify(pokerTableRepository).findById(1L);
+		verify(eventPublisher).publishEvent(new TableClosedEvent(1L, table.getClosedAt(), Map.of(101L, 5, 102L, 0)));
 	}
 
 	@Test
@@ -92,6 +123,7 @@ class PokerTableServiceTest {
 		table.setDevelopers(developers);
 
 		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(developerRepository.findByPokerTableId(1L)).thenReturn(List.copyOf(table.getDevelopers()));
 
 
 		NotEveryoneVotedException exception = assertThrows(NotEveryoneVotedException.class, () -> {
@@ -107,6 +139,58 @@ class PokerTableServiceTest {
 		assertThat(table.getIsClosed()).isFalse();
 	}
 
+	@Test
+	void closePokerTable_staleDeveloperWithoutVote_closesTable() {
+		// Arrange
+		PokerTable table = new PokerTable();
+		table.setId(1L);
+		table.setIsClosed(false);
+
+		Developer dev1 = new Developer();
+		dev1.setId(101L);
+		dev1.setVote(5);
+
+		Developer dev2 = new Developer();
+		dev2.setId(102L);
+		dev2.setVote(null);
+
+		table.setDevelopers(new HashSet<>(Set.of(dev1, dev2)));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(developerRepository.findByPokerTableId(1L)).thenReturn(List.copyOf(table.getDevelopers()));
+		when(presenceTracker.isStale(eq(1L), anyLong())).thenAnswer(inv -> inv.getArgument(1).equals(102L));
+
+		// Act
+		pokerTableService.closePokerTable(1L);
+
+		// Assert
+		assertThat(table.getIsClosed()).isTrue();
+		verify(pokerTableRepository).save(table);
+		// Left to the TableClosedEvent listeners, after commit
+		verify(presenceTracker, never()).forgetTable(anyLong());
+	}
+
+	@Test
+	void closePokerTable_everyoneStale_throwsException() {
+		// Arrange
+		PokerTable table = new PokerTable();
+		table.setId(1L);
+		table.setIsClosed(false);
+
+		Developer dev = new Developer();
+		dev.setId(101L);
+		dev.setVote(null);
+		table.setDevelopers(new HashSet<>(Set.of(dev)));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(developerRepository.findByPokerTableId(1L)).thenReturn(List.copyOf(table.getDevelopers()));
+		when(presenceTracker.isStale(1L, 101L)).thenReturn(true);
+
+		// Act & Assert
+		assertThrows(NotEveryoneVotedException.class, () -> pokerTableService.closePokerTable(1L));
+		verify(pokerTableRepository, never()).save(any());
+	}
+
 	@Test
 	void closePokerTable_emptyTable_throwsException() {
 		// Arrange
@@ -116,6 +200,7 @@ class PokerTableServiceTest {
 		table.setDevelopers(new HashSet<>());
 
 		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(developerRepository.findByPokerTableId(1L)).thenReturn(List.copyOf(table.getDevelopers()));
 
 
 		NotEveryoneVotedException exception = assertThrows(NotEveryoneVotedException.class, () -> {
@@ -147,6 +232,139 @@ class PokerTableServiceTest {
 	}
 
 
+	@Test
+	void startNextRound_openTable_recordsRoundAndClearsVotesInBulk() {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Planning");
+		table.setRoundNumber(3);
+		table.setCurrentStoryId(40L);
+		table.setRoundDeadline(LocalDateTime.now().plusMinutes(1));
+
+		Developer voted = new Developer();
+		voted.setId(101L);
+		voted.setVote(8);
+		Developer notVoted = new Developer();
+		notVoted.setId(102L);
+		table.setDevelopers(new HashSet<>(Set.of(voted, notVoted)));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(userStoryRepository.existsByIdAndPokerTableId(41L, 1L)).thenReturn(true);
+		when(pokerTableRepository.save(any(PokerTable.class))).thenAnswer(inv -> inv.getArgument(0));
+
+		// Act
+		PokerTable result = pokerTableService.startNextRound(1L, 41L);
+
+		// Assert
+		assertThat(result.getRoundNumber()).isEqualTo(4);
+		assertThat(result.getCurrentStoryId()).isEqualTo(41L);
+		assertThat(result.getRoundDeadline()).isNull();
+
+		// Verify
+		InOrder inOrder = inOrder(eventPublisher, developerRepository, pokerTableRepository);
+		inOrder.verify(eventPublisher).publishEvent(new RoundClosedEvent(1L, 40L, 3, Map.of(101L, 8)));
+		inOrder.verify(developerRepository).clearVotes(1L);
+		inOrder.verify(pokerTableRepository).save(table);
+		inOrder.verify(eventPublisher).publishEvent(new RoundStartedEvent(1L, 4));
+		verify(developerRepository, never()).save(any());
+	}
+
+	@Test
+	void startNextRound_storyFromOtherTable_throwsException() {
+		PokerTable table = new PokerTable(1L, "Planning");
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(userStoryRepository.existsByIdAndPokerTableId(99L, 1L)).thenReturn(false);
+
+		assertThrows(IllegalArgumentException.class, () -> pokerTableService.startNextRound(1L, 99L));
+
+		verifyNoInteractions(developerRepository, eventPublisher);
+	}
+
+	@Test
+	void startNextRound_closedTable_throwsException() {
+		PokerTable table = new PokerTable(1L, "Closed", true);
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+
+		assertThrows(IllegalStateException.class, () -> pokerTableService.startNextRound(1L, null));
+
+		verifyNoInteractions(developerRepository, eventPublisher);
+	}
+
+	@Test
+	void startRoundTimer_openTable_setsDeadlineAndSchedules() {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Timed");
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(pokerTableRepository.save(any(PokerTable.class))).thenAnswer(inv -> inv.getArgument(0));
+
+		// Act
+		PokerTable result = pokerTableService.startRoundTimer(1L, Duration.ofSeconds(60));
+
+		// Assert
+		assertThat(result.getRoundDeadline()).isAfter(LocalDateTime.now().plusSeconds(50));
+		verify(roundDeadlines).schedule(1L, result.getRoundDeadline());
+	}
+
+	@Test
+	void startRoundTimer_closedTable_throwsException() {
+		PokerTable table = new PokerTable(1L, "Closed", true);
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+
+		assertThrows(IllegalStateException.class, () -> pokerTableService.startRoundTimer(1L, Duration.ofSeconds(60)));
+		verifyNoInteractions(roundDeadlines);
+	}
+
+	@Test
+	void startRoundTimer_nonPositiveDuration_throwsException() {
+		assertThrows(IllegalArgumentException.class, () -> pokerTableService.startRoundTimer(1L, Duration.ZERO));
+		verifyNoInteractions(pokerTableRepository);
+	}
+
+	@Test
+	void startRoundTimer_durationOverMaximum_throwsException() {
+		assertThrows(IllegalArgumentException.class,
+				() -> pokerTableService.startRoundTimer(1L, Duration.ofSeconds(Long.MAX_VALUE)));
+		verifyNoInteractions(pokerTableRepository);
+	}
+
+	@Test
+	void closeExpiredRound_deadlinePassed_closesWithoutQuorum() {
+		// Arrange
+		PokerTable table = new PokerTable(1L, "Timed");
+		table.setRoundDeadline(LocalDateTime.now().minusSeconds(1));
+
+		Developer voted = new Developer();
+		voted.setId(101L);
+		voted.setVote(5);
+		Developer absent = new Developer();
+		absent.setId(102L);
+		table.setDevelopers(new HashSet<>(Set.of(voted, absent)));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+
+		// Act
+		pokerTableService.closeExpiredRound(1L);
+
+		// Assert
+		assertThat(table.getIsClosed()).isTrue();
+		assertThat(table.getRoundDeadline()).isNull();
+		verify(pokerTableRepository).save(table);
+		verifyNoInteractions(roundDeadlines);
+		verify(eventPublisher).publishEvent(new RoundClosedEvent(1L, null, 1, Map.of(101L, 5)));
+		verify(presenceTracker, never()).isStale(anyLong(), anyLong());
+	}
+
+	@Test
+	void closeExpiredRound_deadlineMovedToFuture_doesNothing() {
+		PokerTable table = new PokerTable(1L, "Timed");
+		table.setRoundDeadline(LocalDateTime.now().plusMinutes(1));
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+
+		pokerTableService.closeExpiredRound(1L);
+
+		assertThat(table.getIsClosed()).isFalse();
+		verify(pokerTableRepository, never()).save(any());
+	}
+
 	@Test
 	void getActiveTable_noActiveTable_createsNew() {
 		// Arrange
@@ -247,4 +465,29 @@ class PokerTableServiceTest {
 		verify(pokerTableRepository).findById(tableId);
 	}
 
-}
\ No newline at end of file
+	@Test
+	void getTableById_archived_returnsArchivedTable() {
+		// Arrange
+		Long tableId = 7L;
+		PokerTable archived = new PokerTable(tableId, "Archived", true);
+		when(pokerTableRepository.findById(tableId)).thenReturn(Optional.empty());
+		when(tableArchiveService.findArchivedTable(tableId)).thenReturn(Optional.of(archived));
+
+		// Act
+		PokerTable result = pokerTableService.getTableById(tableId);
+
+		// Assert
+		assertThat(result).isSameAs(archived);
+	}
+
+	@Test
+	void cancelRoundTimer_archived_throwsNotFoundWithoutSaving() {
+		// Arrange
+		when(pokerTableRepository.findById(7L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertThrows(NotFoundException.class, () -> pokerTableService.cancelRoundTimer(7L));
+		verify(tableArchiveService, never()).findArchivedTable(anyLong());
+		verify(pokerTableRepository, never()).save(any());
+	}
+}
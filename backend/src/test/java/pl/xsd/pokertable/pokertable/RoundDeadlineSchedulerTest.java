@@ -0,0 +1,70 @@
+package pl.xsd.pokertable.pokertable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoundDeadlineSchedulerTest {
+
+	@Mock
+	private RoundDeadlines roundDeadlines;
+
+	@Mock
+	private PokerTableService pokerTableService;
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@InjectMocks
+	private RoundDeadlineScheduler roundDeadlineScheduler;
+
+	@Test
+	void closeExpiredRounds_closesEveryExpiredTable_evenIfOneFails() {
+		when(roundDeadlines.pollExpired(any(LocalDateTime.class))).thenReturn(List.of(1L, 2L));
+		doThrow(new RuntimeException("boom")).when(pokerTableService).closeExpiredRound(1L);
+
+		roundDeadlineScheduler.closeExpiredRounds();
+
+		verify(pokerTableService).closeExpiredRound(1L);
+		verify(pokerTableService).closeExpiredRound(2L);
+		verify(roundDeadlines).retry(eq(1L), any(LocalDateTime.class));
+		verify(roundDeadlines, never()).retry(eq(2L), any(LocalDateTime.class));
+	}
+
+	@Test
+	void restorePendingDeadlines_schedulesOpenTablesWithDeadline() {
+		PokerTable table = new PokerTable(5L, "Timed");
+		LocalDateTime deadline = LocalDateTime.now().plusMinutes(2);
+		table.setRoundDeadline(deadline);
+		when(pokerTableRepository.findByIsClosedFalseAndRoundDeadlineIsNotNull()).thenReturn(List.of(table));
+
+		roundDeadlineScheduler.restorePendingDeadlines();
+
+		verify(roundDeadlines).schedule(5L, deadline);
+	}
+
+	@Test
+	void onRoundStarted_cancelsPendingDeadline() {
+		roundDeadlineScheduler.onRoundStarted(new RoundStartedEvent(5L, 2));
+
+		verify(roundDeadlines).cancel(5L);
+	}
+
+	@Test
+	void onTableClosed_cancelsPendingDeadline() {
+		roundDeadlineScheduler.onTableClosed(new TableClosedEvent(5L, LocalDateTime.now(), Map.of()));
+
+		verify(roundDeadlines).cancel(5L);
+	}
+}
@@ -0,0 +1,65 @@
+package pl.xsd.pokertable.pokertable;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoundDeadlinesTest {
+
+	private final RoundDeadlines roundDeadlines = new RoundDeadlines();
+	private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	@Test
+	void pollExpired_returnsOnlyPassedDeadlinesInOrder() {
+		roundDeadlines.schedule(1L, now.plusSeconds(10));
+		roundDeadlines.schedule(2L, now.minusSeconds(5));
+		roundDeadlines.schedule(3L, now);
+
+		assertThat(roundDeadlines.pollExpired(now)).containsExactly(2L, 3L);
+		assertThat(roundDeadlines.size()).isEqualTo(1);
+		assertThat(roundDeadlines.pollExpired(now.plusSeconds(10))).containsExactly(1L);
+		assertThat(roundDeadlines.size()).isZero();
+	}
+
+	@Test
+	void schedule_sameTableTwice_replacesDeadline() {
+		roundDeadlines.schedule(1L, now.minusSeconds(1));
+		roundDeadlines.schedule(1L, now.plusMinutes(1));
+
+		assertThat(roundDeadlines.pollExpired(now)).isEmpty();
+		assertThat(roundDeadlines.size()).isEqualTo(1);
+	}
+
+	@Test
+	void cancel_removesDeadline() {
+		roundDeadlines.schedule(1L, now.minusSeconds(1));
+		roundDeadlines.cancel(1L);
+		roundDeadlines.cancel(2L);
+
+		assertThat(roundDeadlines.pollExpired(now)).isEmpty();
+	}
+
+	@Test
+	void retry_putsBackPolledDeadline() {
+		roundDeadlines.schedule(1L, now.minusSeconds(1));
+		assertThat(roundDeadlines.pollExpired(now)).containsExactly(1L);
+
+		roundDeadlines.retry(1L, now);
+
+		assertThat(roundDeadlines.pollExpired(now)).containsExactly(1L);
+	}
+
+	@Test
+	void retry_deadlineScheduledMeanwhile_keepsNewDeadline() {
+		roundDeadlines.schedule(1L, now.minusSeconds(1));
+		roundDeadlines.pollExpired(now);
+		roundDeadlines.schedule(1L, now.plusMinutes(5));
+
+		roundDeadlines.retry(1L, now);
+
+		assertThat(roundDeadlines.pollExpired(now)).isEmpty();
+		assertThat(roundDeadlines.size()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,53 @@
+package pl.xsd.pokertable.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictMetricsTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ConflictMetrics conflictMetrics = new ConflictMetrics(meterRegistry, 2);
+
+	@Test
+	void conflict_shouldCountPerTable_upToTheLimit() {
+		// Act
+		conflictMetrics.conflict("DeveloperService.vote", "1");
+		conflictMetrics.conflict("DeveloperService.vote", "1");
+		conflictMetrics.conflict("PokerTableService.close", "2");
+		conflictMetrics.conflict("DeveloperService.vote", "3");
+		conflictMetrics.conflict("DeveloperService.vote", ConflictRetryAspect.NO_TABLE);
+
+		// Assert
+		assertEquals(2, tableConflicts("1"));
+		assertEquals(1, tableConflicts("2"));
+		assertEquals(1, tableConflicts(ConflictMetrics.OTHER_TABLES));
+		assertNull(meterRegistry.find(ConflictMetrics.TABLE_CONFLICTS).tag("table", ConflictRetryAspect.NO_TABLE).counter());
+		assertEquals(4, meterRegistry.get(ConflictMetrics.CONFLICTS).tag("operation", "DeveloperService.vote").counter().count());
+	}
+
+	@Test
+	void onTableClosed_shouldRemoveTheTablesCounterAndFreeItsPlace() {
+		// Arrange
+		conflictMetrics.conflict("DeveloperService.vote", "1");
+		conflictMetrics.conflict("DeveloperService.vote", "2");
+
+		// Act
+		conflictMetrics.onTableClosed(new TableClosedEvent(1L, LocalDateTime.now(), Map.of()));
+		conflictMetrics.conflict("DeveloperService.vote", "3");
+
+		// Assert
+		assertNull(meterRegistry.find(ConflictMetrics.TABLE_CONFLICTS).tag("table", "1").counter());
+		assertEquals(1, tableConflicts("3"));
+		assertNull(meterRegistry.find(ConflictMetrics.TABLE_CONFLICTS).tag("table", ConflictMetrics.OTHER_TABLES).counter());
+	}
+
+	private double tableConflicts(String table) {
+		return meterRegistry.get(ConflictMetrics.TABLE_CONFLICTS).tag("table", table).counter().count();
+	}
+}
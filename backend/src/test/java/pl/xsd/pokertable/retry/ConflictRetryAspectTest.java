@@ -0,0 +1,131 @@
+package pl.xsd.pokertable.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryAspectTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private List<Long> sleeps;
+	private ConflictingService service;
+	private ConflictingService proxy;
+
+	static class ConflictingService {
+
+		int conflictsLeft;
+		int calls;
+
+		@RetryOnConflict
+		public String vote(Long tableId) {
+			calls++;
+			if (conflictsLeft-- > 0) {
+				throw new OptimisticLockingFailureException("Row was updated by another transaction");
+			}
+			return "voted";
+		}
+
+		@RetryOnConflict(tableIdParameter = "pokerTableId")
+		public void fail(Long pokerTableId) {
+			calls++;
+			throw new IllegalStateException("Not a conflict");
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		sleeps = new ArrayList<>();
+		service = new ConflictingService();
+
+		AspectJProxyFactory factory = new AspectJProxyFactory(service);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(new ConflictRetryAspect(new ConflictMetrics(meterRegistry, 20), 3, Duration.ofMillis(20),
+				Duration.ofMillis(30), sleeps::add));
+		proxy = factory.getProxy();
+	}
+
+	@Test
+	void retry_shouldRunAgainUntilTheConflictIsGone() {
+		// Arrange
+		service.conflictsLeft = 2;
+
+		// Act
+		String result = proxy.vote(7L);
+
+		// Assert
+		assertEquals("voted", result);
+		assertEquals(3, service.calls);
+		assertEquals(2, sleeps.size());
+		assertTrue(sleeps.get(0) <= 20);
+		assertTrue(sleeps.get(1) <= 30);
+		assertEquals(2, counter(ConflictMetrics.CONFLICTS));
+		assertEquals(2, counter(ConflictMetrics.RETRIES));
+		assertEquals(0, counter(ConflictMetrics.EXHAUSTED));
+		assertNull(meterRegistry.find(ConflictMetrics.CONFLICTS).tagKeys("table").counter());
+		assertEquals(2, meterRegistry.get(ConflictMetrics.TABLE_CONFLICTS).tag("table", "7").counter().count());
+	}
+
+	@Test
+	void retry_shouldRethrowConflictAfterLastAttempt() {
+		// Arrange
+		service.conflictsLeft = 5;
+
+		// Act & Assert
+		assertThrows(OptimisticLockingFailureException.class, () -> proxy.vote(7L));
+		assertEquals(3, service.calls);
+		assertEquals(3, counter(ConflictMetrics.CONFLICTS));
+		assertEquals(2, counter(ConflictMetrics.RETRIES));
+		assertEquals(1, counter(ConflictMetrics.EXHAUSTED));
+	}
+
+	@Test
+	void retry_shouldNotRetryOtherExceptions() {
+		// Act & Assert
+		assertThrows(IllegalStateException.class, () -> proxy.fail(7L));
+		assertEquals(1, service.calls);
+		assertTrue(sleeps.isEmpty());
+		assertNull(meterRegistry.find(ConflictMetrics.CONFLICTS).counter());
+	}
+
+	@Test
+	void retry_shouldAddTheTimeWaitedToTheThreadsBackoff() {
+		// Arrange
+		service.conflictsLeft = 2;
+		long before = ConflictRetryAspect.backoffNanos();
+
+		// Act
+		proxy.vote(7L);
+
+		// Assert
+		long waited = sleeps.stream().mapToLong(Long::longValue).sum();
+		assertEquals(Duration.ofMillis(waited).toNanos(), ConflictRetryAspect.backoffNanos() - before);
+	}
+
+	@Test
+	void backoffMillis_shouldStayUnderExponentialCap() {
+		// Arrange
+		ConflictRetryAspect aspect = new ConflictRetryAspect(new ConflictMetrics(meterRegistry, 20), 10, Duration.ofMillis(20),
+				Duration.ofMillis(100), sleeps::add);
+
+		// Act & Assert
+		for (int i = 0; i < 100; i++) {
+			assertTrue(aspect.backoffMillis(1) <= 20);
+			assertTrue(aspect.backoffMillis(2) <= 40);
+			assertTrue(aspect.backoffMillis(9) <= 100);
+		}
+	}
+
+	private double counter(String name) {
+		var counter = meterRegistry.find(name).tag("operation", "ConflictingService.vote").counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
@@ -0,0 +1,66 @@
+package pl.xsd.pokertable.search;
+
+import org.openjdk.jmh.annotations.*;
+import pl.xsd.pokertable.userstory.StoryDocument;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link InMemoryStorySearchIndex} over 1M synthetic stories, drawn from a 20k word vocabulary
+ * with a skewed (roughly Zipfian) word distribution, so that queries hit both long and short posting lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class InMemoryStorySearchIndexBenchmark {
+
+	private static final int STORIES = 1_000_000;
+	private static final int VOCABULARY = 20_000;
+
+	private InMemoryStorySearchIndex index;
+	private long nextId;
+
+	@Setup
+	public void setUp() {
+		index = new InMemoryStorySearchIndex(null);
+		Random random = new Random(42);
+		for (nextId = 1; nextId <= STORIES; nextId++) {
+			index.index(new StoryDocument(nextId, words(random, 6), words(random, 40), null, 1L));
+		}
+	}
+
+	@Benchmark
+	public List<Long> commonTerm() {
+		return index.search("w1", 20);
+	}
+
+	@Benchmark
+	public List<Long> commonAndRareTerm() {
+		return index.search("w2 w5000", 20);
+	}
+
+	@Benchmark
+	public List<Long> twoCommonTerms() {
+		return index.search("w1 w3", 20);
+	}
+
+	@Benchmark
+	public void indexNewStory() {
+		index.index(new StoryDocument(nextId++, "w1 w7 w42", "w3 w100 w2000 w19999", null, 1L));
+	}
+
+	private static String words(Random random, int count) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			// Cubing a uniform value skews the draw toward the first words
+			double u = random.nextDouble();
+			text.append('w').append((int) (u * u * u * VOCABULARY)).append(' ');
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,108 @@
+package pl.xsd.pokertable.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.UserStoryChangedEvent;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryStorySearchIndexTest {
+
+	private UserStoryRepository userStoryRepository;
+	private InMemoryStorySearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		userStoryRepository = mock(UserStoryRepository.class);
+		index = new InMemoryStorySearchIndex(userStoryRepository);
+		index.index(new StoryDocument(1L, "Login page", "As a user I want to log in with my password", null, 1L));
+		index.index(new StoryDocument(2L, "Password reset", "Send a reset link to the user e-mail", null, 1L));
+		index.index(new StoryDocument(3L, "Export stories", "Export the estimated stories of a table to CSV", null, 1L));
+	}
+
+	@Test
+	void search_requiresEveryTerm() {
+		assertThat(index.search("password", 10)).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(index.search("user password", 10)).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(index.search("password csv", 10)).isEmpty();
+		assertThat(index.search("unknown", 10)).isEmpty();
+		assertThat(index.search("  ", 10)).isEmpty();
+	}
+
+	@Test
+	void search_ignoresCaseAndPunctuation() {
+		assertThat(index.search("E-MAIL", 10)).containsExactly(2L);
+		assertThat(index.search("csv!", 10)).containsExactly(3L);
+	}
+
+	@Test
+	void search_ranksTitleMatchesFirstAndHonoursLimit() {
+		index.index(new StoryDocument(4L, "Profile", "Change the password on the profile page", null, 1L));
+
+		assertThat(index.search("password", 10).get(0)).isEqualTo(2L);
+		assertThat(index.search("password", 2)).hasSize(2);
+	}
+
+	@Test
+	void onUserStoryChanged_updateReplacesOldTerms() {
+		StoryDocument before = new StoryDocument(3L, "Export stories", "Export the estimated stories of a table to CSV", null, 1L);
+		StoryDocument after = new StoryDocument(3L, "Export stories", "Export the estimated stories to JSON", null, 1L);
+
+		index.onUserStoryChanged(new UserStoryChangedEvent(before, after));
+
+		assertThat(index.search("csv", 10)).isEmpty();
+		assertThat(index.search("json", 10)).containsExactly(3L);
+	}
+
+	@Test
+	void onUserStoryChanged_deleteDropsUnusedTerms() {
+		int terms = index.termCount();
+
+		index.onUserStoryChanged(new UserStoryChangedEvent(
+				new StoryDocument(3L, "Export stories", "Export the estimated stories of a table to CSV", null, 1L), null));
+
+		assertThat(index.search("export", 10)).isEmpty();
+		assertThat(index.termCount()).isLessThan(terms);
+	}
+
+	@Test
+	void onTablesArchived_removesArchivedStories() {
+		StoryDocument archived = new StoryDocument(3L, "Export stories", "Export the estimated stories of a table to CSV", null, 1L);
+
+		index.onTablesArchived(new TablesArchivedEvent(List.of(1L), List.of(archived)));
+
+		assertThat(index.search("export", 10)).isEmpty();
+	}
+
+	@Test
+	void index_sameStoryTwice_countsItOnce() {
+		List<Long> ranked = index.search("password", 10);
+
+		index.index(new StoryDocument(1L, "Login page", "As a user I want to log in with my password", null, 1L));
+
+		assertThat(index.documentCount()).isEqualTo(3);
+		assertThat(index.search("password", 10)).isEqualTo(ranked);
+		index.onUserStoryChanged(new UserStoryChangedEvent(
+				new StoryDocument(1L, "Login page", "As a user I want to log in with my password", null, 1L), null));
+		assertThat(index.documentCount()).isEqualTo(2);
+	}
+
+	@Test
+	void rebuild_indexesStoriesFromDatabase() {
+		InMemoryStorySearchIndex rebuilt = new InMemoryStorySearchIndex(userStoryRepository);
+		when(userStoryRepository.streamAllDocuments())
+				.thenReturn(Stream.of(new StoryDocument(7L, "Dark mode", null, null, 1L)));
+
+		rebuilt.rebuild();
+
+		assertThat(rebuilt.search("dark mode", 10)).containsExactly(7L);
+	}
+}
@@ -0,0 +1,62 @@
+package pl.xsd.pokertable.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LshBucketsTest {
+
+	private static final int PAIRS = 200;
+
+	@Test
+	void candidates_shouldFindMostPairsAtMinSimilarity() {
+		// 6 shared terms out of 20 in both stories, a Jaccard similarity of 0.3
+		assertThat(candidateRate(6, 7)).isGreaterThan(0.85);
+	}
+
+	@Test
+	void candidates_shouldFindNearlyAllPairsWellAboveMinSimilarity() {
+		// 8 shared terms out of 20, a Jaccard similarity of 0.4
+		assertThat(candidateRate(8, 6)).isGreaterThan(0.95);
+	}
+
+	@Test
+	void remove_shouldDropTheStoryFromItsBuckets() {
+		// Arrange
+		LshBuckets buckets = new LshBuckets();
+		short[] signature = MinHash.signature(List.of("login", "password"));
+		buckets.add(1L, signature);
+
+		// Act
+		buckets.remove(1L, signature);
+
+		// Assert
+		assertThat(buckets.candidates(signature)).isEmpty();
+	}
+
+	// How many of PAIRS story pairs, each with its own terms, share a band
+	private static double candidateRate(int shared, int own) {
+		int found = 0;
+		for (int pair = 0; pair < PAIRS; pair++) {
+			List<String> first = new ArrayList<>();
+			List<String> second = new ArrayList<>();
+			for (int i = 0; i < shared; i++) {
+				first.add("shared" + pair + "x" + i);
+				second.add("shared" + pair + "x" + i);
+			}
+			for (int i = 0; i < own; i++) {
+				first.add("first" + pair + "x" + i);
+				second.add("second" + pair + "x" + i);
+			}
+			LshBuckets buckets = new LshBuckets();
+			buckets.add(1L, MinHash.signature(first));
+			if (buckets.candidates(MinHash.signature(second)).contains(1L)) {
+				found++;
+			}
+		}
+		return (double) found / PAIRS;
+	}
+}
@@ -0,0 +1,104 @@
+package pl.xsd.pokertable.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTest {
+
+	@Test
+	void add_keepsEntriesSortedById() {
+		PostingList list = new PostingList();
+
+		list.add(5, 1, 10);
+		list.add(300, 2, 20);
+		list.add(1, 3, 30);
+		list.add(100, 4, 40);
+
+		assertThat(entries(list)).containsExactly(
+				new long[]{1, 3, 30}, new long[]{5, 1, 10}, new long[]{100, 4, 40}, new long[]{300, 2, 20});
+	}
+
+	@Test
+	void add_existingId_replacesEntry() {
+		PostingList list = new PostingList();
+		list.add(1, 1, 10);
+		list.add(2, 1, 10);
+
+		list.add(1, 5, 50);
+
+		assertThat(list.size()).isEqualTo(2);
+		assertThat(entries(list)).containsExactly(new long[]{1, 5, 50}, new long[]{2, 1, 10});
+	}
+
+	@Test
+	void remove_dropsOnlyThatEntry() {
+		PostingList list = new PostingList();
+		list.add(1, 1, 10);
+		list.add(2, 2, 20);
+		list.add(3, 3, 30);
+
+		assertThat(list.remove(2)).isTrue();
+		assertThat(list.remove(2)).isFalse();
+		assertThat(list.remove(42)).isFalse();
+
+		assertThat(entries(list)).containsExactly(new long[]{1, 1, 10}, new long[]{3, 3, 30});
+		list.add(4, 4, 40);
+		assertThat(entries(list)).hasSize(3);
+	}
+
+	@Test
+	void appendedIds_takeThreeBytesPerEntry() {
+		PostingList list = new PostingList();
+		for (long id = 1_000_000; id < 1_001_000; id++) {
+			list.add(id, 1, 50);
+		}
+
+		// Only the first delta needs more than one byte
+		assertThat(list.sizeInBytes()).isEqualTo(1000 * 3 + 2);
+	}
+
+	@Test
+	void advance_jumpsToFirstIdNotBelowTarget() {
+		PostingList list = new PostingList();
+		for (long id = 2; id <= 2000; id += 2) {
+			list.add(id, 1, 10);
+		}
+
+		PostingList.Cursor cursor = list.cursor();
+		assertThat(cursor.advance(501)).isTrue();
+		assertThat(cursor.storyId).isEqualTo(502);
+		assertThat(cursor.advance(502)).isTrue();
+		assertThat(cursor.storyId).isEqualTo(502);
+		assertThat(cursor.advance(1500)).isTrue();
+		assertThat(cursor.storyId).isEqualTo(1500);
+		assertThat(cursor.next()).isTrue();
+		assertThat(cursor.storyId).isEqualTo(1502);
+		assertThat(cursor.advance(2001)).isFalse();
+	}
+
+	@Test
+	void advance_afterRemoval_usesRebuiltSkipPointers() {
+		PostingList list = new PostingList();
+		for (long id = 1; id <= 1000; id++) {
+			list.add(id, 1, 10);
+		}
+		list.remove(1);
+
+		PostingList.Cursor cursor = list.cursor();
+		assertThat(cursor.advance(700)).isTrue();
+		assertThat(cursor.storyId).isEqualTo(700);
+	}
+
+	private static List<long[]> entries(PostingList list) {
+		List<long[]> entries = new ArrayList<>();
+		PostingList.Cursor cursor = list.cursor();
+		while (cursor.next()) {
+			entries.add(new long[]{cursor.storyId, cursor.frequency, cursor.length});
+		}
+		return entries;
+	}
+}
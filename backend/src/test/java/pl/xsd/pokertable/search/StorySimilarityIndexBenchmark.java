@@ -0,0 +1,59 @@
+package pl.xsd.pokertable.search;
+
+import org.openjdk.jmh.annotations.*;
+import pl.xsd.pokertable.userstory.StoryDocument;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of {@link StorySimilarityIndex} over 1M estimated synthetic stories built like in
+ * {@link InMemoryStorySearchIndexBenchmark}. The target is well under a millisecond per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class StorySimilarityIndexBenchmark {
+
+	private static final int STORIES = 1_000_000;
+	private static final int VOCABULARY = 20_000;
+	private static final int[] POINTS = {1, 2, 3, 5, 8, 13};
+
+	private StorySimilarityIndex index;
+	private StoryDocument[] queries;
+	private int nextQuery;
+
+	@Setup
+	public void setUp() {
+		index = new StorySimilarityIndex(null, null, true);
+		Random random = new Random(42);
+		queries = new StoryDocument[1024];
+		for (long id = 1; id <= STORIES; id++) {
+			StoryDocument story = new StoryDocument(id, words(random, 6), words(random, 40), POINTS[random.nextInt(POINTS.length)], 1L);
+			index.index(story);
+			if (id % (STORIES / queries.length) == 0) {
+				// A new story reworded from an existing one: same title, half of the description replaced
+				String description = story.description().substring(story.description().length() / 2) + words(random, 20);
+				queries[(int) (id / (STORIES / queries.length)) - 1] = new StoryDocument(null, story.title(), description, null, 1L);
+			}
+		}
+	}
+
+	@Benchmark
+	public List<SimilarStory> findSimilar() {
+		return index.findSimilar(queries[nextQuery++ & (queries.length - 1)], 5);
+	}
+
+	private static String words(Random random, int count) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			double u = random.nextDouble();
+			text.append('w').append((int) (u * u * u * VOCABULARY)).append(' ');
+		}
+		return text.toString();
+	}
+}
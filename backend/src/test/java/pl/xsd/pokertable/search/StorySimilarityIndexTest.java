@@ -0,0 +1,181 @@
+package pl.xsd.pokertable.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.xsd.pokertable.archive.TableArchiveService;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.userstory.StoryDocument;
+import pl.xsd.pokertable.userstory.UserStoryChangedEvent;
+import pl.xsd.pokertable.userstory.UserStoryRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StorySimilarityIndexTest {
+
+	private static final StoryDocument LOGIN = new StoryDocument(1L, "Login with password",
+			"As a user I want to log in to the planning poker with my e-mail and password", 5, 1L);
+	private static final StoryDocument EXPORT = new StoryDocument(2L, "Export stories to CSV",
+			"As a moderator I want to export the estimated stories of a table to a CSV file", 3, 1L);
+
+	private UserStoryRepository userStoryRepository;
+	private TableArchiveService tableArchiveService;
+	private StorySimilarityIndex index;
+
+	@BeforeEach
+	void setUp() {
+		userStoryRepository = mock(UserStoryRepository.class);
+		tableArchiveService = mock(TableArchiveService.class);
+		index = new StorySimilarityIndex(userStoryRepository, tableArchiveService, true);
+		index.index(LOGIN);
+		index.index(EXPORT);
+	}
+
+	@Test
+	void findSimilar_returnsStoriesWithOverlappingTerms() {
+		StoryDocument query = new StoryDocument(10L, "Login with password",
+				"As a user I want to log in to the planning poker with my password", null, 1L);
+
+		List<SimilarStory> similar = index.findSimilar(query, 5);
+
+		assertThat(similar).extracting(SimilarStory::storyId).containsExactly(1L);
+		assertThat(similar.get(0).estimatedPoints()).isEqualTo(5);
+		assertThat(similar.get(0).similarity()).isGreaterThan(0.6);
+	}
+
+	@Test
+	void findSimilar_neverReturnsTheStoryItself() {
+		assertThat(index.findSimilar(LOGIN, 5)).isEmpty();
+	}
+
+	@Test
+	void findSimilar_unrelatedText_returnsNothing() {
+		assertThat(index.findSimilar(new StoryDocument(10L, "Dark mode", "Switch colours at night", null, 1L), 5)).isEmpty();
+	}
+
+	@Test
+	void onUserStoryChanged_removedEstimate_isNoLongerSuggested_deletedStory_leavesIndex() {
+		index.onUserStoryChanged(new UserStoryChangedEvent(LOGIN,
+				new StoryDocument(1L, LOGIN.title(), LOGIN.description(), null, 1L)));
+		index.onUserStoryChanged(new UserStoryChangedEvent(EXPORT, null));
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.findSimilar(new StoryDocument(10L, LOGIN.title(), LOGIN.description(), null, 1L), 5)).isEmpty();
+	}
+
+	@Test
+	void onUserStoryChanged_update_replacesSignature() {
+		StoryDocument renamed = new StoryDocument(2L, "Dark mode", "Switch colours of the planning poker at night", 2, 1L);
+
+		index.onUserStoryChanged(new UserStoryChangedEvent(EXPORT, renamed));
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.findSimilar(new StoryDocument(10L, EXPORT.title(), EXPORT.description(), null, 1L), 5)).isEmpty();
+		assertThat(index.findSimilar(new StoryDocument(10L, "Dark mode", "Switch colours of the planning poker at night", null, 1L), 5))
+				.extracting(SimilarStory::storyId).containsExactly(2L);
+	}
+
+	@Test
+	void findSimilar_skipsStoriesWithoutEstimate() {
+		index.index(new StoryDocument(3L, LOGIN.title(), LOGIN.description(), null, 1L));
+
+		assertThat(index.findSimilar(new StoryDocument(10L, LOGIN.title(), LOGIN.description(), null, 1L), 5))
+				.extracting(SimilarStory::storyId).containsExactly(1L);
+	}
+
+	@Test
+	void rebuild_indexesStoriesFromDatabase() {
+		StorySimilarityIndex rebuilt = new StorySimilarityIndex(userStoryRepository, tableArchiveService, true);
+		when(userStoryRepository.streamAllDocuments()).thenReturn(Stream.of(LOGIN,
+				new StoryDocument(3L, "Not estimated yet", "Nobody voted on this one", null, 1L)));
+		doAnswer(invocation -> {
+			invocation.<Consumer<StoryDocument>>getArgument(0).accept(EXPORT);
+			return null;
+		}).when(tableArchiveService).forEachArchivedStory(any());
+
+		rebuilt.rebuild();
+
+		assertThat(rebuilt.size()).isEqualTo(3);
+	}
+
+	@Test
+	void rebuild_archivedStoriesNotKept_onlyIndexesLiveStories() {
+		StorySimilarityIndex rebuilt = new StorySimilarityIndex(userStoryRepository, tableArchiveService, false);
+		when(userStoryRepository.streamAllDocuments()).thenReturn(Stream.of(LOGIN));
+
+		rebuilt.rebuild();
+
+		assertThat(rebuilt.size()).isEqualTo(1);
+		verifyNoInteractions(tableArchiveService);
+	}
+
+	@Test
+	void onTablesArchived_keepsArchivedStoriesForSuggestions() {
+		index.onTablesArchived(new TablesArchivedEvent(List.of(1L), List.of(LOGIN, EXPORT)));
+
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void onTablesArchived_archivedStoriesNotKept_removesThem() {
+		StorySimilarityIndex dropping = new StorySimilarityIndex(userStoryRepository, tableArchiveService, false);
+		dropping.index(LOGIN);
+		dropping.index(EXPORT);
+
+		dropping.onTablesArchived(new TablesArchivedEvent(List.of(1L), List.of(LOGIN)));
+
+		assertThat(dropping.size()).isEqualTo(1);
+	}
+
+	@Test
+	void findDuplicates_onlyReportsNearIdenticalStoriesOfTheSameTable() {
+		index.index(new StoryDocument(3L, LOGIN.title(), LOGIN.description(), null, 2L));
+
+		List<SimilarStory> duplicates = index.findDuplicates(new StoryDocument(10L, "Login with password",
+				"As a user I want to log in to the planning poker with my e-mail and password", null, 1L));
+
+		assertThat(duplicates).extracting(SimilarStory::storyId).containsExactly(1L);
+		assertThat(index.findDuplicates(new StoryDocument(10L, "Login with password", "Short description", null, 1L)))
+				.isEmpty();
+	}
+
+	@Test
+	void findDuplicates_batch_findsDuplicatesAmongNewStories() {
+		List<List<SimilarStory>> duplicates = index.findDuplicates(List.of(
+				new StoryDocument(10L, "Dark mode", "Switch colours of the planning poker at night", null, 1L),
+				new StoryDocument(11L, "Dark mode", "Switch colours of the planning poker at night", null, 1L),
+				new StoryDocument(12L, "Dark mode", "Switch colours of the planning poker at night", null, 2L)));
+
+		assertThat(duplicates.get(0)).isEmpty();
+		assertThat(duplicates.get(1)).extracting(SimilarStory::storyId).containsExactly(10L);
+		assertThat(duplicates.get(2)).isEmpty();
+	}
+
+	@Test
+	void findDuplicateClusters_groupsTransitiveDuplicatesPerTable() {
+		index.index(new StoryDocument(5L, LOGIN.title(), LOGIN.description(), null, 1L));
+		index.index(new StoryDocument(7L, LOGIN.title(), LOGIN.description(), 8, 1L));
+		index.index(new StoryDocument(8L, EXPORT.title(), EXPORT.description(), null, 1L));
+		index.index(new StoryDocument(9L, EXPORT.title(), EXPORT.description(), null, 2L));
+
+		assertThat(index.findDuplicateClusters(1L)).containsExactly(List.of(1L, 5L, 7L), List.of(2L, 8L));
+		assertThat(index.findDuplicateClusters(2L)).isEmpty();
+		assertThat(index.findDuplicateClusters(3L)).isEmpty();
+	}
+
+	@Test
+	void estimateSuggestion_picksEstimateWithHighestTotalSimilarity() {
+		EstimateSuggestion suggestion = EstimateSuggestion.of(List.of(
+				new SimilarStory(1L, 8, 0.9), new SimilarStory(2L, 5, 0.6), new SimilarStory(3L, 5, 0.5)));
+
+		assertThat(suggestion.suggestedPoints()).isEqualTo(5);
+		assertThat(EstimateSuggestion.of(List.of()).suggestedPoints()).isNull();
+		assertThat(EstimateSuggestion.of(List.of(new SimilarStory(1L, 3, 0.5), new SimilarStory(2L, 5, 0.5)))
+				.suggestedPoints()).isEqualTo(5);
+	}
+}
@@ -0,0 +1,98 @@
+package pl.xsd.pokertable.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedExportCacheTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private final AtomicInteger compressions = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void get_shouldCompressOnceAndCountHitsAndSavedBytes() throws IOException {
+		// Arrange
+		CompressedExportCache cache = new CompressedExportCache(DataSize.ofMegabytes(1), meterRegistry);
+		String csv = "Summary,Description\n" + "\"Story\",\"As a user I want to log in\"\n".repeat(100);
+
+		// Act
+		byte[] first = cache.get(1L, csv(csv));
+		byte[] second = cache.get(1L, csv(csv));
+
+		// Assert
+		assertSame(first, second);
+		assertEquals(1, compressions.get());
+		assertEquals(csv, gunzip(second));
+		assertEquals(1, meterRegistry.get(CompressedExportCache.GETS).tag("result", "hit").counter().count());
+		assertEquals(1, meterRegistry.get(CompressedExportCache.GETS).tag("result", "miss").counter().count());
+		assertEquals(0.5, meterRegistry.get(CompressedExportCache.HIT_RATIO).gauge().value());
+		assertEquals(csv.length() - second.length, meterRegistry.get(CompressedExportCache.BYTES_SAVED).functionCounter().count());
+		assertEquals(second.length, meterRegistry.get(CompressedExportCache.SIZE).gauge().value());
+	}
+
+	@Test
+	void get_shouldEvictTheLeastRecentlyUsedExports_whenOverTheTotalSize() {
+		// Arrange
+		String csv = "x".repeat(1000);
+		int entrySize = new CompressedExportCache(DataSize.ofMegabytes(1), new SimpleMeterRegistry()).get(0L, csv(csv)).length;
+		CompressedExportCache cache = new CompressedExportCache(DataSize.ofBytes(2L * entrySize), meterRegistry);
+		cache.get(1L, csv(csv));
+		cache.get(2L, csv(csv));
+		cache.get(1L, csv(csv));
+		compressions.set(0);
+
+		// Act
+		cache.get(3L, csv(csv));
+
+		// Assert
+		assertEquals(2L * entrySize, cache.size());
+		cache.get(1L, csv(csv));
+		assertEquals(1, compressions.get());
+		cache.get(2L, csv(csv));
+		assertEquals(2, compressions.get());
+	}
+
+	@Test
+	void get_shouldNotKeepAnExportLargerThanTheWholeCache() {
+		// Arrange
+		CompressedExportCache cache = new CompressedExportCache(DataSize.ofBytes(10), meterRegistry);
+
+		// Act
+		byte[] gzipped = cache.get(1L, csv("Summary\n"));
+		cache.get(1L, csv("Summary\n"));
+
+		// Assert
+		assertTrue(gzipped.length > 10);
+		assertEquals(0, cache.size());
+		assertEquals(2, compressions.get());
+	}
+
+	private Supplier<ByteBuffer> csv(String text) {
+		return () -> {
+			compressions.incrementAndGet();
+			return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private static String gunzip(byte[] gzipped) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package pl.xsd.pokertable.snapshot;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import pl.xsd.pokertable.PokertableApplication;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperService;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.userstory.UserStory;
+import pl.xsd.pokertable.userstory.UserStoryService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three views of a closed table with 10 developers and 200 stories on H2, requested over HTTP from the
+ * embedded server, read from the database or from the snapshot written when the table was closed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableSnapshotBenchmark {
+
+	private static final int DEVELOPERS = 10;
+	private static final int STORIES = 200;
+
+	@Param({"database", "snapshot"})
+	public String source;
+
+	private Path directory;
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+	private Long tableId;
+
+	@Setup
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("snapshot-benchmark");
+		// Arguments, unlike builder properties, take precedence over application.properties
+		context = new SpringApplicationBuilder(PokertableApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:snapshot-benchmark",
+				"--spring.jpa.show-sql=false",
+				"--spring.main.banner-mode=off",
+				"--logging.level.root=warn",
+				"--pokertable.snapshots.enabled=" + source.equals("snapshot"),
+				"--pokertable.snapshots.directory=" + directory);
+		client = HttpClient.newHttpClient();
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+		PokerTableService pokerTableService = context.getBean(PokerTableService.class);
+		DeveloperService developerService = context.getBean(DeveloperService.class);
+		tableId = pokerTableService.createPokerTable("Benchmark").getId();
+
+		List<UserStory> stories = new ArrayList<>();
+		for (int i = 0; i < STORIES; i++) {
+			UserStory story = new UserStory("Story " + i, "As a user I want feature " + i + ", so that \"it works\". ".repeat(10));
+			story.setEstimatedPoints(i % 13 + 1);
+			stories.add(story);
+		}
+		context.getBean(UserStoryService.class).createUserStories(tableId, stories);
+		for (int i = 0; i < DEVELOPERS; i++) {
+			Developer developer = developerService.createDeveloper(tableId, new Developer(UUID.randomUUID().toString(), "Developer " + i));
+			developerService.vote(developer.getId(), tableId, i % 13 + 1);
+		}
+		pokerTableService.closePokerTable(tableId);
+	}
+
+	@TearDown
+	public void tearDown() {
+		client.close();
+		context.close();
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	@Benchmark
+	public byte[] table() throws Exception {
+		return fetch("/tables/" + tableId);
+	}
+
+	@Benchmark
+	public byte[] developers() throws Exception {
+		return fetch("/developers/poker-table/" + tableId);
+	}
+
+	@Benchmark
+	public byte[] export() throws Exception {
+		return fetch("/tables/" + tableId + "/export-stories");
+	}
+
+	private byte[] fetch(String path) throws Exception {
+		HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(path + " answered " + response.statusCode());
+		}
+		return response.body();
+	}
+}
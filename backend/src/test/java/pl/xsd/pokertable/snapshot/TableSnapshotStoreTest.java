@@ -0,0 +1,125 @@
+package pl.xsd.pokertable.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableSnapshotStoreTest {
+
+	private static final LocalDateTime CLOSED_AT = LocalDateTime.of(2025, 3, 14, 9, 30, 15, 123_456_000);
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void find_shouldReturnEverySectionAsSaved() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(directory.resolve("snapshots"), true, 4);
+		store.save(1L, CLOSED_AT, bytes("{\"id\":1}"), bytes("[{\"id\":5}]"), bytes("Summary\n\"Zażółć\"\n"));
+
+		// Act
+		TableSnapshot snapshot = store.find(1L, CLOSED_AT).orElseThrow();
+
+		// Assert
+		assertEquals("{\"id\":1}", text(snapshot.section(TableSnapshot.Section.TABLE)));
+		assertEquals("[{\"id\":5}]", text(snapshot.section(TableSnapshot.Section.DEVELOPERS)));
+		assertEquals("Summary\n\"Zażółć\"\n", text(snapshot.section(TableSnapshot.Section.STORIES)));
+		assertTrue(snapshot.section(TableSnapshot.Section.TABLE).isReadOnly());
+	}
+
+	@Test
+	void find_shouldBeEmpty_whenTheTableHasNoSnapshot() {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(directory, true, 4);
+
+		// Act & Assert
+		assertTrue(store.find(1L, CLOSED_AT).isEmpty());
+	}
+
+	@Test
+	void find_shouldBeEmpty_whenSnapshotsAreDisabled() throws Exception {
+		// Arrange
+		new TableSnapshotStore(directory, true, 4).save(1L, CLOSED_AT, bytes("{}"), bytes("[]"), bytes(""));
+		TableSnapshotStore store = new TableSnapshotStore(directory, false, 4);
+
+		// Act & Assert
+		assertTrue(store.find(1L, CLOSED_AT).isEmpty());
+	}
+
+	@Test
+	void find_shouldBeEmpty_whenTheFileIsNotASnapshot() throws Exception {
+		// Arrange
+		Files.write(directory.resolve("table-1-20250314T093015123456.snapshot"), bytes("not a snapshot at all, just some text"));
+		TableSnapshotStore store = new TableSnapshotStore(directory, true, 4);
+
+		// Act & Assert
+		assertTrue(store.find(1L, CLOSED_AT).isEmpty());
+	}
+
+	@Test
+	void save_shouldReplaceAnEarlierSnapshotWithoutLeavingTemporaryFiles() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(directory, true, 4);
+		store.save(1L, CLOSED_AT, bytes("{\"v\":1}"), bytes("[]"), bytes(""));
+		store.find(1L, CLOSED_AT);
+
+		// Act
+		store.save(1L, CLOSED_AT, bytes("{\"v\":2}"), bytes("[]"), bytes(""));
+
+		// Assert
+		assertEquals("{\"v\":2}", text(store.find(1L, CLOSED_AT).orElseThrow().section(TableSnapshot.Section.TABLE)));
+		try (var files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void find_shouldBeEmpty_whenTheTableWasClosedAtAnotherTime() throws Exception {
+		// Arrange, a table of an earlier run of an in-memory database with the same id
+		new TableSnapshotStore(directory, true, 4).save(1L, CLOSED_AT, bytes("{}"), bytes("[]"), bytes(""));
+		TableSnapshotStore store = new TableSnapshotStore(directory, true, 4);
+
+		// Act & Assert
+		assertTrue(store.find(1L, CLOSED_AT.plusDays(1)).isEmpty());
+	}
+
+	@Test
+	void save_shouldDeleteTheSnapshotOfAnEarlierTableWithTheSameId() throws Exception {
+		// Arrange
+		TableSnapshotStore store = new TableSnapshotStore(directory, true, 4);
+		store.save(1L, CLOSED_AT.minusDays(1), bytes("{\"v\":1}"), bytes("[]"), bytes(""));
+		store.save(2L, CLOSED_AT.minusDays(1), bytes("{}"), bytes("[]"), bytes(""));
+
+		// Act
+		store.save(1L, CLOSED_AT, bytes("{\"v\":2}"), bytes("[]"), bytes(""));
+
+		// Assert
+		assertTrue(store.find(1L, CLOSED_AT.minusDays(1)).isEmpty());
+		assertEquals("{\"v\":2}", text(store.find(1L, CLOSED_AT).orElseThrow().section(TableSnapshot.Section.TABLE)));
+		assertTrue(store.find(2L, CLOSED_AT.minusDays(1)).isPresent());
+	}
+
+	@Test
+	void constructor_shouldRequireADirectory_whenSnapshotsAreEnabled() {
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, () -> new TableSnapshotStore(null, true, 4));
+		assertFalse(new TableSnapshotStore(null, false, 4).isEnabled());
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String text(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
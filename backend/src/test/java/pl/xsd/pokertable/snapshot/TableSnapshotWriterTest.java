@@ -0,0 +1,134 @@
+package pl.xsd.pokertable.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TableSnapshotWriterTest {
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private PokerTableService pokerTableService;
+
+	@Mock
+	private TableSnapshotStore tableSnapshotStore;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+	private TableSnapshotWriter writer;
+	private TableClosedEvent event;
+
+	@BeforeEach
+	void setUp() {
+		writer = new TableSnapshotWriter(pokerTableRepository, pokerTableService, tableSnapshotStore, objectMapper);
+		event = new TableClosedEvent(1L, LocalDateTime.now(), Map.of(5L, 8));
+	}
+
+	private void closedTable() {
+		PokerTable table = new PokerTable(1L, "Sprint", true);
+		Developer developer = new Developer("session", "Alice");
+		developer.setId(5L);
+		developer.setVote(8);
+		table.setDevelopers(Set.of(developer));
+		when(tableSnapshotStore.isEnabled()).thenReturn(true);
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(table));
+		when(pokerTableService.exportUserStoriesToCsv(1L)).thenReturn("csv".getBytes());
+	}
+
+	@Test
+	void write_shouldSaveWhatWasRenderedBeforeTheCommit() throws Exception {
+		// Arrange
+		closedTable();
+		writer.render(event);
+
+		// Act
+		writer.write(event);
+
+		// Assert
+		ArgumentCaptor<byte[]> table = ArgumentCaptor.forClass(byte[].class);
+		ArgumentCaptor<byte[]> developers = ArgumentCaptor.forClass(byte[].class);
+		verify(tableSnapshotStore).save(eq(1L), eq(event.closedAt()), table.capture(), developers.capture(), aryEq("csv".getBytes()));
+		assertTrue(new String(table.getValue()).contains("\"name\":\"Sprint\""));
+		assertTrue(new String(table.getValue()).contains("\"isClosed\":true"));
+		assertTrue(new String(developers.getValue()).contains("\"vote\":8"));
+	}
+
+	@Test
+	void write_shouldNotSave_whenTheCloseRolledBack() throws Exception {
+		// Arrange
+		closedTable();
+		writer.render(event);
+
+		// Act
+		writer.discard(event);
+		writer.write(event);
+
+		// Assert
+		verify(tableSnapshotStore, never()).save(anyLong(), any(), any(), any(), any());
+	}
+
+	@Test
+	void write_shouldSwallowIoErrors() throws Exception {
+		// Arrange
+		closedTable();
+		doThrow(new IOException("disk full")).when(tableSnapshotStore).save(anyLong(), any(), any(), any(), any());
+		writer.render(event);
+
+		// Act & Assert
+		assertDoesNotThrow(() -> writer.write(event));
+	}
+
+	@Test
+	void render_shouldDoNothing_whenSnapshotsAreDisabled() throws Exception {
+		// Arrange
+		when(tableSnapshotStore.isEnabled()).thenReturn(false);
+
+		// Act
+		writer.render(event);
+		writer.write(event);
+
+		// Assert
+		verifyNoInteractions(pokerTableRepository, pokerTableService);
+		verify(tableSnapshotStore, never()).save(anyLong(), any(), any(), any(), any());
+	}
+
+	@Test
+	void render_shouldSkipTheSnapshot_whenRenderingFails() throws Exception {
+		// Arrange
+		closedTable();
+		when(pokerTableService.exportUserStoriesToCsv(1L)).thenThrow(new IllegalStateException("boom"));
+
+		// Act
+		assertDoesNotThrow(() -> writer.render(event));
+		writer.write(event);
+
+		// Assert
+		verify(tableSnapshotStore, never()).save(anyLong(), any(), any(), any(), any());
+	}
+}
@@ -0,0 +1,112 @@
+package pl.xsd.pokertable.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteHistogramTest {
+
+	private final VoteHistogram histogram = new VoteHistogram();
+
+	@Test
+	void snapshot_noVotes_isEmpty() {
+		VoteStatistics statistics = histogram.snapshot();
+
+		assertThat(statistics.votes()).isZero();
+		assertThat(statistics.mean()).isNull();
+		assertThat(statistics.median()).isNull();
+		assertThat(statistics.consensus()).isFalse();
+		assertThat(statistics.histogram()).isEmpty();
+	}
+
+	@Test
+	void snapshot_computesAllStatistics() {
+		histogram.change(1L, null, 3);
+		histogram.change(2L, null, 5);
+		histogram.change(3L, null, 5);
+		histogram.change(4L, null, 13);
+
+		VoteStatistics statistics = histogram.snapshot();
+
+		assertThat(statistics.votes()).isEqualTo(4);
+		assertThat(statistics.mean()).isEqualTo(6.5);
+		assertThat(statistics.median()).isEqualTo(5.0);
+		assertThat(statistics.min()).isEqualTo(3);
+		assertThat(statistics.max()).isEqualTo(13);
+		assertThat(statistics.spread()).isEqualTo(10);
+		assertThat(statistics.consensus()).isFalse();
+		assertThat(statistics.histogram()).containsExactly(Map.entry(3, 1), Map.entry(5, 2), Map.entry(13, 1));
+	}
+
+	@Test
+	void snapshot_evenCount_averagesMiddleVotes() {
+		histogram.change(1L, null, 2);
+		histogram.change(2L, null, 8);
+
+		assertThat(histogram.snapshot().median()).isEqualTo(5.0);
+	}
+
+	@Test
+	void change_movesVoteBetweenBuckets() {
+		histogram.seed(Map.of());
+		histogram.change(1L, null, 3);
+		histogram.change(2L, null, 8);
+		histogram.change(1L, 3, 8);
+
+		VoteStatistics statistics = histogram.snapshot();
+		assertThat(statistics.votes()).isEqualTo(2);
+		assertThat(statistics.consensus()).isTrue();
+		assertThat(statistics.spread()).isZero();
+
+		histogram.change(2L, 8, null);
+		assertThat(histogram.snapshot().votes()).isEqualTo(1);
+	}
+
+	@Test
+	void change_previousVoteNotCounted_reportsDriftAndKeepsCountsRight() {
+		histogram.seed(Map.of(1L, 3));
+
+		assertThat(histogram.change(1L, 5, 8)).isFalse();
+
+		assertThat(histogram.snapshot().histogram()).containsExactly(Map.entry(8, 1));
+	}
+
+	@Test
+	void seed_changeArrivedBeforeSeed_isNotCountedTwice() {
+		histogram.change(1L, 3, 5);
+
+		histogram.seed(Map.of(1L, 5, 2L, 8));
+
+		assertThat(histogram.snapshot().votes()).isEqualTo(2);
+		assertThat(histogram.snapshot().histogram()).containsExactly(Map.entry(5, 1), Map.entry(8, 1));
+	}
+
+	@Test
+	void seed_onlyFirstCallCounts() {
+		histogram.seed(Map.of(1L, 5));
+		histogram.seed(Map.of(1L, 5, 2L, 8));
+
+		assertThat(histogram.isSeeded()).isTrue();
+		assertThat(histogram.snapshot().votes()).isEqualTo(1);
+	}
+
+	@Test
+	void seed_roundRestartedBeforeSeed_ignoresOlderVotes() {
+		histogram.clear();
+		histogram.change(2L, null, 3);
+
+		histogram.seed(Map.of(1L, 5, 2L, 3));
+
+		assertThat(histogram.snapshot().histogram()).containsExactly(Map.entry(3, 1));
+	}
+
+	@Test
+	void clear_resetsEverything() {
+		histogram.seed(Map.of(1L, 5, 2L, 5));
+		histogram.clear();
+
+		assertThat(histogram.snapshot().votes()).isZero();
+	}
+}
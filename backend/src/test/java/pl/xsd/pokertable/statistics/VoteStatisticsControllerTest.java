@@ -0,0 +1,38 @@
+package pl.xsd.pokertable.statistics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.TreeMap;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(VoteStatisticsController.class)
+class VoteStatisticsControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private VoteStatisticsService voteStatisticsService;
+
+	@Test
+	void getStatistics_returnsStatistics() throws Exception {
+		TreeMap<Integer, Integer> histogram = new TreeMap<>();
+		histogram.put(5, 2);
+		when(voteStatisticsService.getStatistics(1L))
+				.thenReturn(new VoteStatistics(2, 5.0, 5.0, 5, 5, 0, true, histogram));
+
+		mockMvc.perform(get("/tables/1/stats"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.votes").value(2))
+				.andExpect(jsonPath("$.median").value(5.0))
+				.andExpect(jsonPath("$.consensus").value(true))
+				.andExpect(jsonPath("$.histogram.5").value(2));
+	}
+}
@@ -0,0 +1,120 @@
+package pl.xsd.pokertable.statistics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.xsd.pokertable.archive.TablesArchivedEvent;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.VoteCastEvent;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+import pl.xsd.pokertable.pokertable.RoundStartedEvent;
+import pl.xsd.pokertable.pokertable.TableClosedEvent;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteStatisticsServiceTest {
+
+	@Mock
+	private PokerTableService pokerTableService;
+
+	@InjectMocks
+	private VoteStatisticsService voteStatisticsService;
+
+	private static PokerTable table(Long id, boolean closed, Integer... votes) {
+		PokerTable table = new PokerTable(id, "Planning", closed);
+		table.setDevelopers(new HashSet<>());
+		for (int i = 0; i < votes.length; i++) {
+			Developer developer = new Developer("s" + i, "Dev " + i);
+			developer.setId((long) i + 1);
+			developer.setVote(votes[i]);
+			table.getDevelopers().add(developer);
+		}
+		return table;
+	}
+
+	@Test
+	void getStatistics_seedsOnceThenServesFromMemory() {
+		when(pokerTableService.getTableById(1L)).thenReturn(table(1L, false, 5, 5, 8));
+
+		VoteStatistics first = voteStatisticsService.getStatistics(1L);
+		voteStatisticsService.onVoteCast(new VoteCastEvent(1L, 7L, null, 8));
+		VoteStatistics second = voteStatisticsService.getStatistics(1L);
+
+		assertThat(first.votes()).isEqualTo(3);
+		assertThat(second.votes()).isEqualTo(4);
+		assertThat(second.median()).isEqualTo(6.5);
+		verify(pokerTableService, times(1)).getTableById(1L);
+	}
+
+	@Test
+	void getStatistics_unknownTable_throwsNotFoundAndKeepsNothing() {
+		when(pokerTableService.getTableById(9L)).thenThrow(new NotFoundException("Poker table not found with ID: 9"));
+
+		assertThrows(NotFoundException.class, () -> voteStatisticsService.getStatistics(9L));
+		assertThrows(NotFoundException.class, () -> voteStatisticsService.getStatistics(9L));
+
+		verify(pokerTableService, times(2)).getTableById(9L);
+	}
+
+	@Test
+	void getStatistics_closedTable_isReadEveryTime() {
+		when(pokerTableService.getTableById(1L)).thenReturn(table(1L, true, 3, 3));
+
+		assertThat(voteStatisticsService.getStatistics(1L).votes()).isEqualTo(2);
+		assertThat(voteStatisticsService.getStatistics(1L).votes()).isEqualTo(2);
+
+		verify(pokerTableService, times(2)).getTableById(1L);
+	}
+
+	@Test
+	void onVoteCast_unseededTable_isIgnored() {
+		voteStatisticsService.onVoteCast(new VoteCastEvent(2L, 7L, null, 8));
+		voteStatisticsService.onRoundStarted(new RoundStartedEvent(2L, 2));
+
+		verifyNoInteractions(pokerTableService);
+	}
+
+	@Test
+	void onRoundStarted_clearsHistogram() {
+		when(pokerTableService.getTableById(1L)).thenReturn(table(1L, false, 3, 3, 3, 3));
+		voteStatisticsService.getStatistics(1L);
+
+		voteStatisticsService.onRoundStarted(new RoundStartedEvent(1L, 2));
+
+		assertThat(voteStatisticsService.getStatistics(1L).votes()).isZero();
+	}
+
+	@Test
+	void onTableClosed_evictsHistogram() {
+		when(pokerTableService.getTableById(1L)).thenReturn(table(1L, false, 3), table(1L, true, 3));
+		voteStatisticsService.getStatistics(1L);
+
+		voteStatisticsService.onTableClosed(new TableClosedEvent(1L, LocalDateTime.now(), Map.of(1L, 3)));
+		voteStatisticsService.getStatistics(1L);
+
+		verify(pokerTableService, times(2)).getTableById(1L);
+	}
+
+	@Test
+	void onTablesArchived_evictsHistograms() {
+		when(pokerTableService.getTableById(1L)).thenReturn(table(1L, false, 3));
+		voteStatisticsService.getStatistics(1L);
+
+		voteStatisticsService.onTablesArchived(new TablesArchivedEvent(List.of(1L, 2L), List.of()));
+		voteStatisticsService.getStatistics(1L);
+
+		verify(pokerTableService, times(2)).getTableById(1L);
+	}
+}
@@ -0,0 +1,91 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedTextConverterTest {
+
+	private final CompressedTextConverter converter = new CompressedTextConverter(100);
+
+	@Test
+	void longText_isCompressedAndRestored() {
+		String text = "As a moderator I want to export the estimated stories of a table. ".repeat(50);
+
+		String stored = converter.convertToDatabaseColumn(text);
+
+		assertThat(stored).startsWith(CompressedTextConverter.PREFIX);
+		assertThat(stored.length()).isLessThan(text.length() / 4);
+		assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(text);
+	}
+
+	@Test
+	void nonAsciiText_survivesRoundTrip() {
+		String text = "Zażółć gęślą jaźń, a potem oszacuj historyjkę. ".repeat(10);
+
+		assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(text))).isEqualTo(text);
+	}
+
+	@Test
+	void shortOrNullText_isStoredAsIs() {
+		assertThat(converter.convertToDatabaseColumn("Short description")).isEqualTo("Short description");
+		assertThat(converter.convertToDatabaseColumn(null)).isNull();
+		assertThat(converter.convertToEntityAttribute(null)).isNull();
+	}
+
+	@Test
+	void textThatDoesNotShrink_isStoredAsIs() {
+		StringBuilder random = new StringBuilder();
+		Random generator = new Random(1);
+		for (int i = 0; i < 200; i++) {
+			random.append((char) ('!' + generator.nextInt(90)));
+		}
+
+		assertThat(converter.convertToDatabaseColumn(random.toString())).isEqualTo(random.toString());
+	}
+
+	@Test
+	void uncompressedValue_isReadAsIs() {
+		String legacy = "Stored before compression was enabled. ".repeat(10);
+
+		assertThat(converter.convertToEntityAttribute(legacy)).isEqualTo(legacy);
+	}
+
+	@Test
+	void negativeThreshold_disablesCompression() {
+		String text = "x".repeat(10_000);
+
+		assertThat(new CompressedTextConverter(-1).convertToDatabaseColumn(text)).isEqualTo(text);
+	}
+
+	@Test
+	void truncatedValue_throws() {
+		String stored = converter.convertToDatabaseColumn("As a moderator I want to export stories. ".repeat(50));
+
+		assertThatThrownBy(() -> converter.convertToEntityAttribute(stored.substring(0, stored.length() / 2)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	@Timeout(5)
+	void valueNeedingADictionary_throwsInsteadOfSpinning() {
+		Deflater deflater = new Deflater();
+		deflater.setDictionary("estimate".getBytes(StandardCharsets.UTF_8));
+		deflater.setInput("estimate the stories".getBytes(StandardCharsets.UTF_8));
+		deflater.finish();
+		byte[] buffer = new byte[256];
+		int length = deflater.deflate(buffer);
+		deflater.end();
+		String stored = CompressedTextConverter.PREFIX + Base64.getEncoder().encodeToString(Arrays.copyOf(buffer, length));
+
+		assertThatThrownBy(() -> converter.convertToEntityAttribute(stored)).isInstanceOf(IllegalStateException.class);
+	}
+}
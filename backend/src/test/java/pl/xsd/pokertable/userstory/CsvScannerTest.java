@@ -0,0 +1,113 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvScannerTest {
+
+	@Test
+	void next_shouldSplitFieldsAndRecords() {
+		// Arrange
+		CsvScanner scanner = scanner("Summary,Story point estimate\nLogin,5\r\nLogout,\n");
+
+		// Act & Assert
+		assertTrue(scanner.next());
+		assertEquals("Summary", scanner.field(0));
+		assertEquals("Story point estimate", scanner.field(1));
+		assertTrue(scanner.next());
+		assertEquals("Login", scanner.field(0));
+		assertEquals(5, scanner.integer(1));
+		assertTrue(scanner.next());
+		assertEquals(3, scanner.row());
+		assertEquals(2, scanner.fieldCount());
+		assertNull(scanner.integer(1));
+		assertFalse(scanner.next());
+	}
+
+	@Test
+	void field_shouldUnquoteFieldsHoldingSeparatorsAndQuotes() {
+		// Arrange
+		CsvScanner scanner = scanner("\"Sign \"\"in\"\", out\",\"Line 1\r\nLine 2\",\"\"");
+
+		// Act
+		assertTrue(scanner.next());
+
+		// Assert
+		assertEquals("Sign \"in\", out", scanner.field(0));
+		assertEquals("Line 1\r\nLine 2", scanner.field(1));
+		assertEquals("", scanner.field(2));
+		assertFalse(scanner.next());
+	}
+
+	@Test
+	void field_shouldDecodeUtf8AndSkipTheByteOrderMark() {
+		// Arrange
+		CsvScanner scanner = scanner("\uFEFFZażółć,gęślą\n");
+
+		// Act
+		assertTrue(scanner.next());
+
+		// Assert
+		assertEquals("Zażółć", scanner.field(0));
+		assertEquals("gęślą", scanner.field(1));
+	}
+
+	@Test
+	void next_shouldEndATrailingCommaWithAnEmptyField() {
+		// Arrange
+		CsvScanner scanner = scanner("Login,");
+
+		// Act
+		assertTrue(scanner.next());
+
+		// Assert
+		assertEquals(2, scanner.fieldCount());
+		assertTrue(scanner.isBlank(1));
+		assertTrue(scanner.isBlank(5));
+		assertEquals("", scanner.field(5));
+	}
+
+	@Test
+	void next_shouldThrow_whenAQuotedFieldIsNotClosed() {
+		// Arrange
+		CsvScanner scanner = scanner("Summary\n\"Login\n");
+		scanner.next();
+
+		// Act & Assert
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, scanner::next);
+		assertTrue(exception.getMessage().startsWith("Row 2:"));
+	}
+
+	@Test
+	void next_shouldThrow_whenTextFollowsAQuotedField() {
+		// Arrange
+		CsvScanner scanner = scanner("\"Login\"x,5\n");
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, scanner::next);
+	}
+
+	@Test
+	void integer_shouldAcceptWholeNumbersWrittenAsDecimals() {
+		// Arrange
+		CsvScanner scanner = scanner("5.0,13.,8.5,abc,12345678901");
+
+		// Act
+		scanner.next();
+
+		// Assert
+		assertEquals(5, scanner.integer(0));
+		assertEquals(13, scanner.integer(1));
+		assertThrows(IllegalArgumentException.class, () -> scanner.integer(2));
+		assertThrows(IllegalArgumentException.class, () -> scanner.integer(3));
+		assertThrows(IllegalArgumentException.class, () -> scanner.integer(4));
+	}
+
+	private static CsvScanner scanner(String csv) {
+		return new CsvScanner(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)));
+	}
+}
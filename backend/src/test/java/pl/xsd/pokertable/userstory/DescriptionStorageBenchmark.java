@@ -0,0 +1,89 @@
+package pl.xsd.pokertable.userstory;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.xsd.pokertable.PokertableApplication;
+import pl.xsd.pokertable.pokertable.PokerTableService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 1000 story backlog with 10 KB descriptions on H2, listed one 500 story page at a time either as full stories or
+ * as summaries, with description compression off (-1) and on. Run with the gc profiler (the benchmark profile
+ * default) to compare the bytes allocated per page; the bytes stored for the descriptions are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DescriptionStorageBenchmark {
+
+	private static final int STORIES = 1000;
+	private static final int DESCRIPTION_LENGTH = 10_000;
+	private static final int PAGE = 500;
+	private static final String[] WORDS = ("as a user moderator developer i want to be able see estimate vote round table story " +
+			"points export import backlog when the so that can without with after before every all new old list page " +
+			"login password session close reveal timer history search similar duplicate description title").split(" ");
+
+	@Param({"-1", "4096"})
+	public int compressionThreshold;
+
+	private ConfigurableApplicationContext context;
+	private UserStoryService userStoryService;
+	private Long tableId;
+
+	@Setup
+	public void setUp() {
+		// Arguments, unlike builder properties, take precedence over application.properties
+		context = new SpringApplicationBuilder(PokertableApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:description-benchmark",
+				"--spring.jpa.show-sql=false",
+				"--spring.main.banner-mode=off",
+				"--logging.level.root=warn",
+				"--pokertable.stories.compression-threshold=" + compressionThreshold);
+		userStoryService = context.getBean(UserStoryService.class);
+		tableId = context.getBean(PokerTableService.class).createPokerTable("Benchmark").getId();
+
+		Random random = new Random(42);
+		List<UserStory> stories = new ArrayList<>();
+		for (int i = 0; i < STORIES; i++) {
+			stories.add(new UserStory("Story " + i, text(random)));
+		}
+		userStoryService.createUserStories(tableId, stories);
+
+		Long stored = context.getBean(JdbcTemplate.class)
+				.queryForObject("select sum(octet_length(description)) from user_story", Long.class);
+		System.out.printf("%nDescriptions: %d bytes of text, %d bytes stored%n", (long) STORIES * DESCRIPTION_LENGTH, stored);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public KeysetPage<UserStory> fullPage() {
+		return userStoryService.getUserStoriesPage(tableId, null, PAGE);
+	}
+
+	@Benchmark
+	public KeysetPage<UserStorySummary> summaryPage() {
+		return userStoryService.getUserStorySummariesPage(tableId, null, PAGE);
+	}
+
+	private static String text(Random random) {
+		StringBuilder text = new StringBuilder(DESCRIPTION_LENGTH + 16);
+		while (text.length() < DESCRIPTION_LENGTH) {
+			text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+		}
+		return text.substring(0, DESCRIPTION_LENGTH);
+	}
+}
@@ -0,0 +1,110 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankKeysTest {
+
+	@Test
+	void between_shouldReturnKeyStrictlyBetweenBounds() {
+		assertBetween("a", "b", RankKeys.between("a", "b"));
+		assertBetween("a", "a1", RankKeys.between("a", "a1"));
+		assertBetween("az", "b", RankKeys.between("az", "b"));
+		assertBetween("", "01", RankKeys.between(null, "01"));
+		assertBetween("zz", null, RankKeys.between("zz", null));
+	}
+
+	@Test
+	void between_shouldRejectBoundsOutOfOrder() {
+		assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "a"));
+		assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "b"));
+	}
+
+	@Test
+	void between_shouldKeepOrderOfRandomInsertions() {
+		// Arrange
+		Random random = new Random(42);
+		List<String> keys = new ArrayList<>(List.of(RankKeys.after(null)));
+
+		// Act
+		for (int i = 0; i < 2000; i++) {
+			int position = random.nextInt(keys.size() + 1);
+			String lower = position == 0 ? null : keys.get(position - 1);
+			String upper = position == keys.size() ? null : keys.get(position);
+			keys.add(position, RankKeys.between(lower, upper));
+		}
+
+		// Assert
+		for (int i = 1; i < keys.size(); i++) {
+			assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " !< " + keys.get(i));
+			assertFalse(keys.get(i).endsWith("0"));
+		}
+	}
+
+	@Test
+	void between_shouldGrowAboutOneCharacterPerFiveMovesIntoTheSameGap() {
+		// Arrange
+		String lower = "a";
+		String upper = "b";
+
+		// Act
+		for (int i = 0; i < 50; i++) {
+			upper = RankKeys.between(lower, upper);
+		}
+
+		// Assert
+		assertTrue(upper.length() <= 12, upper);
+	}
+
+	@Test
+	void after_shouldStayShortWhenAppending() {
+		// Arrange
+		String key = null;
+
+		// Act
+		for (int i = 0; i < 100; i++) {
+			String next = RankKeys.after(key);
+			assertTrue(key == null || key.compareTo(next) < 0);
+			key = next;
+		}
+
+		// Assert
+		assertTrue(key.length() <= 6, key);
+	}
+
+	@Test
+	void evenlySpaced_shouldReturnAscendingKeysOfEqualShortLength() {
+		// Act
+		List<String> keys = RankKeys.evenlySpaced(5000);
+
+		// Assert
+		assertEquals(5000, keys.size());
+		for (int i = 1; i < keys.size(); i++) {
+			assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0);
+			assertTrue(keys.get(i).length() <= 3);
+		}
+		assertNotNull(RankKeys.between(keys.get(0), keys.get(1)));
+	}
+
+	@Test
+	void evenlySpaced_withIndex_shouldReturnTheSameKeyAsTheList() {
+		// Act
+		List<String> keys = RankKeys.evenlySpaced(300);
+
+		// Assert
+		assertEquals(keys.get(0), RankKeys.evenlySpaced(0, 300));
+		assertEquals(keys.get(150), RankKeys.evenlySpaced(150, 300));
+		assertEquals(keys.get(299), RankKeys.evenlySpaced(299, 300));
+	}
+
+	private static void assertBetween(String lower, String upper, String key) {
+		assertTrue(lower.compareTo(key) < 0, key + " is not after " + lower);
+		assertTrue(upper == null || key.compareTo(upper) < 0, key + " is not before " + upper);
+		assertFalse(key.endsWith("0"));
+	}
+}
@@ -0,0 +1,49 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankRebalancerTest {
+
+	@Mock
+	private UserStoryService userStoryService;
+
+	@InjectMocks
+	private RankRebalancer rankRebalancer;
+
+	@Test
+	void rebalancePending_shouldRebalanceEachRequestedTableOnce() {
+		// Arrange
+		rankRebalancer.onRankRebalance(new RankRebalanceEvent(1L));
+		rankRebalancer.onRankRebalance(new RankRebalanceEvent(1L));
+		rankRebalancer.onRankRebalance(new RankRebalanceEvent(2L));
+
+		// Act
+		rankRebalancer.rebalancePending();
+		rankRebalancer.rebalancePending();
+
+		// Assert
+		verify(userStoryService, times(1)).rebalanceRanks(1L);
+		verify(userStoryService, times(1)).rebalanceRanks(2L);
+	}
+
+	@Test
+	void rebalancePending_shouldCarryOn_whenOneTableFails() {
+		// Arrange
+		doThrow(new IllegalStateException("boom")).when(userStoryService).rebalanceRanks(1L);
+		rankRebalancer.onRankRebalance(new RankRebalanceEvent(1L));
+		rankRebalancer.onRankRebalance(new RankRebalanceEvent(2L));
+
+		// Act
+		rankRebalancer.rebalancePending();
+
+		// Assert
+		verify(userStoryService).rebalanceRanks(2L);
+	}
+}
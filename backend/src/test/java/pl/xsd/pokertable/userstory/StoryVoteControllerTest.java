@@ -0,0 +1,73 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.xsd.pokertable.developer.Developer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StoryVoteController.class)
+class StoryVoteControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private StoryVoteService storyVoteService;
+
+	@Test
+	void vote_returnsVote() throws Exception {
+		when(storyVoteService.vote(10L, 5L, 8)).thenReturn(new StoryVote(10L, 5L, 8));
+
+		mockMvc.perform(put("/user-stories/10/votes").param("developerId", "5").param("vote", "8"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id.storyId").value(10))
+				.andExpect(jsonPath("$.id.developerId").value(5))
+				.andExpect(jsonPath("$.vote").value(8));
+	}
+
+	@Test
+	void vote_invalid_returns400() throws Exception {
+		when(storyVoteService.vote(anyLong(), anyLong(), anyInt())).thenThrow(new IllegalArgumentException("Vote must be between 1 and 13"));
+
+		mockMvc.perform(put("/user-stories/10/votes").param("developerId", "5").param("vote", "20"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getDevelopersWithoutVote_returnsDevelopers() throws Exception {
+		Developer developer = new Developer("session", "Ann");
+		developer.setId(5L);
+		when(storyVoteService.getDevelopersWithoutVote(10L)).thenReturn(List.of(developer));
+
+		mockMvc.perform(get("/user-stories/10/votes/missing"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name").value("Ann"));
+	}
+
+	@Test
+	void closeEstimates_returnsEstimatePerStory() throws Exception {
+		Map<Long, Integer> estimates = new LinkedHashMap<>();
+		estimates.put(10L, 5);
+		estimates.put(11L, 8);
+		when(storyVoteService.closeEstimates(1L, List.of(10L, 11L))).thenReturn(estimates);
+
+		mockMvc.perform(post("/user-stories/table/1/estimates/close").param("storyIds", "10", "11"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.10").value(5))
+				.andExpect(jsonPath("$.11").value(8));
+	}
+}
@@ -0,0 +1,191 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.xsd.pokertable.developer.Developer;
+import pl.xsd.pokertable.developer.DeveloperRepository;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.RoundClosedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoryVoteServiceTest {
+
+	@Mock
+	private StoryVoteRepository storyVoteRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private DeveloperRepository developerRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	private StoryVoteService storyVoteService;
+
+	private PokerTable pokerTable;
+
+	@BeforeEach
+	void setUp() {
+		pokerTable = new PokerTable(1L, "Planning");
+	}
+
+	private UserStory story(Long id, PokerTable table) {
+		UserStory story = new UserStory("Story " + id, null);
+		story.setId(id);
+		story.setPokerTable(table);
+		return story;
+	}
+
+	@Test
+	void vote_developerAtSameTable_savesVote() {
+		// Arrange
+		Developer developer = new Developer();
+		developer.setId(5L);
+		developer.setPokerTable(pokerTable);
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(story(10L, pokerTable)));
+		when(developerRepository.findById(5L)).thenReturn(Optional.of(developer));
+		when(storyVoteRepository.save(any(StoryVote.class))).thenAnswer(inv -> inv.getArgument(0));
+
+		// Act
+		StoryVote result = storyVoteService.vote(10L, 5L, 8);
+
+		// Assert
+		assertThat(result.getId()).isEqualTo(new StoryVoteId(10L, 5L));
+		assertThat(result.getVote()).isEqualTo(8);
+	}
+
+	@Test
+	void vote_developerAtOtherTable_throwsException() {
+		Developer developer = new Developer();
+		developer.setId(5L);
+		developer.setPokerTable(new PokerTable(2L, "Other"));
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(story(10L, pokerTable)));
+		when(developerRepository.findById(5L)).thenReturn(Optional.of(developer));
+
+		assertThrows(IllegalArgumentException.class, () -> storyVoteService.vote(10L, 5L, 8));
+		verify(storyVoteRepository, never()).save(any());
+	}
+
+	@Test
+	void vote_closedTable_throwsException() {
+		pokerTable.setIsClosed(true);
+		Developer developer = new Developer();
+		developer.setId(5L);
+		developer.setPokerTable(pokerTable);
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(story(10L, pokerTable)));
+		when(developerRepository.findById(5L)).thenReturn(Optional.of(developer));
+
+		assertThrows(TableClosedException.class, () -> storyVoteService.vote(10L, 5L, 8));
+		verify(storyVoteRepository, never()).save(any());
+	}
+
+	@Test
+	void vote_outOfRange_throwsException() {
+		assertThrows(IllegalArgumentException.class, () -> storyVoteService.vote(10L, 5L, 14));
+		verifyNoInteractions(userStoryRepository, developerRepository, storyVoteRepository);
+	}
+
+	@Test
+	void getDevelopersWithoutVote_queriesStoryTable() {
+		Developer developer = new Developer();
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(story(10L, pokerTable)));
+		when(storyVoteRepository.findDevelopersWithoutVote(1L, 10L)).thenReturn(List.of(developer));
+
+		assertThat(storyVoteService.getDevelopersWithoutVote(10L)).containsExactly(developer);
+	}
+
+	@Test
+	void closeEstimates_writesConsensusInOneBatchAndRecordsHistory() {
+		// Arrange
+		UserStory first = story(10L, pokerTable);
+		UserStory second = story(11L, pokerTable);
+		UserStory unvoted = story(12L, pokerTable);
+		when(userStoryRepository.findAllById(List.of(10L, 11L, 12L))).thenReturn(List.of(first, second, unvoted));
+		List<StoryVote> votes = List.of(new StoryVote(10L, 5L, 3), new StoryVote(10L, 6L, 5), new StoryVote(10L, 7L, 5),
+				new StoryVote(11L, 5L, 8));
+		when(storyVoteRepository.lockByStoryIds(List.of(10L, 11L, 12L))).thenReturn(votes);
+
+		// Act
+		Map<Long, Integer> result = storyVoteService.closeEstimates(1L, List.of(10L, 11L, 12L));
+
+		// Assert
+		assertThat(result).containsExactly(Map.entry(10L, 5), Map.entry(11L, 8));
+		assertThat(first.getEstimatedPoints()).isEqualTo(5);
+		assertThat(second.getEstimatedPoints()).isEqualTo(8);
+		assertThat(unvoted.getEstimatedPoints()).isNull();
+
+		// Verify
+		verify(userStoryRepository).saveAll(List.of(first, second));
+		verify(storyVoteRepository).deleteAll(votes);
+		verify(storyVoteRepository, never()).deleteByStoryIds(any());
+		verify(eventPublisher).publishEvent(new RoundClosedEvent(1L, 10L, 1, Map.of(5L, 3, 6L, 5, 7L, 5)));
+		verify(eventPublisher).publishEvent(new RoundClosedEvent(1L, 11L, 1, Map.of(5L, 8)));
+	}
+
+	@Test
+	void closeEstimates_publishesNewEstimateForIndexes() {
+		// Arrange
+		UserStory story = story(10L, pokerTable);
+		StoryDocument before = StoryDocument.of(story);
+		when(userStoryRepository.findAllById(List.of(10L))).thenReturn(List.of(story));
+		when(storyVoteRepository.lockByStoryIds(List.of(10L))).thenReturn(List.of(new StoryVote(10L, 5L, 8)));
+
+		// Act
+		storyVoteService.closeEstimates(1L, List.of(10L));
+
+		// Verify
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(before,
+				new StoryDocument(10L, "Story 10", null, 8, 1L)));
+	}
+
+	@Test
+	void closeEstimates_storyOfOtherTable_throwsException() {
+		when(userStoryRepository.findAllById(List.of(10L))).thenReturn(List.of(story(10L, new PokerTable(2L, "Other"))));
+
+		assertThrows(IllegalArgumentException.class, () -> storyVoteService.closeEstimates(1L, List.of(10L)));
+		verify(userStoryRepository, never()).saveAll(any());
+	}
+
+	@Test
+	void closeEstimates_closedTable_throwsException() {
+		pokerTable.setIsClosed(true);
+		when(userStoryRepository.findAllById(List.of(10L))).thenReturn(List.of(story(10L, pokerTable)));
+
+		assertThrows(TableClosedException.class, () -> storyVoteService.closeEstimates(1L, List.of(10L)));
+		verify(storyVoteRepository, never()).lockByStoryIds(any());
+		verify(userStoryRepository, never()).saveAll(any());
+	}
+
+	@Test
+	void closeEstimates_missingStory_throwsException() {
+		when(userStoryRepository.findAllById(List.of(10L, 99L))).thenReturn(List.of(story(10L, pokerTable)));
+
+		assertThrows(NotFoundException.class, () -> storyVoteService.closeEstimates(1L, List.of(10L, 99L)));
+	}
+
+	@Test
+	void consensus_isUpperMedian() {
+		assertThat(StoryVoteService.consensus(List.of(1, 3, 13))).isEqualTo(3);
+		assertThat(StoryVoteService.consensus(List.of(5, 3))).isEqualTo(5);
+		assertThat(StoryVoteService.consensus(List.of(8))).isEqualTo(8);
+	}
+}
@@ -0,0 +1,167 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStoryBulkWriterTest {
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private StoryVoteRepository storyVoteRepository;
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	private UserStoryBulkWriter userStoryBulkWriter;
+
+	private PokerTable pokerTable;
+	private UserStory userStory;
+
+	@BeforeEach
+	void setUp() {
+		pokerTable = new PokerTable();
+		pokerTable.setId(1L);
+
+		userStory = new UserStory(10L, "Story", "...", 3, pokerTable);
+		userStory.setRank("i");
+	}
+
+	@Test
+	void update_shouldUpdateFoundStoriesWithOneStatementAndReportMissingOnes() {
+		// Arrange
+		when(userStoryRepository.findByIdInOrderById(List.of(11L, 10L))).thenReturn(List.of(userStory));
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.update(List.of(11L, 10L), new BulkUserStoryUpdate(List.of(11L, 10L), null, 8));
+
+		// Assert
+		assertEquals(List.of(11L, 10L), List.copyOf(outcomes.keySet()));
+		assertEquals(BulkOutcome.NOT_FOUND, outcomes.get(11L));
+		assertEquals(BulkOutcome.UPDATED, outcomes.get(10L));
+		verify(userStoryRepository).updateEstimatedPoints(Set.of(10L), 8);
+		verify(userStoryRepository, never()).moveToTable(anyCollection(), any(), anyString());
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(StoryDocument.of(userStory),
+				new StoryDocument(10L, "Story", "...", 8, 1L)));
+	}
+
+	@Test
+	void update_shouldAppendMovedStoriesToTheBacklogOfTheTargetTable() {
+		// Arrange
+		PokerTable target = new PokerTable();
+		target.setId(2L);
+		UserStory alreadyThere = new UserStory(11L, "There", "...", null, target);
+		alreadyThere.setRank("a");
+		when(userStoryRepository.findByIdInOrderById(List.of(10L, 11L))).thenReturn(List.of(userStory, alreadyThere));
+		when(userStoryRepository.findLastRankByPokerTableId(2L)).thenReturn("k");
+		when(pokerTableRepository.getReferenceById(2L)).thenReturn(target);
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.update(List.of(10L, 11L), new BulkUserStoryUpdate(List.of(10L, 11L), 2L, null));
+
+		// Assert
+		assertEquals(BulkOutcome.UPDATED, outcomes.get(11L));
+		verify(userStoryRepository).moveToTable(List.of(10L), target, "l");
+		verify(userStoryRepository, never()).updateEstimatedPoints(anyCollection(), any());
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(StoryDocument.of(userStory),
+				new StoryDocument(10L, "Story", "...", 3, 2L)));
+	}
+
+	@Test
+	void update_shouldRequestRebalance_whenMovedRanksGetTooLong() {
+		// Arrange
+		PokerTable target = new PokerTable();
+		target.setId(2L);
+		userStory.setRank("i".repeat(RankKeys.REBALANCE_LENGTH));
+		when(userStoryRepository.findByIdInOrderById(List.of(10L))).thenReturn(List.of(userStory));
+		when(pokerTableRepository.getReferenceById(2L)).thenReturn(target);
+
+		// Act
+		userStoryBulkWriter.update(List.of(10L), new BulkUserStoryUpdate(List.of(10L), 2L, null));
+
+		// Assert
+		verify(eventPublisher).publishEvent(new RankRebalanceEvent(2L));
+	}
+
+	@Test
+	void delete_shouldDeleteFoundStoriesAndTheirVotes() {
+		// Arrange
+		when(userStoryRepository.findByIdInOrderById(List.of(10L, 11L))).thenReturn(List.of(userStory));
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.delete(List.of(10L, 11L));
+
+		// Assert
+		assertEquals(BulkOutcome.DELETED, outcomes.get(10L));
+		assertEquals(BulkOutcome.NOT_FOUND, outcomes.get(11L));
+		verify(storyVoteRepository).deleteByStoryIds(Set.of(10L));
+		verify(userStoryRepository).deleteByIds(Set.of(10L));
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(StoryDocument.of(userStory), null));
+	}
+
+	@Test
+	void update_shouldLeaveStoriesOfClosedTablesAndApplyTheRest() {
+		// Arrange
+		UserStory closedStory = new UserStory(11L, "Closed", "...", 2, new PokerTable(2L, "Closed", true));
+		when(userStoryRepository.findByIdInOrderById(List.of(10L, 11L))).thenReturn(List.of(userStory, closedStory));
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.update(List.of(10L, 11L), new BulkUserStoryUpdate(List.of(10L, 11L), null, 8));
+
+		// Assert
+		assertEquals(BulkOutcome.UPDATED, outcomes.get(10L));
+		assertEquals(BulkOutcome.TABLE_CLOSED, outcomes.get(11L));
+		verify(userStoryRepository).updateEstimatedPoints(Set.of(10L), 8);
+		verify(eventPublisher, times(1)).publishEvent(any(UserStoryChangedEvent.class));
+	}
+
+	@Test
+	void delete_shouldLeaveStoriesOfClosedTables() {
+		// Arrange
+		pokerTable.setIsClosed(true);
+		when(userStoryRepository.findByIdInOrderById(List.of(10L, 11L))).thenReturn(List.of(userStory));
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.delete(List.of(10L, 11L));
+
+		// Assert
+		assertEquals(BulkOutcome.TABLE_CLOSED, outcomes.get(10L));
+		assertEquals(BulkOutcome.NOT_FOUND, outcomes.get(11L));
+		verify(userStoryRepository, never()).deleteByIds(anyCollection());
+		verifyNoInteractions(storyVoteRepository, eventPublisher);
+	}
+
+	@Test
+	void delete_shouldNotRunStatements_whenNoStoryExists() {
+		// Arrange
+		when(userStoryRepository.findByIdInOrderById(List.of(10L))).thenReturn(List.of());
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryBulkWriter.delete(List.of(10L));
+
+		// Assert
+		assertEquals(Map.of(10L, BulkOutcome.NOT_FOUND), outcomes);
+		verify(userStoryRepository, never()).deleteByIds(anyCollection());
+		verifyNoInteractions(storyVoteRepository, eventPublisher);
+	}
+}
@@ -10,12 +10,20 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.xsd.pokertable.exception.NotFoundException;
 import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.search.EstimateSuggestion;
+import pl.xsd.pokertable.search.SimilarStory;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -251,4 +259,197 @@ class UserStoryControllerTest {
 		verify(userStoryService).deleteUserStory(nonExistentStoryId);
 	}
 
-}
\ No newline at end of file
+	@Test
+	void searchUserStories_shouldReturnMatchingStories() throws Exception {
+		// Arrange
+		when(userStoryService.searchUserStories("user", 5)).thenReturn(List.of(userStory));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/search").param("q", "user").param("limit", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(10)));
+	}
+
+	@Test
+	void searchUserStories_shouldReturnBadRequest_whenQueryIsBlank() throws Exception {
+		// Arrange
+		when(userStoryService.searchUserStories(" ", 20))
+				.thenThrow(new IllegalArgumentException("Search query must not be blank"));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/search").param("q", " "))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void suggestEstimate_shouldReturnSuggestionWithSimilarStories() throws Exception {
+		// Arrange
+		when(userStoryService.suggestEstimate(10L, 5))
+				.thenReturn(new EstimateSuggestion(8, List.of(new SimilarStory(3L, 8, 0.75))));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/{storyId}/similar", 10L))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.suggestedPoints", is(8)))
+				.andExpect(jsonPath("$.similarStories[0].storyId", is(3)))
+				.andExpect(jsonPath("$.similarStories[0].similarity", is(0.75)));
+	}
+
+	@Test
+	void createUserStories_shouldReturnCreatedStoriesWithDuplicates() throws Exception {
+		// Arrange
+		UserStory duplicate = new UserStory(11L, "As a user, I want...", "...", null, pokerTable);
+		duplicate.setDuplicateCandidates(List.of(new SimilarStory(10L, 5, 0.9)));
+		when(userStoryService.createUserStories(eq(1L), anyList())).thenReturn(List.of(userStory, duplicate));
+
+		// Act & Assert
+		mockMvc.perform(post("/user-stories/batch").param("pokerTableId", "1")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(List.of(userStory, duplicate))))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].duplicateCandidates").doesNotExist())
+				.andExpect(jsonPath("$[1].duplicateCandidates[0].storyId", is(10)));
+	}
+
+	@Test
+	void getDuplicateClusters_shouldReturnClusters() throws Exception {
+		// Arrange
+		when(userStoryService.getDuplicateClusters(1L)).thenReturn(List.of(List.of(10L, 11L)));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/table/{tableId}/duplicates", 1L))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0]", contains(10, 11)));
+	}
+
+	@Test
+	void getUserStoriesForTable_withLimit_shouldReturnPageAndNextCursor() throws Exception {
+		// Arrange
+		when(userStoryService.getUserStoriesPage(1L, 5L, 1)).thenReturn(new KeysetPage<>(List.of(userStory), 10L));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/table/{tableId}", 1L).param("after", "5").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-Next-Cursor", "10"))
+				.andExpect(jsonPath("$[0].id", is(10)))
+				.andExpect(jsonPath("$[0].description", is("...")));
+
+		verify(userStoryService, never()).getUserStoriesForTable(anyLong());
+	}
+
+	@Test
+	void getUserStoriesForTable_withSummaryFields_shouldOmitDescriptionOnLastPage() throws Exception {
+		// Arrange
+		when(userStoryService.getUserStorySummariesPage(1L, null, UserStoryService.DEFAULT_PAGE_SIZE))
+				.thenReturn(new KeysetPage<>(List.of(new UserStorySummary(10L, "As a user, I want...", 5)), null));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/table/{tableId}", 1L).param("fields", "summary"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("X-Next-Cursor"))
+				.andExpect(jsonPath("$[0].title", is("As a user, I want...")))
+				.andExpect(jsonPath("$[0].description").doesNotExist());
+	}
+
+	@Test
+	void getUserStoriesForTable_withUnknownFields_shouldReturnBadRequest() throws Exception {
+		mockMvc.perform(get("/user-stories/table/{tableId}", 1L).param("fields", "everything"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getNextStoryToEstimate_shouldReturnStory_whenOneIsLeft() throws Exception {
+		// Arrange
+		userStory.setEstimatedPoints(null);
+		userStory.setRank("i");
+		when(userStoryService.getNextStoryToEstimate(1L)).thenReturn(Optional.of(userStory));
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/table/{tableId}/next", 1L))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id", is(10)))
+				.andExpect(jsonPath("$.rank", is("i")));
+	}
+
+	@Test
+	void getNextStoryToEstimate_shouldReturnNoContent_whenEveryStoryIsEstimated() throws Exception {
+		// Arrange
+		when(userStoryService.getNextStoryToEstimate(1L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		mockMvc.perform(get("/user-stories/table/{tableId}/next", 1L))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void moveUserStory_shouldReturnMovedStory() throws Exception {
+		// Arrange
+		userStory.setRank("im");
+		when(userStoryService.moveUserStory(10L, 11L)).thenReturn(userStory);
+
+		// Act & Assert
+		mockMvc.perform(patch("/user-stories/{storyId}/move", 10L).param("after", "11"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rank", is("im")));
+	}
+
+	@Test
+	void moveUserStory_withoutAfter_shouldMoveToTop() throws Exception {
+		// Arrange
+		when(userStoryService.moveUserStory(10L, null)).thenReturn(userStory);
+
+		// Act & Assert
+		mockMvc.perform(patch("/user-stories/{storyId}/move", 10L))
+				.andExpect(status().isOk());
+
+		verify(userStoryService).moveUserStory(10L, null);
+	}
+
+	@Test
+	void updateUserStories_shouldReturnOutcomePerId() throws Exception {
+		// Arrange
+		BulkUserStoryUpdate update = new BulkUserStoryUpdate(List.of(10L, 11L), null, 5);
+		Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+		outcomes.put(10L, BulkOutcome.UPDATED);
+		outcomes.put(11L, BulkOutcome.NOT_FOUND);
+		when(userStoryService.updateUserStories(update)).thenReturn(outcomes);
+
+		// Act & Assert
+		mockMvc.perform(patch("/user-stories/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(update)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.10", is("UPDATED")))
+				.andExpect(jsonPath("$.11", is("NOT_FOUND")));
+	}
+
+	@Test
+	void updateUserStories_shouldReturnBadRequest_whenNothingToUpdate() throws Exception {
+		// Arrange
+		when(userStoryService.updateUserStories(any(BulkUserStoryUpdate.class)))
+				.thenThrow(new IllegalArgumentException("Nothing to update"));
+
+		// Act & Assert
+		mockMvc.perform(patch("/user-stories/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[10]}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void deleteUserStories_shouldReturnOutcomePerId() throws Exception {
+		// Arrange
+		when(userStoryService.deleteUserStories(List.of(10L))).thenReturn(Map.of(10L, BulkOutcome.DELETED));
+
+		// Act & Assert
+		mockMvc.perform(delete("/user-stories/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[10]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.10", is("DELETED")));
+
+		verify(userStoryService, never()).deleteUserStory(anyLong());
+	}
+}
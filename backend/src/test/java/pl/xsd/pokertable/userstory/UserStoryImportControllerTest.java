@@ -0,0 +1,92 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TooManyImportsException;
+
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserStoryImportController.class)
+class UserStoryImportControllerTest {
+
+	private final MockMultipartFile file = new MockMultipartFile("file", "jira.csv", "text/csv", "Summary\nLogin\n".getBytes());
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private UserStoryImportService userStoryImportService;
+
+	@Test
+	void startImport_returns202WithTheJobLocation() throws Exception {
+		// Arrange
+		when(userStoryImportService.startImport(eq(1L), any())).thenReturn(new ImportJob("job-1", 1L, Path.of("import.csv"), 1));
+
+		// Act & Assert
+		mockMvc.perform(multipart("/tables/{tableId}/imports", 1L).file(file))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/imports/job-1"))
+				.andExpect(jsonPath("$.status").value("QUEUED"))
+				.andExpect(jsonPath("$.totalStories").value(1))
+				.andExpect(jsonPath("$.file").doesNotExist());
+	}
+
+	@Test
+	void startImport_invalidRow_returns400WithTheRow() throws Exception {
+		// Arrange
+		when(userStoryImportService.startImport(eq(1L), any())).thenThrow(new IllegalArgumentException("Row 2: Summary is empty"));
+
+		// Act & Assert
+		mockMvc.perform(multipart("/tables/{tableId}/imports", 1L).file(file))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Row 2: Summary is empty"));
+	}
+
+	@Test
+	void startImport_queueFull_returns503() throws Exception {
+		// Arrange
+		when(userStoryImportService.startImport(eq(1L), any())).thenThrow(new TooManyImportsException());
+
+		// Act & Assert
+		mockMvc.perform(multipart("/tables/{tableId}/imports", 1L).file(file))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().exists("Retry-After"));
+	}
+
+	@Test
+	void getImport_returnsProgress() throws Exception {
+		// Arrange
+		ImportJob job = new ImportJob("job-1", 1L, Path.of("import.csv"), 3000);
+		job.start();
+		job.addStoriesImported(1000);
+		when(userStoryImportService.getJob("job-1")).thenReturn(job);
+
+		// Act & Assert
+		mockMvc.perform(get("/imports/{jobId}", "job-1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("RUNNING"))
+				.andExpect(jsonPath("$.storiesImported").value(1000));
+	}
+
+	@Test
+	void getImport_unknownJob_returns404() throws Exception {
+		// Arrange
+		when(userStoryImportService.getJob("missing")).thenThrow(new NotFoundException("Import not found with ID: missing"));
+
+		// Act & Assert
+		mockMvc.perform(get("/imports/{jobId}", "missing"))
+				.andExpect(status().isNotFound());
+	}
+}
@@ -0,0 +1,209 @@
+package pl.xsd.pokertable.userstory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
+import pl.xsd.pokertable.pokertable.PokerTable;
+import pl.xsd.pokertable.pokertable.PokerTableRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStoryImportServiceTest {
+
+	private static final String CSV = """
+			Summary,Description,Issue Type,Story point estimate
+			"Login","Sign in with ""email""\",Story,5
+			Logout,,Story,
+
+			Profile,"Line 1
+			Line 2",Story,3.0
+			""";
+
+	@Mock
+	private PokerTableRepository pokerTableRepository;
+
+	@Mock
+	private UserStoryRepository userStoryRepository;
+
+	@Mock
+	private UserStoryImportWriter userStoryImportWriter;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@TempDir
+	Path directory;
+
+	private UserStoryImportService userStoryImportService;
+
+	@BeforeEach
+	void setUp() {
+		userStoryImportService = new UserStoryImportService(pokerTableRepository, userStoryRepository, userStoryImportWriter,
+				eventPublisher, directory, 10, 2, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		userStoryImportService.shutdown();
+	}
+
+	@Test
+	void startImport_shouldInsertTheStoriesInBatchesAfterTheBacklog() throws Exception {
+		// Arrange
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(new PokerTable(1L, "Sprint 1", false)));
+		when(userStoryRepository.findLastRankByPokerTableId(1L)).thenReturn("i");
+		List<List<UserStory>> batches = recordBatches();
+
+		// Act
+		ImportJob job = userStoryImportService.startImport(1L, upload(CSV));
+
+		// Assert
+		assertEquals(3, job.getTotalStories());
+		awaitFinished(job);
+		assertEquals(ImportJob.Status.DONE, job.getStatus());
+		assertEquals(3, job.getStoriesImported());
+		assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+
+		List<UserStory> stories = batches.stream().flatMap(List::stream).toList();
+		assertEquals(List.of("Login", "Logout", "Profile"), stories.stream().map(UserStory::getTitle).toList());
+		assertEquals("Sign in with \"email\"", stories.get(0).getDescription());
+		assertNull(stories.get(1).getDescription());
+		assertEquals("Line 1\nLine 2", stories.get(2).getDescription());
+		assertEquals(5, stories.get(0).getEstimatedPoints());
+		assertNull(stories.get(1).getEstimatedPoints());
+		assertEquals(3, stories.get(2).getEstimatedPoints());
+		for (int i = 0; i < stories.size(); i++) {
+			assertTrue(stories.get(i).getRank().compareTo("i") > 0);
+			assertTrue(i == 0 || stories.get(i - 1).getRank().compareTo(stories.get(i).getRank()) < 0);
+		}
+		assertFileDeleted();
+		verify(eventPublisher, never()).publishEvent(any(RankRebalanceEvent.class));
+	}
+
+	@Test
+	void startImport_shouldThrowWithTheRow_whenASummaryIsMissing() throws IOException {
+		// Arrange
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(new PokerTable(1L, "Sprint 1", false)));
+
+		// Act & Assert
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+				() -> userStoryImportService.startImport(1L, upload("Summary,Story point estimate\nLogin,5\n ,3\n")));
+		assertEquals("Row 3: Summary is empty", exception.getMessage());
+		assertFileDeleted();
+		verifyNoInteractions(userStoryImportWriter);
+	}
+
+	@Test
+	void startImport_shouldThrow_whenPointsAreNotANumber() {
+		// Arrange
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(new PokerTable(1L, "Sprint 1", false)));
+
+		// Act & Assert
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+				() -> userStoryImportService.startImport(1L, upload("Story point estimate,Summary\nL,Login\n")));
+		assertEquals("Row 2: 'L' is not a whole number", exception.getMessage());
+	}
+
+	@Test
+	void startImport_shouldThrow_whenThereIsNoSummaryColumn() {
+		// Arrange
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(new PokerTable(1L, "Sprint 1", false)));
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class,
+				() -> userStoryImportService.startImport(1L, upload("Title,Points\nLogin,5\n")));
+	}
+
+	@Test
+	void startImport_shouldThrow_whenTheTableIsClosed() {
+		// Arrange
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(new PokerTable(1L, "Sprint 1", true)));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class, () -> userStoryImportService.startImport(1L, upload(CSV)));
+	}
+
+	@Test
+	void run_shouldFailTheJobAndDeleteTheFile_whenABatchCannotBeInserted() throws IOException {
+		// Arrange
+		Path file = Files.writeString(directory.resolve("import.csv"), CSV);
+		ImportJob job = new ImportJob("job-1", 1L, file, 3);
+		doNothing().doThrow(new TableClosedException(1L)).when(userStoryImportWriter).insert(eq(1L), any());
+
+		// Act
+		userStoryImportService.run(job);
+
+		// Assert
+		assertEquals(ImportJob.Status.FAILED, job.getStatus());
+		assertEquals(2, job.getStoriesImported());
+		assertTrue(job.getError().startsWith("The import stopped after 2 stories"));
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void run_shouldRequestARebalance_whenTheRanksGetLong() throws IOException {
+		// Arrange
+		Path file = Files.writeString(directory.resolve("import.csv"), "Summary\nLogin\n");
+		ImportJob job = new ImportJob("job-1", 1L, file, 1);
+		when(userStoryRepository.findLastRankByPokerTableId(1L)).thenReturn("z".repeat(RankKeys.REBALANCE_LENGTH));
+
+		// Act
+		userStoryImportService.run(job);
+
+		// Assert
+		assertEquals(ImportJob.Status.DONE, job.getStatus());
+		verify(eventPublisher).publishEvent(new RankRebalanceEvent(1L));
+	}
+
+	@Test
+	void getJob_shouldThrow_whenTheJobIsUnknown() {
+		assertThrows(NotFoundException.class, () -> userStoryImportService.getJob("missing"));
+	}
+
+	private List<List<UserStory>> recordBatches() {
+		List<List<UserStory>> batches = new ArrayList<>();
+		doAnswer(invocation -> {
+			// The service reuses the list for the next batch
+			batches.add(List.copyOf(invocation.<List<UserStory>>getArgument(1)));
+			return null;
+		}).when(userStoryImportWriter).insert(eq(1L), any());
+		return batches;
+	}
+
+	private static MockMultipartFile upload(String csv) {
+		return new MockMultipartFile("file", "jira.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void awaitFinished(ImportJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(10);
+		}
+	}
+
+	private void assertFileDeleted() throws IOException {
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
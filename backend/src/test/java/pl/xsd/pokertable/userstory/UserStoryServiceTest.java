@@ -6,13 +6,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import pl.xsd.pokertable.exception.NotFoundException;
+import pl.xsd.pokertable.exception.TableClosedException;
 import pl.xsd.pokertable.pokertable.PokerTable;
 import pl.xsd.pokertable.pokertable.PokerTableRepository;
+import pl.xsd.pokertable.search.EstimateSuggestion;
+import pl.xsd.pokertable.search.SimilarStory;
+import pl.xsd.pokertable.search.StorySearchIndex;
+import pl.xsd.pokertable.search.StorySimilarityIndex;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +38,21 @@ class UserStoryServiceTest {
 	@Mock
 	private PokerTableRepository pokerTableRepository;
 
+	@Mock
+	private StorySearchIndex storySearchIndex;
+
+	@Mock
+	private StorySimilarityIndex storySimilarityIndex;
+
+	@Mock
+	private UserStoryBulkWriter userStoryBulkWriter;
+
+	@Mock
+	private StoryVoteRepository storyVoteRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@InjectMocks
 	private UserStoryService userStoryService;
 
@@ -83,6 +110,18 @@ class UserStoryServiceTest {
 		verify(userStoryRepository, never()).save(any(UserStory.class));
 	}
 
+	@Test
+	void createUserStory_shouldThrowTableClosedException_whenPokerTableIsClosed() {
+		// Arrange
+		pokerTable.setIsClosed(true);
+		when(pokerTableRepository.findById(pokerTable.getId())).thenReturn(Optional.of(pokerTable));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class,
+				() -> userStoryService.createUserStory(pokerTable.getId(), new UserStory("New Story", "Details")));
+		verify(userStoryRepository, never()).save(any(UserStory.class));
+	}
+
 	@Test
 	void getUserStoryById_shouldReturnUserStory_whenStoryExists() {
 		// Arrange
@@ -194,31 +233,421 @@ class UserStoryServiceTest {
 	}
 
 	@Test
-	void deleteUserStory_shouldCallDeleteById_whenStoryExists() {
+	void deleteUserStory_shouldDeleteStory_whenStoryExists() {
 		// Arrange
 		Long storyId = userStory.getId();
-		when(userStoryRepository.existsById(storyId)).thenReturn(true);
-		doNothing().when(userStoryRepository).deleteById(storyId);
+		when(userStoryRepository.findById(storyId)).thenReturn(Optional.of(userStory));
 
 		// Act
 		userStoryService.deleteUserStory(storyId);
 
 		// Assert
-		verify(userStoryRepository).existsById(storyId);
-		verify(userStoryRepository).deleteById(storyId);
+		verify(userStoryRepository).findById(storyId);
+		verify(storyVoteRepository).deleteByStoryIds(List.of(storyId));
+		verify(userStoryRepository).delete(userStory);
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(StoryDocument.of(userStory), null));
+	}
+
+	@Test
+	void deleteUserStory_shouldThrowTableClosedException_whenPokerTableIsClosed() {
+		// Arrange
+		pokerTable.setIsClosed(true);
+		when(userStoryRepository.findById(userStory.getId())).thenReturn(Optional.of(userStory));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class, () -> userStoryService.deleteUserStory(userStory.getId()));
+		verifyNoInteractions(storyVoteRepository);
+		verify(userStoryRepository, never()).delete(any(UserStory.class));
+		verifyNoInteractions(eventPublisher);
 	}
 
 	@Test
 	void deleteUserStory_shouldThrowNotFoundException_whenStoryDoesNotExist() {
 		// Arrange
 		Long nonExistentStoryId = 99L;
-		when(userStoryRepository.existsById(nonExistentStoryId)).thenReturn(false);
+		when(userStoryRepository.findById(nonExistentStoryId)).thenReturn(Optional.empty());
 
 		// Act & Assert
 		NotFoundException exception = assertThrows(NotFoundException.class,
 				() -> userStoryService.deleteUserStory(nonExistentStoryId));
 		assertEquals("User story not found with ID: " + nonExistentStoryId, exception.getMessage());
-		verify(userStoryRepository).existsById(nonExistentStoryId);
-		verify(userStoryRepository, never()).deleteById(anyLong());
+		verify(userStoryRepository).findById(nonExistentStoryId);
+		verify(userStoryRepository, never()).delete(any(UserStory.class));
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	void updateUserStory_shouldPublishPreviousAndNewText() {
+		// Arrange
+		UserStory updatedDetails = new UserStory("Updated Title", "Updated Description");
+		StoryDocument before = StoryDocument.of(userStory);
+
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.save(userStory)).thenReturn(userStory);
+
+		// Act
+		userStoryService.updateUserStory(10L, updatedDetails);
+
+		// Verify
+		verify(eventPublisher).publishEvent(new UserStoryChangedEvent(before,
+				new StoryDocument(10L, "Updated Title", "Updated Description", null, 1L)));
+	}
+
+	@Test
+	void searchUserStories_shouldReturnStoriesInIndexOrder_skippingDeletedOnes() {
+		// Arrange
+		UserStory other = new UserStory("Login page", "...");
+		other.setId(11L);
+
+		when(storySearchIndex.search("login", 20)).thenReturn(List.of(11L, 12L, 10L));
+		when(userStoryRepository.findAllById(List.of(11L, 12L, 10L))).thenReturn(List.of(userStory, other));
+
+		// Act
+		List<UserStory> result = userStoryService.searchUserStories("login", 20);
+
+		// Assert
+		assertEquals(List.of(other, userStory), result);
+	}
+
+	@Test
+	void searchUserStories_shouldRejectBlankQueryAndLimitOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.searchUserStories(" ", 20));
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.searchUserStories("login", 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> userStoryService.searchUserStories("login", UserStoryService.MAX_SEARCH_RESULTS + 1));
+
+		verifyNoInteractions(storySearchIndex);
+	}
+
+	@Test
+	void suggestEstimate_shouldMatchStoryTextAgainstSimilarityIndex() {
+		// Arrange
+		List<SimilarStory> similar = List.of(new SimilarStory(3L, 8, 0.75), new SimilarStory(4L, 5, 0.5));
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(storySimilarityIndex.findSimilar(StoryDocument.of(userStory), 5)).thenReturn(similar);
+
+		// Act
+		EstimateSuggestion suggestion = userStoryService.suggestEstimate(10L, 5);
+
+		// Assert
+		assertEquals(8, suggestion.suggestedPoints());
+		assertEquals(similar, suggestion.similarStories());
+	}
+
+	@Test
+	void suggestEstimate_shouldRejectLimitOutOfRange() {
+		assertThrows(IllegalArgumentException.class,
+				() -> userStoryService.suggestEstimate(10L, UserStoryService.MAX_SIMILAR_STORIES + 1));
+
+		verifyNoInteractions(storySimilarityIndex);
+	}
+
+	@Test
+	void createUserStory_shouldAttachDuplicateCandidates() {
+		// Arrange
+		UserStory newUserStory = new UserStory(11L, "As a user, I want...", "...", null, null);
+		List<SimilarStory> duplicates = List.of(new SimilarStory(10L, 5, 0.9));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(pokerTable));
+		when(userStoryRepository.save(newUserStory)).thenReturn(newUserStory);
+		when(storySimilarityIndex.findDuplicates(new StoryDocument(11L, "As a user, I want...", "...", null, 1L)))
+				.thenReturn(duplicates);
+
+		// Act
+		UserStory createdStory = userStoryService.createUserStory(1L, newUserStory);
+
+		// Assert
+		assertEquals(duplicates, createdStory.getDuplicateCandidates());
+	}
+
+	@Test
+	void createUserStories_shouldSaveBatchAndAttachDuplicatesPerStory() {
+		// Arrange
+		UserStory first = new UserStory(11L, "Login", "...", null, null);
+		UserStory second = new UserStory(12L, "Login", "...", null, null);
+		List<SimilarStory> secondDuplicates = List.of(new SimilarStory(11L, null, 1.0));
+
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(pokerTable));
+		when(userStoryRepository.saveAll(List.of(first, second))).thenReturn(List.of(first, second));
+		when(storySimilarityIndex.findDuplicates(anyList())).thenReturn(List.of(List.of(), secondDuplicates));
+
+		// Act
+		List<UserStory> created = userStoryService.createUserStories(1L, List.of(first, second));
+
+		// Assert
+		assertEquals(pokerTable, created.get(0).getPokerTable());
+		assertTrue(created.get(0).getDuplicateCandidates().isEmpty());
+		assertEquals(secondDuplicates, created.get(1).getDuplicateCandidates());
+		verify(eventPublisher, times(2)).publishEvent(any(UserStoryChangedEvent.class));
+	}
+
+	@Test
+	void createUserStories_shouldRejectEmptyBatch() {
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.createUserStories(1L, List.of()));
+
+		verify(userStoryRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	void getDuplicateClusters_shouldThrowNotFoundException_whenPokerTableDoesNotExist() {
+		// Arrange
+		when(pokerTableRepository.existsById(99L)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(NotFoundException.class, () -> userStoryService.getDuplicateClusters(99L));
+		verifyNoInteractions(storySimilarityIndex);
+	}
+
+	@Test
+	void getUserStoriesPage_shouldReturnCursorOfLastItem_whenMoreRowsExist() {
+		// Arrange
+		UserStory second = new UserStory(11L, "Second", "...", null, pokerTable);
+		UserStory third = new UserStory(12L, "Third", "...", null, pokerTable);
+		when(userStoryRepository.findPageByPokerTableIdAfter(1L, 0L, Limit.of(3)))
+				.thenReturn(List.of(userStory, second, third));
+
+		// Act
+		KeysetPage<UserStory> page = userStoryService.getUserStoriesPage(1L, null, 2);
+
+		// Assert
+		assertEquals(List.of(userStory, second), page.items());
+		assertEquals(11L, page.nextAfter());
+	}
+
+	@Test
+	void getUserStorySummariesPage_shouldHaveNoCursor_onLastPage() {
+		// Arrange
+		List<UserStorySummary> rows = List.of(new UserStorySummary(11L, "Second", null));
+		when(userStoryRepository.findSummariesByPokerTableIdAfter(1L, 10L, Limit.of(3))).thenReturn(rows);
+
+		// Act
+		KeysetPage<UserStorySummary> page = userStoryService.getUserStorySummariesPage(1L, 10L, 2);
+
+		// Assert
+		assertEquals(rows, page.items());
+		assertNull(page.nextAfter());
+	}
+
+	@Test
+	void getUserStoriesPage_shouldRejectLimitOutOfRange() {
+		assertThrows(IllegalArgumentException.class,
+				() -> userStoryService.getUserStoriesPage(1L, null, UserStoryService.MAX_PAGE_SIZE + 1));
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.getUserStorySummariesPage(1L, null, 0));
+
+		verifyNoInteractions(userStoryRepository);
+	}
+
+	@Test
+	void createUserStories_shouldRankStoriesAfterTheBacklogInOrder() {
+		// Arrange
+		List<UserStory> batch = List.of(new UserStory("First", "..."), new UserStory("Second", "..."));
+		when(pokerTableRepository.findById(1L)).thenReturn(Optional.of(pokerTable));
+		when(userStoryRepository.findLastRankByPokerTableId(1L)).thenReturn("k");
+		when(userStoryRepository.saveAll(batch)).thenReturn(batch);
+		when(storySimilarityIndex.findDuplicates(anyList())).thenReturn(List.of(List.of(), List.of()));
+
+		// Act
+		userStoryService.createUserStories(1L, batch);
+
+		// Assert
+		assertTrue("k".compareTo(batch.get(0).getRank()) < 0);
+		assertTrue(batch.get(0).getRank().compareTo(batch.get(1).getRank()) < 0);
+	}
+
+	@Test
+	void moveUserStory_shouldRankStoryBetweenTheStoryBeforeAndItsSuccessor() {
+		// Arrange
+		UserStory after = new UserStory(11L, "After", "...", null, pokerTable);
+		after.setRank("c");
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.findById(11L)).thenReturn(Optional.of(after));
+		when(userStoryRepository.findRankAfter(1L, "c", 10L)).thenReturn("d");
+		when(userStoryRepository.save(userStory)).thenReturn(userStory);
+
+		// Act
+		UserStory moved = userStoryService.moveUserStory(10L, 11L);
+
+		// Assert
+		assertTrue("c".compareTo(moved.getRank()) < 0);
+		assertTrue(moved.getRank().compareTo("d") < 0);
+		verify(userStoryRepository, times(1)).save(any(UserStory.class));
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	void moveUserStory_withoutStoryBefore_shouldMoveStoryToTheTop() {
+		// Arrange
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.findRankAfter(1L, "", 10L)).thenReturn("5");
+		when(userStoryRepository.save(userStory)).thenReturn(userStory);
+
+		// Act
+		UserStory moved = userStoryService.moveUserStory(10L, null);
+
+		// Assert
+		assertTrue(moved.getRank().compareTo("5") < 0);
+	}
+
+	@Test
+	void moveUserStory_shouldRequestRebalance_whenRankGetsTooLong() {
+		// Arrange
+		String lower = "i".repeat(RankKeys.REBALANCE_LENGTH);
+		UserStory after = new UserStory(11L, "After", "...", null, pokerTable);
+		after.setRank(lower);
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.findById(11L)).thenReturn(Optional.of(after));
+		when(userStoryRepository.findRankAfter(1L, lower, 10L)).thenReturn(lower + "1");
+		when(userStoryRepository.save(userStory)).thenReturn(userStory);
+
+		// Act
+		userStoryService.moveUserStory(10L, 11L);
+
+		// Assert
+		verify(eventPublisher).publishEvent(new RankRebalanceEvent(1L));
+	}
+
+	@Test
+	void moveUserStory_shouldRebalanceFirst_whenRankWouldOverflowTheColumn() {
+		// Arrange
+		String lower = "i".repeat(RankKeys.MAX_LENGTH);
+		UserStory after = new UserStory(11L, "After", "...", null, pokerTable);
+		after.setRank(lower);
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.findById(11L)).thenReturn(Optional.of(after));
+		when(userStoryRepository.findRankAfter(1L, lower, 10L)).thenReturn(lower + "1");
+		when(userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(1L)).thenReturn(List.of(after, userStory));
+		when(userStoryRepository.findRankAfter(1L, "c", 10L)).thenReturn("o");
+		when(userStoryRepository.save(userStory)).thenReturn(userStory);
+
+		// Act
+		UserStory moved = userStoryService.moveUserStory(10L, 11L);
+
+		// Assert
+		assertEquals("c", after.getRank());
+		assertTrue("c".compareTo(moved.getRank()) < 0);
+		assertTrue(moved.getRank().compareTo("o") < 0);
+	}
+
+	@Test
+	void moveUserStory_shouldRejectStoryOfAnotherTable() {
+		// Arrange
+		PokerTable otherTable = new PokerTable();
+		otherTable.setId(2L);
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+		when(userStoryRepository.findById(11L)).thenReturn(Optional.of(new UserStory(11L, "Other", "...", null, otherTable)));
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.moveUserStory(10L, 11L));
+		verify(userStoryRepository, never()).save(any(UserStory.class));
+	}
+
+	@Test
+	void moveUserStory_shouldRejectMovingStoryAfterItself() {
+		// Arrange
+		when(userStoryRepository.findById(10L)).thenReturn(Optional.of(userStory));
+
+		// Act & Assert
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.moveUserStory(10L, 10L));
+	}
+
+	@Test
+	void rebalanceRanks_shouldKeepBacklogOrderWithShortKeys() {
+		// Arrange
+		UserStory first = new UserStory(11L, "First", "...", null, pokerTable);
+		first.setRank("a".repeat(30) + "1");
+		UserStory second = new UserStory(12L, "Second", "...", null, pokerTable);
+		second.setRank("a".repeat(30) + "2");
+		when(userStoryRepository.findByPokerTableIdOrderByRankAscIdAsc(1L)).thenReturn(List.of(first, second));
+
+		// Act
+		userStoryService.rebalanceRanks(1L);
+
+		// Assert
+		assertEquals(1, first.getRank().length());
+		assertTrue(first.getRank().compareTo(second.getRank()) < 0);
+	}
+
+	@Test
+	void getNextStoryToEstimate_shouldThrowNotFoundException_whenPokerTableDoesNotExist() {
+		// Arrange
+		when(pokerTableRepository.existsById(99L)).thenReturn(false);
+
+		// Act & Assert
+		assertThrows(NotFoundException.class, () -> userStoryService.getNextStoryToEstimate(99L));
+		verifyNoInteractions(userStoryRepository);
+	}
+
+	@Test
+	void updateUserStories_shouldSplitIdsIntoChunksAndKeepRequestOrder() {
+		// Arrange
+		List<Long> ids = new ArrayList<>();
+		for (long id = 250; id > 0; id--) {
+			ids.add(id);
+		}
+		BulkUserStoryUpdate update = new BulkUserStoryUpdate(ids, null, 3);
+		when(userStoryBulkWriter.update(anyList(), eq(update))).thenAnswer(invocation -> {
+			List<Long> chunk = invocation.getArgument(0);
+			Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+			chunk.forEach(id -> outcomes.put(id, BulkOutcome.UPDATED));
+			return outcomes;
+		});
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryService.updateUserStories(update);
+
+		// Assert
+		verify(userStoryBulkWriter, times(3)).update(anyList(), eq(update));
+		assertEquals(ids, List.copyOf(outcomes.keySet()));
+	}
+
+	@Test
+	void updateUserStories_shouldRejectUpdateWithoutChanges() {
+		assertThrows(IllegalArgumentException.class,
+				() -> userStoryService.updateUserStories(new BulkUserStoryUpdate(List.of(1L), null, null)));
+		verifyNoInteractions(userStoryBulkWriter);
+	}
+
+	@Test
+	void updateUserStories_shouldThrowNotFoundException_whenTargetTableDoesNotExist() {
+		// Arrange
+		when(pokerTableRepository.findById(99L)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertThrows(NotFoundException.class,
+				() -> userStoryService.updateUserStories(new BulkUserStoryUpdate(List.of(1L), 99L, null)));
+		verifyNoInteractions(userStoryBulkWriter);
+	}
+
+	@Test
+	void updateUserStories_shouldThrowTableClosedException_whenTargetTableIsClosed() {
+		// Arrange
+		when(pokerTableRepository.findById(99L)).thenReturn(Optional.of(new PokerTable(99L, "Closed", true)));
+
+		// Act & Assert
+		assertThrows(TableClosedException.class,
+				() -> userStoryService.updateUserStories(new BulkUserStoryUpdate(List.of(1L), 99L, null)));
+		verifyNoInteractions(userStoryBulkWriter);
+	}
+
+	@Test
+	void deleteUserStories_shouldDeleteEachIdOnce() {
+		// Arrange
+		when(userStoryBulkWriter.delete(List.of(1L, 2L))).thenReturn(Map.of(1L, BulkOutcome.DELETED, 2L, BulkOutcome.NOT_FOUND));
+
+		// Act
+		Map<Long, BulkOutcome> outcomes = userStoryService.deleteUserStories(List.of(1L, 2L, 1L));
+
+		// Assert
+		assertEquals(BulkOutcome.DELETED, outcomes.get(1L));
+		assertEquals(BulkOutcome.NOT_FOUND, outcomes.get(2L));
+	}
+
+	@Test
+	void deleteUserStories_shouldRejectEmptyAndOversizedRequests() {
+		List<Long> tooMany = LongStream.rangeClosed(1, UserStoryService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.deleteUserStories(List.of()));
+		assertThrows(IllegalArgumentException.class, () -> userStoryService.deleteUserStories(tooMany));
+		verifyNoInteractions(userStoryBulkWriter);
 	}
-}
\ No newline at end of file
+}
@@ -9,6 +9,7 @@ import { UserStoryList } from '../components/UserStoryList';
 import {
   joinTable,
   getDevelopers,
+  sendHeartbeat,
   getTableById,
   createTable,
   getUserStoriesByTableId,
@@ -140,6 +141,19 @@ export const HomePage = () => {
   }, [developer, table]);
 
 
+  useEffect(() => {
+    if (!developer?.id || !table?.id) {
+      return;
+    }
+
+    const beat = () => sendHeartbeat(developer.id, table.id).catch(err => console.error("Heartbeat failed:", err));
+    beat();
+    const interval = setInterval(beat, 10000);
+
+    return () => clearInterval(interval);
+  }, [developer, table]);
+
+
   useEffect(() => {
     const fetchUserStories = async () => {
       if (table?.id) {
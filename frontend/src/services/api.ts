@@ -18,6 +18,10 @@ export const vote = async (developerId: number, tableId: number, value: number)
     await axios.patch(`${API_URL}/developers/${developerId}/vote?tableId=${tableId}&vote=${value}`);
 };
 
+export const sendHeartbeat = async (developerId: number, tableId: number) => {
+    await axios.post(`${API_URL}/developers/${developerId}/heartbeat?tableId=${tableId}`);
+};
+
 export const getDevelopers = async (tableId: number) => {
     const response = await axios.get(`${API_URL}/developers/poker-table/${tableId}`, {
         withCredentials: true